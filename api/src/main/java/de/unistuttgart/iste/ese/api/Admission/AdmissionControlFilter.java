@@ -0,0 +1,232 @@
+package de.unistuttgart.iste.ese.api.Admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Protects the database from single clients and from floods of expensive requests.
+ *
+ * Every API request needs tokens from the token bucket of its client: one token for a cheap request,
+ * api.admission.expensive-cost tokens for an expensive one (exports, imports, bulk deletes and unpaged lists, see
+ * api.admission.expensive). The request then needs a permit of its class. Expensive and cheap requests have separate
+ * concurrency limits, so expensive requests can never hold all connections of the pool. A request without a permit
+ * waits in a bounded queue for at most api.admission.queue-timeout-ms. The tokens are only taken once the request is
+ * admitted, so shed requests do not count against the rate limit of their client.
+ *
+ * Requests that are rate-limited or shed are answered with 429 and a Retry-After header. Requests outside the API
+ * (e.g. the actuator health probes) are not limited.
+ */
+@Component
+@ConditionalOnProperty(name = "api.admission.enabled", matchIfMissing = true)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final Log LOG = LogFactory.getLog(AdmissionControlFilter.class);
+
+    private static final String API_PREFIX = "/api/v1";
+
+    private static final String CHEAP = "cheap";
+
+    private static final String EXPENSIVE = "expensive";
+
+    // "METHOD /path" -> the expensive request patterns with that method and path
+    private final Map<String, List<RequestPattern>> expensiveRequests;
+
+    private final double ratePerSecond;
+
+    private final double burst;
+
+    private final double expensiveCost;
+
+    private final long queueTimeoutMs;
+
+    private final boolean trustForwardedFor;
+
+    private final ConcurrencyLimit cheapLimit;
+
+    private final ConcurrencyLimit expensiveLimit;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Creates a new AdmissionControlFilter.
+     *
+     * @param meterRegistry        The registry to publish the admission metrics to
+     * @param expensiveRequests    The expensive requests as "METHOD /path" within the API with optional query
+     *                             parameter conditions, e.g. "GET /todos?!ids"
+     * @param ratePerSecond        The tokens a client gets per second
+     * @param burst                The maximum number of tokens a client can save up
+     * @param expensiveCost        The tokens an expensive request takes, between 1 and burst
+     * @param cheapConcurrency     The maximum number of cheap requests running at the same time
+     * @param expensiveConcurrency The maximum number of expensive requests running at the same time
+     * @param cheapQueueSize       The maximum number of cheap requests waiting for a permit
+     * @param expensiveQueueSize   The maximum number of expensive requests waiting for a permit
+     * @param queueTimeoutMs       The maximum time a request waits for a permit
+     * @param trustForwardedFor    Whether clients are identified by the first address of X-Forwarded-For, which is
+     *                             only safe behind a proxy that sets it
+     * @throws IllegalArgumentException if the expensive cost could never be paid or a request pattern is invalid
+     */
+    public AdmissionControlFilter(MeterRegistry meterRegistry,
+                                  @Value("${api.admission.expensive:GET /todos?!ids,DELETE /todos,GET /csv-downloads/todos,GET /csv-downloads/todos/archive,POST /csv-uploads/todos}") List<String> expensiveRequests,
+                                  @Value("${api.admission.rate-per-second:50}") double ratePerSecond,
+                                  @Value("${api.admission.burst:100}") double burst,
+                                  @Value("${api.admission.expensive-cost:10}") double expensiveCost,
+                                  @Value("${api.admission.cheap-concurrency:16}") int cheapConcurrency,
+                                  @Value("${api.admission.expensive-concurrency:2}") int expensiveConcurrency,
+                                  @Value("${api.admission.cheap-queue-size:100}") int cheapQueueSize,
+                                  @Value("${api.admission.expensive-queue-size:4}") int expensiveQueueSize,
+                                  @Value("${api.admission.queue-timeout-ms:1000}") long queueTimeoutMs,
+                                  @Value("${api.admission.trust-forwarded-for:false}") boolean trustForwardedFor) {
+        // a bucket never holds more than burst tokens, so a higher cost would reject every expensive request
+        if (expensiveCost < 1 || expensiveCost > burst) {
+            throw new IllegalArgumentException("api.admission.expensive-cost must be between 1 and "
+                + "api.admission.burst (" + burst + "), but is " + expensiveCost);
+        }
+        this.meterRegistry = meterRegistry;
+        this.expensiveRequests = expensiveRequests.stream()
+            .map(RequestPattern::parse)
+            .collect(Collectors.groupingBy(RequestPattern::getKey));
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.expensiveCost = expensiveCost;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.trustForwardedFor = trustForwardedFor;
+        this.cheapLimit = new ConcurrencyLimit(cheapConcurrency, cheapQueueSize);
+        this.expensiveLimit = new ConcurrencyLimit(expensiveConcurrency, expensiveQueueSize);
+        registerGauges(CHEAP, cheapLimit);
+        registerGauges(EXPENSIVE, expensiveLimit);
+        Gauge.builder("api.admission.clients", buckets, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Admits, queues or rejects an API request.
+     *
+     * @param request     The request
+     * @param response    The response
+     * @param filterChain The remaining filters
+     * @throws ServletException if a later filter or the handler fails
+     * @throws IOException      if a later filter or the handler fails or the rejection cannot be sent
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith(API_PREFIX + "/")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean expensive = isExpensive(request, path.substring(API_PREFIX.length()));
+        String requestClass = expensive ? EXPENSIVE : CHEAP;
+        double cost = expensive ? expensiveCost : 1;
+
+        // checked before queueing, so rate-limited clients do not take queue slots, but paid only once admitted
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(clientOf(request),
+            client -> new TokenBucket(burst, ratePerSecond, now));
+        long waitNanos = bucket.waitNanos(cost, now);
+        if (waitNanos > 0) {
+            rejectRateLimited(response, requestClass, waitNanos);
+            return;
+        }
+
+        ConcurrencyLimit limit = expensive ? expensiveLimit : cheapLimit;
+        boolean admitted;
+        try {
+            admitted = limit.acquire(queueTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            reject(response, requestClass, "shed", Math.max(1, TimeUnit.MILLISECONDS.toSeconds(queueTimeoutMs)));
+            return;
+        }
+        // concurrent requests of the same client may have taken the tokens while this one was queued
+        waitNanos = bucket.tryConsume(cost, System.nanoTime());
+        if (waitNanos > 0) {
+            limit.release();
+            rejectRateLimited(response, requestClass, waitNanos);
+            return;
+        }
+        counter(requestClass, "admitted").increment();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limit.release();
+        }
+    }
+
+    /**
+     * Drops the buckets of clients that have been idle long enough to fill them up again.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void dropIdleClients() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private boolean isExpensive(HttpServletRequest request, String path) {
+        List<RequestPattern> patterns = expensiveRequests.get(request.getMethod() + " " + path);
+        return patterns != null && patterns.stream().anyMatch(pattern -> pattern.matches(request.getQueryString()));
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int comma = forwardedFor.indexOf(',');
+                return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void rejectRateLimited(HttpServletResponse response, String requestClass, long waitNanos)
+        throws IOException {
+        reject(response, requestClass, "rate-limited", TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+    }
+
+    private void reject(HttpServletResponse response, String requestClass, String result, long retryAfterSeconds)
+        throws IOException {
+        counter(requestClass, result).increment();
+        LOG.debug("Rejected " + requestClass + " request (" + result + "), retry after " + retryAfterSeconds + " s");
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests");
+    }
+
+    private Counter counter(String requestClass, String result) {
+        return counters.computeIfAbsent(requestClass + result, key ->
+            meterRegistry.counter("api.admission.requests", "class", requestClass, "result", result));
+    }
+
+    private void registerGauges(String requestClass, ConcurrencyLimit limit) {
+        Gauge.builder("api.admission.active", limit, ConcurrencyLimit::getActive)
+            .tag("class", requestClass)
+            .register(meterRegistry);
+        Gauge.builder("api.admission.queued", limit, ConcurrencyLimit::getQueued)
+            .tag("class", requestClass)
+            .register(meterRegistry);
+    }
+}
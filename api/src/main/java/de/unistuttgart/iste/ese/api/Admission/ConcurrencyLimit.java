@@ -0,0 +1,74 @@
+package de.unistuttgart.iste.ese.api.Admission;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of requests of one class running at the same time, with a bounded queue in front.
+ */
+class ConcurrencyLimit {
+    private final int maxActive;
+
+    private final int maxQueued;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * Creates a new ConcurrencyLimit.
+     *
+     * @param maxActive The maximum number of requests running at the same time
+     * @param maxQueued The maximum number of requests waiting for a permit
+     */
+    ConcurrencyLimit(int maxActive, int maxQueued) {
+        this.maxActive = maxActive;
+        this.maxQueued = maxQueued;
+        this.permits = new Semaphore(maxActive, true);
+    }
+
+    /**
+     * Takes a permit, waiting in the queue if none is free and the queue is not full.
+     *
+     * @param timeoutMs The maximum time to wait in the queue
+     * @return true if a permit was taken and has to be released, false if the request is shed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean acquire(long timeoutMs) throws InterruptedException {
+        // the untimed tryAcquire would take permits ahead of the queue
+        if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Releases a permit taken by acquire.
+     */
+    void release() {
+        permits.release();
+    }
+
+    /**
+     * Gets the number of running requests.
+     *
+     * @return The number of taken permits
+     */
+    int getActive() { return maxActive - permits.availablePermits(); }
+
+    /**
+     * Gets the number of requests waiting for a permit.
+     *
+     * @return The queue depth
+     */
+    int getQueued() { return queued.get(); }
+}
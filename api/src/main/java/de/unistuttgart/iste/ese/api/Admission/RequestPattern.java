@@ -0,0 +1,97 @@
+package de.unistuttgart.iste.ese.api.Admission;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A request pattern of the admission configuration: "METHOD /path", optionally followed by query parameter
+ * conditions like the params of a request mapping, e.g. "GET /todos?!ids" for the list of all ToDos without the
+ * multi-get "GET /todos?ids=1,2". "name" requires the parameter, "!name" requires it to be absent, and several
+ * conditions are separated by "&".
+ */
+final class RequestPattern {
+    private final String method;
+
+    private final String path;
+
+    // parameter name -> true if it has to be present, false if it has to be absent
+    private final Map<String, Boolean> parameters;
+
+    private RequestPattern(String method, String path, Map<String, Boolean> parameters) {
+        this.method = method;
+        this.path = path;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Parses a pattern.
+     *
+     * @param pattern The pattern, e.g. "GET /todos?!ids"
+     * @return The parsed pattern
+     * @throws IllegalArgumentException if the pattern is not "METHOD /path" with optional conditions
+     */
+    static RequestPattern parse(String pattern) {
+        String[] methodAndPath = pattern.trim().split("\\s+");
+        if (methodAndPath.length != 2 || !methodAndPath[1].startsWith("/")) {
+            throw new IllegalArgumentException("Invalid request pattern \"" + pattern + "\", expected METHOD /path");
+        }
+        String path = methodAndPath[1];
+        Map<String, Boolean> parameters = new LinkedHashMap<>();
+        int question = path.indexOf('?');
+        if (question >= 0) {
+            for (String condition : path.substring(question + 1).split("&")) {
+                boolean absent = condition.startsWith("!");
+                String name = absent ? condition.substring(1) : condition;
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("Invalid parameter condition in request pattern \"" + pattern
+                        + "\"");
+                }
+                parameters.put(name, !absent);
+            }
+            path = path.substring(0, question);
+        }
+        return new RequestPattern(methodAndPath[0], path, parameters);
+    }
+
+    /**
+     * Gets the method and path this pattern applies to, without the conditions.
+     *
+     * @return "METHOD /path"
+     */
+    String getKey() { return method + " " + path; }
+
+    /**
+     * Checks the parameter conditions of this pattern for a request with its method and path.
+     *
+     * @param queryString The query string of the request, null if it has none
+     * @return true if all conditions hold
+     */
+    boolean matches(String queryString) {
+        if (parameters.isEmpty()) {
+            return true;
+        }
+        Set<String> names = parameterNames(queryString);
+        return parameters.entrySet().stream().allMatch(condition -> names.contains(condition.getKey())
+            == condition.getValue());
+    }
+
+    // only the query string is read, reading request parameters could consume a form body
+    private static Set<String> parameterNames(String queryString) {
+        Set<String> names = new HashSet<>();
+        if (queryString == null) {
+            return names;
+        }
+        for (String parameter : queryString.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = equals < 0 ? parameter : parameter.substring(0, equals);
+            if (!name.isEmpty()) {
+                names.add(URLDecoder.decode(name, StandardCharsets.UTF_8));
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,73 @@
+package de.unistuttgart.iste.ese.api.Admission;
+
+/**
+ * Token bucket of one client: holds up to burst tokens and refills at a fixed rate.
+ * Time is passed in by the caller, in nanoseconds of System.nanoTime. A cost above the capacity could never be paid,
+ * so callers have to reject such costs.
+ */
+class TokenBucket {
+    private final double capacity;
+
+    private final double tokensPerNano;
+
+    private double tokens;
+
+    private long refilledAt;
+
+    /**
+     * Creates a new, full TokenBucket.
+     *
+     * @param capacity        The maximum number of tokens
+     * @param tokensPerSecond The refill rate
+     * @param now             The current time
+     */
+    TokenBucket(double capacity, double tokensPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Checks whether the bucket holds enough tokens, without taking them.
+     *
+     * @param cost The number of tokens, at most the capacity
+     * @param now  The current time
+     * @return 0 if the bucket holds enough tokens, otherwise the nanoseconds until it does
+     */
+    synchronized long waitNanos(double cost, long now) {
+        refill(now);
+        return tokens >= cost ? 0 : (long) Math.ceil((cost - tokens) / tokensPerNano);
+    }
+
+    /**
+     * Takes tokens from the bucket if it holds enough of them.
+     *
+     * @param cost The number of tokens to take, at most the capacity
+     * @param now  The current time
+     * @return 0 if the tokens were taken, otherwise the nanoseconds until the bucket holds enough tokens
+     */
+    synchronized long tryConsume(double cost, long now) {
+        long waitNanos = waitNanos(cost, now);
+        if (waitNanos == 0) {
+            tokens -= cost;
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Checks whether the bucket is full again, so it can be dropped without losing state.
+     *
+     * @param now The current time
+     * @return true if the bucket holds its capacity
+     */
+    synchronized boolean isFull(long now) {
+        refill(now);
+        return tokens >= capacity;
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+}
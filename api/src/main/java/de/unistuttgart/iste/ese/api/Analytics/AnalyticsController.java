@@ -0,0 +1,44 @@
+package de.unistuttgart.iste.ese.api.Analytics;
+
+import de.unistuttgart.iste.ese.api.ApiVersion1;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller for ToDo analytics.
+ */
+@RestController
+@ApiVersion1
+public class AnalyticsController {
+
+    @Autowired
+    private LeadTimeAnalyticsService leadTimeAnalyticsService;
+
+    /**
+     * Retrieves lead-time percentiles (time from creation to completion, in milliseconds)
+     * overall, per category and per Assignee.
+     *
+     * @param quantiles The quantiles to compute, between 0 and 1
+     * @return ResponseEntity containing the lead-time report
+     */
+    @GetMapping("/todos/analytics/lead-time")
+    public ResponseEntity<LeadTimeReport> getLeadTimes(
+            @RequestParam(defaultValue = "0.5,0.9,0.99") List<Double> quantiles) {
+        return ResponseEntity.ok(leadTimeAnalyticsService.getReport(quantiles));
+    }
+
+    /**
+     * Handles IllegalArgumentException and returns a 400 status.
+     *
+     * @param ex The IllegalArgumentException that was thrown
+     * @return ResponseEntity with BAD_REQUEST status and error message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+}
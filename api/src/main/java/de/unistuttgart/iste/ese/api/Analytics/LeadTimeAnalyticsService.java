@@ -0,0 +1,193 @@
+package de.unistuttgart.iste.ese.api.Analytics;
+
+import de.unistuttgart.iste.ese.api.Invalidation.RemoteChangesEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshot;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshotScanner;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service computing lead-time percentiles of finished ToDos with streaming quantile sketches.
+ *
+ * Every ToDo is added to the sketches once, when its finished date is set. The sketches are built from
+ * the database in one streaming pass on startup and updated from ToDoChangedEvents afterwards. Writes of other nodes
+ * cause a rebuild.
+ * Lead times are history: deleting a finished ToDo or reopening it does not remove it from the sketches.
+ */
+@Service
+public class LeadTimeAnalyticsService {
+    private static final Log LOG = LogFactory.getLog(LeadTimeAnalyticsService.class);
+
+    private final double relativeAccuracy;
+
+    private final ToDoSnapshotScanner scanner;
+
+    private final Object rebuildLock = new Object();
+
+    private Sketches sketches;
+
+    // ToDos finished while a rebuild is running, added to the rebuilt sketches unless the pass counted them
+    private Map<Long, ToDoSnapshot> finishedDuringRebuild;
+
+    /**
+     * Creates a new LeadTimeAnalyticsService.
+     *
+     * @param scanner          The scanner used to build the sketches from the database
+     * @param relativeAccuracy The maximum relative error of the returned percentiles
+     */
+    public LeadTimeAnalyticsService(ToDoSnapshotScanner scanner,
+                                    @Value("${api.analytics.lead-time-accuracy:0.01}") double relativeAccuracy) {
+        this.scanner = scanner;
+        this.relativeAccuracy = relativeAccuracy;
+        this.sketches = new Sketches();
+    }
+
+    /**
+     * Builds the sketches from the database on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the sketches from all finished ToDos in one streaming pass.
+     *
+     * A ToDo finished during the pass may or may not be seen by it, so the pass keeps the IDs it counted and the
+     * ToDos finished meanwhile are added unless they are among them.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                finishedDuringRebuild = new HashMap<>();
+            }
+            Sketches rebuilt = new Sketches();
+            Set<Long> counted = new HashSet<>();
+            try {
+                scanner.scan(todo -> {
+                    if (todo.getFinishedDate() != null) {
+                        rebuilt.add(todo);
+                        counted.add(todo.getId());
+                    }
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    finishedDuringRebuild = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                finishedDuringRebuild.forEach((id, todo) -> {
+                    if (!counted.contains(id)) {
+                        rebuilt.add(todo);
+                    }
+                });
+                finishedDuringRebuild = null;
+                sketches = rebuilt;
+            }
+            LOG.info("Rebuilt lead-time sketches from " + rebuilt.overall.getCount() + " finished ToDos");
+        }
+    }
+
+    /**
+     * Adds a ToDo to the sketches once its finished date has been set.
+     *
+     * @param event The ToDo change that happened
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onToDoChanged(ToDoChangedEvent event) {
+        ToDoSnapshot current = event.getCurrent();
+        boolean wasFinished = event.getPrevious() != null && event.getPrevious().getFinishedDate() != null;
+        if (current != null && current.getFinishedDate() != null && !wasFinished) {
+            sketches.add(current);
+            if (finishedDuringRebuild != null) {
+                finishedDuringRebuild.put(current.getId(), current);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the sketches after changes of other nodes sharing the database, whose previous state is not known.
+     *
+     * @param event The changes of other nodes
+     */
+    @EventListener
+    public void onRemoteChanges(RemoteChangesEvent event) {
+        if (event.isRebuild()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Computes the requested lead-time percentiles.
+     *
+     * @param quantiles The quantiles between 0 and 1, e.g. 0.5 and 0.9
+     * @return The percentiles overall, per category and per Assignee
+     * @throws IllegalArgumentException if a quantile is out of range
+     */
+    public synchronized LeadTimeReport getReport(List<Double> quantiles) {
+        for (double quantile : quantiles) {
+            if (quantile < 0 || quantile > 1) {
+                throw new IllegalArgumentException("Quantiles must be between 0 and 1");
+            }
+        }
+        Map<String, LeadTimeSummary> byCategory = new HashMap<>();
+        sketches.byCategory.forEach((category, sketch) -> byCategory.put(category, summarize(sketch, quantiles)));
+        Map<Long, LeadTimeSummary> byAssignee = new HashMap<>();
+        sketches.byAssignee.forEach((assigneeId, sketch) -> byAssignee.put(assigneeId, summarize(sketch, quantiles)));
+        return new LeadTimeReport(summarize(sketches.overall, quantiles), byCategory, byAssignee);
+    }
+
+    private static LeadTimeSummary summarize(QuantileSketch sketch, List<Double> quantiles) {
+        Map<String, Long> percentiles = new LinkedHashMap<>();
+        if (sketch.getCount() > 0) {
+            for (double quantile : quantiles) {
+                percentiles.put(percentileName(quantile), Math.round(sketch.quantile(quantile)));
+            }
+        }
+        return new LeadTimeSummary(sketch.getCount(), percentiles);
+    }
+
+    private static String percentileName(double quantile) {
+        String percent = Double.toString(quantile * 100).replaceAll("\\.0+$", "");
+        return "p" + percent;
+    }
+
+    /**
+     * The sketches overall, per category and per Assignee.
+     */
+    private final class Sketches {
+        private final QuantileSketch overall = new QuantileSketch(relativeAccuracy);
+
+        private final Map<String, QuantileSketch> byCategory = new HashMap<>();
+
+        private final Map<Long, QuantileSketch> byAssignee = new HashMap<>();
+
+        private void add(ToDoSnapshot todo) {
+            if (todo.getCreatedDate() == null) {
+                return;
+            }
+            long leadTime = Math.max(0, todo.getFinishedDate() - todo.getCreatedDate());
+            overall.add(leadTime);
+            if (todo.getCategory() != null) {
+                byCategory.computeIfAbsent(todo.getCategory(), c -> overall.emptyCopy()).add(leadTime);
+            }
+            for (Long assigneeId : todo.getAssigneeIds()) {
+                byAssignee.computeIfAbsent(assigneeId, id -> overall.emptyCopy()).add(leadTime);
+            }
+        }
+    }
+}
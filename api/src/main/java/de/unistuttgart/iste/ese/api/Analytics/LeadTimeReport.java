@@ -0,0 +1,51 @@
+package de.unistuttgart.iste.ese.api.Analytics;
+
+import java.util.Map;
+
+/**
+ * Lead-time percentiles overall, per category and per Assignee, as returned by GET /todos/analytics/lead-time.
+ * The lead time of a ToDo is the time between its created date and its finished date.
+ */
+public class LeadTimeReport {
+
+    private final LeadTimeSummary overall;
+
+    private final Map<String, LeadTimeSummary> byCategory;
+
+    private final Map<Long, LeadTimeSummary> byAssignee;
+
+    /**
+     * Creates a new LeadTimeReport.
+     *
+     * @param overall    The percentiles over all finished ToDos
+     * @param byCategory The percentiles per category
+     * @param byAssignee The percentiles per Assignee ID
+     */
+    public LeadTimeReport(LeadTimeSummary overall, Map<String, LeadTimeSummary> byCategory,
+                          Map<Long, LeadTimeSummary> byAssignee) {
+        this.overall = overall;
+        this.byCategory = byCategory;
+        this.byAssignee = byAssignee;
+    }
+
+    /**
+     * Gets the percentiles over all finished ToDos.
+     *
+     * @return The overall summary
+     */
+    public LeadTimeSummary getOverall() { return overall; }
+
+    /**
+     * Gets the percentiles per category.
+     *
+     * @return The summaries keyed by category
+     */
+    public Map<String, LeadTimeSummary> getByCategory() { return byCategory; }
+
+    /**
+     * Gets the percentiles per Assignee.
+     *
+     * @return The summaries keyed by Assignee ID
+     */
+    public Map<Long, LeadTimeSummary> getByAssignee() { return byAssignee; }
+}
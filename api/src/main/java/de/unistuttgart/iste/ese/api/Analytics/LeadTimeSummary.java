@@ -0,0 +1,38 @@
+package de.unistuttgart.iste.ese.api.Analytics;
+
+import java.util.Map;
+
+/**
+ * Lead-time percentiles of a group of finished ToDos.
+ */
+public class LeadTimeSummary {
+
+    private final long count;
+
+    private final Map<String, Long> percentiles;
+
+    /**
+     * Creates a new LeadTimeSummary.
+     *
+     * @param count       The number of finished ToDos in the group
+     * @param percentiles The lead times in milliseconds keyed by percentile, e.g. "p90"
+     */
+    public LeadTimeSummary(long count, Map<String, Long> percentiles) {
+        this.count = count;
+        this.percentiles = percentiles;
+    }
+
+    /**
+     * Gets the number of finished ToDos in the group.
+     *
+     * @return The number of ToDos
+     */
+    public long getCount() { return count; }
+
+    /**
+     * Gets the lead times in milliseconds keyed by percentile.
+     *
+     * @return The percentiles
+     */
+    public Map<String, Long> getPercentiles() { return percentiles; }
+}
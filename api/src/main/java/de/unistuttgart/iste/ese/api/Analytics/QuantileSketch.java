@@ -0,0 +1,124 @@
+package de.unistuttgart.iste.ese.api.Analytics;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable streaming quantile sketch for non-negative values with a bounded relative error.
+ *
+ * Values are counted in logarithmic buckets: bucket i holds the values in (gamma^(i-1), gamma^i], so
+ * every quantile is answered with a relative error of at most the configured accuracy, independent of
+ * the number of values. Two sketches with the same accuracy are merged by adding their bucket counts.
+ * Not thread-safe.
+ */
+public class QuantileSketch {
+
+    private final double relativeAccuracy;
+
+    private final double gamma;
+
+    private final double logGamma;
+
+    private long[] buckets = new long[64];
+
+    private long zeroCount;
+
+    private long count;
+
+    /**
+     * Creates a new, empty QuantileSketch.
+     *
+     * @param relativeAccuracy The maximum relative error of the returned quantiles, e.g. 0.01 for 1%
+     */
+    public QuantileSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Adds a value to the sketch. Values below 1 are counted as zero.
+     *
+     * @param value The value to add
+     */
+    public void add(double value) {
+        count++;
+        if (value < 1) {
+            zeroCount++;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(value) / logGamma);
+        if (index >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, Math.max(buckets.length * 2, index + 1));
+        }
+        buckets[index]++;
+    }
+
+    /**
+     * Adds all values of another sketch to this one.
+     *
+     * @param other The sketch to merge, must have the same relative accuracy
+     */
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Only sketches with the same relative accuracy can be merged");
+        }
+        if (other.buckets.length > buckets.length) {
+            buckets = Arrays.copyOf(buckets, other.buckets.length);
+        }
+        for (int i = 0; i < other.buckets.length; i++) {
+            buckets[i] += other.buckets[i];
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    /**
+     * Gets the number of values added to the sketch.
+     *
+     * @return The number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Estimates the value at the given quantile.
+     *
+     * @param quantile The quantile between 0 and 1, e.g. 0.9 for the 90th percentile
+     * @return The estimated value, or NaN if the sketch is empty
+     */
+    public double quantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        // nearest-rank definition: the smallest value with at least quantile * count values at or below it
+        long rank = Math.max(0, (long) Math.ceil(quantile * count) - 1);
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (rank < seen) {
+                // the value in the bucket with the smallest maximum relative error
+                return 2 * Math.pow(gamma, i) / (gamma + 1);
+            }
+        }
+        return 2 * Math.pow(gamma, buckets.length - 1) / (gamma + 1);
+    }
+
+    /**
+     * Creates an empty sketch with the same relative accuracy.
+     *
+     * @return The new sketch
+     */
+    public QuantileSketch emptyCopy() {
+        return new QuantileSketch(relativeAccuracy);
+    }
+}
@@ -1,14 +1,23 @@
 package de.unistuttgart.iste.ese.api;
 
 import jakarta.annotation.Nonnull;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.lang.NonNullApi;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+
 @SpringBootApplication
+@EnableScheduling
 public class Application {
 
     public static void main(String[] args) {
@@ -29,4 +38,31 @@ public class Application {
             }
         };
     }
+
+    // give the second-level cache of every application context its own cache manager: the JCache provider shares
+    // one manager per configuration file in a JVM, so contexts with different databases (e.g. in tests) would
+    // read each other's cached entities, and closing one context would close the caches of all others
+    @Bean
+    public HibernatePropertiesCustomizer cacheManagerCustomizer(
+            @Value("${spring.jpa.properties.hibernate.javax.cache.uri}") String configuration) {
+        return properties -> {
+            ClassLoader classLoader = Application.class.getClassLoader();
+            try {
+                // a relative name is looked up on the classpath, like Hibernate does
+                URI uri = new URI(configuration);
+                if (!uri.isAbsolute()) {
+                    URL resource = classLoader.getResource(configuration);
+                    if (resource == null) {
+                        throw new IllegalStateException("Cache configuration " + configuration + " not found");
+                    }
+                    uri = resource.toURI();
+                }
+                // closed by Hibernate together with the session factory
+                properties.put("hibernate.javax.cache.cache_manager",
+                        new EhcacheCachingProvider().getCacheManager(uri, classLoader));
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException("Invalid cache configuration " + configuration, e);
+            }
+        };
+    }
 }
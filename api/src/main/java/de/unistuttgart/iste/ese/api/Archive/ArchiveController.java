@@ -0,0 +1,63 @@
+package de.unistuttgart.iste.ese.api.Archive;
+
+import de.unistuttgart.iste.ese.api.ApiVersion1;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller for archived ToDos.
+ * Archived ToDos are not part of GET /todos or the ToDo CSV export.
+ */
+@RestController
+@Profile("!embedded")
+@ApiVersion1
+public class ArchiveController {
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    /**
+     * Retrieves a page of archived ToDos ordered by ID.
+     * The next page starts after the ID of the last archived ToDo of this page.
+     *
+     * @param afterId      The ID after which the page starts
+     * @param finishedFrom The start of the finished date range (inclusive), in milliseconds since the epoch
+     * @param finishedTo   The end of the finished date range (exclusive), in milliseconds since the epoch
+     * @param limit        The maximum number of archived ToDos
+     * @return ResponseEntity containing the page of archived ToDos
+     */
+    @GetMapping("/todos/archive")
+    public ResponseEntity<List<ArchivedToDo>> getArchivedToDos(
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(required = false) Long finishedFrom,
+            @RequestParam(required = false) Long finishedTo,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(archiveService.getArchivedToDos(afterId, finishedFrom, finishedTo, limit));
+    }
+
+    /**
+     * Retrieves a specific archived ToDo.
+     *
+     * @param id The ID the ToDo had before archival
+     * @return ResponseEntity containing the archived ToDo
+     */
+    @GetMapping("/todos/archive/{id}")
+    public ResponseEntity<ArchivedToDo> getArchivedToDoById(@PathVariable Long id) {
+        return ResponseEntity.ok(archiveService.getArchivedToDoById(id));
+    }
+
+    /**
+     * Exports all archived ToDos as a CSV file.
+     *
+     * @param response The HttpServletResponse to write the CSV data to
+     */
+    @GetMapping(value = "/csv-downloads/todos/archive", produces = "text/csv;charset=UTF-8")
+    public void exportArchiveToCsv(HttpServletResponse response) {
+        archiveService.exportToCsv(response);
+    }
+}
@@ -0,0 +1,127 @@
+package de.unistuttgart.iste.ese.api.Archive;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Service for reading and exporting archived ToDos.
+ */
+@Service
+@Profile("!embedded")
+public class ArchiveService {
+    /**
+     * Maximum number of archived ToDos returned per page.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    // entities are detached after this many rows to keep the persistence context small during the export
+    private static final int CLEAR_INTERVAL = 500;
+
+    @Autowired
+    private ArchivedToDoRepository archivedToDoRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Retrieves a page of archived ToDos ordered by ID.
+     *
+     * @param afterId      The ID after which the page starts, the last ID of the previous page
+     * @param finishedFrom The start of the finished date range (inclusive), or null for no lower bound
+     * @param finishedTo   The end of the finished date range (exclusive), or null for no upper bound
+     * @param limit        The maximum number of archived ToDos, between 1 and MAX_PAGE_SIZE
+     * @return The page of archived ToDos
+     * @throws ResponseStatusException if the limit is out of range
+     */
+    public List<ArchivedToDo> getArchivedToDos(long afterId, Long finishedFrom, Long finishedTo, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return archivedToDoRepository.findPage(afterId,
+            finishedFrom == null ? Long.MIN_VALUE : finishedFrom,
+            finishedTo == null ? Long.MAX_VALUE : finishedTo,
+            Limit.of(limit));
+    }
+
+    /**
+     * Retrieves a specific archived ToDo by ID.
+     *
+     * @param id The ID the ToDo had before archival
+     * @return The archived ToDo
+     * @throws ResponseStatusException if the archived ToDo is not found
+     */
+    public ArchivedToDo getArchivedToDoById(Long id) {
+        return archivedToDoRepository.findById(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Archived ToDo not found"));
+    }
+
+    /**
+     * Exports all archived ToDos to a CSV file with the columns of the ToDo export plus the archival date.
+     * The archive is streamed from the database, so its size is not limited by memory.
+     *
+     * @param response The HttpServletResponse to write the CSV data to
+     */
+    @Transactional(readOnly = true)
+    public void exportToCsv(HttpServletResponse response) {
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"archived-todos.csv\"");
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+        try (OutputStreamWriter writer = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+             CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT.builder()
+                 .setHeader("id", "title", "description", "finished", "assignees", "createdDate", "dueDate",
+                     "finishedDate", "category", "archivedDate")
+                 .build());
+             Stream<ArchivedToDo> archivedToDos = archivedToDoRepository.streamAll()) {
+
+            long count = 0;
+            for (ArchivedToDo todo : (Iterable<ArchivedToDo>) archivedToDos::iterator) {
+                csvPrinter.printRecord(
+                    todo.getId(),
+                    todo.getTitle(),
+                    todo.getDescription(),
+                    "TRUE",
+                    String.join("+", todo.getAssigneeNames()),
+                    formatDate(todo.getCreatedDate(), formatter),
+                    formatDate(todo.getDueDate(), formatter),
+                    formatDate(todo.getFinishedDate(), formatter),
+                    todo.getCategory(),
+                    formatDate(todo.getArchivedDate(), formatter)
+                );
+                if (++count % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error exporting archived ToDos to CSV", e);
+        }
+    }
+
+    private String formatDate(Long timestamp, DateTimeFormatter formatter) {
+        if (timestamp == null) {
+            return "";
+        }
+        return LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()).format(formatter);
+    }
+}
@@ -0,0 +1,157 @@
+package de.unistuttgart.iste.ese.api.Archive;
+
+import de.unistuttgart.iste.ese.api.Assignee.Assignee;
+import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A finished ToDo moved out of the todos table by the ToDoArchiver.
+ * Its Assignees are stored denormalized (IDs and names), so archived ToDos stay readable after an Assignee
+ * has been deleted and the archive needs no join table.
+ */
+@Entity
+@Table(name = "archived_todos")
+public class ArchivedToDo {
+    private static final String SEPARATOR = ",";
+
+    private static final String NAME_SEPARATOR = "+";
+
+    @Id
+    private Long id;
+
+    private String title;
+
+    private String description;
+
+    private String category;
+
+    private Long createdDate;
+
+    private Long dueDate;
+
+    private Long finishedDate;
+
+    private Long archivedDate;
+
+    private String assigneeIds;
+
+    private String assigneeNames;
+
+    /**
+     * Default constructor for JPA.
+     */
+    protected ArchivedToDo() {}
+
+    /**
+     * Creates the archived copy of a ToDo, keeping its ID.
+     *
+     * @param todo         The finished ToDo, its Assignees must be loadable
+     * @param archivedDate The time of archival in milliseconds since the epoch
+     */
+    public ArchivedToDo(ToDo todo, long archivedDate) {
+        this.id = todo.getId();
+        this.title = todo.getTitle();
+        this.description = todo.getDescription();
+        this.category = todo.getCategory();
+        this.createdDate = todo.getCreatedDate();
+        this.dueDate = todo.getDueDate();
+        this.finishedDate = todo.getFinishedDate();
+        this.archivedDate = archivedDate;
+        this.assigneeIds = todo.getAssigneeList().stream()
+            .map(assignee -> assignee.getId().toString())
+            .collect(Collectors.joining(SEPARATOR));
+        this.assigneeNames = todo.getAssigneeList().stream()
+            .map(ArchivedToDo::fullName)
+            .collect(Collectors.joining(NAME_SEPARATOR));
+    }
+
+    private static String fullName(Assignee assignee) {
+        return assignee.getPrename() + " " + assignee.getName();
+    }
+
+    /**
+     * Gets the ID of the archived ToDo, the same it had before archival.
+     *
+     * @return The ToDo's ID
+     */
+    public Long getId() { return id; }
+
+    /**
+     * Gets the title of the archived ToDo.
+     *
+     * @return The ToDo's title
+     */
+    public String getTitle() { return title; }
+
+    /**
+     * Gets the description of the archived ToDo.
+     *
+     * @return The ToDo's description
+     */
+    public String getDescription() { return description; }
+
+    /**
+     * Gets the category of the archived ToDo.
+     *
+     * @return The ToDo's category
+     */
+    public String getCategory() { return category; }
+
+    /**
+     * Gets the creation date of the archived ToDo.
+     *
+     * @return The creation date in milliseconds since the epoch
+     */
+    public Long getCreatedDate() { return createdDate; }
+
+    /**
+     * Gets the due date of the archived ToDo.
+     *
+     * @return The due date in milliseconds since the epoch
+     */
+    public Long getDueDate() { return dueDate; }
+
+    /**
+     * Gets the date the archived ToDo was finished.
+     *
+     * @return The finished date in milliseconds since the epoch
+     */
+    public Long getFinishedDate() { return finishedDate; }
+
+    /**
+     * Gets the time the ToDo was moved to the archive.
+     *
+     * @return The archival time in milliseconds since the epoch
+     */
+    public Long getArchivedDate() { return archivedDate; }
+
+    /**
+     * Gets the IDs the ToDo's Assignees had when it was archived.
+     *
+     * @return The Assignee IDs
+     */
+    public List<Long> getAssigneeIds() {
+        if (assigneeIds == null || assigneeIds.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(assigneeIds.split(SEPARATOR)).map(Long::valueOf).toList();
+    }
+
+    /**
+     * Gets the names ("prename name") the ToDo's Assignees had when it was archived.
+     *
+     * @return The Assignee names
+     */
+    public List<String> getAssigneeNames() {
+        if (assigneeNames == null || assigneeNames.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.asList(assigneeNames.split("\\" + NAME_SEPARATOR));
+    }
+}
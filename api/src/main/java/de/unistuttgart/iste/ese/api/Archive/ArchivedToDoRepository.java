@@ -0,0 +1,41 @@
+package de.unistuttgart.iste.ese.api.Archive;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Repository interface for ArchivedToDo entity.
+ */
+public interface ArchivedToDoRepository extends CrudRepository<ArchivedToDo, Long> {
+    /**
+     * Finds archived ToDos finished within a time range, ordered by ID, starting after the given ID.
+     *
+     * @param afterId      the ID after which the page starts (exclusive)
+     * @param finishedFrom the start of the finished date range (inclusive)
+     * @param finishedTo   the end of the finished date range (exclusive)
+     * @param limit        the maximum number of results
+     * @return the page of archived ToDos
+     */
+    @Query("select a from ArchivedToDo a where a.id > :afterId and a.finishedDate >= :finishedFrom "
+        + "and a.finishedDate < :finishedTo order by a.id")
+    List<ArchivedToDo> findPage(@Param("afterId") Long afterId, @Param("finishedFrom") Long finishedFrom,
+                                @Param("finishedTo") Long finishedTo, Limit limit);
+
+    /**
+     * Streams all archived ToDos ordered by ID without loading them into memory at once.
+     * The stream must be consumed and closed inside a transaction.
+     *
+     * @return a stream of all archived ToDos
+     */
+    @Query("select a from ArchivedToDo a order by a.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ArchivedToDo> streamAll();
+}
@@ -0,0 +1,148 @@
+package de.unistuttgart.iste.ese.api.Archive;
+
+import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoRepository;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshot;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoStatusWriteBehind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Background job moving ToDos finished longer than the configured age from the todos table into the archive.
+ *
+ * Each batch is copied and deleted in its own transaction, so the job never holds locks on many rows and can
+ * stop at any point. Deleting a ToDo is checked against its version: if a ToDo of the batch is modified
+ * concurrently, the batch is rolled back and retried with the next run. ToDos with a pending status toggle
+ * are skipped until the toggle has been written. The moved ToDos are published as archived, which listeners
+ * treat like a deletion, so in-memory state such as statistics and search only covers the ToDos that remain in the
+ * todos table.
+ */
+@Component
+@Profile("!embedded")
+public class ToDoArchiver {
+    private static final Log LOG = LogFactory.getLog(ToDoArchiver.class);
+
+    private final ToDoRepository toDoRepository;
+
+    private final ToDoStatusWriteBehind statusWriteBehind;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final long maxAgeMs;
+
+    private final int batchSize;
+
+    private final Counter archivedCounter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Creates a new ToDoArchiver.
+     *
+     * @param toDoRepository      The repository of the ToDos to archive
+     * @param statusWriteBehind   The write-behind buffer whose pending toggles must not be lost
+     * @param transactionTemplate The template used to run each batch in its own transaction
+     * @param eventPublisher      The publisher for ToDoChangedEvents of archived ToDos
+     * @param meterRegistry       The registry to publish the number of archived ToDos to
+     * @param maxAgeMs            The time since finishing after which a ToDo is archived
+     * @param batchSize           The maximum number of ToDos moved per transaction
+     */
+    public ToDoArchiver(ToDoRepository toDoRepository,
+                        ToDoStatusWriteBehind statusWriteBehind,
+                        TransactionTemplate transactionTemplate,
+                        ApplicationEventPublisher eventPublisher,
+                        MeterRegistry meterRegistry,
+                        @Value("${api.todos.archive.max-age-ms:7776000000}") long maxAgeMs,
+                        @Value("${api.todos.archive.batch-size:500}") int batchSize) {
+        this.toDoRepository = toDoRepository;
+        this.statusWriteBehind = statusWriteBehind;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxAgeMs = maxAgeMs;
+        this.batchSize = batchSize;
+        this.archivedCounter = meterRegistry.counter("api.todos.archived");
+    }
+
+    /**
+     * Moves all ToDos finished before the cutoff into the archive, batch by batch.
+     *
+     * @return The number of archived ToDos
+     */
+    @Scheduled(initialDelayString = "${api.todos.archive.interval-ms:3600000}",
+        fixedDelayString = "${api.todos.archive.interval-ms:3600000}")
+    public long archive() {
+        long cutoff = System.currentTimeMillis() - maxAgeMs;
+        long total = 0;
+        while (true) {
+            BatchResult result;
+            try {
+                result = transactionTemplate.execute(tx -> archiveBatch(cutoff));
+            } catch (RuntimeException e) {
+                LOG.warn("Could not archive a batch of ToDos, retrying with the next run", e);
+                break;
+            }
+            total += result.archived;
+            archivedCounter.increment(result.archived);
+            // stop when the table is drained or only ToDos with pending toggles are left
+            if (result.selected < batchSize || result.archived == 0) {
+                break;
+            }
+        }
+        if (total > 0) {
+            LOG.info("Archived " + total + " ToDos finished before " + cutoff);
+        }
+        return total;
+    }
+
+    private BatchResult archiveBatch(long cutoff) {
+        List<Long> ids = toDoRepository.findIdsFinishedBefore(cutoff, Limit.of(batchSize));
+        long now = System.currentTimeMillis();
+        List<ToDo> archived = new ArrayList<>();
+        for (ToDo todo : toDoRepository.findAllById(ids)) {
+            if (statusWriteBehind.isPending(todo.getId())) {
+                continue;
+            }
+            entityManager.persist(new ArchivedToDo(todo, now));
+            archived.add(todo);
+        }
+        for (ToDo todo : archived) {
+            ToDoSnapshot previous = ToDoSnapshot.of(todo);
+            toDoRepository.delete(todo);
+            // delivered to transactional listeners after the batch has been committed
+            eventPublisher.publishEvent(ToDoChangedEvent.archived(previous));
+        }
+        return new BatchResult(ids.size(), archived.size());
+    }
+
+    /**
+     * The number of ToDos selected and actually archived in one batch.
+     */
+    private static final class BatchResult {
+        private final int selected;
+
+        private final int archived;
+
+        private BatchResult(int selected, int archived) {
+            this.selected = selected;
+            this.archived = archived;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package de.unistuttgart.iste.ese.api.Assignee;
 import de.unistuttgart.iste.ese.api.ToDo.ToDo;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,9 +12,14 @@ import java.util.List;
 /**
  * Represents an assignee in the ToDo management system.
  * An assignee can be assigned to multiple ToDos.
+ * Assignees rarely change, so they are kept in the Hibernate second-level cache.
+ * Updates are checked against the version for concurrent modifications.
+ * The index on name serves findByName.
  */
 @Entity
-@Table(name = "assignees")
+@Table(name = "assignees", indexes = @Index(name = "idx_assignees_name", columnList = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "assignees")
 public class Assignee {
 
     @Id
@@ -34,6 +41,9 @@ public class Assignee {
     @ManyToMany(mappedBy = "assigneeList")
     private List<ToDo> todos = new ArrayList<>();
 
+    @Version
+    private long version;
+
     // Constructors
     /**
      * Default constructor for JPA.
@@ -121,4 +131,21 @@ public class Assignee {
     public void setEmail(String email) {
         this.email = email;
     }
+
+    /**
+     * Gets the version of the assignee, incremented with every update.
+     *
+     * @return The assignee's version
+     */
+    public long getVersion() {
+        return version;
+    }
+    /**
+     * Sets the version of the assignee.
+     *
+     * @param version The version to set
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
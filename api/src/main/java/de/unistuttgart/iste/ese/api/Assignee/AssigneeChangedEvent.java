@@ -0,0 +1,84 @@
+package de.unistuttgart.iste.ese.api.Assignee;
+
+/**
+ * Application event published by the Assignee write paths after an Assignee has been created, updated or deleted.
+ * Listeners use it to keep derived state (e.g. cached responses) in sync with the database.
+ * It carries a snapshot of the Assignee after the change.
+ */
+public class AssigneeChangedEvent {
+
+    /**
+     * The kind of change that happened to the Assignee.
+     */
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+
+    private final Long assigneeId;
+
+    private final AssigneeSnapshot current;
+
+    /**
+     * Creates a new AssigneeChangedEvent.
+     *
+     * @param type       The kind of change
+     * @param assigneeId The ID of the changed Assignee
+     * @param current    The state after the change, or null if the Assignee was deleted
+     */
+    public AssigneeChangedEvent(Type type, Long assigneeId, AssigneeSnapshot current) {
+        this.type = type;
+        this.assigneeId = assigneeId;
+        this.current = current;
+    }
+
+    /**
+     * Creates the event for a newly created Assignee.
+     *
+     * @param assignee The created Assignee
+     * @return The event
+     */
+    public static AssigneeChangedEvent created(Assignee assignee) {
+        return new AssigneeChangedEvent(Type.CREATED, assignee.getId(), AssigneeSnapshot.of(assignee));
+    }
+
+    /**
+     * Creates the event for an updated Assignee.
+     *
+     * @param assignee The updated Assignee
+     * @return The event
+     */
+    public static AssigneeChangedEvent updated(Assignee assignee) {
+        return new AssigneeChangedEvent(Type.UPDATED, assignee.getId(), AssigneeSnapshot.of(assignee));
+    }
+
+    /**
+     * Creates the event for a deleted Assignee.
+     *
+     * @param assigneeId The ID of the deleted Assignee
+     * @return The event
+     */
+    public static AssigneeChangedEvent deleted(Long assigneeId) {
+        return new AssigneeChangedEvent(Type.DELETED, assigneeId, null);
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return The change type
+     */
+    public Type getType() { return type; }
+
+    /**
+     * Gets the ID of the changed Assignee.
+     *
+     * @return The Assignee's ID
+     */
+    public Long getAssigneeId() { return assigneeId; }
+
+    /**
+     * Gets the state of the Assignee after the change.
+     *
+     * @return The current state, or null if the Assignee was deleted
+     */
+    public AssigneeSnapshot getCurrent() { return current; }
+}
@@ -1,12 +1,20 @@
 package de.unistuttgart.iste.ese.api.Assignee;
 
 import de.unistuttgart.iste.ese.api.ApiVersion1;
-import jakarta.annotation.PostConstruct;
+import de.unistuttgart.iste.ese.api.MultiGetResult;
+import de.unistuttgart.iste.ese.api.ResponseCache.SerializedResponseCache;
 import jakarta.validation.Valid;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -21,33 +29,48 @@ public class AssigneeController {
     @Autowired
     private AssigneeService assigneeService;
 
+    @Autowired
+    private SerializedResponseCache responseCache;
+
     /**
-     * Initializes default assignees if none exist.
+     * Retrieves all assignees.
+     * The serialized list is served from the response cache until the next Assignee write.
+     *
+     * @param acceptEncoding The client's Accept-Encoding header, used to serve a pre-gzipped body
+     * @return ResponseEntity containing the serialized list of all Assignees
      */
-    @PostConstruct
-    public void init() {
-        assigneeService.initializeDefaultAssignees();
+    @GetMapping("/assignees")
+    // the body is pre-serialized, so the schema has to be declared for the API docs
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+        array = @ArraySchema(schema = @Schema(implementation = Assignee.class))))
+    public ResponseEntity<byte[]> getAssignees(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responseCache.get(SerializedResponseCache.ASSIGNEES, assigneeService::getAllAssignees)
+            .toResponse(acceptEncoding);
     }
 
     /**
-     * Retrieves all assignees.
+     * Retrieves several assignees by ID in one request.
      *
-     * @return ResponseEntity containing a list of all Assignees
+     * @param ids The IDs of the assignees
+     * @return ResponseEntity containing the found Assignees in request order and the IDs that were not found
      */
-    @GetMapping("/assignees")
-    public ResponseEntity<List<Assignee>> getAssignees() {
-        return ResponseEntity.ok(assigneeService.getAllAssignees());
+    @GetMapping(value = "/assignees", params = "ids")
+    public ResponseEntity<MultiGetResult<Assignee>> getAssigneesByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(assigneeService.getAssigneesInOrder(ids));
     }
 
     /**
      * Retrieves a specific assignee by ID.
+     * The assignee's version is returned as ETag.
      *
      * @param id The ID of the assignee to retrieve
      * @return ResponseEntity containing the requested Assignee
      */
     @GetMapping("/assignees/{id}")
     public ResponseEntity<Assignee> getAssignee(@PathVariable("id") long id) {
-        return ResponseEntity.ok(assigneeService.getAssigneeById(id));
+        Assignee assignee = assigneeService.getAssigneeById(id);
+        return ResponseEntity.ok().eTag(String.valueOf(assignee.getVersion())).body(assignee);
     }
 
     /**
@@ -76,14 +99,50 @@ public class AssigneeController {
 
     /**
      * Updates an existing assignee.
+     * If an If-Match header with the assignee's version (its ETag) is sent,
+     * the update is rejected when the assignee has been changed in the meantime.
      *
      * @param id The ID of the assignee to update
+     * @param ifMatch The optional If-Match header containing the expected version
      * @param requestBody The updated Assignee object
      * @return ResponseEntity containing the updated Assignee
+     * @throws ObjectOptimisticLockingFailureException if the assignee was modified concurrently
      */
     @PutMapping("/assignees/{id}")
     public ResponseEntity<Assignee> updateAssignee(@PathVariable("id") long id,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                    @Valid @RequestBody Assignee requestBody) {
-        return ResponseEntity.ok(assigneeService.updateAssignee(id, requestBody));
+        Assignee updated = assigneeService.updateAssignee(id, requestBody, parseVersion(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(updated.getVersion())).body(updated);
+    }
+
+    /**
+     * Handles concurrent modifications detected by the version check and returns a 409 status.
+     *
+     * @param ex The ObjectOptimisticLockingFailureException that was thrown
+     * @return ResponseEntity with CONFLICT status and error message
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Assignee was modified concurrently, reload it and try again");
+    }
+
+    /**
+     * Parses the version out of an If-Match header value such as "3" or W/"3".
+     *
+     * @param ifMatch The header value, may be null
+     * @return The version, or null if no header was sent
+     * @throws ResponseStatusException if the header is not a valid version
+     */
+    private Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String version = ifMatch.trim().replaceFirst("^W/", "").replace("\"", "");
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match must contain the assignee version");
+        }
     }
 }
@@ -1,10 +1,14 @@
 package de.unistuttgart.iste.ese.api.Assignee;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 /**
  * Repository interface for Assignee entity.
  * This interface provides CRUD operations for the Assignee entity using Spring Data JPA.
+ * Lookups by name and by a list of IDs are answered from the Hibernate query cache where possible.
  */
 public interface AssigneeRepository extends CrudRepository<Assignee, Long> {
     /**
@@ -13,8 +17,19 @@ public interface AssigneeRepository extends CrudRepository<Assignee, Long> {
      * @param name the name of the Assignee to find
      * @return the Assignee with the given name, or null if not found
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Assignee findByName(String name);
 
+    /**
+     * Finds all Assignees with the given IDs.
+     *
+     * @param ids the IDs of the Assignees to find
+     * @return the Assignees found, IDs without a matching Assignee are skipped
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Iterable<Assignee> findAllById(Iterable<Long> ids);
+
     /**
      * Finds an Assignee by their ID.
      *
@@ -1,14 +1,23 @@
 package de.unistuttgart.iste.ese.api.Assignee;
 
+import de.unistuttgart.iste.ese.api.MultiGetResult;
 import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
 import de.unistuttgart.iste.ese.api.ToDo.ToDoRepository;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.HashSet;
 
 /**
  * Service class for managing Assignee-related operations.
@@ -22,17 +31,22 @@ public class AssigneeService {
     @Autowired
     private ToDoRepository toDoRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Initializes default assignees if none exist in the database.
+     * Runs once the application has started, so the query is not on the startup path.
      */
+    @EventListener(ApplicationReadyEvent.class)
     public void initializeDefaultAssignees() {
         long numberOfAssignees = assigneeRepository.count();
         if (numberOfAssignees == 0) {
             Assignee octocat = new Assignee("Octocatshevdevdev", "Paul", "paul@uni-stuttgart.de");
-            assigneeRepository.save(octocat);
+            eventPublisher.publishEvent(AssigneeChangedEvent.created(assigneeRepository.save(octocat)));
 
             Assignee grumpyAssignee = new Assignee("Grumpy Assignee", "John", "john@uni-stuttgart.de");
-            assigneeRepository.save(grumpyAssignee);
+            eventPublisher.publishEvent(AssigneeChangedEvent.created(assigneeRepository.save(grumpyAssignee)));
         }
     }
 
@@ -41,6 +55,7 @@ public class AssigneeService {
      *
      * @return List of all Assignees
      */
+    @Transactional(readOnly = true)
     public List<Assignee> getAllAssignees() {
         List<Assignee> assignees = new ArrayList<>();
         assigneeRepository.findAll().forEach(assignees::add);
@@ -60,6 +75,18 @@ public class AssigneeService {
                 String.format("Assignee with ID %s not found!", id)));
     }
 
+    /**
+     * Retrieves several assignees in one query, in the order of the requested IDs.
+     *
+     * @param ids The IDs of the assignees, at most MultiGetResult.MAX_IDS
+     * @return The found Assignees in request order and the IDs that were not found
+     * @throws ResponseStatusException if no or too many IDs are given
+     */
+    public MultiGetResult<Assignee> getAssigneesInOrder(List<Long> ids) {
+        MultiGetResult.validateIds(ids);
+        return MultiGetResult.of(ids, assigneeRepository.findAllById(new HashSet<>(ids)), Assignee::getId);
+    }
+
     /**
      * Retrieves multiple assignees by their IDs.
      *
@@ -100,35 +127,47 @@ public class AssigneeService {
             requestBody.getPrename(),
             requestBody.getEmail()
         );
-        return assigneeRepository.save(assignee);
+        Assignee saved = assigneeRepository.save(assignee);
+        eventPublisher.publishEvent(AssigneeChangedEvent.created(saved));
+        return saved;
     }
 
     /**
      * Updates an existing assignee.
+     * The changes are copied onto the stored assignee, so the update is checked against its version.
      *
      * @param id The ID of the assignee to update
      * @param requestBody The updated Assignee object
+     * @param expectedVersion The version the client based its changes on, or null to skip the version check
      * @return The updated Assignee
      * @throws ResponseStatusException if the assignee is not found
+     * @throws ObjectOptimisticLockingFailureException if the assignee was modified concurrently
      */
-    public Assignee updateAssignee(Long id, Assignee requestBody) {
+    @Transactional
+    public Assignee updateAssignee(Long id, Assignee requestBody, Long expectedVersion) {
         validateAssignee(requestBody);
         Assignee existingAssignee = getAssigneeById(id);
-        if (existingAssignee == null) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
-                String.format("Assignee with ID %s not found!", id));
+        if (expectedVersion != null && expectedVersion != existingAssignee.getVersion()) {
+            throw new ObjectOptimisticLockingFailureException(Assignee.class, id);
         }
-        requestBody.setId(id);
-        return assigneeRepository.save(requestBody);
+        existingAssignee.setName(requestBody.getName());
+        existingAssignee.setPrename(requestBody.getPrename());
+        existingAssignee.setEmail(requestBody.getEmail());
+        // saved explicitly for repositories without dirty checking
+        Assignee saved = assigneeRepository.save(existingAssignee);
+        eventPublisher.publishEvent(AssigneeChangedEvent.updated(saved));
+        return saved;
     }
 
     /**
      * Deletes an assignee and removes it from all associated ToDos.
+     * Runs in one transaction, so a concurrent ToDo update makes the whole deletion fail instead of a part of it.
      *
      * @param id The ID of the assignee to delete
      * @return The deleted Assignee
      * @throws ResponseStatusException if the assignee is not found
      */
+    @Transactional
     public Assignee deleteAssignee(Long id) {
         Assignee assigneeToDelete = getAssigneeById(id);
         if (assigneeToDelete == null) {
@@ -138,11 +177,14 @@ public class AssigneeService {
 
         List<ToDo> todos = toDoRepository.findAllByAssigneeListContaining(assigneeToDelete);
         for (ToDo todo : todos) {
+            ToDoSnapshot previous = ToDoSnapshot.of(todo);
             todo.getAssigneeList().remove(assigneeToDelete);
-            toDoRepository.save(todo);
+            ToDo saved = toDoRepository.save(todo);
+            eventPublisher.publishEvent(ToDoChangedEvent.updated(previous, saved));
         }
 
         assigneeRepository.deleteById(id);
+        eventPublisher.publishEvent(AssigneeChangedEvent.deleted(id));
         return assigneeToDelete;
     }
 
@@ -0,0 +1,69 @@
+package de.unistuttgart.iste.ese.api.Assignee;
+
+/**
+ * Immutable copy of the state of an Assignee at one point in time.
+ * Carried by AssigneeChangedEvents, so listeners do not touch the (possibly detached) entity.
+ */
+public class AssigneeSnapshot {
+
+    private final Long id;
+
+    private final String prename;
+
+    private final String name;
+
+    private final String email;
+
+    /**
+     * Creates a new AssigneeSnapshot.
+     *
+     * @param id      The ID of the Assignee
+     * @param prename The prename of the Assignee
+     * @param name    The name of the Assignee
+     * @param email   The email of the Assignee
+     */
+    public AssigneeSnapshot(Long id, String prename, String name, String email) {
+        this.id = id;
+        this.prename = prename;
+        this.name = name;
+        this.email = email;
+    }
+
+    /**
+     * Takes a snapshot of the current state of an Assignee.
+     *
+     * @param assignee The Assignee to copy
+     * @return The snapshot
+     */
+    public static AssigneeSnapshot of(Assignee assignee) {
+        return new AssigneeSnapshot(assignee.getId(), assignee.getPrename(), assignee.getName(), assignee.getEmail());
+    }
+
+    /**
+     * Gets the ID of the Assignee.
+     *
+     * @return The Assignee's ID
+     */
+    public Long getId() { return id; }
+
+    /**
+     * Gets the prename of the Assignee.
+     *
+     * @return The Assignee's prename
+     */
+    public String getPrename() { return prename; }
+
+    /**
+     * Gets the name of the Assignee.
+     *
+     * @return The Assignee's name
+     */
+    public String getName() { return name; }
+
+    /**
+     * Gets the email of the Assignee.
+     *
+     * @return The Assignee's email
+     */
+    public String getEmail() { return email; }
+}
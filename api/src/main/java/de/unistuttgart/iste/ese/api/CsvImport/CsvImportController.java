@@ -0,0 +1,49 @@
+package de.unistuttgart.iste.ese.api.CsvImport;
+
+import de.unistuttgart.iste.ese.api.ApiVersion1;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * REST Controller for importing ToDos from CSV files.
+ */
+@RestController
+@Profile("!embedded")
+@ApiVersion1
+public class CsvImportController {
+
+    @Autowired
+    private CsvImportService csvImportService;
+
+    /**
+     * Imports the ToDos of a CSV file in the layout of the ToDo CSV export, sent as the request body.
+     * The body is read as a stream, so the size of the file is not limited by memory.
+     *
+     * @param body The CSV file, UTF-8 encoded
+     * @return ResponseEntity containing the number of imported and failed rows and the first row errors
+     */
+    @PostMapping(value = "/csv-uploads/todos", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<CsvImportResult> importToDos(InputStream body) {
+        return ResponseEntity.ok(csvImportService.importCsv(new InputStreamReader(body, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Handles IllegalArgumentException and returns a 400 status.
+     *
+     * @param ex The IllegalArgumentException that was thrown
+     * @return ResponseEntity with BAD_REQUEST status and error message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+}
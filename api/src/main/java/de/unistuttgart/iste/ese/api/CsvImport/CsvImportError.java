@@ -0,0 +1,36 @@
+package de.unistuttgart.iste.ese.api.CsvImport;
+
+/**
+ * A CSV row that could not be imported.
+ */
+public class CsvImportError {
+
+    private final long row;
+
+    private final String message;
+
+    /**
+     * Creates a new CsvImportError.
+     *
+     * @param row     The number of the row in the file, the header being row 1
+     * @param message The reason the row was not imported
+     */
+    public CsvImportError(long row, String message) {
+        this.row = row;
+        this.message = message;
+    }
+
+    /**
+     * Gets the number of the row in the file.
+     *
+     * @return The row number, the header being row 1
+     */
+    public long getRow() { return row; }
+
+    /**
+     * Gets the reason the row was not imported.
+     *
+     * @return The error message
+     */
+    public String getMessage() { return message; }
+}
@@ -0,0 +1,78 @@
+package de.unistuttgart.iste.ese.api.CsvImport;
+
+import java.util.List;
+
+/**
+ * Outcome of a CSV import of ToDos.
+ */
+public class CsvImportResult {
+
+    private final long rows;
+
+    private final long imported;
+
+    private final long failed;
+
+    private final long durationMs;
+
+    private final List<CsvImportError> errors;
+
+    /**
+     * Creates a new CsvImportResult.
+     *
+     * @param rows       The number of data rows read
+     * @param imported   The number of imported ToDos
+     * @param failed     The number of rows that were not imported
+     * @param durationMs The time the import took in milliseconds
+     * @param errors     The first errors, at most CsvImportService.MAX_REPORTED_ERRORS
+     */
+    public CsvImportResult(long rows, long imported, long failed, long durationMs, List<CsvImportError> errors) {
+        this.rows = rows;
+        this.imported = imported;
+        this.failed = failed;
+        this.durationMs = durationMs;
+        this.errors = errors;
+    }
+
+    /**
+     * Gets the number of data rows read.
+     *
+     * @return The number of rows
+     */
+    public long getRows() { return rows; }
+
+    /**
+     * Gets the number of imported ToDos.
+     *
+     * @return The number of imported ToDos
+     */
+    public long getImported() { return imported; }
+
+    /**
+     * Gets the number of rows that were not imported.
+     *
+     * @return The number of failed rows
+     */
+    public long getFailed() { return failed; }
+
+    /**
+     * Gets the time the import took.
+     *
+     * @return The duration in milliseconds
+     */
+    public long getDurationMs() { return durationMs; }
+
+    /**
+     * Gets the import throughput.
+     *
+     * @return The number of rows read per second
+     */
+    public double getRowsPerSecond() { return durationMs == 0 ? rows : rows * 1000.0 / durationMs; }
+
+    /**
+     * Gets the first rows that were not imported; the number of all of them is given by getFailed().
+     *
+     * @return The errors in row order
+     */
+    public List<CsvImportError> getErrors() { return errors; }
+}
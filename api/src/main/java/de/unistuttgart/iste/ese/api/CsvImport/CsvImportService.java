@@ -0,0 +1,370 @@
+package de.unistuttgart.iste.ese.api.CsvImport;
+
+import de.unistuttgart.iste.ese.api.Assignee.Assignee;
+import de.unistuttgart.iste.ese.api.Assignee.AssigneeService;
+import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import de.unistuttgart.iste.ese.api.ToDo.TodoModel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service importing ToDos from CSV files in the layout of the ToDo CSV export.
+ *
+ * The file is parsed as a stream and processed in chunks: the titles of a chunk that were not seen before in
+ * the import are classified together, then its ToDos and their Assignee links are written with JDBC batch inserts
+ * in one transaction. Only one chunk is held in memory, and the next one is not read before the previous one has
+ * been written, so a slow database slows down reading the upload instead of filling the heap. Rows that cannot be
+ * imported are reported with their row number; the other rows are imported.
+ */
+@Service
+@Profile("!embedded")
+public class CsvImportService {
+    private static final Log LOG = LogFactory.getLog(CsvImportService.class);
+
+    /**
+     * Maximum number of row errors reported in an import result.
+     */
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    // number of distinct titles whose category is remembered during one import
+    private static final int MAX_CACHED_CATEGORIES = 10_000;
+
+    private static final String INSERT_TODO = "insert into todos (title, description, finished, category, "
+        + "created_date, due_date, finished_date, version) values (?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String INSERT_ASSIGNEE_LINK =
+        "insert into todos_assignee_list (todos_id, assignee_list_id) values (?, ?)";
+
+    private final AssigneeService assigneeService;
+
+    private final TodoModel todoModel;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int chunkSize;
+
+    private final Counter importedCounter;
+
+    /**
+     * Creates a new CsvImportService.
+     *
+     * @param assigneeService     The service to resolve Assignee names with
+     * @param todoModel           The model classifying the imported titles
+     * @param jdbcTemplate        The template used for the batch inserts
+     * @param transactionTemplate The template used to write each chunk in its own transaction
+     * @param eventPublisher      The publisher for ToDoChangedEvents of imported ToDos
+     * @param meterRegistry       The registry to publish the number of imported ToDos to
+     * @param chunkSize           The maximum number of rows written per transaction
+     */
+    public CsvImportService(AssigneeService assigneeService,
+                            TodoModel todoModel,
+                            JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ApplicationEventPublisher eventPublisher,
+                            MeterRegistry meterRegistry,
+                            @Value("${api.todos.import.chunk-size:500}") int chunkSize) {
+        this.assigneeService = assigneeService;
+        this.todoModel = todoModel;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.importedCounter = meterRegistry.counter("api.todos.imported");
+    }
+
+    /**
+     * Imports the ToDos of a CSV file with a header row.
+     * The columns are those of the ToDo CSV export; only title and dueDate are required. The id and category
+     * columns are ignored: imported ToDos get new IDs and are classified like created ones.
+     *
+     * @param reader The reader of the CSV file
+     * @return The number of imported and failed rows, the throughput and the first row errors
+     * @throws IllegalArgumentException if the file has no title or dueDate column
+     */
+    public CsvImportResult importCsv(Reader reader) {
+        long start = System.currentTimeMillis();
+        Map<String, Assignee> assigneesByName = new HashMap<>();
+        for (Assignee assignee : assigneeService.getAllAssignees()) {
+            assigneesByName.putIfAbsent(assignee.getPrename() + " " + assignee.getName(), assignee);
+        }
+
+        ImportProgress progress = new ImportProgress();
+        CSVFormat format = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setIgnoreEmptyLines(true)
+            .build();
+        try (CSVParser parser = format.parse(reader)) {
+            if (!parser.getHeaderMap().containsKey("title") || !parser.getHeaderMap().containsKey("dueDate")) {
+                throw new IllegalArgumentException("The CSV file must have a title and a dueDate column");
+            }
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            Iterator<CSVRecord> records = parser.iterator();
+            while (true) {
+                CSVRecord record;
+                try {
+                    if (!records.hasNext()) {
+                        break;
+                    }
+                    record = records.next();
+                } catch (UncheckedIOException | IllegalStateException e) {
+                    // rows after a malformed one (e.g. an unclosed quote) cannot be told apart reliably
+                    progress.rows++;
+                    progress.fail(parser.getCurrentLineNumber(), "Malformed CSV, import stopped: " + e.getMessage());
+                    break;
+                }
+                progress.rows++;
+                // the header is row 1
+                long row = record.getRecordNumber() + 1;
+                try {
+                    chunk.add(new ImportRow(row, parseRecord(record, assigneesByName)));
+                } catch (IllegalArgumentException e) {
+                    progress.fail(row, e.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            writeChunk(chunk, progress);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error importing ToDos from CSV", e);
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        LOG.info("Imported " + progress.imported + " of " + progress.rows + " CSV rows in " + durationMs + " ms");
+        return new CsvImportResult(progress.rows, progress.imported, progress.failed, durationMs, progress.errors);
+    }
+
+    private ToDo parseRecord(CSVRecord record, Map<String, Assignee> assigneesByName) {
+        String title = value(record, "title");
+        if (title == null) {
+            throw new IllegalArgumentException("Title is required");
+        }
+        if (title.length() > 100) {
+            throw new IllegalArgumentException("Title must not be longer than 100 characters");
+        }
+        String description = value(record, "description");
+        if (description != null && description.length() > 255) {
+            throw new IllegalArgumentException("Description must not be longer than 255 characters");
+        }
+        Long dueDate = parseDate(value(record, "dueDate"));
+        if (dueDate == null) {
+            throw new IllegalArgumentException("Due date is required");
+        }
+
+        List<Assignee> assignees = new ArrayList<>();
+        String assigneeNames = value(record, "assignees");
+        if (assigneeNames != null) {
+            for (String name : assigneeNames.split("\\+")) {
+                Assignee assignee = assigneesByName.get(name.trim());
+                if (assignee == null) {
+                    throw new IllegalArgumentException("Unknown assignee: " + name.trim());
+                }
+                if (!assignees.contains(assignee)) {
+                    assignees.add(assignee);
+                }
+            }
+        }
+
+        ToDo todo = new ToDo(title, description, parseFinished(value(record, "finished")), dueDate, assignees);
+        Long createdDate = parseDate(value(record, "createdDate"));
+        if (createdDate != null) {
+            todo.setCreatedDate(createdDate);
+        }
+        Long finishedDate = parseDate(value(record, "finishedDate"));
+        if (finishedDate != null) {
+            todo.setFinishedDate(finishedDate);
+        }
+        return todo;
+    }
+
+    private void writeChunk(List<ImportRow> chunk, ImportProgress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // titles repeat across an import, so only titles not classified before are passed to the model
+        List<String> newTitles = chunk.stream().map(row -> row.todo.getTitle())
+            .filter(title -> !progress.categories.containsKey(title)).distinct().toList();
+        Map<String, String> chunkCategories = new HashMap<>();
+        try {
+            List<String> categories = todoModel.predictClasses(newTitles);
+            for (int i = 0; i < newTitles.size(); i++) {
+                chunkCategories.put(newTitles.get(i), categories.get(i));
+            }
+        } catch (Exception e) {
+            LOG.warn("Could not classify a chunk of imported ToDos", e);
+        }
+        for (ImportRow row : chunk) {
+            String title = row.todo.getTitle();
+            String category = progress.categories.getOrDefault(title, chunkCategories.get(title));
+            // same fallback as for a created ToDo
+            row.todo.setCategory(category == null ? "work" : category);
+        }
+        for (Map.Entry<String, String> entry : chunkCategories.entrySet()) {
+            if (progress.categories.size() >= MAX_CACHED_CATEGORIES) {
+                break;
+            }
+            progress.categories.put(entry.getKey(), entry.getValue());
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(tx -> insertChunk(chunk));
+        } catch (RuntimeException e) {
+            LOG.warn("Could not write a chunk of " + chunk.size() + " imported ToDos", e);
+            for (ImportRow row : chunk) {
+                progress.fail(row.row, "Could not be written: " + e.getMessage());
+            }
+            return;
+        }
+        progress.imported += chunk.size();
+        importedCounter.increment(chunk.size());
+    }
+
+    private void insertChunk(List<ImportRow> chunk) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_TODO, new String[]{"id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ToDo todo = chunk.get(i).todo;
+                    ps.setString(1, todo.getTitle());
+                    ps.setString(2, todo.getDescription());
+                    ps.setBoolean(3, todo.isFinished());
+                    ps.setString(4, todo.getCategory());
+                    ps.setLong(5, todo.getCreatedDate());
+                    ps.setLong(6, todo.getDueDate());
+                    if (todo.getFinishedDate() == null) {
+                        ps.setNull(7, Types.BIGINT);
+                    } else {
+                        ps.setLong(7, todo.getFinishedDate());
+                    }
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return chunk.size();
+                }
+            }, keys);
+
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        if (keyList.size() != chunk.size()) {
+            throw new IllegalStateException("Expected " + chunk.size() + " generated IDs, got " + keyList.size());
+        }
+        List<Object[]> links = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ToDo todo = chunk.get(i).todo;
+            // the key column is named differently by the drivers, but is the only one
+            todo.setId(((Number) keyList.get(i).values().iterator().next()).longValue());
+            for (Assignee assignee : todo.getAssigneeList()) {
+                links.add(new Object[]{todo.getId(), assignee.getId()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ASSIGNEE_LINK, links);
+
+        for (ImportRow row : chunk) {
+            // delivered to transactional listeners after the chunk has been committed
+            eventPublisher.publishEvent(ToDoChangedEvent.created(row.todo));
+        }
+    }
+
+    private static String value(CSVRecord record, String column) {
+        if (!record.isMapped(column) || !record.isSet(column)) {
+            return null;
+        }
+        String value = record.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static boolean parseFinished(String value) {
+        if (value == null || value.equalsIgnoreCase("FALSE")) {
+            return false;
+        }
+        if (value.equalsIgnoreCase("TRUE")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Finished must be TRUE or FALSE: " + value);
+    }
+
+    private static Long parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        // the export writes dates as yyyy-MM-dd in the server's time zone
+        try {
+            return LocalDate.parse(value).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Date must be formatted as yyyy-MM-dd: " + value);
+        }
+    }
+
+    /**
+     * A parsed CSV row waiting to be written.
+     */
+    private static final class ImportRow {
+        private final long row;
+
+        private final ToDo todo;
+
+        private ImportRow(long row, ToDo todo) {
+            this.row = row;
+            this.todo = todo;
+        }
+    }
+
+    /**
+     * The counts, errors and known title categories of a running import.
+     */
+    private static final class ImportProgress {
+        private long rows;
+
+        private long imported;
+
+        private long failed;
+
+        private final List<CsvImportError> errors = new ArrayList<>();
+
+        private final Map<String, String> categories = new HashMap<>();
+
+        private void fail(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new CsvImportError(row, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package de.unistuttgart.iste.ese.api.Duplicates;
+
+import de.unistuttgart.iste.ese.api.Invalidation.RemoteChangesEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoRepository;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshotScanner;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service finding existing ToDos with a title similar to a draft title.
+ *
+ * The TF-IDF vectors of all titles are indexed with locality-sensitive hashing, so a lookup only compares
+ * the draft with the ToDos sharing a hash band instead of with every ToDo. The best candidates by estimated
+ * similarity are loaded and compared exactly. The index is built in one streaming pass on startup and updated
+ * from the ToDoChangedEvents of every write; writes committed during a rebuild are replayed onto the new index.
+ * Writes of other nodes arrive as RemoteChangesEvents.
+ */
+@Service
+public class DuplicateDetectionService {
+    private static final Log LOG = LogFactory.getLog(DuplicateDetectionService.class);
+
+    /**
+     * Maximum number of suggestions of a single lookup.
+     */
+    public static final int MAX_LIMIT = 20;
+
+    // candidates loaded per requested suggestion, as estimated similarities are only approximate
+    private static final int CANDIDATES_PER_SUGGESTION = 4;
+
+    private final ToDoRepository toDoRepository;
+
+    private final ToDoSnapshotScanner scanner;
+
+    private final TfIdfVectorizer vectorizer;
+
+    private final double minSimilarity;
+
+    private final DistributionSummary candidateSummary;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private LshIndex index = new LshIndex();
+
+    private List<ToDoChangedEvent> changesDuringRebuild;
+
+    /**
+     * Creates a new DuplicateDetectionService.
+     *
+     * @param toDoRepository The repository to load the candidates from
+     * @param scanner        The scanner used to build the index
+     * @param vectorizer     The vectorizer turning titles into TF-IDF vectors
+     * @param meterRegistry  The registry to publish the index size and candidate counts to
+     * @param minSimilarity  The minimum cosine similarity of a suggested ToDo
+     */
+    public DuplicateDetectionService(ToDoRepository toDoRepository, ToDoSnapshotScanner scanner,
+                                     TfIdfVectorizer vectorizer, MeterRegistry meterRegistry,
+                                     @Value("${api.todos.duplicates.min-similarity:0.7}") double minSimilarity) {
+        this.toDoRepository = toDoRepository;
+        this.scanner = scanner;
+        this.vectorizer = vectorizer;
+        this.minSimilarity = minSimilarity;
+        this.candidateSummary = meterRegistry.summary("api.todos.duplicates.candidates");
+        Gauge.builder("api.todos.duplicates.indexed", this, DuplicateDetectionService::readSize)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Builds the index from the database on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the index from all ToDo titles in one streaming pass and replaces the current one.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LshIndex rebuilt = new LshIndex();
+        long count;
+        try {
+            count = scanner.scan(todo -> rebuilt.put(todo.getId(), vectorizer.vectorize(todo.getTitle())));
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<ToDoChangedEvent> changes = changesDuringRebuild;
+                changesDuringRebuild = null;
+                for (ToDoChangedEvent change : changes) {
+                    apply(rebuilt, change);
+                }
+                index = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        LOG.info("Rebuilt duplicate detection index from " + count + " ToDos");
+    }
+
+    /**
+     * Updates the index after a ToDo write has been committed.
+     *
+     * @param event The ToDo change that happened
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onToDoChanged(ToDoChangedEvent event) {
+        String previous = event.getPrevious() == null ? null : event.getPrevious().getTitle();
+        String current = event.getCurrent() == null ? null : event.getCurrent().getTitle();
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            apply(index, event);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the ToDos changed on other nodes, or rebuilds the index if they are not known.
+     *
+     * @param event The changes of other nodes
+     */
+    @EventListener
+    public void onRemoteChanges(RemoteChangesEvent event) {
+        if (event.isRebuildAll()) {
+            rebuild();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (ToDoChangedEvent change : event.toToDoChanges()) {
+                apply(index, change);
+                if (changesDuringRebuild != null) {
+                    changesDuringRebuild.add(change);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds existing ToDos whose title is similar to a draft title.
+     *
+     * @param title The draft title
+     * @param limit The maximum number of suggestions, between 1 and MAX_LIMIT
+     * @return The similar ToDos, most similar first
+     * @throws IllegalArgumentException if the title is blank or the limit is out of range
+     */
+    public List<DuplicateSuggestion> findSimilar(String title, int limit) {
+        if (title == null || title.isBlank()) {
+            throw new IllegalArgumentException("Title must not be empty");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        Map<String, Double> draft = vectorizer.vectorize(title);
+        Map<Long, Double> candidates;
+        lock.readLock().lock();
+        try {
+            candidates = index.candidates(draft);
+        } finally {
+            lock.readLock().unlock();
+        }
+        candidateSummary.record(candidates.size());
+
+        List<Long> closest = candidates.entrySet().stream()
+            .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+            .limit((long) limit * CANDIDATES_PER_SUGGESTION)
+            .map(Map.Entry::getKey)
+            .toList();
+        List<DuplicateSuggestion> suggestions = new ArrayList<>();
+        for (ToDo todo : toDoRepository.findAllById(closest)) {
+            double similarity = TfIdfVectorizer.cosine(draft, vectorizer.vectorize(todo.getTitle()));
+            if (similarity >= minSimilarity) {
+                suggestions.add(new DuplicateSuggestion(similarity, todo));
+            }
+        }
+        suggestions.sort(Comparator.comparingDouble(DuplicateSuggestion::getSimilarity).reversed()
+            .thenComparing(suggestion -> suggestion.getTodo().getId()));
+        return suggestions.size() > limit ? suggestions.subList(0, limit) : suggestions;
+    }
+
+    private void apply(LshIndex target, ToDoChangedEvent event) {
+        if (event.getCurrent() == null) {
+            target.remove(event.getToDoId());
+        } else {
+            target.put(event.getToDoId(), vectorizer.vectorize(event.getCurrent().getTitle()));
+        }
+    }
+
+    private double readSize() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package de.unistuttgart.iste.ese.api.Duplicates;
+
+import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+
+/**
+ * An existing ToDo whose title is similar to a draft title.
+ */
+public class DuplicateSuggestion {
+
+    private final double similarity;
+
+    private final ToDo todo;
+
+    /**
+     * Creates a new DuplicateSuggestion.
+     *
+     * @param similarity The cosine similarity of the TF-IDF vectors of both titles, between 0 and 1
+     * @param todo       The similar ToDo
+     */
+    public DuplicateSuggestion(double similarity, ToDo todo) {
+        this.similarity = similarity;
+        this.todo = todo;
+    }
+
+    /**
+     * Gets the cosine similarity of both titles.
+     *
+     * @return The similarity between 0 and 1
+     */
+    public double getSimilarity() { return similarity; }
+
+    /**
+     * Gets the similar ToDo.
+     *
+     * @return The ToDo
+     */
+    public ToDo getTodo() { return todo; }
+}
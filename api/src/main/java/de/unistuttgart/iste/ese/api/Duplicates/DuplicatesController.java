@@ -0,0 +1,44 @@
+package de.unistuttgart.iste.ese.api.Duplicates;
+
+import de.unistuttgart.iste.ese.api.ApiVersion1;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller for finding duplicate ToDos.
+ */
+@RestController
+@ApiVersion1
+public class DuplicatesController {
+
+    @Autowired
+    private DuplicateDetectionService duplicateDetectionService;
+
+    /**
+     * Finds existing ToDos whose title is similar to a draft title.
+     *
+     * @param title The draft title
+     * @param limit The maximum number of suggestions
+     * @return ResponseEntity containing the similar ToDos with their similarity, most similar first
+     */
+    @GetMapping("/todos/duplicates")
+    public ResponseEntity<List<DuplicateSuggestion>> findDuplicates(@RequestParam String title,
+                                                                    @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(duplicateDetectionService.findSimilar(title, limit));
+    }
+
+    /**
+     * Handles IllegalArgumentException and returns a 400 status.
+     *
+     * @param ex The IllegalArgumentException that was thrown
+     * @return ResponseEntity with BAD_REQUEST status and error message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+}
@@ -0,0 +1,175 @@
+package de.unistuttgart.iste.ese.api.Duplicates;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Locality-sensitive hashing index over TF-IDF vectors with random hyperplanes.
+ *
+ * Every vector gets a signature of BITS bits, one per hyperplane, telling on which side of the hyperplane
+ * it lies. Two vectors with cosine similarity s agree on a bit with probability 1 - acos(s) / pi. The
+ * signature is cut into BANDS bands of ROWS bits and every band is a bucket key, so only vectors sharing
+ * at least one complete band with the query become candidates. The hyperplanes are derived from a hash of
+ * each term, so no random matrix over an open vocabulary has to be stored. Not thread-safe.
+ */
+class LshIndex {
+
+    static final int BANDS = 20;
+
+    static final int ROWS = 14;
+
+    static final int BITS = BANDS * ROWS;
+
+    private static final int WORDS = (BITS + Long.SIZE - 1) / Long.SIZE;
+
+    private static final long SEED = 0x5DEECE66DL;
+
+    private final Map<Long, long[]> signatures = new HashMap<>();
+
+    private final Bucket[][] buckets = new Bucket[BANDS][1 << ROWS];
+
+    /**
+     * Adds a vector to the index or replaces it if the ID is already indexed.
+     * Empty vectors are not indexed.
+     *
+     * @param id     The ID of the vector
+     * @param vector The TF-IDF vector
+     */
+    void put(long id, Map<String, Double> vector) {
+        remove(id);
+        if (vector.isEmpty()) {
+            return;
+        }
+        long[] signature = signature(vector);
+        signatures.put(id, signature);
+        for (int band = 0; band < BANDS; band++) {
+            int key = bandKey(signature, band);
+            if (buckets[band][key] == null) {
+                buckets[band][key] = new Bucket();
+            }
+            buckets[band][key].add(id);
+        }
+    }
+
+    /**
+     * Removes a vector from the index.
+     *
+     * @param id The ID of the vector
+     */
+    void remove(long id) {
+        long[] signature = signatures.remove(id);
+        if (signature == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            buckets[band][bandKey(signature, band)].remove(id);
+        }
+    }
+
+    /**
+     * Finds the indexed vectors sharing at least one band with the given vector.
+     *
+     * @param vector The TF-IDF vector to search for
+     * @return The similarities estimated from the signatures, keyed by ID
+     */
+    Map<Long, Double> candidates(Map<String, Double> vector) {
+        Map<Long, Double> candidates = new LinkedHashMap<>();
+        if (vector.isEmpty()) {
+            return candidates;
+        }
+        long[] signature = signature(vector);
+        for (int band = 0; band < BANDS; band++) {
+            Bucket bucket = buckets[band][bandKey(signature, band)];
+            if (bucket == null) {
+                continue;
+            }
+            for (int i = 0; i < bucket.size; i++) {
+                candidates.computeIfAbsent(bucket.ids[i], id -> estimateSimilarity(signature, signatures.get(id)));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Gets the number of indexed vectors.
+     *
+     * @return The number of vectors
+     */
+    int size() {
+        return signatures.size();
+    }
+
+    private static double estimateSimilarity(long[] a, long[] b) {
+        int differentBits = 0;
+        for (int i = 0; i < a.length; i++) {
+            differentBits += Long.bitCount(a[i] ^ b[i]);
+        }
+        return Math.cos(Math.PI * differentBits / BITS);
+    }
+
+    private static long[] signature(Map<String, Double> vector) {
+        double[] projections = new double[BITS];
+        for (Map.Entry<String, Double> entry : vector.entrySet()) {
+            // the term's component of every hyperplane is +1 or -1, drawn from a generator seeded by the term
+            SplittableRandom components = new SplittableRandom(SEED ^ entry.getKey().hashCode());
+            double weight = entry.getValue();
+            long signs = 0;
+            for (int i = 0; i < BITS; i++) {
+                if (i % Long.SIZE == 0) {
+                    signs = components.nextLong();
+                }
+                projections[i] += (signs >>> (i % Long.SIZE) & 1) == 1 ? weight : -weight;
+            }
+        }
+        long[] signature = new long[WORDS];
+        for (int i = 0; i < BITS; i++) {
+            if (projections[i] >= 0) {
+                signature[i / Long.SIZE] |= 1L << (i % Long.SIZE);
+            }
+        }
+        return signature;
+    }
+
+    private static int bandKey(long[] signature, int band) {
+        int key = 0;
+        for (int row = 0; row < ROWS; row++) {
+            int bit = band * ROWS + row;
+            key = key << 1 | (int) (signature[bit / Long.SIZE] >>> (bit % Long.SIZE) & 1);
+        }
+        return key;
+    }
+
+    /**
+     * The IDs of the vectors with the same key in one band, sorted.
+     */
+    private static final class Bucket {
+        private long[] ids = new long[2];
+
+        private int size;
+
+        private void add(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        private void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+}
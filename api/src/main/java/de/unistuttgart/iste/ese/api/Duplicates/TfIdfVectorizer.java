@@ -0,0 +1,127 @@
+package de.unistuttgart.iste.ese.api.Duplicates;
+
+import de.unistuttgart.iste.ese.api.Search.TextTokenizer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns texts into L2-normalized TF-IDF vectors using the vocabulary and IDF weights of the
+ * classification model (model.pmml), so similarity is measured with the same term weights the model uses.
+ * Terms outside the vocabulary get the highest IDF of the vocabulary, as they are rarer than any known term.
+ */
+@Component
+public class TfIdfVectorizer {
+    private static final Log LOG = LogFactory.getLog(TfIdfVectorizer.class);
+
+    private static final String TFIDF_FIELD_PREFIX = "tfidf@";
+
+    private final Map<String, Double> idfWeights;
+
+    private final double unknownTermIdf;
+
+    /**
+     * Creates a TfIdfVectorizer with the IDF weights of model.pmml.
+     */
+    public TfIdfVectorizer() {
+        this.idfWeights = loadIdfWeights();
+        this.unknownTermIdf = idfWeights.values().stream().mapToDouble(Double::doubleValue).max().orElse(1);
+    }
+
+    /**
+     * Reads the IDF weight of every vocabulary term from the TF-IDF fields of model.pmml.
+     * Each field multiplies the frequency of one term (TextIndex) with its IDF weight (Constant).
+     * If the model cannot be read, every term is weighted equally.
+     *
+     * @return The IDF weights keyed by term
+     */
+    private Map<String, Double> loadIdfWeights() {
+        Map<String, Double> weights = new HashMap<>();
+        try (InputStream model = getClass().getClassLoader().getResourceAsStream("model.pmml")) {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            Document document = factory.newDocumentBuilder().parse(model);
+            NodeList fields = document.getElementsByTagNameNS("*", "DerivedField");
+            for (int i = 0; i < fields.getLength(); i++) {
+                Element field = (Element) fields.item(i);
+                if (!field.getAttribute("name").startsWith(TFIDF_FIELD_PREFIX)) {
+                    continue;
+                }
+                Element apply = (Element) field.getElementsByTagNameNS("*", "Apply").item(0);
+                Element textIndex = (Element) apply.getElementsByTagNameNS("*", "TextIndex").item(0);
+                double idf = Double.parseDouble(firstChild(apply, "Constant").getTextContent().trim());
+                String term = firstChild(textIndex, "Constant").getTextContent().trim();
+                weights.put(term, idf);
+            }
+            LOG.info("Loaded " + weights.size() + " TF-IDF terms from the AI model");
+        } catch (Exception e) {
+            LOG.error("Could not load TF-IDF weights from AI model:", e);
+            weights.clear();
+        }
+        return Collections.unmodifiableMap(weights);
+    }
+
+    private static Element firstChild(Element parent, String localName) {
+        for (var node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element child && localName.equals(child.getLocalName())) {
+                return child;
+            }
+        }
+        throw new IllegalStateException("Missing " + localName + " in " + parent.getLocalName());
+    }
+
+    /**
+     * Creates the TF-IDF vector of a text.
+     *
+     * @param text The text, tokenized like the model input
+     * @return The L2-normalized weights keyed by term, empty if the text contains no terms
+     */
+    public Map<String, Double> vectorize(String text) {
+        Map<String, Double> vector = new HashMap<>();
+        for (String term : TextTokenizer.tokenize(text)) {
+            vector.merge(term, idfWeights.getOrDefault(term, unknownTermIdf), Double::sum);
+        }
+        double norm = Math.sqrt(vector.values().stream().mapToDouble(weight -> weight * weight).sum());
+        vector.replaceAll((term, weight) -> weight / norm);
+        return vector;
+    }
+
+    /**
+     * Computes the cosine similarity of two normalized vectors.
+     *
+     * @param a The first vector
+     * @param b The second vector
+     * @return The similarity between 0 and 1
+     */
+    public static double cosine(Map<String, Double> a, Map<String, Double> b) {
+        if (a.size() > b.size()) {
+            return cosine(b, a);
+        }
+        double similarity = 0;
+        for (Map.Entry<String, Double> entry : a.entrySet()) {
+            similarity += entry.getValue() * b.getOrDefault(entry.getKey(), 0.0);
+        }
+        return similarity;
+    }
+
+    /**
+     * Gets the number of terms with a known IDF weight.
+     *
+     * @return The vocabulary size
+     */
+    public int getVocabularySize() {
+        return idfWeights.size();
+    }
+}
@@ -0,0 +1,142 @@
+package de.unistuttgart.iste.ese.api.Embedded;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.TreeMap;
+
+/**
+ * The Assignees of the embedded store, ordered by ID.
+ * There are few Assignees compared to ToDos, so they are kept as one immutable row object each.
+ * Not thread-safe: EmbeddedStore guards all access with its read/write lock.
+ */
+final class AssigneeTable {
+
+    private final TreeMap<Long, Row> rows = new TreeMap<>();
+
+    private long maxId;
+
+    /**
+     * Gets an Assignee.
+     *
+     * @param id The ID of the Assignee
+     * @return The row, null if there is no such Assignee
+     */
+    Row get(long id) {
+        return rows.get(id);
+    }
+
+    /**
+     * Gets all Assignees ordered by ID.
+     *
+     * @return The rows
+     */
+    Collection<Row> all() {
+        return rows.values();
+    }
+
+    /**
+     * Gets the number of Assignees.
+     *
+     * @return The number of Assignees
+     */
+    int size() {
+        return rows.size();
+    }
+
+    /**
+     * Inserts or replaces an Assignee.
+     *
+     * @param row The row of the Assignee
+     */
+    void put(Row row) {
+        rows.put(row.id, row);
+        maxId = Math.max(maxId, row.id);
+    }
+
+    /**
+     * Deletes an Assignee.
+     *
+     * @param id The ID of the Assignee
+     * @return The deleted row, null if there was no such Assignee
+     */
+    Row delete(long id) {
+        return rows.remove(id);
+    }
+
+    /**
+     * Copies the table, e.g. to write a snapshot without holding a lock.
+     *
+     * @return The copy
+     */
+    AssigneeTable copy() {
+        AssigneeTable copy = new AssigneeTable();
+        copy.rows.putAll(rows);
+        copy.maxId = maxId;
+        return copy;
+    }
+
+    /**
+     * Gets the highest ID ever stored in the table, including deleted Assignees.
+     *
+     * @return The highest ID, 0 if the table is empty
+     */
+    long maxId() {
+        return maxId;
+    }
+
+    /**
+     * An Assignee as stored in the embedded store.
+     */
+    static final class Row {
+        final long id;
+        final long version;
+        final String prename;
+        final String name;
+        final String email;
+
+        /**
+         * Creates a new Row.
+         *
+         * @param id      The ID
+         * @param version The version
+         * @param prename The prename
+         * @param name    The name
+         * @param email   The email address, may be null
+         */
+        Row(long id, long version, String prename, String name, String email) {
+            this.id = id;
+            this.version = version;
+            this.prename = prename;
+            this.name = name;
+            this.email = email;
+        }
+
+        /**
+         * Writes the row in the format read by read.
+         *
+         * @param out The output to write to
+         * @throws IOException if writing fails
+         */
+        void write(DataOutput out) throws IOException {
+            out.writeLong(id);
+            out.writeLong(version);
+            ToDoTable.writeString(out, prename);
+            ToDoTable.writeString(out, name);
+            ToDoTable.writeString(out, email);
+        }
+
+        /**
+         * Reads a row written by write.
+         *
+         * @param in The input to read from
+         * @return The row
+         * @throws IOException if reading fails
+         */
+        static Row read(DataInput in) throws IOException {
+            return new Row(in.readLong(), in.readLong(), ToDoTable.readString(in), ToDoTable.readString(in),
+                ToDoTable.readString(in));
+        }
+    }
+}
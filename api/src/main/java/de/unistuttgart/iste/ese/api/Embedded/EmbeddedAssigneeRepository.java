@@ -0,0 +1,242 @@
+package de.unistuttgart.iste.ese.api.Embedded;
+
+import de.unistuttgart.iste.ese.api.Assignee.Assignee;
+import de.unistuttgart.iste.ese.api.Assignee.AssigneeRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * AssigneeRepository backed by the embedded store, used instead of the JPA repository with the "embedded" profile.
+ * Returned Assignees are copies: changes are only stored by save, which validates them like Hibernate.
+ */
+@Component
+@Profile("embedded")
+public class EmbeddedAssigneeRepository implements AssigneeRepository {
+
+    private final EmbeddedStore store;
+
+    private final Validator validator;
+
+    /**
+     * Creates a new EmbeddedAssigneeRepository.
+     *
+     * @param store     The store holding the Assignees
+     * @param validator The validator checking the constraints of the entity before it is stored
+     */
+    public EmbeddedAssigneeRepository(EmbeddedStore store, Validator validator) {
+        this.store = store;
+        this.validator = validator;
+    }
+
+    /**
+     * Converts a stored row to an Assignee entity.
+     *
+     * @param row The row
+     * @return The Assignee, null if the row is null
+     */
+    static Assignee toAssignee(AssigneeTable.Row row) {
+        if (row == null) {
+            return null;
+        }
+        Assignee assignee = new Assignee(row.name, row.prename, row.email);
+        assignee.setId(row.id);
+        assignee.setVersion(row.version);
+        return assignee;
+    }
+
+    /**
+     * Finds an Assignee by name.
+     *
+     * @param name The name
+     * @return The first Assignee with the name, null if there is none
+     */
+    @Override
+    public Assignee findByName(String name) {
+        return store.read(() -> {
+            for (AssigneeTable.Row row : store.assignees().all()) {
+                if (row.name.equals(name)) {
+                    return toAssignee(row);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Finds the Assignees with the given IDs, skipping unknown IDs.
+     *
+     * @param ids The IDs
+     * @return The Assignees found
+     */
+    @Override
+    public Iterable<Assignee> findAllById(Iterable<Long> ids) {
+        return store.read(() -> {
+            List<Assignee> assignees = new ArrayList<>();
+            for (Long id : ids) {
+                Assignee assignee = toAssignee(store.assignees().get(id));
+                if (assignee != null) {
+                    assignees.add(assignee);
+                }
+            }
+            return assignees;
+        });
+    }
+
+    /**
+     * Finds an Assignee by its ID.
+     *
+     * @param id The ID
+     * @return The Assignee, null if there is none
+     */
+    @Override
+    public Assignee findById(long id) {
+        return store.read(() -> toAssignee(store.assignees().get(id)));
+    }
+
+    /**
+     * Finds an Assignee by its ID.
+     *
+     * @param id The ID
+     * @return The Assignee, empty if there is none
+     */
+    @Override
+    public Optional<Assignee> findById(Long id) {
+        return Optional.ofNullable(findById(id.longValue()));
+    }
+
+    /**
+     * Checks whether an Assignee exists.
+     *
+     * @param id The ID
+     * @return true if the Assignee exists
+     */
+    @Override
+    public boolean existsById(Long id) {
+        return store.read(() -> store.assignees().get(id) != null);
+    }
+
+    /**
+     * Finds all Assignees ordered by ID.
+     *
+     * @return The Assignees
+     */
+    @Override
+    public Iterable<Assignee> findAll() {
+        return store.read(() -> store.assignees().all().stream().map(EmbeddedAssigneeRepository::toAssignee).toList());
+    }
+
+    /**
+     * Counts all Assignees.
+     *
+     * @return The number of Assignees
+     */
+    @Override
+    public long count() {
+        return store.read(() -> (long) store.assignees().size());
+    }
+
+    /**
+     * Saves an Assignee: assigns an ID to a new Assignee and checks and increments the version of an existing one.
+     *
+     * @param assignee The Assignee to save
+     * @param <S>      The type of the Assignee
+     * @return The saved Assignee, the same instance with ID and version set
+     * @throws ConstraintViolationException if the Assignee violates a constraint of the entity
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the Assignee was modified or deleted
+     */
+    @Override
+    public <S extends Assignee> S save(S assignee) {
+        Set<ConstraintViolation<S>> violations = validator.validate(assignee);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        boolean isNew = assignee.getId() == null;
+        long id = isNew ? store.nextAssigneeId() : assignee.getId();
+        long version = isNew ? 0 : assignee.getVersion() + 1;
+        store.apply(new Mutation.AssigneePut(
+            new AssigneeTable.Row(id, version, assignee.getPrename(), assignee.getName(), assignee.getEmail()),
+            isNew ? -1 : assignee.getVersion()));
+        assignee.setId(id);
+        assignee.setVersion(version);
+        return assignee;
+    }
+
+    /**
+     * Saves several Assignees, see save.
+     *
+     * @param assignees The Assignees to save
+     * @param <S>       The type of the Assignees
+     * @return The saved Assignees
+     */
+    @Override
+    public <S extends Assignee> Iterable<S> saveAll(Iterable<S> assignees) {
+        List<S> saved = new ArrayList<>();
+        for (S assignee : assignees) {
+            saved.add(save(assignee));
+        }
+        return saved;
+    }
+
+    /**
+     * Deletes an Assignee if it exists.
+     *
+     * @param id The ID
+     */
+    @Override
+    public void deleteById(Long id) {
+        store.apply(new Mutation.AssigneeDelete(id, -1));
+    }
+
+    /**
+     * Deletes an Assignee, checking its version.
+     *
+     * @param assignee The Assignee
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the Assignee was modified
+     */
+    @Override
+    public void delete(Assignee assignee) {
+        store.apply(new Mutation.AssigneeDelete(assignee.getId(), assignee.getVersion()));
+    }
+
+    /**
+     * Deletes the Assignees with the given IDs.
+     *
+     * @param ids The IDs
+     */
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        for (Long id : ids) {
+            deleteById(id);
+        }
+    }
+
+    /**
+     * Deletes the given Assignees, checking their versions.
+     *
+     * @param assignees The Assignees
+     */
+    @Override
+    public void deleteAll(Iterable<? extends Assignee> assignees) {
+        for (Assignee assignee : assignees) {
+            delete(assignee);
+        }
+    }
+
+    /**
+     * Deletes all Assignees.
+     */
+    @Override
+    public void deleteAll() {
+        for (Assignee assignee : findAll()) {
+            deleteById(assignee.getId());
+        }
+    }
+}
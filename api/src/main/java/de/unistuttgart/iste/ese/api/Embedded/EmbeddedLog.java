@@ -0,0 +1,172 @@
+package de.unistuttgart.iste.ese.api.Embedded;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only log file written through memory-mapped chunks.
+ *
+ * Each record is framed as [length][CRC32C][payload]. A record never spans two chunks: if it does not fit into the
+ * rest of a chunk, a padding marker is written and the record starts at the next chunk. The file is zero-filled
+ * beyond the last record, so a length of 0 marks the end of the log. On recovery the log is read up to the first
+ * record that is incomplete or fails its checksum, i.e. a record torn by a crash, and appending continues there.
+ * Also used for the segments of the mutation journal, which consist of a single chunk.
+ */
+public final class EmbeddedLog implements Closeable {
+    private static final int HEADER = 8;
+    private static final int PADDING = -1;
+
+    private final FileChannel channel;
+    private final int chunkSize;
+    private final CRC32C crc = new CRC32C();
+    private MappedByteBuffer chunk;
+    private long chunkStart;
+
+    private EmbeddedLog(FileChannel channel, int chunkSize, long position) throws IOException {
+        this.channel = channel;
+        this.chunkSize = chunkSize;
+        this.chunkStart = position - position % chunkSize;
+        this.chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, chunkSize);
+        int offset = (int) (position - chunkStart);
+        // wipe what a crash may have left behind the last complete record
+        for (int i = offset; i < chunkSize; i++) {
+            chunk.put(i, (byte) 0);
+        }
+        chunk.position(offset);
+    }
+
+    /**
+     * Opens a log for appending after its last complete record, creating the file if it does not exist.
+     *
+     * @param file      The log file
+     * @param chunkSize The size of the mapped chunks, also the maximum size of a record
+     * @param end       The position after the last complete record, as returned by read
+     * @return The log
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static EmbeddedLog open(Path file, int chunkSize, long end) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        try {
+            return new EmbeddedLog(channel, chunkSize, end);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads all complete records of a log file.
+     *
+     * @param file      The log file
+     * @param chunkSize The chunk size the log was written with
+     * @param consumer  The consumer receiving the payload of each record
+     * @return The position after the last complete record
+     * @throws IOException if the file cannot be read
+     */
+    public static long read(Path file, int chunkSize, Consumer<ByteBuffer> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            CRC32C checksum = new CRC32C();
+            for (long start = 0; start < size; start += chunkSize) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(chunkSize, size - start));
+                while (true) {
+                    int offset = buffer.position();
+                    if (buffer.remaining() < HEADER) {
+                        break;
+                    }
+                    int length = buffer.getInt();
+                    if (length == PADDING) {
+                        break;
+                    }
+                    if (length <= 0 || length > buffer.remaining() - 4) {
+                        return start + offset;
+                    }
+                    int expected = buffer.getInt();
+                    ByteBuffer payload = buffer.slice(buffer.position(), length);
+                    checksum.reset();
+                    checksum.update(payload.duplicate());
+                    if ((int) checksum.getValue() != expected) {
+                        return start + offset;
+                    }
+                    consumer.accept(payload);
+                    buffer.position(buffer.position() + length);
+                }
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Appends a record. It is durable only after the next call of force.
+     *
+     * @param payload The payload of the record
+     * @throws IOException if a new chunk cannot be mapped
+     * @throws IllegalArgumentException if the record is larger than a chunk
+     */
+    public synchronized void append(byte[] payload) throws IOException {
+        if (payload.length + HEADER > chunkSize) {
+            throw new IllegalArgumentException("Log record of " + payload.length + " bytes exceeds the chunk size");
+        }
+        if (chunk.remaining() < payload.length + HEADER) {
+            if (chunk.remaining() >= 4) {
+                chunk.putInt(PADDING);
+            }
+            chunk.force();
+            chunkStart += chunkSize;
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, chunkSize);
+        }
+        crc.reset();
+        crc.update(payload);
+        int position = chunk.position();
+        // the length is written last, so a record is never visible before its payload and checksum
+        chunk.putInt(position + 4, (int) crc.getValue());
+        chunk.put(position + HEADER, payload);
+        chunk.putInt(position, payload.length);
+        chunk.position(position + HEADER + payload.length);
+    }
+
+    /**
+     * Checks whether a record fits into the rest of the current chunk.
+     *
+     * @param length The length of the payload
+     * @return true if the record can be appended without starting a new chunk
+     */
+    public synchronized boolean fits(int length) {
+        return chunk.remaining() >= length + HEADER;
+    }
+
+    /**
+     * Writes the appended records to the storage device.
+     */
+    public synchronized void force() {
+        chunk.force();
+    }
+
+    /**
+     * Gets the position after the last appended record.
+     *
+     * @return The position in bytes
+     */
+    public synchronized long position() {
+        return chunkStart + chunk.position();
+    }
+
+    /**
+     * Forces and closes the log.
+     *
+     * @throws IOException if closing the file fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        chunk.force();
+        channel.close();
+    }
+}
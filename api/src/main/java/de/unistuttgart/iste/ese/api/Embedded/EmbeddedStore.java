@@ -0,0 +1,511 @@
+package de.unistuttgart.iste.ese.api.Embedded;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Embedded storage engine for ToDos and Assignees, used instead of the database with the "embedded" profile.
+ *
+ * The data is held in memory (ToDoTable, AssigneeTable) and persisted in a directory of generations: the snapshot
+ * of generation n holds the state when generation n started, the log of generation n every committed change since.
+ * A commit appends one checksummed record with all changes of the transaction to the memory-mapped log and forces
+ * it to disk. Snapshots are written periodically from a copy of the tables, so readers and writers only pause for
+ * the copy; afterwards a new generation starts and the older files are deleted. On startup the latest snapshot is
+ * loaded and the logs from its generation on are replayed, up to the last complete record.
+ *
+ * Readers take the read lock per operation. Write transactions are serialized: the first change of a transaction
+ * takes the writer lock and the write lock of the tables, which are both held until commit or rollback. Changes are
+ * applied in place, so readers of other threads wait until the transaction ends and never see uncommitted rows; a
+ * rollback restores the previous rows. The transaction itself reads its own changes.
+ */
+@Component
+@Profile("embedded")
+public class EmbeddedStore {
+    private static final Log LOG = LogFactory.getLog(EmbeddedStore.class);
+
+    private static final Pattern FILE_NAME = Pattern.compile("store-(\\d+)\\.(log|snapshot)");
+    private static final int SNAPSHOT_MAGIC = 0x54444F53;
+    private static final int SNAPSHOT_FORMAT = 1;
+
+    private final Path directory;
+
+    private final int chunkSize;
+
+    private final Timer commitTimer;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ReentrantLock writerLock = new ReentrantLock();
+
+    private final AtomicLong nextToDoId = new AtomicLong(1);
+
+    private final AtomicLong nextAssigneeId = new AtomicLong(1);
+
+    private ToDoTable todos = new ToDoTable();
+
+    private AssigneeTable assignees = new AssigneeTable();
+
+    private EmbeddedLog log;
+
+    private long generation;
+
+    private long snapshotPosition;
+
+    /**
+     * Creates a new EmbeddedStore. The data is recovered from the directory in recover().
+     *
+     * @param directory     The directory holding the snapshots and logs
+     * @param chunkSize     The size of the memory-mapped log chunks in bytes, also the maximum size of a commit
+     * @param meterRegistry The registry to publish the commit latency to
+     */
+    public EmbeddedStore(@Value("${api.embedded.directory:data}") String directory,
+                         @Value("${api.embedded.log-chunk-bytes:16777216}") int chunkSize,
+                         MeterRegistry meterRegistry) {
+        this.directory = Path.of(directory).toAbsolutePath();
+        this.chunkSize = chunkSize;
+        this.commitTimer = meterRegistry.timer("api.embedded.commits");
+    }
+
+    /**
+     * Loads the latest snapshot and replays the logs written since.
+     *
+     * @throws IOException if the directory cannot be read or a snapshot is corrupt
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        long start = System.currentTimeMillis();
+        Files.createDirectories(directory);
+        TreeSet<Long> snapshots = new TreeSet<>();
+        TreeSet<Long> logs = new TreeSet<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    (matcher.group(2).equals("log") ? logs : snapshots).add(Long.parseLong(matcher.group(1)));
+                } else if (file.getFileName().toString().endsWith(".snapshot.tmp")) {
+                    // a snapshot that was not completed before a crash
+                    Files.delete(file);
+                }
+            }
+        }
+        generation = snapshots.isEmpty() ? 0 : snapshots.last();
+        if (!snapshots.isEmpty()) {
+            readSnapshot(snapshotFile(generation));
+        }
+        long snapshotMs = System.currentTimeMillis() - start;
+        long[] records = new long[1];
+        long end = 0;
+        for (long logGeneration : logs.tailSet(generation)) {
+            end = EmbeddedLog.read(logFile(logGeneration), chunkSize, payload -> {
+                replayRecord(payload);
+                records[0]++;
+            });
+            generation = logGeneration;
+        }
+        nextToDoId.accumulateAndGet(todos.maxId() + 1, Math::max);
+        nextAssigneeId.accumulateAndGet(assignees.maxId() + 1, Math::max);
+        log = EmbeddedLog.open(logFile(generation), chunkSize, end);
+        snapshotPosition = records[0] == 0 ? end : -1;
+        LOG.info("Recovered " + todos.size + " ToDos and " + assignees.size() + " Assignees from " + directory
+            + " in " + (System.currentTimeMillis() - start) + " ms (snapshot " + snapshotMs + " ms, "
+            + records[0] + " log records)");
+    }
+
+    /**
+     * Writes a snapshot and closes the log, so the next start does not need to replay it.
+     *
+     * @throws IOException if the log cannot be closed
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        snapshot();
+        writerLock.lock();
+        try {
+            log.close();
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a read under the read lock.
+     *
+     * @param reader The read, which may only access the tables passed to the repositories
+     * @param <T>    The type of the result
+     * @return The result of the read
+     */
+    <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the ToDo table. Must only be accessed within read() or a Mutation.
+     *
+     * @return The ToDo table
+     */
+    ToDoTable todos() {
+        return todos;
+    }
+
+    /**
+     * Gets the Assignee table. Must only be accessed within read() or a Mutation.
+     *
+     * @return The Assignee table
+     */
+    AssigneeTable assignees() {
+        return assignees;
+    }
+
+    /**
+     * Allocates the ID of a new ToDo.
+     *
+     * @return The ID
+     */
+    long nextToDoId() {
+        return nextToDoId.getAndIncrement();
+    }
+
+    /**
+     * Allocates the ID of a new Assignee.
+     *
+     * @return The ID
+     */
+    long nextAssigneeId() {
+        return nextAssigneeId.getAndIncrement();
+    }
+
+    /**
+     * Takes the writer lock and the write lock of the tables for the current transaction before its first change,
+     * e.g. to select rows that are deleted afterwards without concurrent modification. Does nothing outside a
+     * transaction. Must not be called within read(), as the read lock cannot be upgraded.
+     */
+    void lockForWrite() {
+        EmbeddedTransaction transaction = currentTransaction();
+        if (transaction != null && !transaction.writing) {
+            writerLock.lock();
+            lock.writeLock().lock();
+            transaction.writing = true;
+        }
+    }
+
+    /**
+     * Applies a change. Within a transaction it is written to the log on commit, otherwise immediately.
+     *
+     * @param mutation The change
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the change expects another version
+     * @throws DataAccessResourceFailureException if the change cannot be written to the log
+     */
+    void apply(Mutation mutation) {
+        EmbeddedTransaction transaction = currentTransaction();
+        if (transaction != null) {
+            lockForWrite();
+            Mutation undo = applyLocked(mutation);
+            transaction.redo.add(mutation);
+            transaction.undo.add(undo);
+            return;
+        }
+        writerLock.lock();
+        try {
+            Mutation undo = applyLocked(mutation);
+            try {
+                writeToLog(List.of(mutation));
+            } catch (IOException | RuntimeException e) {
+                applyLocked(undo);
+                throw new DataAccessResourceFailureException("Could not write to the embedded store log", e);
+            }
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the changes of a transaction to the log and releases its locks.
+     * If the log cannot be written, the changes are undone.
+     *
+     * @param transaction The transaction
+     * @throws TransactionSystemException if the changes cannot be written to the log
+     */
+    void commit(EmbeddedTransaction transaction) {
+        if (!transaction.writing) {
+            return;
+        }
+        try {
+            if (!transaction.redo.isEmpty()) {
+                writeToLog(transaction.redo);
+            }
+        } catch (IOException | RuntimeException e) {
+            undo(transaction);
+            throw new TransactionSystemException("Could not write to the embedded store log", e);
+        } finally {
+            unlock(transaction);
+        }
+    }
+
+    /**
+     * Undoes the changes of a transaction and releases its locks.
+     *
+     * @param transaction The transaction
+     */
+    void rollback(EmbeddedTransaction transaction) {
+        if (!transaction.writing) {
+            return;
+        }
+        try {
+            undo(transaction);
+        } finally {
+            unlock(transaction);
+        }
+    }
+
+    /**
+     * Writes a snapshot if anything changed since the last one and starts a new generation.
+     * Writers wait while the tables are copied; the snapshot file is written from the copy without a lock.
+     */
+    @Scheduled(initialDelayString = "${api.embedded.snapshot-interval-ms:60000}",
+        fixedDelayString = "${api.embedded.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        ToDoTable todoCopy;
+        AssigneeTable assigneeCopy;
+        long snapshotGeneration;
+        long nextToDo;
+        long nextAssignee;
+        writerLock.lock();
+        try {
+            if (log.position() == snapshotPosition) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                todos.compactIfSparse();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            todoCopy = todos.copy();
+            assigneeCopy = assignees.copy();
+            nextToDo = nextToDoId.get();
+            nextAssignee = nextAssigneeId.get();
+            snapshotGeneration = generation + 1;
+            EmbeddedLog next = EmbeddedLog.open(logFile(snapshotGeneration), chunkSize, 0);
+            log.close();
+            log = next;
+            generation = snapshotGeneration;
+            snapshotPosition = 0;
+        } catch (IOException e) {
+            LOG.error("Could not start a new generation of the embedded store", e);
+            return;
+        } finally {
+            writerLock.unlock();
+        }
+        long start = System.currentTimeMillis();
+        try {
+            writeSnapshot(snapshotGeneration, todoCopy, assigneeCopy, nextToDo, nextAssignee);
+            deleteGenerationsBefore(snapshotGeneration);
+        } catch (IOException e) {
+            // the previous snapshot and logs are kept, so recovery does not depend on this snapshot
+            LOG.error("Could not write a snapshot of the embedded store", e);
+            return;
+        }
+        LOG.info("Wrote snapshot " + snapshotGeneration + " with " + todoCopy.size + " ToDos in "
+            + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private EmbeddedTransaction currentTransaction() {
+        return (EmbeddedTransaction) TransactionSynchronizationManager.getResource(this);
+    }
+
+    private void unlock(EmbeddedTransaction transaction) {
+        transaction.writing = false;
+        lock.writeLock().unlock();
+        writerLock.unlock();
+    }
+
+    private Mutation applyLocked(Mutation mutation) {
+        lock.writeLock().lock();
+        try {
+            return mutation.apply(todos, assignees);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void undo(EmbeddedTransaction transaction) {
+        for (int i = transaction.undo.size() - 1; i >= 0; i--) {
+            applyLocked(transaction.undo.get(i));
+        }
+        transaction.redo.clear();
+        transaction.undo.clear();
+    }
+
+    private void writeToLog(List<Mutation> mutations) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(mutations.size());
+        for (Mutation mutation : mutations) {
+            mutation.write(out);
+        }
+        long start = System.nanoTime();
+        log.append(bytes.toByteArray());
+        log.force();
+        commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void replayRecord(ByteBuffer payload) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteBufferInputStream(payload));
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Mutation.replay(in, todos, assignees);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt record in the embedded store log", e);
+        }
+    }
+
+    private void readSnapshot(Path file) throws IOException {
+        CRC32C checksum = new CRC32C();
+        try (InputStream fileStream = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            CheckedInputStream checked = new CheckedInputStream(fileStream, checksum);
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_FORMAT) {
+                throw new IOException("Not an embedded store snapshot: " + file);
+            }
+            in.readLong();
+            nextToDoId.set(in.readLong());
+            nextAssigneeId.set(in.readLong());
+            int assigneeCount = in.readInt();
+            for (int i = 0; i < assigneeCount; i++) {
+                assignees.put(AssigneeTable.Row.read(in));
+            }
+            int todoCount = in.readInt();
+            todos = new ToDoTable(Math.max(16, todoCount));
+            for (int i = 0; i < todoCount; i++) {
+                todos.readRow(in);
+            }
+            int expected = (int) checksum.getValue();
+            if (new DataInputStream(fileStream).readInt() != expected) {
+                throw new IOException("Checksum mismatch in embedded store snapshot " + file);
+            }
+        }
+    }
+
+    private void writeSnapshot(long snapshotGeneration, ToDoTable todoCopy, AssigneeTable assigneeCopy,
+                               long nextToDo, long nextAssignee) throws IOException {
+        Path target = snapshotFile(snapshotGeneration);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            CRC32C checksum = new CRC32C();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(buffered, checksum));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_FORMAT);
+            out.writeLong(snapshotGeneration);
+            out.writeLong(nextToDo);
+            out.writeLong(nextAssignee);
+            out.writeInt(assigneeCopy.size());
+            for (AssigneeTable.Row row : assigneeCopy.all()) {
+                row.write(out);
+            }
+            out.writeInt(todoCopy.size);
+            for (int slot = 0; slot < todoCopy.slots; slot++) {
+                todoCopy.writeRow(slot, out);
+            }
+            out.flush();
+            new DataOutputStream(buffered).writeInt((int) checksum.getValue());
+            buffered.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deleteGenerationsBefore(long snapshotGeneration) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && Long.parseLong(matcher.group(1)) < snapshotGeneration) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Path logFile(long fileGeneration) {
+        return directory.resolve(String.format("store-%010d.log", fileGeneration));
+    }
+
+    private Path snapshotFile(long fileGeneration) {
+        return directory.resolve(String.format("store-%010d.snapshot", fileGeneration));
+    }
+
+    /**
+     * Reads a log record payload through DataInputStream without copying it.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
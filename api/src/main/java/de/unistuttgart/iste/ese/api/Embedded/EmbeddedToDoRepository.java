@@ -0,0 +1,585 @@
+package de.unistuttgart.iste.ese.api.Embedded;
+
+import de.unistuttgart.iste.ese.api.Assignee.Assignee;
+import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+
+import static de.unistuttgart.iste.ese.api.Embedded.ToDoTable.NULL;
+
+/**
+ * ToDoRepository backed by the embedded store, used instead of the JPA repository with the "embedded" profile.
+ *
+ * The queries scan the column arrays of the ToDo table and keep only the first rows of the requested order in a
+ * bounded heap, so no index is needed. Returned ToDos are copies: changes are only stored by save, and save checks
+ * and increments the version like the JPA repository. Like Hibernate, save validates the ToDo before storing it.
+ * Nulls sort first, as in H2 and MariaDB.
+ */
+@Component
+@Profile("embedded")
+public class EmbeddedToDoRepository implements ToDoRepository {
+
+    private final EmbeddedStore store;
+
+    private final Validator validator;
+
+    /**
+     * Creates a new EmbeddedToDoRepository.
+     *
+     * @param store     The store holding the ToDos
+     * @param validator The validator checking the constraints of the entity before it is stored
+     */
+    public EmbeddedToDoRepository(EmbeddedStore store, Validator validator) {
+        this.store = store;
+        this.validator = validator;
+    }
+
+    /**
+     * Saves a ToDo: assigns an ID to a new ToDo, sets the creation and finished dates as the JPA entity callbacks
+     * do, and checks and increments the version of an existing ToDo.
+     *
+     * @param todo The ToDo to save
+     * @param <S>  The type of the ToDo
+     * @return The saved ToDo, the same instance with ID and version set
+     * @throws ConstraintViolationException if the ToDo violates a constraint of the entity
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the ToDo was modified or deleted
+     */
+    @Override
+    public <S extends ToDo> S save(S todo) {
+        Set<ConstraintViolation<S>> violations = validator.validate(todo);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        boolean isNew = todo.getId() == null;
+        if (todo.getCreatedDate() == null) {
+            todo.setCreatedDate(System.currentTimeMillis());
+        }
+        if (todo.isFinished() && todo.getFinishedDate() == null) {
+            todo.setFinishedDate(System.currentTimeMillis());
+        }
+        long id = isNew ? store.nextToDoId() : todo.getId();
+        long version = isNew ? 0 : todo.getVersion() + 1;
+        List<Assignee> assigneeList = todo.getAssigneeList() == null ? List.of() : todo.getAssigneeList();
+        long[] assigneeIds = assigneeList.stream().mapToLong(Assignee::getId).toArray();
+        ToDoTable row = new ToDoTable(1);
+        row.put(id, version, todo.getTitle(), todo.getDescription(), todo.isFinished(), todo.getCreatedDate(),
+            todo.getDueDate(), todo.getFinishedDate(), todo.getCategory(), assigneeIds);
+        store.apply(new Mutation.ToDoPut(row, 0, isNew ? -1 : todo.getVersion()));
+        todo.setId(id);
+        todo.setVersion(version);
+        return todo;
+    }
+
+    /**
+     * Saves several ToDos, see save.
+     *
+     * @param todos The ToDos to save
+     * @param <S>   The type of the ToDos
+     * @return The saved ToDos
+     */
+    @Override
+    public <S extends ToDo> Iterable<S> saveAll(Iterable<S> todos) {
+        List<S> saved = new ArrayList<>();
+        for (S todo : todos) {
+            saved.add(save(todo));
+        }
+        return saved;
+    }
+
+    /**
+     * Finds a ToDo by its ID.
+     *
+     * @param id The ID
+     * @return The ToDo, empty if there is none
+     */
+    @Override
+    public Optional<ToDo> findById(Long id) {
+        return Optional.ofNullable(store.read(() -> {
+            int slot = store.todos().slotOf(id);
+            return slot < 0 ? null : toToDo(slot);
+        }));
+    }
+
+    /**
+     * Checks whether a ToDo exists.
+     *
+     * @param id The ID
+     * @return true if the ToDo exists
+     */
+    @Override
+    public boolean existsById(Long id) {
+        return store.read(() -> store.todos().slotOf(id) >= 0);
+    }
+
+    /**
+     * Finds all ToDos ordered by ID.
+     *
+     * @return The ToDos
+     */
+    @Override
+    public List<ToDo> findAll() {
+        return select(slot -> true, null, Limit.unlimited());
+    }
+
+    /**
+     * Finds the ToDos with the given IDs ordered by ID, skipping unknown IDs.
+     *
+     * @param ids The IDs
+     * @return The ToDos found
+     */
+    @Override
+    public Iterable<ToDo> findAllById(Iterable<Long> ids) {
+        Set<Long> wanted = new HashSet<>();
+        ids.forEach(wanted::add);
+        return findAllWithAssigneesByIdIn(wanted);
+    }
+
+    /**
+     * Finds the ToDos with the given IDs ordered by ID, skipping unknown IDs. Assignees are always loaded.
+     *
+     * @param ids The IDs
+     * @return The ToDos found
+     */
+    @Override
+    public List<ToDo> findAllWithAssigneesByIdIn(Collection<Long> ids) {
+        List<Long> sorted = new ArrayList<>(new HashSet<>(ids));
+        sorted.sort(null);
+        return store.read(() -> {
+            List<ToDo> todos = new ArrayList<>(sorted.size());
+            for (Long id : sorted) {
+                int slot = store.todos().slotOf(id);
+                if (slot >= 0) {
+                    todos.add(toToDo(slot));
+                }
+            }
+            return todos;
+        });
+    }
+
+    /**
+     * Counts all ToDos.
+     *
+     * @return The number of ToDos
+     */
+    @Override
+    public long count() {
+        return store.read(() -> (long) store.todos().size);
+    }
+
+    /**
+     * Finds the ToDos of an Assignee ordered by ID.
+     *
+     * @param assigneeId The ID of the Assignee
+     * @return The ToDos
+     */
+    @Override
+    public List<ToDo> findByAssigneeListId(Long assigneeId) {
+        return select(slot -> hasAssignee(slot, assigneeId), null, Limit.unlimited());
+    }
+
+    /**
+     * Finds the ToDos of an Assignee ordered by ID.
+     *
+     * @param assignee The Assignee
+     * @return The ToDos
+     */
+    @Override
+    public List<ToDo> findAllByAssigneeListContaining(Assignee assignee) {
+        return findByAssigneeListId(assignee.getId());
+    }
+
+    /**
+     * Streams all ToDos ordered by ID. The IDs are read up front, each ToDo when the stream reaches it.
+     *
+     * @return The stream of ToDos
+     */
+    @Override
+    public Stream<ToDo> streamAll() {
+        long[] ids = store.read(() -> {
+            ToDoTable todos = store.todos();
+            long[] live = new long[todos.size];
+            int count = 0;
+            for (int slot = todos.live.nextSetBit(0); slot >= 0; slot = todos.live.nextSetBit(slot + 1)) {
+                live[count++] = todos.ids[slot];
+            }
+            return live;
+        });
+        return Stream.of(ids).flatMapToLong(java.util.Arrays::stream).boxed()
+            .map(this::findById).flatMap(Optional::stream);
+    }
+
+    /**
+     * Counts the ToDos per category and finished status.
+     *
+     * @return Rows of category, finished status and count
+     */
+    @Override
+    public List<Object[]> countByCategoryAndFinished() {
+        return store.read(() -> {
+            ToDoTable todos = store.todos();
+            Map<String, long[]> counts = new HashMap<>();
+            for (int slot = todos.live.nextSetBit(0); slot >= 0; slot = todos.live.nextSetBit(slot + 1)) {
+                counts.computeIfAbsent(todos.category(slot), category -> new long[2])
+                    [todos.finished.get(slot) ? 1 : 0]++;
+            }
+            List<Object[]> rows = new ArrayList<>();
+            counts.forEach((category, count) -> {
+                for (int finished = 0; finished < 2; finished++) {
+                    if (count[finished] > 0) {
+                        rows.add(new Object[]{category, finished == 1, count[finished]});
+                    }
+                }
+            });
+            return rows;
+        });
+    }
+
+    /**
+     * Counts the unfinished ToDos due before a time.
+     *
+     * @param now The time in milliseconds since the epoch
+     * @return The number of overdue ToDos
+     */
+    @Override
+    public long countOverdue(Long now) {
+        return store.read(() -> {
+            ToDoTable todos = store.todos();
+            long count = 0;
+            for (int slot = todos.live.nextSetBit(0); slot >= 0; slot = todos.live.nextSetBit(slot + 1)) {
+                if (!todos.finished.get(slot) && todos.dueDates[slot] != NULL && todos.dueDates[slot] < now) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Counts the ToDos of every Assignee per finished status.
+     *
+     * @return Rows of Assignee ID, finished status and count
+     */
+    @Override
+    public List<Object[]> countByAssigneeAndFinished() {
+        return store.read(() -> {
+            ToDoTable todos = store.todos();
+            Map<Long, long[]> counts = new HashMap<>();
+            for (int slot = todos.live.nextSetBit(0); slot >= 0; slot = todos.live.nextSetBit(slot + 1)) {
+                for (long assigneeId : todos.assignees(slot)) {
+                    counts.computeIfAbsent(assigneeId, id -> new long[2])[todos.finished.get(slot) ? 1 : 0]++;
+                }
+            }
+            List<Object[]> rows = new ArrayList<>();
+            counts.forEach((assigneeId, count) -> {
+                for (int finished = 0; finished < 2; finished++) {
+                    if (count[finished] > 0) {
+                        rows.add(new Object[]{assigneeId, finished == 1, count[finished]});
+                    }
+                }
+            });
+            return rows;
+        });
+    }
+
+    /**
+     * Finds unfinished ToDos due before a time, earliest first.
+     *
+     * @param now   The time in milliseconds since the epoch
+     * @param limit The maximum number of ToDos
+     * @return The overdue ToDos
+     */
+    @Override
+    public List<ToDo> findOverdue(Long now, Limit limit) {
+        ToDoTable todos = store.todos();
+        return select(slot -> !todos.finished.get(slot) && todos.dueDates[slot] != NULL && todos.dueDates[slot] < now,
+            byDueDate(), limit);
+    }
+
+    /**
+     * Finds unfinished ToDos due within a range, earliest first.
+     *
+     * @param from  The start of the range (inclusive)
+     * @param to    The end of the range (exclusive)
+     * @param limit The maximum number of ToDos
+     * @return The ToDos due within the range
+     */
+    @Override
+    public List<ToDo> findDueBetween(Long from, Long to, Limit limit) {
+        ToDoTable todos = store.todos();
+        return select(slot -> !todos.finished.get(slot) && todos.dueDates[slot] != NULL
+            && todos.dueDates[slot] >= from && todos.dueDates[slot] < to, byDueDate(), limit);
+    }
+
+    /**
+     * Finds the unfinished ToDos of an Assignee that have a due date, earliest due date first.
+     *
+     * @param assigneeId The ID of the Assignee
+     * @param limit      The maximum number of ToDos
+     * @return The ToDos
+     */
+    @Override
+    public List<ToDo> findNextDueByAssignee(Long assigneeId, Limit limit) {
+        ToDoTable todos = store.todos();
+        return select(slot -> !todos.finished.get(slot) && todos.dueDates[slot] != NULL
+            && hasAssignee(slot, assigneeId), byDueDate(), limit);
+    }
+
+    /**
+     * Finds a page of the dated ToDos of an Assignee in (due date, ID) order after a cursor.
+     *
+     * @param assigneeId The ID of the Assignee
+     * @param finished   The finished status to filter by, null for all
+     * @param dueFrom    The start of the due date range (inclusive)
+     * @param dueTo      The end of the due date range (exclusive)
+     * @param afterDue   The due date of the cursor
+     * @param afterId    The ID of the cursor
+     * @param limit      The maximum number of ToDos
+     * @return The page of ToDos
+     */
+    @Override
+    public List<ToDo> findPageByAssignee(Long assigneeId, Boolean finished, Long dueFrom, Long dueTo,
+                                         Long afterDue, Long afterId, Limit limit) {
+        ToDoTable todos = store.todos();
+        return select(slot -> {
+            long due = todos.dueDates[slot];
+            return due != NULL && due >= dueFrom && due < dueTo
+                && (due > afterDue || (due == afterDue && todos.ids[slot] > afterId))
+                && (finished == null || todos.finished.get(slot) == finished)
+                && hasAssignee(slot, assigneeId);
+        }, byDueDate(), limit);
+    }
+
+    /**
+     * Finds a page of the ToDos without due date of an Assignee in ID order after a cursor.
+     *
+     * @param assigneeId The ID of the Assignee
+     * @param finished   The finished status to filter by, null for all
+     * @param afterId    The ID of the cursor
+     * @param limit      The maximum number of ToDos
+     * @return The page of ToDos
+     */
+    @Override
+    public List<ToDo> findUndatedPageByAssignee(Long assigneeId, Boolean finished, Long afterId, Limit limit) {
+        ToDoTable todos = store.todos();
+        return select(slot -> todos.dueDates[slot] == NULL && todos.ids[slot] > afterId
+            && (finished == null || todos.finished.get(slot) == finished)
+            && hasAssignee(slot, assigneeId), null, limit);
+    }
+
+    /**
+     * Finds the IDs of ToDos finished before a time, earliest first.
+     *
+     * @param cutoff The time in milliseconds since the epoch
+     * @param limit  The maximum number of IDs
+     * @return The IDs
+     */
+    @Override
+    public List<Long> findIdsFinishedBefore(Long cutoff, Limit limit) {
+        ToDoTable todos = store.todos();
+        return select(slot -> todos.finished.get(slot) && todos.finishedDates[slot] != NULL
+                && todos.finishedDates[slot] < cutoff,
+            Comparator.<Integer>comparingLong(slot -> todos.finishedDates[slot]).thenComparingInt(slot -> slot), limit)
+            .stream().map(ToDo::getId).toList();
+    }
+
+    /**
+     * Finds ToDos matching a filter in ID order to delete them. Takes the writer lock of the current transaction,
+     * so the ToDos cannot change before they are deleted, like the pessimistic lock of the JPA repository.
+     *
+     * @param afterId        The ID after which the ToDos are selected
+     * @param category       The category to filter by, null for all
+     * @param finished       The finished status to filter by, null for all
+     * @param finishedBefore The time before which the ToDos must have been finished, null for all
+     * @param limit          The maximum number of ToDos
+     * @return The ToDos
+     */
+    @Override
+    public List<ToDo> findForDeletion(Long afterId, String category, Boolean finished, Long finishedBefore,
+                                      Limit limit) {
+        store.lockForWrite();
+        ToDoTable todos = store.todos();
+        return select(slot -> todos.ids[slot] > afterId
+            && (category == null || category.equals(todos.category(slot)))
+            && (finished == null || todos.finished.get(slot) == finished)
+            && (finishedBefore == null || todos.finishedDates[slot] != NULL
+                && todos.finishedDates[slot] < finishedBefore), null, limit);
+    }
+
+    /**
+     * Deletes the ToDos with the given IDs, skipping unknown IDs.
+     *
+     * @param ids The IDs
+     * @return The number of deleted ToDos
+     */
+    @Override
+    public int deleteAllByIdIn(List<Long> ids) {
+        int deleted = 0;
+        for (Long id : ids) {
+            if (existsById(id)) {
+                store.apply(new Mutation.ToDoDelete(id, -1));
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes a ToDo if it exists.
+     *
+     * @param id The ID
+     */
+    @Override
+    public void deleteById(Long id) {
+        store.apply(new Mutation.ToDoDelete(id, -1));
+    }
+
+    /**
+     * Deletes a ToDo, checking its version.
+     *
+     * @param todo The ToDo
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the ToDo was modified
+     */
+    @Override
+    public void delete(ToDo todo) {
+        store.apply(new Mutation.ToDoDelete(todo.getId(), todo.getVersion()));
+    }
+
+    /**
+     * Deletes the ToDos with the given IDs.
+     *
+     * @param ids The IDs
+     */
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        for (Long id : ids) {
+            deleteById(id);
+        }
+    }
+
+    /**
+     * Deletes the given ToDos, checking their versions.
+     *
+     * @param todos The ToDos
+     */
+    @Override
+    public void deleteAll(Iterable<? extends ToDo> todos) {
+        for (ToDo todo : todos) {
+            delete(todo);
+        }
+    }
+
+    /**
+     * Deletes all ToDos.
+     */
+    @Override
+    public void deleteAll() {
+        for (ToDo todo : findAll()) {
+            deleteById(todo.getId());
+        }
+    }
+
+    private boolean hasAssignee(int slot, long assigneeId) {
+        for (long id : store.todos().assignees(slot)) {
+            if (id == assigneeId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Comparator<Integer> byDueDate() {
+        ToDoTable todos = store.todos();
+        // slots are in ID order, so the slot breaks ties like the ID
+        return Comparator.<Integer>comparingLong(slot -> todos.dueDates[slot]).thenComparingInt(slot -> slot);
+    }
+
+    /**
+     * Scans the live ToDos under the read lock and returns the first matches in the given order.
+     *
+     * @param filter The filter on slots
+     * @param order  The order of the slots, null for ID order
+     * @param limit  The maximum number of ToDos
+     * @return The matching ToDos
+     */
+    private List<ToDo> select(IntPredicate filter, Comparator<Integer> order, Limit limit) {
+        int max = limit.isUnlimited() ? Integer.MAX_VALUE : limit.max();
+        return store.read(() -> {
+            ToDoTable todos = store.todos();
+            List<Integer> slots = new ArrayList<>();
+            if (order == null) {
+                for (int slot = todos.live.nextSetBit(0); slot >= 0 && slots.size() < max;
+                     slot = todos.live.nextSetBit(slot + 1)) {
+                    if (filter.test(slot)) {
+                        slots.add(slot);
+                    }
+                }
+            } else {
+                // keeps the first max slots of the order, the last of them on top
+                PriorityQueue<Integer> first = new PriorityQueue<>(order.reversed());
+                for (int slot = todos.live.nextSetBit(0); slot >= 0; slot = todos.live.nextSetBit(slot + 1)) {
+                    if (filter.test(slot)) {
+                        first.add(slot);
+                        if (first.size() > max) {
+                            first.poll();
+                        }
+                    }
+                }
+                slots.addAll(first);
+                slots.sort(order);
+            }
+            List<ToDo> result = new ArrayList<>(slots.size());
+            for (int slot : slots) {
+                result.add(toToDo(slot));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Converts a slot of the ToDo table to a ToDo entity. Must be called under the read lock.
+     *
+     * @param slot The slot
+     * @return The ToDo
+     */
+    private ToDo toToDo(int slot) {
+        ToDoTable todos = store.todos();
+        AssigneeTable assignees = store.assignees();
+        List<Assignee> assigneeList = new ArrayList<>();
+        for (long assigneeId : todos.assignees(slot)) {
+            Assignee assignee = EmbeddedAssigneeRepository.toAssignee(assignees.get(assigneeId));
+            if (assignee != null) {
+                assigneeList.add(assignee);
+            }
+        }
+        ToDo todo = new ToDo();
+        todo.setId(todos.ids[slot]);
+        todo.setVersion(todos.versions[slot]);
+        todo.setTitle(todos.titles[slot]);
+        todo.setDescription(todos.descriptions[slot]);
+        todo.setFinished(todos.finished.get(slot));
+        todo.setFinishedDate(ToDoTable.nullable(todos.finishedDates[slot]));
+        todo.setCreatedDate(ToDoTable.nullable(todos.createdDates[slot]));
+        todo.setDueDate(ToDoTable.nullable(todos.dueDates[slot]));
+        todo.setCategory(todos.category(slot));
+        todo.setAssigneeList(assigneeList);
+        return todo;
+    }
+}
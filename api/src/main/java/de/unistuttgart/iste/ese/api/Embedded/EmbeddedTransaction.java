@@ -0,0 +1,15 @@
+package de.unistuttgart.iste.ese.api.Embedded;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A transaction of the embedded store, bound to the thread by EmbeddedTransactionManager.
+ * Collects the redo records written to the log on commit and the undo records applied on rollback.
+ */
+final class EmbeddedTransaction {
+    final List<Mutation> redo = new ArrayList<>();
+    final List<Mutation> undo = new ArrayList<>();
+    boolean writing;
+    boolean rollbackOnly;
+}
@@ -0,0 +1,147 @@
+package de.unistuttgart.iste.ese.api.Embedded;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transaction manager of the embedded store, replacing the JPA transaction manager with the "embedded" profile.
+ * Binds an EmbeddedTransaction to the thread, so @Transactional, TransactionTemplate and transactional event
+ * listeners work as with the database.
+ */
+@Component
+@Profile("embedded")
+public class EmbeddedTransactionManager extends AbstractPlatformTransactionManager {
+
+    private final EmbeddedStore store;
+
+    /**
+     * Creates a new EmbeddedTransactionManager.
+     *
+     * @param store The store whose transactions are managed
+     */
+    public EmbeddedTransactionManager(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Returns a transaction object holding the transaction bound to the thread, if any.
+     *
+     * @return The transaction object
+     */
+    @Override
+    protected Object doGetTransaction() {
+        return new TransactionObject((EmbeddedTransaction) TransactionSynchronizationManager.getResource(store));
+    }
+
+    /**
+     * Checks whether a transaction is bound to the thread.
+     *
+     * @param transaction The transaction object
+     * @return true if a transaction is bound
+     */
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((TransactionObject) transaction).transaction != null;
+    }
+
+    /**
+     * Starts a new transaction and binds it to the thread.
+     *
+     * @param transaction The transaction object
+     * @param definition  The transaction definition, isolation and timeout are not supported
+     */
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        TransactionObject object = (TransactionObject) transaction;
+        object.transaction = new EmbeddedTransaction();
+        TransactionSynchronizationManager.bindResource(store, object.transaction);
+    }
+
+    /**
+     * Unbinds the current transaction from the thread.
+     *
+     * @param transaction The transaction object
+     * @return The suspended transaction
+     */
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((TransactionObject) transaction).transaction = null;
+        return TransactionSynchronizationManager.unbindResource(store);
+    }
+
+    /**
+     * Binds a suspended transaction to the thread again.
+     *
+     * @param transaction        The transaction object
+     * @param suspendedResources The suspended transaction
+     */
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(store, suspendedResources);
+    }
+
+    /**
+     * Commits the transaction to the store.
+     *
+     * @param status The transaction status
+     */
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        store.commit(((TransactionObject) status.getTransaction()).transaction);
+    }
+
+    /**
+     * Rolls the transaction back in the store.
+     *
+     * @param status The transaction status
+     */
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        store.rollback(((TransactionObject) status.getTransaction()).transaction);
+    }
+
+    /**
+     * Marks the transaction as rollback-only, used when a participating transaction fails.
+     *
+     * @param status The transaction status
+     */
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((TransactionObject) status.getTransaction()).transaction.rollbackOnly = true;
+    }
+
+    /**
+     * Unbinds the completed transaction from the thread.
+     *
+     * @param transaction The transaction object
+     */
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(store);
+    }
+
+    /**
+     * The transaction object of AbstractPlatformTransactionManager, holding the bound EmbeddedTransaction.
+     */
+    private static final class TransactionObject implements SmartTransactionObject {
+        private EmbeddedTransaction transaction;
+
+        private TransactionObject(EmbeddedTransaction transaction) {
+            this.transaction = transaction;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return transaction.rollbackOnly;
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package de.unistuttgart.iste.ese.api.Embedded;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A change of the embedded store. Mutations are applied to the tables, written to the log as redo records and
+ * replayed from it on recovery. Applying a mutation returns the mutation that undoes it, used on rollback.
+ * Every mutation carries the full row image, so replaying it is idempotent.
+ */
+abstract class Mutation {
+    private static final byte TODO_PUT = 1;
+    private static final byte TODO_DELETE = 2;
+    private static final byte ASSIGNEE_PUT = 3;
+    private static final byte ASSIGNEE_DELETE = 4;
+
+    /**
+     * Applies the mutation to the tables.
+     *
+     * @param todos     The ToDo table
+     * @param assignees The Assignee table
+     * @return The mutation that undoes this one
+     * @throws ObjectOptimisticLockingFailureException if the mutation expects a version that is not stored
+     */
+    abstract Mutation apply(ToDoTable todos, AssigneeTable assignees);
+
+    /**
+     * Gets the ID of the changed ToDo or Assignee.
+     *
+     * @return The ID
+     */
+    abstract long id();
+
+    /**
+     * Writes the mutation in the format read by read.
+     *
+     * @param out The output to write to
+     * @throws IOException if writing fails
+     */
+    abstract void write(DataOutput out) throws IOException;
+
+    /**
+     * Applies a mutation written by write directly to the tables, without checks and without creating an undo.
+     * Used to replay the log on recovery.
+     *
+     * @param in        The input to read from
+     * @param todos     The ToDo table
+     * @param assignees The Assignee table
+     * @throws IOException if reading fails or the record is unknown
+     */
+    static void replay(DataInput in, ToDoTable todos, AssigneeTable assignees) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TODO_PUT:
+                todos.readRow(in);
+                break;
+            case TODO_DELETE:
+                int slot = todos.slotOf(in.readLong());
+                if (slot >= 0) {
+                    todos.delete(slot);
+                }
+                break;
+            case ASSIGNEE_PUT:
+                assignees.put(AssigneeTable.Row.read(in));
+                break;
+            case ASSIGNEE_DELETE:
+                assignees.delete(in.readLong());
+                break;
+            default:
+                throw new IOException("Unknown log record type " + type);
+        }
+    }
+
+    /**
+     * Inserts or replaces a ToDo. The row is held in a table of its own, so the row encoding of ToDoTable is reused.
+     */
+    static final class ToDoPut extends Mutation {
+        private final ToDoTable source;
+        private final int sourceSlot;
+        private final long expectedVersion;
+
+        /**
+         * Creates a new ToDoPut.
+         *
+         * @param source          The table holding the row image
+         * @param sourceSlot      The slot of the row image in the source table
+         * @param expectedVersion The version the stored ToDo must have, -1 to insert a new ToDo, -2 to skip the check
+         */
+        ToDoPut(ToDoTable source, int sourceSlot, long expectedVersion) {
+            this.source = source;
+            this.sourceSlot = sourceSlot;
+            this.expectedVersion = expectedVersion;
+        }
+
+        @Override
+        Mutation apply(ToDoTable todos, AssigneeTable assignees) {
+            long id = id();
+            int slot = todos.slotOf(id);
+            if (expectedVersion != -2
+                && (expectedVersion == -1 ? slot >= 0 : slot < 0 || todos.versions[slot] != expectedVersion)) {
+                throw new ObjectOptimisticLockingFailureException("ToDo", id);
+            }
+            Mutation undo = slot < 0 ? new ToDoDelete(id, -2) : new ToDoPut(todos.copySlot(slot), 0, -2);
+            todos.put(id, source.versions[sourceSlot], source.titles[sourceSlot], source.descriptions[sourceSlot],
+                source.finished.get(sourceSlot), ToDoTable.nullable(source.createdDates[sourceSlot]),
+                ToDoTable.nullable(source.dueDates[sourceSlot]), ToDoTable.nullable(source.finishedDates[sourceSlot]),
+                source.category(sourceSlot), source.assignees(sourceSlot));
+            return undo;
+        }
+
+        @Override
+        long id() {
+            return source.ids[sourceSlot];
+        }
+
+        @Override
+        void write(DataOutput out) throws IOException {
+            out.writeByte(TODO_PUT);
+            source.writeRow(sourceSlot, out);
+        }
+    }
+
+    /**
+     * Deletes a ToDo.
+     */
+    static final class ToDoDelete extends Mutation {
+        private final long id;
+        private final long expectedVersion;
+
+        /**
+         * Creates a new ToDoDelete.
+         *
+         * @param id              The ID of the ToDo
+         * @param expectedVersion The version the stored ToDo must have, -1 to delete it if it exists, -2 to skip
+         *                        the check and ignore a missing ToDo
+         */
+        ToDoDelete(long id, long expectedVersion) {
+            this.id = id;
+            this.expectedVersion = expectedVersion;
+        }
+
+        @Override
+        Mutation apply(ToDoTable todos, AssigneeTable assignees) {
+            int slot = todos.slotOf(id);
+            if (slot < 0) {
+                return new ToDoDelete(id, -2);
+            }
+            if (expectedVersion >= 0 && todos.versions[slot] != expectedVersion) {
+                throw new ObjectOptimisticLockingFailureException("ToDo", id);
+            }
+            Mutation undo = new ToDoPut(todos.copySlot(slot), 0, -2);
+            todos.delete(slot);
+            return undo;
+        }
+
+        @Override
+        long id() {
+            return id;
+        }
+
+        @Override
+        void write(DataOutput out) throws IOException {
+            out.writeByte(TODO_DELETE);
+            out.writeLong(id);
+        }
+    }
+
+    /**
+     * Inserts or replaces an Assignee.
+     */
+    static final class AssigneePut extends Mutation {
+        private final AssigneeTable.Row row;
+        private final long expectedVersion;
+
+        /**
+         * Creates a new AssigneePut.
+         *
+         * @param row             The row of the Assignee
+         * @param expectedVersion The version the stored Assignee must have, -1 to insert a new Assignee, -2 to skip
+         *                        the check
+         */
+        AssigneePut(AssigneeTable.Row row, long expectedVersion) {
+            this.row = row;
+            this.expectedVersion = expectedVersion;
+        }
+
+        @Override
+        Mutation apply(ToDoTable todos, AssigneeTable assignees) {
+            AssigneeTable.Row previous = assignees.get(row.id);
+            if (expectedVersion != -2
+                && (expectedVersion == -1 ? previous != null : previous == null || previous.version != expectedVersion)) {
+                throw new ObjectOptimisticLockingFailureException("Assignee", row.id);
+            }
+            assignees.put(row);
+            return previous == null ? new AssigneeDelete(row.id, -2) : new AssigneePut(previous, -2);
+        }
+
+        @Override
+        long id() {
+            return row.id;
+        }
+
+        @Override
+        void write(DataOutput out) throws IOException {
+            out.writeByte(ASSIGNEE_PUT);
+            row.write(out);
+        }
+    }
+
+    /**
+     * Deletes an Assignee.
+     */
+    static final class AssigneeDelete extends Mutation {
+        private final long id;
+        private final long expectedVersion;
+
+        /**
+         * Creates a new AssigneeDelete.
+         *
+         * @param id              The ID of the Assignee
+         * @param expectedVersion The version the stored Assignee must have, negative to skip the check
+         */
+        AssigneeDelete(long id, long expectedVersion) {
+            this.id = id;
+            this.expectedVersion = expectedVersion;
+        }
+
+        @Override
+        Mutation apply(ToDoTable todos, AssigneeTable assignees) {
+            AssigneeTable.Row previous = assignees.get(id);
+            if (previous != null && expectedVersion >= 0 && previous.version != expectedVersion) {
+                throw new ObjectOptimisticLockingFailureException("Assignee", id);
+            }
+            assignees.delete(id);
+            return previous == null ? new AssigneeDelete(id, -2) : new AssigneePut(previous, -2);
+        }
+
+        @Override
+        long id() {
+            return id;
+        }
+
+        @Override
+        void write(DataOutput out) throws IOException {
+            out.writeByte(ASSIGNEE_DELETE);
+            out.writeLong(id);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package de.unistuttgart.iste.ese.api.Embedded;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ToDos of the embedded store in column arrays, one slot per ToDo.
+ *
+ * Slots are ordered by ID, so a ToDo is found by binary search without a per-row map entry. Nullable dates are
+ * stored as NULL, categories as codes into a small dictionary and the Assignee IDs as one long array per ToDo.
+ * Deleted ToDos leave a dead slot behind until the table is compacted.
+ * Not thread-safe: EmbeddedStore guards all access with its read/write lock.
+ */
+final class ToDoTable {
+    /**
+     * Stored instead of a null date.
+     */
+    static final long NULL = Long.MIN_VALUE;
+
+    private static final long[] NO_ASSIGNEES = new long[0];
+
+    long[] ids;
+    long[] versions;
+    String[] titles;
+    String[] descriptions;
+    long[] createdDates;
+    long[] dueDates;
+    long[] finishedDates;
+    int[] categories;
+    long[][] assigneeIds;
+    BitSet finished;
+    BitSet live;
+    int slots;
+    int size;
+
+    private final List<String> categoryNames;
+    private final Map<String, Integer> categoryCodes;
+
+    /**
+     * Creates an empty table.
+     */
+    ToDoTable() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty table.
+     *
+     * @param capacity The initial number of slots
+     */
+    ToDoTable(int capacity) {
+        ids = new long[capacity];
+        versions = new long[capacity];
+        titles = new String[capacity];
+        descriptions = new String[capacity];
+        createdDates = new long[capacity];
+        dueDates = new long[capacity];
+        finishedDates = new long[capacity];
+        categories = new int[capacity];
+        assigneeIds = new long[capacity][];
+        finished = new BitSet(capacity);
+        live = new BitSet(capacity);
+        categoryNames = new ArrayList<>();
+        categoryCodes = new HashMap<>();
+    }
+
+    /**
+     * Finds the slot of a live ToDo.
+     *
+     * @param id The ID of the ToDo
+     * @return The slot, or -1 if there is no such ToDo
+     */
+    int slotOf(long id) {
+        int slot = Arrays.binarySearch(ids, 0, slots, id);
+        return slot >= 0 && live.get(slot) ? slot : -1;
+    }
+
+    /**
+     * Gets the highest ID ever stored in the table.
+     *
+     * @return The highest ID, 0 if the table is empty
+     */
+    long maxId() {
+        return slots == 0 ? 0 : ids[slots - 1];
+    }
+
+    /**
+     * Gets the category of a slot.
+     *
+     * @param slot The slot
+     * @return The category, null if none is set
+     */
+    String category(int slot) {
+        return categories[slot] < 0 ? null : categoryNames.get(categories[slot]);
+    }
+
+    /**
+     * Gets the code of a category.
+     *
+     * @param category The category
+     * @return The code, -2 if no ToDo has this category
+     */
+    int categoryCode(String category) {
+        return category == null ? -1 : categoryCodes.getOrDefault(category, -2);
+    }
+
+    /**
+     * Gets the Assignee IDs of a slot.
+     *
+     * @param slot The slot
+     * @return The Assignee IDs, never null
+     */
+    long[] assignees(int slot) {
+        return assigneeIds[slot];
+    }
+
+    /**
+     * Inserts or replaces a ToDo.
+     *
+     * @param id           The ID
+     * @param version      The version
+     * @param title        The title
+     * @param description  The description, may be null
+     * @param isFinished   Whether the ToDo is finished
+     * @param createdDate  The creation date, may be null
+     * @param dueDate      The due date, may be null
+     * @param finishedDate The finished date, may be null
+     * @param category     The category, may be null
+     * @param assignees    The IDs of the Assignees
+     */
+    void put(long id, long version, String title, String description, boolean isFinished, Long createdDate,
+             Long dueDate, Long finishedDate, String category, long[] assignees) {
+        int slot = Arrays.binarySearch(ids, 0, slots, id);
+        if (slot < 0) {
+            slot = -slot - 1;
+            insertSlot(slot);
+            ids[slot] = id;
+        }
+        if (!live.get(slot)) {
+            live.set(slot);
+            size++;
+        }
+        versions[slot] = version;
+        titles[slot] = title;
+        descriptions[slot] = description;
+        finished.set(slot, isFinished);
+        createdDates[slot] = createdDate == null ? NULL : createdDate;
+        dueDates[slot] = dueDate == null ? NULL : dueDate;
+        finishedDates[slot] = finishedDate == null ? NULL : finishedDate;
+        categories[slot] = encodeCategory(category);
+        assigneeIds[slot] = assignees.length == 0 ? NO_ASSIGNEES : assignees;
+    }
+
+    /**
+     * Deletes a ToDo, leaving a dead slot behind.
+     *
+     * @param slot The slot of the ToDo
+     */
+    void delete(int slot) {
+        live.clear(slot);
+        titles[slot] = null;
+        descriptions[slot] = null;
+        assigneeIds[slot] = NO_ASSIGNEES;
+        size--;
+    }
+
+    /**
+     * Removes the dead slots if they make up more than a quarter of the table.
+     */
+    void compactIfSparse() {
+        if (slots - size <= slots / 4) {
+            return;
+        }
+        int target = 0;
+        for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+            if (slot != target) {
+                ids[target] = ids[slot];
+                versions[target] = versions[slot];
+                titles[target] = titles[slot];
+                descriptions[target] = descriptions[slot];
+                createdDates[target] = createdDates[slot];
+                dueDates[target] = dueDates[slot];
+                finishedDates[target] = finishedDates[slot];
+                categories[target] = categories[slot];
+                assigneeIds[target] = assigneeIds[slot];
+                finished.set(target, finished.get(slot));
+            }
+            target++;
+        }
+        Arrays.fill(titles, target, slots, null);
+        Arrays.fill(descriptions, target, slots, null);
+        Arrays.fill(assigneeIds, target, slots, null);
+        finished.clear(target, slots);
+        live.clear();
+        live.set(0, target);
+        slots = target;
+    }
+
+    /**
+     * Copies the live ToDos into a new, compact table, e.g. to write a snapshot without holding a lock.
+     *
+     * @return The copy
+     */
+    ToDoTable copy() {
+        ToDoTable copy = new ToDoTable(Math.max(16, size));
+        copy.categoryNames.addAll(categoryNames);
+        copy.categoryCodes.putAll(categoryCodes);
+        for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+            int target = copy.slots++;
+            copy.ids[target] = ids[slot];
+            copy.versions[target] = versions[slot];
+            copy.titles[target] = titles[slot];
+            copy.descriptions[target] = descriptions[slot];
+            copy.createdDates[target] = createdDates[slot];
+            copy.dueDates[target] = dueDates[slot];
+            copy.finishedDates[target] = finishedDates[slot];
+            copy.categories[target] = categories[slot];
+            copy.assigneeIds[target] = assigneeIds[slot];
+            copy.finished.set(target, finished.get(slot));
+        }
+        copy.live.set(0, copy.slots);
+        copy.size = copy.slots;
+        return copy;
+    }
+
+    /**
+     * Copies one ToDo into a new table of its own, e.g. to keep its image for undo.
+     *
+     * @param slot The slot of the ToDo
+     * @return A table holding only the ToDo, in slot 0
+     */
+    ToDoTable copySlot(int slot) {
+        ToDoTable copy = new ToDoTable(1);
+        copy.put(ids[slot], versions[slot], titles[slot], descriptions[slot], finished.get(slot),
+            nullable(createdDates[slot]), nullable(dueDates[slot]), nullable(finishedDates[slot]), category(slot),
+            assigneeIds[slot]);
+        return copy;
+    }
+
+    /**
+     * Writes the ToDo of a slot in the format read by readRow.
+     *
+     * @param slot The slot
+     * @param out  The output to write to
+     * @throws IOException if writing fails
+     */
+    void writeRow(int slot, DataOutput out) throws IOException {
+        out.writeLong(ids[slot]);
+        out.writeLong(versions[slot]);
+        writeString(out, titles[slot]);
+        writeString(out, descriptions[slot]);
+        out.writeBoolean(finished.get(slot));
+        out.writeLong(createdDates[slot]);
+        out.writeLong(dueDates[slot]);
+        out.writeLong(finishedDates[slot]);
+        writeString(out, category(slot));
+        long[] assignees = assigneeIds[slot];
+        out.writeInt(assignees.length);
+        for (long assignee : assignees) {
+            out.writeLong(assignee);
+        }
+    }
+
+    /**
+     * Reads a ToDo written by writeRow and inserts or replaces it.
+     *
+     * @param in The input to read from
+     * @return The ID of the ToDo
+     * @throws IOException if reading fails
+     */
+    long readRow(DataInput in) throws IOException {
+        long id = in.readLong();
+        long version = in.readLong();
+        String title = readString(in);
+        String description = readString(in);
+        boolean isFinished = in.readBoolean();
+        long createdDate = in.readLong();
+        long dueDate = in.readLong();
+        long finishedDate = in.readLong();
+        String category = readString(in);
+        long[] assignees = new long[in.readInt()];
+        for (int i = 0; i < assignees.length; i++) {
+            assignees[i] = in.readLong();
+        }
+        put(id, version, title, description, isFinished, nullable(createdDate), nullable(dueDate),
+            nullable(finishedDate), category, assignees);
+        return id;
+    }
+
+    /**
+     * Converts a stored date back to a nullable value.
+     *
+     * @param value The stored value
+     * @return The date, null if NULL is stored
+     */
+    static Long nullable(long value) {
+        return value == NULL ? null : value;
+    }
+
+    /**
+     * Writes a nullable string as length-prefixed UTF-8.
+     *
+     * @param out   The output to write to
+     * @param value The string, may be null
+     * @throws IOException if writing fails
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by writeString.
+     *
+     * @param in The input to read from
+     * @return The string, may be null
+     * @throws IOException if reading fails
+     */
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int encodeCategory(String category) {
+        if (category == null) {
+            return -1;
+        }
+        return categoryCodes.computeIfAbsent(category, name -> {
+            categoryNames.add(name);
+            return categoryNames.size() - 1;
+        });
+    }
+
+    private void insertSlot(int slot) {
+        if (slots == ids.length) {
+            grow();
+        }
+        if (slot < slots) {
+            // only happens when replaying an ID below the highest one, new IDs are always appended
+            int moved = slots - slot;
+            System.arraycopy(ids, slot, ids, slot + 1, moved);
+            System.arraycopy(versions, slot, versions, slot + 1, moved);
+            System.arraycopy(titles, slot, titles, slot + 1, moved);
+            System.arraycopy(descriptions, slot, descriptions, slot + 1, moved);
+            System.arraycopy(createdDates, slot, createdDates, slot + 1, moved);
+            System.arraycopy(dueDates, slot, dueDates, slot + 1, moved);
+            System.arraycopy(finishedDates, slot, finishedDates, slot + 1, moved);
+            System.arraycopy(categories, slot, categories, slot + 1, moved);
+            System.arraycopy(assigneeIds, slot, assigneeIds, slot + 1, moved);
+            for (int i = slots; i > slot; i--) {
+                finished.set(i, finished.get(i - 1));
+                live.set(i, live.get(i - 1));
+            }
+            finished.clear(slot);
+            live.clear(slot);
+        }
+        slots++;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        createdDates = Arrays.copyOf(createdDates, capacity);
+        dueDates = Arrays.copyOf(dueDates, capacity);
+        finishedDates = Arrays.copyOf(finishedDates, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        assigneeIds = Arrays.copyOf(assigneeIds, capacity);
+    }
+}
@@ -0,0 +1,468 @@
+package de.unistuttgart.iste.ese.api.Invalidation;
+
+import de.unistuttgart.iste.ese.api.Assignee.Assignee;
+import de.unistuttgart.iste.ese.api.Assignee.AssigneeChangedEvent;
+import de.unistuttgart.iste.ese.api.ResponseCache.SerializedResponseCache;
+import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshot;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshotScanner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the local caches of several API instances sharing one database consistent, without a message broker.
+ *
+ * Every node appends the IDs of the ToDos and Assignees it changed to the cache_invalidations table and polls the
+ * table for the changes of the other nodes, evicting them from its response cache and its second-level cache.
+ * Polling and publishing run on a dedicated thread, so long scheduled jobs cannot delay them.
+ *
+ * The in-memory indexes follow the changes of other nodes through RemoteChangesEvents, published on a second thread
+ * so slow rebuilds cannot delay the evictions. The changed ToDos are reloaded from the database for the indexes keyed
+ * by ID (search, duplicates). Indexes counting changes (statistics, suggestions, lead times) need the previous state
+ * of a ToDo, which the bus does not know, so they are rebuilt instead, at most once per
+ * api.cache.invalidation.rebuild-interval-ms.
+ *
+ * Guarantees:
+ * - Staleness: while the database is reachable, a change committed on one node is evicted on all other nodes
+ *   within api.cache.invalidation.publish-interval-ms plus api.cache.invalidation.poll-interval-ms.
+ * - A node that could not poll for api.cache.invalidation.max-staleness-ms drops all its cached entries, and keeps
+ *   doing so until a poll succeeds. After an outage longer than the retention of the table it drops them once more,
+ *   since changes may have been pruned before it saw them.
+ * - Out-of-order commits: row IDs are assigned before commit, so a row may become visible after a row with a higher
+ *   ID. Skipped IDs are polled again for api.cache.invalidation.gap-timeout-ms before they are given up.
+ * - Changes of one node that exceed MAX_ROWS_PER_PUBLISH are published as one "evict everything" row.
+ */
+@Component
+@Profile("!embedded")
+@ConditionalOnProperty(name = "api.cache.invalidation.enabled", matchIfMissing = true)
+public class CacheInvalidationBus {
+    private static final Log LOG = LogFactory.getLog(CacheInvalidationBus.class);
+
+    // more changed entities per publish are replaced by one row evicting everything
+    private static final int MAX_ROWS_PER_PUBLISH = 1000;
+
+    // maximum number of rows read per poll
+    private static final int MAX_ROWS_PER_POLL = 5000;
+
+    // more skipped IDs are not tracked, everything is evicted instead
+    private static final int MAX_GAPS = 10000;
+
+    private static final long PRUNE_INTERVAL_MS = 60_000;
+
+    private static final String TODO = "TODO";
+
+    private static final String ASSIGNEE = "ASSIGNEE";
+
+    private static final String ALL = "ALL";
+
+    private static final String INSERT = "insert into cache_invalidations (node, entity, entity_id, created_at) "
+        + "values (?, ?, ?, ?)";
+
+    private static final String SELECT_COLUMNS = "select id, node, entity, entity_id from cache_invalidations ";
+
+    private final String node = UUID.randomUUID().toString();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final SerializedResponseCache responseCache;
+
+    private final Cache secondLevelCache;
+
+    private final long publishIntervalMs;
+
+    private final long pollIntervalMs;
+
+    private final long gapTimeoutMs;
+
+    private final long maxStalenessMs;
+
+    private final long retentionMs;
+
+    private final ToDoSnapshotScanner scanner;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final long rebuildIntervalMs;
+
+    private final Set<Long> changedToDos = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> changedAssignees = ConcurrentHashMap.newKeySet();
+
+    // ToDos changed on other nodes that still have to be reloaded for the in-memory indexes
+    private final Set<Long> remoteToDos = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private final AtomicBoolean rebuildAllPending = new AtomicBoolean();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ScheduledExecutorService indexExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "remote-index-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter publishedCounter;
+
+    private final Counter receivedCounter;
+
+    private final Counter failedCounter;
+
+    private final Counter evictAllCounter;
+
+    // only accessed by the executor thread after start
+    private long cursor;
+
+    // skipped IDs and the time until they are polled again
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    private volatile long lastPoll;
+
+    // only accessed by the index thread
+    private long lastRebuild;
+
+    /**
+     * Creates a new CacheInvalidationBus.
+     *
+     * @param jdbcTemplate         The template used to access the cache_invalidations table
+     * @param responseCache        The local cache of serialized list responses
+     * @param entityManagerFactory The EntityManagerFactory whose second-level cache is evicted
+     * @param meterRegistry        The registry to publish the bus metrics to
+     * @param publishIntervalMs    The time between two publishes of the local changes
+     * @param pollIntervalMs       The time between two polls for the changes of other nodes
+     * @param gapTimeoutMs         How long a skipped ID is polled again, should exceed the longest write transaction
+     * @param maxStalenessMs       How long a node keeps its cached entries without a successful poll
+     * @param retentionMs          How long rows are kept in the table
+     * @param scanner              The scanner reloading the ToDos changed on other nodes
+     * @param eventPublisher       The publisher of the RemoteChangesEvents
+     * @param rebuildIntervalMs    The minimum time between two rebuilds of the indexes caused by other nodes
+     */
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                SerializedResponseCache responseCache,
+                                EntityManagerFactory entityManagerFactory,
+                                MeterRegistry meterRegistry,
+                                @Value("${api.cache.invalidation.publish-interval-ms:100}") long publishIntervalMs,
+                                @Value("${api.cache.invalidation.poll-interval-ms:500}") long pollIntervalMs,
+                                @Value("${api.cache.invalidation.gap-timeout-ms:10000}") long gapTimeoutMs,
+                                @Value("${api.cache.invalidation.max-staleness-ms:5000}") long maxStalenessMs,
+                                @Value("${api.cache.invalidation.retention-ms:3600000}") long retentionMs,
+                                ToDoSnapshotScanner scanner,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${api.cache.invalidation.rebuild-interval-ms:30000}") long rebuildIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.responseCache = responseCache;
+        this.secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.publishIntervalMs = publishIntervalMs;
+        this.pollIntervalMs = pollIntervalMs;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.maxStalenessMs = maxStalenessMs;
+        this.retentionMs = retentionMs;
+        this.scanner = scanner;
+        this.eventPublisher = eventPublisher;
+        this.rebuildIntervalMs = rebuildIntervalMs;
+        this.publishedCounter = meterRegistry.counter("api.cache.invalidations", "result", "published");
+        this.receivedCounter = meterRegistry.counter("api.cache.invalidations", "result", "received");
+        this.failedCounter = meterRegistry.counter("api.cache.invalidations", "result", "failed");
+        this.evictAllCounter = meterRegistry.counter("api.cache.invalidation.evict-all");
+        Gauge.builder("api.cache.invalidation.staleness", this, bus -> System.currentTimeMillis() - bus.lastPoll)
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Starts polling after the rows that exist on startup, which cannot concern the still empty caches, and starts
+     * publishing the local changes.
+     */
+    @PostConstruct
+    public void start() {
+        Long max = jdbcTemplate.queryForObject("select max(id) from cache_invalidations", Long.class);
+        cursor = max != null ? max : 0;
+        lastPoll = System.currentTimeMillis();
+        executor.scheduleWithFixedDelay(this::publishSafely, publishIntervalMs, publishIntervalMs,
+            TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::prune, PRUNE_INTERVAL_MS, PRUNE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        indexExecutor.scheduleWithFixedDelay(this::refreshIndexes, pollIntervalMs, pollIntervalMs,
+            TimeUnit.MILLISECONDS);
+        LOG.info("Cache invalidation bus of node " + node + " started after row " + cursor);
+    }
+
+    /**
+     * Queues a committed ToDo change for the other nodes.
+     *
+     * @param event The ToDo change that happened
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onToDoChanged(ToDoChangedEvent event) {
+        changedToDos.add(event.getToDoId());
+    }
+
+    /**
+     * Queues a committed Assignee change for the other nodes.
+     *
+     * @param event The Assignee change that happened
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssigneeChanged(AssigneeChangedEvent event) {
+        changedAssignees.add(event.getAssigneeId());
+    }
+
+    /**
+     * Publishes the queued changes and stops polling.
+     *
+     * @throws InterruptedException if interrupted while waiting for a running poll
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        indexExecutor.shutdownNow();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        publishSafely();
+    }
+
+    private void publishSafely() {
+        try {
+            publish();
+        } catch (RuntimeException e) {
+            LOG.warn("Could not publish cache invalidations, retrying: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the queued changes in one batch. Changes that could not be written stay queued.
+     */
+    private synchronized void publish() {
+        List<Long> todos = drain(changedToDos);
+        List<Long> assignees = drain(changedAssignees);
+        if (todos.isEmpty() && assignees.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Object[]> rows = new ArrayList<>();
+        if (todos.size() + assignees.size() > MAX_ROWS_PER_PUBLISH) {
+            rows.add(new Object[]{node, ALL, null, now});
+        } else {
+            todos.forEach(id -> rows.add(new Object[]{node, TODO, id, now}));
+            assignees.forEach(id -> rows.add(new Object[]{node, ASSIGNEE, id, now}));
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT, rows);
+            publishedCounter.increment(rows.size());
+        } catch (DataAccessException e) {
+            changedToDos.addAll(todos);
+            changedAssignees.addAll(assignees);
+            failedCounter.increment(rows.size());
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the rows after the cursor and the rows of skipped IDs, and evicts the changes of other nodes.
+     */
+    private void poll() {
+        long now = System.currentTimeMillis();
+        try {
+            List<Row> rows = new ArrayList<>(jdbcTemplate.query(SELECT_COLUMNS + "where id > ? order by id limit ?",
+                Row::map, cursor, MAX_ROWS_PER_POLL));
+            if (!gaps.isEmpty()) {
+                String ids = gaps.keySet().stream().map(String::valueOf).collect(Collectors.joining(","));
+                rows.addAll(jdbcTemplate.query(SELECT_COLUMNS + "where id in (" + ids + ")", Row::map));
+            }
+            if (now - lastPoll > retentionMs) {
+                LOG.warn("Cache invalidations were not polled for " + (now - lastPoll) + " ms, evicting all entries");
+                evictAll();
+            }
+            lastPoll = now;
+            apply(rows, now);
+        } catch (RuntimeException e) {
+            if (now - lastPoll > maxStalenessMs) {
+                LOG.warn("Cache invalidations were not polled for " + (now - lastPoll) + " ms, evicting all entries: "
+                    + e.getMessage());
+                evictAll();
+            }
+        }
+    }
+
+    private void apply(List<Row> rows, long now) {
+        boolean all = false;
+        for (Row row : rows) {
+            if (row.id > cursor) {
+                for (long skipped = cursor + 1; skipped < row.id && !all; skipped++) {
+                    if (gaps.size() >= MAX_GAPS) {
+                        // too many rows may still appear to track them, so assume any of them concerns us
+                        gaps.clear();
+                        all = true;
+                    } else {
+                        gaps.put(skipped, now + gapTimeoutMs);
+                    }
+                }
+                cursor = row.id;
+            } else if (gaps.remove(row.id) == null) {
+                continue;
+            }
+            if (row.node.equals(node)) {
+                continue;
+            }
+            receivedCounter.increment();
+            switch (row.entity) {
+                case TODO -> {
+                    evictToDo(row.entityId);
+                    remoteToDos.add(row.entityId);
+                    rebuildPending.set(true);
+                }
+                case ASSIGNEE -> {
+                    evictAssignee(row.entityId);
+                    rebuildPending.set(true);
+                }
+                default -> all = true;
+            }
+        }
+        gaps.values().removeIf(deadline -> deadline < now);
+        if (all) {
+            evictAll();
+        }
+    }
+
+    private void evictToDo(Long id) {
+        secondLevelCache.evictEntityData(ToDo.class, id);
+        secondLevelCache.evictCollectionData(ToDo.class.getName() + ".assigneeList", id);
+        responseCache.invalidate(SerializedResponseCache.TODOS);
+    }
+
+    private void evictAssignee(Long id) {
+        secondLevelCache.evictEntityData(Assignee.class, id);
+        // cached queries may have found the Assignee or found it missing
+        secondLevelCache.evictDefaultQueryRegion();
+        responseCache.invalidate(SerializedResponseCache.ASSIGNEES, SerializedResponseCache.TODOS);
+    }
+
+    private void evictAll() {
+        evictAllCounter.increment();
+        secondLevelCache.evictAllRegions();
+        responseCache.invalidate(SerializedResponseCache.ASSIGNEES, SerializedResponseCache.TODOS);
+        // the changes are not known, so the indexes are rebuilt
+        rebuildAllPending.set(true);
+        rebuildPending.set(true);
+    }
+
+    /**
+     * Publishes the reloaded ToDos changed on other nodes and, if one is due, a rebuild of the indexes.
+     * Runs after the evictions, so the rows are not read from the second-level cache. Failures are retried.
+     */
+    private void refreshIndexes() {
+        long now = System.currentTimeMillis();
+        List<Long> ids = drain(remoteToDos);
+        boolean rebuild = false;
+        boolean rebuildAll = false;
+        try {
+            Map<Long, ToDoSnapshot> todos = new HashMap<>();
+            for (int from = 0; from < ids.size(); from += MAX_ROWS_PER_PUBLISH) {
+                todos.putAll(scanner.load(ids.subList(from, Math.min(ids.size(), from + MAX_ROWS_PER_PUBLISH))));
+            }
+            if (now - lastRebuild >= rebuildIntervalMs && rebuildPending.getAndSet(false)) {
+                rebuild = true;
+                rebuildAll = rebuildAllPending.getAndSet(false);
+                lastRebuild = now;
+            }
+            if (!todos.isEmpty() || rebuild) {
+                eventPublisher.publishEvent(new RemoteChangesEvent(todos, rebuild, rebuildAll));
+            }
+        } catch (RuntimeException e) {
+            remoteToDos.addAll(ids);
+            if (rebuildAll) {
+                rebuildAllPending.set(true);
+            }
+            if (rebuild) {
+                rebuildPending.set(true);
+            }
+            LOG.warn("Could not refresh the indexes with the changes of other nodes, retrying: " + e.getMessage());
+        }
+    }
+
+    private void prune() {
+        try {
+            int deleted = jdbcTemplate.update("delete from cache_invalidations where created_at < ?",
+                System.currentTimeMillis() - retentionMs);
+            if (deleted > 0) {
+                LOG.debug("Pruned " + deleted + " cache invalidations");
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Could not prune cache invalidations: " + e.getMessage());
+        }
+    }
+
+    private static List<Long> drain(Set<Long> ids) {
+        List<Long> drained = new ArrayList<>(ids.size());
+        for (Iterator<Long> iterator = ids.iterator(); iterator.hasNext(); ) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+
+    /**
+     * One row of the cache_invalidations table.
+     */
+    private static final class Row {
+        private final long id;
+
+        private final String node;
+
+        private final String entity;
+
+        private final Long entityId;
+
+        private Row(long id, String node, String entity, Long entityId) {
+            this.id = id;
+            this.node = node;
+            this.entity = entity;
+            this.entityId = entityId;
+        }
+
+        private static Row map(ResultSet resultSet, int rowNum) throws SQLException {
+            long entityId = resultSet.getLong("entity_id");
+            // wasNull() refers to the last column read
+            Long nullableEntityId = resultSet.wasNull() ? null : entityId;
+            return new Row(resultSet.getLong("id"), resultSet.getString("node"), resultSet.getString("entity"),
+                nullableEntityId);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package de.unistuttgart.iste.ese.api.Invalidation;
+
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshot;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event published by the CacheInvalidationBus after it received changes of other nodes, so the in-memory indexes of
+ * this node can follow them.
+ *
+ * The bus only knows which ToDos changed, not their previous state. Indexes keyed by ToDo ID apply the reloaded rows;
+ * indexes counting changes rebuild themselves when a rebuild is due.
+ */
+public class RemoteChangesEvent {
+
+    private final Map<Long, ToDoSnapshot> todos;
+
+    private final boolean rebuild;
+
+    private final boolean rebuildAll;
+
+    /**
+     * Creates a new RemoteChangesEvent.
+     *
+     * @param todos      The current state of the ToDos changed on other nodes, null for deleted ones
+     * @param rebuild    true if the indexes that cannot apply rows have to be rebuilt
+     * @param rebuildAll true if the changed ToDos are not known, so every index has to be rebuilt
+     */
+    public RemoteChangesEvent(Map<Long, ToDoSnapshot> todos, boolean rebuild, boolean rebuildAll) {
+        this.todos = todos;
+        this.rebuild = rebuild || rebuildAll;
+        this.rebuildAll = rebuildAll;
+    }
+
+    /**
+     * Gets the current state of the ToDos changed on other nodes.
+     *
+     * @return The snapshots by ID, null for deleted ToDos
+     */
+    public Map<Long, ToDoSnapshot> getToDos() { return todos; }
+
+    /**
+     * Gets the changed ToDos as ToDoChangedEvents, for indexes that only use the current state.
+     *
+     * @return One UPDATED or DELETED event per ToDo, without previous state
+     */
+    public List<ToDoChangedEvent> toToDoChanges() {
+        return todos.entrySet().stream()
+            .map(todo -> new ToDoChangedEvent(todo.getValue() == null ? ToDoChangedEvent.Type.DELETED
+                : ToDoChangedEvent.Type.UPDATED, todo.getKey(), null, todo.getValue()))
+            .toList();
+    }
+
+    /**
+     * Tells whether indexes that cannot apply single rows, e.g. counters, have to be rebuilt.
+     *
+     * @return true if they have to be rebuilt
+     */
+    public boolean isRebuild() { return rebuild; }
+
+    /**
+     * Tells whether all indexes have to be rebuilt, since not all changed ToDos are known.
+     *
+     * @return true if every index has to be rebuilt
+     */
+    public boolean isRebuildAll() { return rebuildAll; }
+}
@@ -0,0 +1,54 @@
+package de.unistuttgart.iste.ese.api.Journal;
+
+import de.unistuttgart.iste.ese.api.ApiVersion1;
+import de.unistuttgart.iste.ese.api.Statistics.ToDoStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller for the change history recorded in the mutation journal.
+ */
+@RestController
+@ApiVersion1
+public class JournalController {
+
+    @Autowired
+    private MutationJournal mutationJournal;
+
+    /**
+     * Retrieves all recorded changes of a ToDo, including changes after which it was deleted.
+     *
+     * @param id The ID of the ToDo
+     * @return ResponseEntity containing the changes in the order they were committed
+     */
+    @GetMapping("/todos/{id}/history")
+    public ResponseEntity<List<JournalEntry>> getToDoHistory(@PathVariable Long id) {
+        return ResponseEntity.ok(mutationJournal.getHistory(true, id));
+    }
+
+    /**
+     * Retrieves all recorded changes of an Assignee, including changes after which it was deleted.
+     *
+     * @param id The ID of the Assignee
+     * @return ResponseEntity containing the changes in the order they were committed
+     */
+    @GetMapping("/assignees/{id}/history")
+    public ResponseEntity<List<JournalEntry>> getAssigneeHistory(@PathVariable Long id) {
+        return ResponseEntity.ok(mutationJournal.getHistory(false, id));
+    }
+
+    /**
+     * Retrieves the ToDo statistics at a past point in time, replayed from the journal.
+     *
+     * @param at The point in time in milliseconds since the epoch, now if not given
+     * @return ResponseEntity containing the statistics at that time
+     */
+    @GetMapping("/todos/stats/history")
+    public ResponseEntity<ToDoStatistics> getStatisticsAt(@RequestParam(required = false) Long at) {
+        long time = at == null ? System.currentTimeMillis() : at;
+        return ResponseEntity.ok(mutationJournal.replay(time).getStatistics(time));
+    }
+}
@@ -0,0 +1,255 @@
+package de.unistuttgart.iste.ese.api.Journal;
+
+import de.unistuttgart.iste.ese.api.Assignee.AssigneeChangedEvent;
+import de.unistuttgart.iste.ese.api.Assignee.AssigneeSnapshot;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One committed change of a ToDo or an Assignee as recorded in the mutation journal.
+ * Created and updated entries carry the complete state after the change, deleted and archived entries only the ID,
+ * so the state at any point in time can be rebuilt by replaying the entries in order.
+ */
+public class JournalEntry {
+    // version of the binary encoding, the first byte of every record
+    private static final int FORMAT = 1;
+
+    /**
+     * The kind of change recorded by an entry. The ordinal is stored in the records, so new types are appended.
+     */
+    public enum Type {
+        TODO_CREATED, TODO_UPDATED, TODO_DELETED, ASSIGNEE_CREATED, ASSIGNEE_UPDATED, ASSIGNEE_DELETED, TODO_ARCHIVED
+    }
+
+    private final long sequence;
+
+    private final long timestamp;
+
+    private final Type type;
+
+    private final Long entityId;
+
+    private final ToDoSnapshot todo;
+
+    private final AssigneeSnapshot assignee;
+
+    /**
+     * Creates a new JournalEntry.
+     *
+     * @param sequence  The position of the entry in the journal, 0 while it has not been written
+     * @param timestamp The time the change was committed, in milliseconds since the epoch
+     * @param type      The kind of change
+     * @param entityId  The ID of the changed ToDo or Assignee
+     * @param todo      The state of the ToDo after the change, null for deletions, archiving and Assignee changes
+     * @param assignee  The state of the Assignee after the change, null for deletions and ToDo changes
+     */
+    public JournalEntry(long sequence, long timestamp, Type type, Long entityId, ToDoSnapshot todo,
+                        AssigneeSnapshot assignee) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.entityId = entityId;
+        this.todo = todo;
+        this.assignee = assignee;
+    }
+
+    /**
+     * Creates the entry of a committed ToDo change.
+     *
+     * @param event     The change
+     * @param timestamp The time of the commit
+     * @return The entry, not yet numbered
+     */
+    static JournalEntry of(ToDoChangedEvent event, long timestamp) {
+        Type type = switch (event.getType()) {
+            case CREATED -> Type.TODO_CREATED;
+            case UPDATED -> Type.TODO_UPDATED;
+            case DELETED -> Type.TODO_DELETED;
+            case ARCHIVED -> Type.TODO_ARCHIVED;
+        };
+        return new JournalEntry(0, timestamp, type, event.getToDoId(), event.getCurrent(), null);
+    }
+
+    /**
+     * Creates the entry of a committed Assignee change.
+     *
+     * @param event     The change
+     * @param timestamp The time of the commit
+     * @return The entry, not yet numbered
+     */
+    static JournalEntry of(AssigneeChangedEvent event, long timestamp) {
+        Type type = switch (event.getType()) {
+            case CREATED -> Type.ASSIGNEE_CREATED;
+            case UPDATED -> Type.ASSIGNEE_UPDATED;
+            case DELETED -> Type.ASSIGNEE_DELETED;
+        };
+        return new JournalEntry(0, timestamp, type, event.getAssigneeId(), null, event.getCurrent());
+    }
+
+    /**
+     * Encodes the entry with the given sequence number.
+     *
+     * @param sequence The position of the entry in the journal
+     * @return The binary record
+     */
+    byte[] encode(long sequence) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeLong(sequence);
+            out.writeLong(timestamp);
+            out.writeByte(type.ordinal());
+            out.writeLong(entityId);
+            if (todo != null) {
+                writeString(out, todo.getTitle());
+                writeString(out, todo.getDescription());
+                out.writeBoolean(todo.isFinished());
+                writeString(out, todo.getCategory());
+                writeNullableLong(out, todo.getCreatedDate());
+                writeNullableLong(out, todo.getDueDate());
+                writeNullableLong(out, todo.getFinishedDate());
+                out.writeInt(todo.getAssigneeIds().size());
+                for (Long assigneeId : todo.getAssigneeIds()) {
+                    out.writeLong(assigneeId);
+                }
+            } else if (assignee != null) {
+                writeString(out, assignee.getPrename());
+                writeString(out, assignee.getName());
+                writeString(out, assignee.getEmail());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode journal entry", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes an entry written by encode.
+     *
+     * @param in The record
+     * @return The entry
+     * @throws IOException if the record is malformed or was written in an unknown format
+     */
+    static JournalEntry decode(DataInput in) throws IOException {
+        int format = in.readUnsignedByte();
+        if (format != FORMAT) {
+            throw new IOException("Unknown journal entry format " + format);
+        }
+        long sequence = in.readLong();
+        long timestamp = in.readLong();
+        Type type = Type.values()[in.readUnsignedByte()];
+        long entityId = in.readLong();
+        ToDoSnapshot todo = null;
+        AssigneeSnapshot assignee = null;
+        if (type == Type.TODO_CREATED || type == Type.TODO_UPDATED) {
+            String title = readString(in);
+            String description = readString(in);
+            boolean finished = in.readBoolean();
+            String category = readString(in);
+            Long createdDate = readNullableLong(in);
+            Long dueDate = readNullableLong(in);
+            Long finishedDate = readNullableLong(in);
+            int count = in.readInt();
+            List<Long> assigneeIds = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                assigneeIds.add(in.readLong());
+            }
+            todo = new ToDoSnapshot(entityId, title, description, finished, category, createdDate, dueDate,
+                finishedDate, assigneeIds);
+        } else if (type == Type.ASSIGNEE_CREATED || type == Type.ASSIGNEE_UPDATED) {
+            assignee = new AssigneeSnapshot(entityId, readString(in), readString(in), readString(in));
+        }
+        return new JournalEntry(sequence, timestamp, type, entityId, todo, assignee);
+    }
+
+    /**
+     * Gets the position of the entry in the journal. Sequence numbers start at 1 and have no gaps.
+     *
+     * @return The sequence number
+     */
+    public long getSequence() { return sequence; }
+
+    /**
+     * Gets the time the change was committed.
+     *
+     * @return The time in milliseconds since the epoch
+     */
+    public long getTimestamp() { return timestamp; }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return The change type
+     */
+    public Type getType() { return type; }
+
+    /**
+     * Gets the ID of the changed ToDo or Assignee.
+     *
+     * @return The ID
+     */
+    public Long getEntityId() { return entityId; }
+
+    /**
+     * Gets the state of the ToDo after the change.
+     *
+     * @return The ToDo, or null for deletions, archiving and Assignee changes
+     */
+    public ToDoSnapshot getTodo() { return todo; }
+
+    /**
+     * Gets the state of the Assignee after the change.
+     *
+     * @return The Assignee, or null for deletions and ToDo changes
+     */
+    public AssigneeSnapshot getAssignee() { return assignee; }
+
+    /**
+     * Checks whether the entry records a change of a ToDo.
+     *
+     * @return true for ToDo changes, false for Assignee changes
+     */
+    boolean isToDoChange() {
+        return type == Type.TODO_CREATED || type == Type.TODO_UPDATED || type == Type.TODO_DELETED
+            || type == Type.TODO_ARCHIVED;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readNullableLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+}
@@ -0,0 +1,154 @@
+package de.unistuttgart.iste.ese.api.Journal;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory index of the mutation journal, built when the journal is opened and extended by the writer thread.
+ *
+ * For every ToDo and Assignee it holds the locations of its entries, so a history is read record by record instead
+ * of scanning all segments. A location is the number of the segment in the upper and the position of the record in
+ * the lower 32 bits. For every segment it holds the earliest and latest commit time of its entries, so a replay up
+ * to a point in time skips the segments written after it. The index takes about 8 bytes per entry plus a map entry
+ * per ID.
+ */
+final class JournalIndex {
+
+    private final List<Path> segments = new ArrayList<>();
+
+    private final List<Long> earliestTimestamps = new ArrayList<>();
+
+    private final List<Long> latestTimestamps = new ArrayList<>();
+
+    private final Map<Long, Locations> todos = new HashMap<>();
+
+    private final Map<Long, Locations> assignees = new HashMap<>();
+
+    /**
+     * Adds a segment. The following entries are added to it.
+     *
+     * @param segment The segment file
+     */
+    synchronized void addSegment(Path segment) {
+        segments.add(segment);
+        earliestTimestamps.add(Long.MAX_VALUE);
+        latestTimestamps.add(Long.MIN_VALUE);
+    }
+
+    /**
+     * Adds an entry of the last segment.
+     *
+     * @param entry    The entry
+     * @param position The position of its record in the segment
+     */
+    synchronized void add(JournalEntry entry, int position) {
+        int segment = segments.size() - 1;
+        earliestTimestamps.set(segment, Math.min(earliestTimestamps.get(segment), entry.getTimestamp()));
+        latestTimestamps.set(segment, Math.max(latestTimestamps.get(segment), entry.getTimestamp()));
+        (entry.isToDoChange() ? todos : assignees)
+            .computeIfAbsent(entry.getEntityId(), id -> new Locations())
+            .add(((long) segment << 32) | position);
+    }
+
+    /**
+     * Gets the locations of the entries of a ToDo or Assignee.
+     *
+     * @param todo true for a ToDo, false for an Assignee
+     * @param id   The ID of the ToDo or Assignee
+     * @return The locations in journal order
+     */
+    synchronized long[] locations(boolean todo, long id) {
+        Locations locations = (todo ? todos : assignees).get(id);
+        return locations == null ? new long[0] : Arrays.copyOf(locations.values, locations.size);
+    }
+
+    /**
+     * Gets the segment of a location.
+     *
+     * @param location The location of an entry
+     * @return The segment file
+     */
+    synchronized Path segmentOf(long location) {
+        return segments.get((int) (location >>> 32));
+    }
+
+    /**
+     * Gets the number of full segments, i.e. all but the one being written.
+     *
+     * @return The number of full segments
+     */
+    synchronized int fullSegments() {
+        return segments.size() - 1;
+    }
+
+    /**
+     * Gets the latest commit time of the entries of the first segments.
+     *
+     * @param count The number of segments
+     * @return The time in milliseconds since the epoch, Long.MIN_VALUE if they hold no entries
+     */
+    synchronized long latestTimestamp(int count) {
+        long latest = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            latest = Math.max(latest, latestTimestamps.get(i));
+        }
+        return latest;
+    }
+
+    /**
+     * Gets a range of segments.
+     *
+     * @param from The number of the first segment
+     * @param to   The number after the last segment
+     * @return The segment files in journal order
+     */
+    synchronized List<Path> segments(int from, int to) {
+        return List.copyOf(segments.subList(from, to));
+    }
+
+    /**
+     * Gets the segments holding entries committed at or before a point in time.
+     *
+     * @param until The point in time in milliseconds since the epoch
+     * @param from  The number of the first segment to consider
+     * @return The segment files in journal order
+     */
+    synchronized List<Path> segmentsUntil(long until, int from) {
+        List<Path> result = new ArrayList<>();
+        for (int i = from; i < segments.size(); i++) {
+            if (earliestTimestamps.get(i) <= until) {
+                result.add(segments.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the position of a record within its segment.
+     *
+     * @param location The location of an entry
+     * @return The position in bytes
+     */
+    static int positionOf(long location) {
+        return (int) location;
+    }
+
+    /**
+     * A growing array of the locations of one ToDo or Assignee.
+     */
+    private static final class Locations {
+        private long[] values = new long[2];
+        private int size;
+
+        private void add(long location) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = location;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package de.unistuttgart.iste.ese.api.Journal;
+
+import de.unistuttgart.iste.ese.api.Embedded.EmbeddedLog;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads the segment files of the mutation journal.
+ *
+ * A segment is named after the sequence number of its first entry and holds records in the format of EmbeddedLog
+ * in a single chunk of the size of the file. Reading stops at the first torn record of a segment, so the journal
+ * can be read while it is being written. Single entries are read by the position of their record, as recorded in
+ * the JournalIndex.
+ */
+public final class JournalReader {
+    static final String SEGMENT_PREFIX = "journal-";
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    // length and checksum in front of every record, see EmbeddedLog
+    private static final int HEADER = 8;
+
+    private JournalReader() {
+    }
+
+    /**
+     * Lists the segment files of a journal directory in the order they were written.
+     *
+     * @param directory The journal directory
+     * @return The segment files, empty if the directory does not exist
+     * @throws IOException if the directory cannot be listed
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            // the zero-padded sequence numbers sort like the numbers
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    /**
+     * Gets the file name of the segment starting with the given entry.
+     *
+     * @param firstSequence The sequence number of the first entry of the segment
+     * @return The file name
+     */
+    static String segmentName(long firstSequence) {
+        return String.format("%s%019d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Reads all entries of a journal directory in order.
+     *
+     * @param directory The journal directory
+     * @param consumer  The consumer receiving the entries
+     * @return The number of entries read
+     * @throws IOException if a segment cannot be read or holds a malformed entry
+     */
+    public static long read(Path directory, Consumer<JournalEntry> consumer) throws IOException {
+        long count = 0;
+        for (Path segment : segments(directory)) {
+            count += readSegment(segment, consumer)[0];
+        }
+        return count;
+    }
+
+    /**
+     * Reads the entries of one segment.
+     *
+     * @param segment  The segment file
+     * @param consumer The consumer receiving the entries
+     * @return The number of entries read and the position after the last complete record
+     * @throws IOException if the segment cannot be read or holds a malformed entry
+     */
+    static long[] readSegment(Path segment, Consumer<JournalEntry> consumer) throws IOException {
+        return readSegment(segment, (entry, position) -> consumer.accept(entry));
+    }
+
+    /**
+     * Reads the entries of one segment together with the positions of their records.
+     *
+     * @param segment  The segment file
+     * @param consumer The consumer receiving the entries and positions
+     * @return The number of entries read and the position after the last complete record
+     * @throws IOException if the segment cannot be read or holds a malformed entry
+     */
+    static long[] readSegment(Path segment, PositionedConsumer consumer) throws IOException {
+        long[] count = new long[1];
+        long size = Files.size(segment);
+        if (size == 0) {
+            return new long[]{0, 0};
+        }
+        // a segment is a single chunk without padding, so each record starts where the previous one ended
+        int[] position = new int[1];
+        try {
+            long end = EmbeddedLog.read(segment, (int) size, payload -> {
+                int length = payload.remaining();
+                try {
+                    consumer.accept(JournalEntry.decode(new DataInputStream(new ByteBufferInputStream(payload))),
+                        position[0]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                position[0] += HEADER + length;
+                count[0]++;
+            });
+            return new long[]{count[0], end};
+        } catch (UncheckedIOException e) {
+            throw new IOException("Malformed entry in " + segment, e.getCause());
+        }
+    }
+
+    /**
+     * Reads the entry whose record starts at the given position of a segment.
+     *
+     * @param channel  The open segment file
+     * @param position The position of the record
+     * @return The entry
+     * @throws IOException if the record cannot be read, fails its checksum or is malformed
+     */
+    static JournalEntry readAt(FileChannel channel, int position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        readFully(channel, header, position);
+        int length = header.getInt(0);
+        if (length <= 0 || position + HEADER + (long) length > channel.size()) {
+            throw new IOException("No journal record at position " + position);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(channel, payload, position + HEADER);
+        CRC32C checksum = new CRC32C();
+        checksum.update(payload.duplicate());
+        if ((int) checksum.getValue() != header.getInt(4)) {
+            throw new IOException("Checksum mismatch of the journal record at position " + position);
+        }
+        return JournalEntry.decode(new DataInputStream(new ByteBufferInputStream(payload)));
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of journal segment");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Receives the entries of a segment with the positions of their records.
+     */
+    interface PositionedConsumer {
+        void accept(JournalEntry entry, int position) throws IOException;
+    }
+
+    /**
+     * Reads a record payload through DataInputStream without copying it.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
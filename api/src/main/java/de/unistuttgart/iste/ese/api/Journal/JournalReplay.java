@@ -0,0 +1,232 @@
+package de.unistuttgart.iste.ese.api.Journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.unistuttgart.iste.ese.api.Assignee.AssigneeSnapshot;
+import de.unistuttgart.iste.ese.api.Statistics.ToDoStatistics;
+import de.unistuttgart.iste.ese.api.Statistics.ToDoStatisticsService;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rebuilds the state of all ToDos and Assignees by replaying the mutation journal, up to a point in time.
+ *
+ * Also runs as a command line tool on a copy of the journal directory, without starting the application:
+ * <pre>
+ * java -cp api.jar -Dloader.main=de.unistuttgart.iste.ese.api.Journal.JournalReplay \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher &lt;directory&gt; [stats|state|todo &lt;id&gt;|assignee &lt;id&gt;] [--until=&lt;ms&gt;]
+ * </pre>
+ */
+public final class JournalReplay {
+
+    private final Map<Long, ToDoSnapshot> todos = new TreeMap<>();
+
+    private final Map<Long, AssigneeSnapshot> assignees = new TreeMap<>();
+
+    private long entries;
+
+    private long lastSequence;
+
+    private long lastTimestamp;
+
+    private JournalReplay() {
+    }
+
+    /**
+     * Creates the state before the first entry, to be replayed with continueWith.
+     *
+     * @return The empty state
+     */
+    static JournalReplay empty() {
+        return new JournalReplay();
+    }
+
+    /**
+     * Replays the entries of a journal directory.
+     *
+     * @param directory The journal directory
+     * @param until     Only entries committed at or before this time are replayed, in milliseconds since the epoch
+     * @return The state after the last replayed entry
+     * @throws IOException if the journal cannot be read
+     */
+    public static JournalReplay replay(Path directory, long until) throws IOException {
+        return replay(JournalReader.segments(directory), until);
+    }
+
+    /**
+     * Replays the entries of the given segments.
+     *
+     * @param segments The segment files in journal order
+     * @param until    Only entries committed at or before this time are replayed, in milliseconds since the epoch
+     * @return The state after the last replayed entry
+     * @throws IOException if a segment cannot be read
+     */
+    static JournalReplay replay(List<Path> segments, long until) throws IOException {
+        JournalReplay replay = empty();
+        replay.continueWith(segments, until);
+        return replay;
+    }
+
+    /**
+     * Replays further segments on top of this state.
+     *
+     * @param segments The segment files following the ones already replayed, in journal order
+     * @param until    Only entries committed at or before this time are replayed, in milliseconds since the epoch
+     * @throws IOException if a segment cannot be read
+     */
+    void continueWith(List<Path> segments, long until) throws IOException {
+        for (Path segment : segments) {
+            JournalReader.readSegment(segment, entry -> {
+                if (entry.getTimestamp() <= until) {
+                    apply(entry);
+                }
+            });
+        }
+    }
+
+    /**
+     * Copies the replayed state, so it can be replayed further without changing this one.
+     *
+     * @return The copy
+     */
+    JournalReplay copy() {
+        JournalReplay copy = empty();
+        copy.todos.putAll(todos);
+        copy.assignees.putAll(assignees);
+        copy.entries = entries;
+        copy.lastSequence = lastSequence;
+        copy.lastTimestamp = lastTimestamp;
+        return copy;
+    }
+
+    /**
+     * Collects the entries of one ToDo or Assignee.
+     *
+     * @param directory The journal directory
+     * @param todo      true for a ToDo, false for an Assignee
+     * @param id        The ID of the ToDo or Assignee
+     * @return The entries in journal order
+     * @throws IOException if the journal cannot be read
+     */
+    public static List<JournalEntry> history(Path directory, boolean todo, long id) throws IOException {
+        List<JournalEntry> history = new ArrayList<>();
+        JournalReader.read(directory, entry -> {
+            if (entry.isToDoChange() == todo && entry.getEntityId() == id) {
+                history.add(entry);
+            }
+        });
+        return history;
+    }
+
+    private void apply(JournalEntry entry) {
+        switch (entry.getType()) {
+            case TODO_CREATED, TODO_UPDATED -> todos.put(entry.getEntityId(), entry.getTodo());
+            case TODO_DELETED, TODO_ARCHIVED -> todos.remove(entry.getEntityId());
+            case ASSIGNEE_CREATED, ASSIGNEE_UPDATED -> assignees.put(entry.getEntityId(), entry.getAssignee());
+            case ASSIGNEE_DELETED -> assignees.remove(entry.getEntityId());
+        }
+        entries++;
+        lastSequence = entry.getSequence();
+        lastTimestamp = entry.getTimestamp();
+    }
+
+    /**
+     * Gets the replayed ToDos.
+     *
+     * @return The ToDos by ID
+     */
+    public Map<Long, ToDoSnapshot> getToDos() { return todos; }
+
+    /**
+     * Gets the replayed Assignees.
+     *
+     * @return The Assignees by ID
+     */
+    public Map<Long, AssigneeSnapshot> getAssignees() { return assignees; }
+
+    /**
+     * Gets the number of replayed entries.
+     *
+     * @return The number of entries
+     */
+    public long getEntries() { return entries; }
+
+    /**
+     * Gets the sequence number of the last replayed entry.
+     *
+     * @return The sequence number, 0 if no entry was replayed
+     */
+    public long getLastSequence() { return lastSequence; }
+
+    /**
+     * Gets the commit time of the last replayed entry.
+     *
+     * @return The time in milliseconds since the epoch, 0 if no entry was replayed
+     */
+    public long getLastTimestamp() { return lastTimestamp; }
+
+    /**
+     * Computes the ToDo statistics of the replayed state.
+     *
+     * @param now The time before which unfinished ToDos count as overdue, in milliseconds since the epoch
+     * @return The statistics
+     */
+    public ToDoStatistics getStatistics(long now) {
+        return ToDoStatisticsService.of(todos.values(), now);
+    }
+
+    /**
+     * Replays a journal directory and prints the result as JSON.
+     *
+     * @param args The journal directory, optionally followed by the command (stats, state, todo ID or assignee ID)
+     *             and --until=&lt;ms&gt;
+     * @throws IOException if the journal cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        List<String> arguments = new ArrayList<>();
+        long until = Long.MAX_VALUE;
+        for (String arg : args) {
+            if (arg.startsWith("--until=")) {
+                until = Long.parseLong(arg.substring("--until=".length()));
+            } else {
+                arguments.add(arg);
+            }
+        }
+        if (arguments.isEmpty()) {
+            System.err.println("Usage: JournalReplay <directory> [stats|state|todo <id>|assignee <id>] [--until=<ms>]");
+            System.exit(2);
+        }
+        Path directory = Path.of(arguments.get(0));
+        String command = arguments.size() > 1 ? arguments.get(1) : "stats";
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Object result;
+        if (command.equals("todo") || command.equals("assignee")) {
+            if (arguments.size() < 3) {
+                System.err.println("Missing the ID of the " + command);
+                System.exit(2);
+            }
+            result = history(directory, command.equals("todo"), Long.parseLong(arguments.get(2)));
+        } else {
+            long start = System.nanoTime();
+            JournalReplay replay = replay(directory, until);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("entries", replay.getEntries());
+            summary.put("lastSequence", replay.getLastSequence());
+            summary.put("lastTimestamp", replay.getLastTimestamp());
+            summary.put("replayMs", (System.nanoTime() - start) / 1_000_000);
+            summary.put("todos", command.equals("state") ? replay.getToDos().values() : replay.getToDos().size());
+            summary.put("assignees", command.equals("state") ? replay.getAssignees().values() : replay.getAssignees().size());
+            summary.put("statistics", replay.getStatistics(Math.min(until, System.currentTimeMillis())));
+            result = summary;
+        }
+        mapper.writeValue(System.out, result);
+        System.out.println();
+    }
+}
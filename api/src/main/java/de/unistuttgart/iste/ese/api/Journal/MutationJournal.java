@@ -0,0 +1,360 @@
+package de.unistuttgart.iste.ese.api.Journal;
+
+import de.unistuttgart.iste.ese.api.Assignee.AssigneeChangedEvent;
+import de.unistuttgart.iste.ese.api.Embedded.EmbeddedLog;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only journal of every committed ToDo and Assignee change, for auditing and for replaying past states.
+ *
+ * The change events are queued after commit and written by a background thread, so the write paths only pay for
+ * building the entry and queueing it. The thread appends the entries to memory-mapped segment files in
+ * api.journal.directory and forces them to disk at most every api.journal.fsync-interval-ms, covering all entries
+ * written in between with one fsync. A JournalIndex of all entries is built on startup and extended by the writer,
+ * so the history of a ToDo or Assignee only reads its own entries.
+ *
+ * Guarantees:
+ * - Ordering: entries are numbered in the order they were queued right after their commits. Two commits of the same
+ *   ToDo that finish at almost the same time on different threads may be queued in the opposite order.
+ * - Durability: an entry is durable one fsync interval after its commit. Entries queued or written within the last
+ *   interval are lost if the process crashes; a torn record at the end of the journal is discarded on startup.
+ *   Queued entries are written on a regular shutdown.
+ * - Backpressure: if the writer falls behind by api.journal.queue-size entries, committing threads wait for it
+ *   instead of dropping entries.
+ */
+@Component
+public class MutationJournal {
+    private static final Log LOG = LogFactory.getLog(MutationJournal.class);
+
+    // maximum number of entries written between two checks of the fsync interval
+    private static final int MAX_BATCH = 1000;
+
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Path directory;
+
+    private final int segmentBytes;
+
+    private final long fsyncIntervalNanos;
+
+    private final BlockingQueue<JournalEntry> queue;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mutation-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter writtenCounter;
+
+    private final Counter failedCounter;
+
+    private final Timer fsyncTimer;
+
+    private final JournalIndex index = new JournalIndex();
+
+    // state after all entries of the first checkpointSegments segments, which are full and no longer change
+    private final JournalReplay checkpoint = JournalReplay.empty();
+
+    private int checkpointSegments;
+
+    private volatile boolean closed;
+
+    // only accessed by the writer thread after open
+    private EmbeddedLog segment;
+
+    private long sequence;
+
+    private boolean dirty;
+
+    private long lastForce;
+
+    /**
+     * Creates a new MutationJournal.
+     *
+     * @param directory        The directory of the segment files
+     * @param segmentBytes     The size of a segment file in bytes
+     * @param fsyncIntervalMs  The maximum time between writing an entry and forcing it to disk, 0 to force after
+     *                         every batch of entries
+     * @param queueSize        The maximum number of entries waiting to be written
+     * @param meterRegistry    The registry to publish the journal metrics to
+     */
+    public MutationJournal(@Value("${api.journal.directory:journal}") String directory,
+                           @Value("${api.journal.segment-bytes:67108864}") int segmentBytes,
+                           @Value("${api.journal.fsync-interval-ms:50}") long fsyncIntervalMs,
+                           @Value("${api.journal.queue-size:65536}") int queueSize,
+                           MeterRegistry meterRegistry) {
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.writtenCounter = meterRegistry.counter("api.journal.entries", "result", "written");
+        this.failedCounter = meterRegistry.counter("api.journal.entries", "result", "failed");
+        this.fsyncTimer = meterRegistry.timer("api.journal.fsyncs");
+        Gauge.builder("api.journal.queued", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * Indexes the segments, opens the last one after its last complete entry and starts the writer thread.
+     *
+     * @throws IOException if the journal directory cannot be read or the segment cannot be opened
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        long start = System.currentTimeMillis();
+        Files.createDirectories(directory);
+        List<Path> segments = JournalReader.segments(directory);
+        if (segments.isEmpty()) {
+            Path first = directory.resolve(JournalReader.segmentName(1));
+            segment = EmbeddedLog.open(first, segmentBytes, 0);
+            index.addSegment(first);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            long[] lastSequence = new long[1];
+            long end = 0;
+            for (Path file : segments) {
+                index.addSegment(file);
+                lastSequence[0] = 0;
+                end = JournalReader.readSegment(file, (entry, position) -> {
+                    index.add(entry, position);
+                    lastSequence[0] = entry.getSequence();
+                })[1];
+            }
+            if (lastSequence[0] == 0) {
+                // the segment is empty, so it is named after the next sequence number
+                String name = last.getFileName().toString();
+                lastSequence[0] = Long.parseLong(name.substring(JournalReader.SEGMENT_PREFIX.length(),
+                    name.length() - JournalReader.SEGMENT_SUFFIX.length())) - 1;
+            }
+            sequence = lastSequence[0];
+            segment = EmbeddedLog.open(last, (int) Files.size(last), end);
+        }
+        lastForce = System.nanoTime();
+        writer.execute(this::run);
+        LOG.info("Opened mutation journal in " + directory + " at entry " + sequence + " in "
+            + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Queues the entry of a committed ToDo change.
+     *
+     * @param event The ToDo change that happened
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onToDoChanged(ToDoChangedEvent event) {
+        enqueue(JournalEntry.of(event, System.currentTimeMillis()));
+    }
+
+    /**
+     * Queues the entry of a committed Assignee change.
+     *
+     * @param event The Assignee change that happened
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssigneeChanged(AssigneeChangedEvent event) {
+        enqueue(JournalEntry.of(event, System.currentTimeMillis()));
+    }
+
+    /**
+     * Gets the journaled changes of a ToDo or Assignee, reading only its entries as located by the index.
+     * Changes that are still queued for the writer are missing.
+     *
+     * @param todo true for a ToDo, false for an Assignee
+     * @param id   The ID of the ToDo or Assignee
+     * @return The entries in journal order
+     */
+    public List<JournalEntry> getHistory(boolean todo, long id) {
+        long[] locations = index.locations(todo, id);
+        List<JournalEntry> history = new ArrayList<>(locations.length);
+        FileChannel channel = null;
+        Path open = null;
+        try {
+            for (long location : locations) {
+                Path file = index.segmentOf(location);
+                if (!file.equals(open)) {
+                    if (channel != null) {
+                        channel.close();
+                    }
+                    channel = FileChannel.open(file, StandardOpenOption.READ);
+                    open = file;
+                }
+                history.add(JournalReader.readAt(channel, JournalIndex.positionOf(location)));
+            }
+            return history;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            closeQuietly(channel);
+        }
+    }
+
+    /**
+     * Replays the journal up to a point in time. Segments whose entries were all committed later are not read.
+     * If every entry of the full segments was committed before that time, the replay starts from a checkpoint of
+     * their state and only reads the segment being written; the checkpoint is extended whenever a segment is full.
+     *
+     * @param until Only changes committed at or before this time are replayed, in milliseconds since the epoch
+     * @return The replayed state
+     */
+    public JournalReplay replay(long until) {
+        try {
+            synchronized (checkpoint) {
+                int full = index.fullSegments();
+                if (checkpointSegments < full) {
+                    checkpoint.continueWith(index.segments(checkpointSegments, full), Long.MAX_VALUE);
+                    checkpointSegments = full;
+                }
+                if (until >= index.latestTimestamp(checkpointSegments)) {
+                    JournalReplay replay = checkpoint.copy();
+                    replay.continueWith(index.segmentsUntil(until, checkpointSegments), until);
+                    return replay;
+                }
+            }
+            return JournalReplay.replay(index.segmentsUntil(until, 0), until);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the queued entries, forces them to disk and closes the journal.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer thread
+     * @throws IOException if the segment cannot be closed
+     */
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        closed = true;
+        writer.shutdown();
+        if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+            LOG.error("Mutation journal writer did not finish, " + queue.size() + " entries are lost");
+            writer.shutdownNow();
+            return;
+        }
+        segment.close();
+    }
+
+    private void enqueue(JournalEntry entry) {
+        if (closed) {
+            LOG.warn("Mutation journal is closed, dropping " + entry.getType() + " of " + entry.getEntityId());
+            failedCounter.increment();
+            return;
+        }
+        try {
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failedCounter.increment();
+        }
+    }
+
+    /**
+     * The loop of the writer thread: writes queued entries in batches and forces them once per fsync interval.
+     */
+    private void run() {
+        List<JournalEntry> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            JournalEntry first;
+            try {
+                // when idle the timeout only bounds how long closing waits for the thread
+                long wait = dirty ? lastForce + fsyncIntervalNanos - System.nanoTime() : IDLE_POLL_NANOS;
+                first = queue.poll(Math.max(wait, 0), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (first != null) {
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                write(batch);
+                batch.clear();
+            } else if (closed && queue.isEmpty()) {
+                break;
+            }
+            if (dirty && System.nanoTime() - lastForce >= fsyncIntervalNanos) {
+                force();
+            }
+        }
+        if (dirty) {
+            force();
+        }
+    }
+
+    private void write(List<JournalEntry> batch) {
+        for (JournalEntry entry : batch) {
+            byte[] record = entry.encode(sequence + 1);
+            try {
+                if (!segment.fits(record.length)) {
+                    rollSegment();
+                }
+                int position = (int) segment.position();
+                segment.append(record);
+                sequence++;
+                index.add(entry, position);
+                writtenCounter.increment();
+                dirty = true;
+            } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+                LOG.error("Could not write " + entry.getType() + " of " + entry.getEntityId() + " to the journal", e);
+                failedCounter.increment();
+            }
+        }
+    }
+
+    /**
+     * Starts a new segment. It is opened before the full one is closed, so a failure leaves the current segment in
+     * place and the next entry tries again.
+     */
+    private void rollSegment() throws IOException {
+        Path file = directory.resolve(JournalReader.segmentName(sequence + 1));
+        EmbeddedLog next = EmbeddedLog.open(file, segmentBytes, 0);
+        EmbeddedLog full = segment;
+        segment = next;
+        index.addSegment(file);
+        dirty = false;
+        try {
+            full.close();
+        } catch (IOException | UncheckedIOException e) {
+            LOG.error("Could not close the full journal segment, its last entries may not be durable", e);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.warn("Could not close journal segment", e);
+            }
+        }
+    }
+
+    private void force() {
+        fsyncTimer.record(segment::force);
+        dirty = false;
+        lastForce = System.nanoTime();
+    }
+}
@@ -0,0 +1,91 @@
+package de.unistuttgart.iste.ese.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Result of fetching several entities by ID in one request.
+ * The items are in the order of the requested IDs; IDs without an entity are reported as missing.
+ *
+ * @param <T> The type of the fetched entities
+ */
+public class MultiGetResult<T> {
+    /**
+     * Maximum number of IDs per request.
+     */
+    public static final int MAX_IDS = 1000;
+
+    private final List<T> items;
+
+    private final List<Long> missingIds;
+
+    /**
+     * Creates a new MultiGetResult.
+     *
+     * @param items      The found entities in request order
+     * @param missingIds The requested IDs without an entity
+     */
+    public MultiGetResult(List<T> items, List<Long> missingIds) {
+        this.items = items;
+        this.missingIds = missingIds;
+    }
+
+    /**
+     * Validates the IDs of a multi-get request.
+     *
+     * @param ids The requested IDs
+     * @throws ResponseStatusException if no or more than MAX_IDS IDs are given
+     */
+    public static void validateIds(List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Between 1 and " + MAX_IDS + " IDs are required");
+        }
+    }
+
+    /**
+     * Orders fetched entities by the requested IDs and collects the IDs that were not found.
+     * A repeated ID is only answered once, at its first position.
+     *
+     * @param ids   The requested IDs
+     * @param found The fetched entities in any order
+     * @param idOf  The function returning an entity's ID
+     * @param <T>   The type of the fetched entities
+     * @return The result in request order
+     */
+    public static <T> MultiGetResult<T> of(List<Long> ids, Iterable<T> found, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        found.forEach(entity -> byId.put(idOf.apply(entity), entity));
+        List<T> items = new ArrayList<>(byId.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                items.add(entity);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new MultiGetResult<>(items, missingIds);
+    }
+
+    /**
+     * Gets the found entities in the order of the requested IDs.
+     *
+     * @return The found entities
+     */
+    public List<T> getItems() { return items; }
+
+    /**
+     * Gets the requested IDs without an entity.
+     *
+     * @return The missing IDs in request order
+     */
+    public List<Long> getMissingIds() { return missingIds; }
+}
@@ -0,0 +1,122 @@
+package de.unistuttgart.iste.ese.api.ReadReplica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes read-only transactions to the read replicas in api.datasource.replica-urls and everything else to
+ * spring.datasource.url. Only active if replicas are configured.
+ *
+ * The application's DataSource hands out lazy connections, which are only obtained from the primary or a replica
+ * at the first statement, once the transaction has marked them read-only or not. With open-in-view a request keeps
+ * the connection of its first transaction, so a request reads either from the primary or from one replica.
+ */
+@Configuration
+@Profile("!embedded")
+@ConditionalOnExpression("!'${api.datasource.replica-urls:}'.isBlank()")
+public class ReadReplicaConfiguration {
+
+    /**
+     * Creates the connection pool of the primary from the spring.datasource properties.
+     *
+     * @param properties The spring.datasource properties
+     * @return The connection pool
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Creates the connection pools of the replicas, which use the driver and credentials of the primary.
+     * Replicas that are down on startup do not prevent it, they are used once a health check succeeds.
+     *
+     * @param properties        The spring.datasource properties
+     * @param primaryDataSource The connection pool of the primary, the fallback for reads
+     * @param meterRegistry     The registry to publish the routing and pool metrics to
+     * @param replicaUrls       The comma-separated JDBC URLs of the replicas
+     * @param connectTimeoutMs  How long a read waits for a replica connection before trying the next replica
+     * @return The DataSource of read-only transactions
+     */
+    @Bean
+    public ReplicaDataSource replicaDataSource(DataSourceProperties properties, HikariDataSource primaryDataSource,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${api.datasource.replica-urls}") List<String> replicaUrls,
+                                               @Value("${api.datasource.replica-connect-timeout-ms:1000}") long connectTimeoutMs) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url.trim())
+                .build();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(connectTimeoutMs);
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.add(replica);
+        }
+        return new ReplicaDataSource(primaryDataSource, replicas, meterRegistry);
+    }
+
+    /**
+     * Creates the DataSource used by JPA and Flyway, which routes read-only transactions to the replicas.
+     *
+     * @param primaryDataSource The connection pool of the primary
+     * @param replicaDataSource The DataSource of read-only transactions
+     * @return The routing DataSource
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    /**
+     * Creates the transaction manager, which keeps rows read from replicas out of the second-level cache.
+     *
+     * @param entityManagerFactory The EntityManagerFactory
+     * @param customizers          The transaction manager customizers of Spring Boot
+     * @return The transaction manager
+     */
+    @Bean
+    public ReplicaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                        ObjectProvider<TransactionManagerCustomizers> customizers) {
+        ReplicaTransactionManager transactionManager = new ReplicaTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(c -> c.customize((TransactionManager) transactionManager));
+        return transactionManager;
+    }
+
+    /**
+     * Creates the filter pinning writing requests and the following requests of their clients to the primary.
+     *
+     * @param windowMs How long a client reads from the primary after a write
+     * @return The filter
+     */
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(@Value("${api.datasource.read-your-writes-ms:5000}") long windowMs) {
+        return new ReadYourWritesFilter(windowMs);
+    }
+}
@@ -0,0 +1,86 @@
+package de.unistuttgart.iste.ese.api.ReadReplica;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Lets clients read their own writes although reads go to replicas that lag behind the primary.
+ *
+ * A request that may write sets a cookie holding the time until which the client's requests stay on the primary.
+ * Requests carrying an unexpired cookie, and the writing requests themselves, are pinned to the primary.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    /** Name of the cookie holding the time until which the client reads from the primary. */
+    public static final String COOKIE = "api-primary-until";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final long windowMs;
+
+    /**
+     * Creates a new ReadYourWritesFilter.
+     *
+     * @param windowMs How long a client reads from the primary after a write, should exceed the replication lag
+     */
+    public ReadYourWritesFilter(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Pins the request to the primary if it may write or its client wrote within the window.
+     *
+     * @param request     The request
+     * @param response    The response
+     * @param filterChain The remaining filters
+     * @throws ServletException if a later filter or the handler fails
+     * @throws IOException      if a later filter or the handler fails
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (write) {
+            // set before the handler runs, afterwards the response may already be committed
+            Cookie cookie = new Cookie(COOKIE, Long.toString(now + windowMs));
+            cookie.setMaxAge((int) Math.max(1, (windowMs + 999) / 1000));
+            cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        if (!write && primaryUntil(request) <= now) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Boolean previous = ReplicaDataSource.pinToPrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaDataSource.restore(previous);
+        }
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
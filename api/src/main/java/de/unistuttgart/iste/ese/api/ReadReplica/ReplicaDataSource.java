@@ -0,0 +1,211 @@
+package de.unistuttgart.iste.ese.api.ReadReplica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands out the connections of read-only transactions, round-robin from the healthy read replicas.
+ *
+ * Falls back to the primary if no replica is healthy or the current thread is pinned to the primary, e.g. because
+ * its client wrote shortly before (read-your-writes) or because the result is kept in memory and must not be stale.
+ * A replica is marked unhealthy when it cannot hand out a connection and healthy again after a successful check.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements Closeable {
+    private static final Log LOG = LogFactory.getLog(ReplicaDataSource.class);
+
+    // seconds a health check waits for a replica to answer
+    private static final int VALID_TIMEOUT_SECONDS = 2;
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter replicaCounter;
+
+    private final Counter pinnedCounter;
+
+    private final Counter fallbackCounter;
+
+    /**
+     * Creates a new ReplicaDataSource.
+     *
+     * @param primary       The primary, used when no replica may or can be used
+     * @param replicas      The connection pools of the replicas
+     * @param meterRegistry The registry to publish the routing metrics to
+     */
+    public ReplicaDataSource(DataSource primary, List<HikariDataSource> replicas, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        for (HikariDataSource dataSource : replicas) {
+            Replica replica = new Replica(dataSource);
+            this.replicas.add(replica);
+            Gauge.builder("api.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                .tag("replica", dataSource.getPoolName())
+                .register(meterRegistry);
+        }
+        this.replicaCounter = meterRegistry.counter("api.datasource.reads", "route", "replica");
+        this.pinnedCounter = meterRegistry.counter("api.datasource.reads", "route", "pinned");
+        this.fallbackCounter = meterRegistry.counter("api.datasource.reads", "route", "fallback");
+    }
+
+    /**
+     * Runs an action with all its read-only transactions on the primary.
+     *
+     * @param action The action
+     * @param <T>    The type of the result
+     * @return The result of the action
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = pinToPrimary();
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Pins the read-only transactions of the current thread to the primary until restore is called.
+     *
+     * @return The previous pinning, to be passed to restore
+     */
+    static Boolean pinToPrimary() {
+        Boolean previous = PINNED.get();
+        PINNED.set(Boolean.TRUE);
+        return previous;
+    }
+
+    /**
+     * Restores the pinning of the current thread.
+     *
+     * @param previous The pinning returned by pinToPrimary
+     */
+    static void restore(Boolean previous) {
+        if (previous == null) {
+            PINNED.remove();
+        } else {
+            PINNED.set(previous);
+        }
+    }
+
+    /**
+     * Checks whether the read-only transactions of the current thread go to the primary.
+     *
+     * @return true if the thread is pinned to the primary
+     */
+    static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    /**
+     * Gets a connection of the next healthy replica, or of the primary if the thread is pinned or no replica can
+     * hand out a connection.
+     *
+     * @return The connection
+     * @throws SQLException if the primary cannot hand out a connection either
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (isPinnedToPrimary()) {
+            pinnedCounter.increment();
+            return primary.getConnection();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaCounter.increment();
+                return connection;
+            } catch (SQLException e) {
+                markUnhealthy(replica, e);
+            }
+        }
+        fallbackCounter.increment();
+        return primary.getConnection();
+    }
+
+    /**
+     * Not supported, the replicas use the credentials of their pools.
+     *
+     * @param username The user name
+     * @param password The password
+     * @return Never returns
+     * @throws SQLException always
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Replica connections use the configured credentials");
+    }
+
+    /**
+     * Checks every replica and updates its health. Runs on startup and then periodically.
+     */
+    @Scheduled(fixedDelayString = "${api.datasource.replica-check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(VALID_TIMEOUT_SECONDS)) {
+                    markUnhealthy(replica, null);
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    LOG.info("Read replica " + replica.dataSource.getPoolName() + " is healthy again");
+                }
+            } catch (SQLException e) {
+                markUnhealthy(replica, e);
+            }
+        }
+    }
+
+    /**
+     * Closes the connection pools of the replicas.
+     */
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    private void markUnhealthy(Replica replica, SQLException cause) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            LOG.warn("Read replica " + replica.dataSource.getPoolName() + " is unhealthy, reading from the "
+                + "other replicas or the primary" + (cause != null ? ": " + cause.getMessage() : ""));
+        }
+    }
+
+    /**
+     * A replica's connection pool and its last known health.
+     */
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package de.unistuttgart.iste.ese.api.ReadReplica;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA transaction manager that keeps rows read from a replica out of the second-level cache.
+ *
+ * A replica may still return a row that was changed or deleted on the primary, and the cache would then serve it
+ * until it expires. Read-only transactions that may go to a replica therefore only read from the cache.
+ */
+public class ReplicaTransactionManager extends JpaTransactionManager {
+
+    /**
+     * Creates a new ReplicaTransactionManager.
+     *
+     * @param entityManagerFactory The EntityManagerFactory to manage transactions for
+     */
+    public ReplicaTransactionManager(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    /**
+     * Begins the transaction and, if it is read-only and not pinned to the primary, disables cache stores of its
+     * EntityManager.
+     *
+     * @param transaction The transaction object
+     * @param definition  The transaction definition
+     */
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        if (definition.isReadOnly() && !ReplicaDataSource.isPinnedToPrimary()) {
+            // with open-in-view the EntityManager lives as long as the request, which is pinned if it writes
+            EntityManagerHolder holder =
+                (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+            holder.getEntityManager().setProperty(AvailableSettings.JAKARTA_SHARED_CACHE_STORE_MODE,
+                CacheStoreMode.BYPASS);
+        }
+    }
+}
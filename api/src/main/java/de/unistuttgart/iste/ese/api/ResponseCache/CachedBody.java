@@ -0,0 +1,87 @@
+package de.unistuttgart.iste.ese.api.ResponseCache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * A fully serialized JSON response body, optionally together with its gzip-compressed form.
+ */
+public class CachedBody {
+
+    private final byte[] json;
+
+    private final byte[] gzip;
+
+    /**
+     * Creates a new CachedBody.
+     *
+     * @param json The serialized JSON body
+     * @param gzip The gzip-compressed JSON body, or null if no compressed form is available
+     */
+    public CachedBody(byte[] json, byte[] gzip) {
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Gets the number of bytes held by this body (plain and compressed form).
+     *
+     * @return The size in bytes
+     */
+    public long sizeInBytes() {
+        return json.length + (gzip == null ? 0 : gzip.length);
+    }
+
+    /**
+     * Builds the HTTP response for this body.
+     * The gzip form is served if it exists and the client accepts gzip encoding with a non-zero quality.
+     *
+     * @param acceptEncoding The value of the client's Accept-Encoding header, may be null
+     * @return ResponseEntity containing the serialized body
+     */
+    public ResponseEntity<byte[]> toResponse(String acceptEncoding) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip != null && acceptsGzip(acceptEncoding)) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+        }
+        return builder.body(json);
+    }
+
+    /**
+     * Checks whether an Accept-Encoding header accepts gzip, i.e. lists gzip (or else *) with a quality above 0.
+     *
+     * @param acceptEncoding The value of the Accept-Encoding header, may be null
+     * @return true if a gzip-encoded body may be sent
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzipQuality = -1;
+        double wildcardQuality = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase();
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipQuality = Math.max(gzipQuality, quality);
+            } else if (name.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        return (gzipQuality >= 0 ? gzipQuality : wildcardQuality) > 0;
+    }
+}
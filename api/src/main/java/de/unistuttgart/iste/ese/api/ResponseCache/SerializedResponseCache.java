@@ -0,0 +1,226 @@
+package de.unistuttgart.iste.ese.api.ResponseCache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.iste.ese.api.Assignee.AssigneeChangedEvent;
+import de.unistuttgart.iste.ese.api.ReadReplica.ReplicaDataSource;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of fully serialized list responses.
+ * Bodies are serialized once with the application's ObjectMapper and then served as raw bytes
+ * until a write in ToDoService or AssigneeService invalidates them.
+ */
+@Component
+public class SerializedResponseCache {
+    private static final Log LOG = LogFactory.getLog(SerializedResponseCache.class);
+
+    /** Cache key for the body of GET /todos. */
+    public static final String TODOS = "todos";
+
+    /** Cache key for the body of GET /assignees. */
+    public static final String ASSIGNEES = "assignees";
+
+    // bodies smaller than this are not worth compressing
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, CachedBody> entries = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final Map<String, Object> loadLocks = new ConcurrentHashMap<>();
+
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private final Counter skippedCounter;
+
+    private final long maxBytes;
+
+    private final boolean gzipEnabled;
+
+    /**
+     * Creates a new SerializedResponseCache.
+     *
+     * @param objectMapper  The ObjectMapper used for regular responses, so cached bodies look the same
+     * @param meterRegistry The registry to publish cache metrics to
+     * @param maxBytes      The maximum number of bytes all cached bodies may occupy together
+     * @param gzipEnabled   Whether a gzip-compressed copy of each body should be kept as well
+     */
+    public SerializedResponseCache(ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${api.response-cache.max-bytes:16777216}") long maxBytes,
+                                   @Value("${api.response-cache.gzip:true}") boolean gzipEnabled) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        this.gzipEnabled = gzipEnabled;
+        this.hitCounter = meterRegistry.counter("api.response.cache.requests", "result", "hit");
+        this.missCounter = meterRegistry.counter("api.response.cache.requests", "result", "miss");
+        this.skippedCounter = meterRegistry.counter("api.response.cache.skipped");
+        Gauge.builder("api.response.cache.size", cachedBytes, AtomicLong::get)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("api.response.cache.hit.ratio", this, SerializedResponseCache::hitRatio)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached body for the given key, serializing the loader's result on a miss.
+     * A body is only stored if no invalidation happened while it was loaded and it fits into the memory bound.
+     * Bodies are always loaded from the primary, never from a read replica.
+     *
+     * @param key    The cache key
+     * @param loader Supplies the object to serialize on a miss
+     * @return The serialized body
+     */
+    public CachedBody get(String key, Supplier<?> loader) {
+        CachedBody body = entries.get(key);
+        if (body != null) {
+            recordHit();
+            return body;
+        }
+        synchronized (loadLocks.computeIfAbsent(key, k -> new Object())) {
+            body = entries.get(key);
+            if (body != null) {
+                recordHit();
+                return body;
+            }
+            recordMiss();
+            long generation = generationOf(key).get();
+            // a body read from a lagging replica would be served until the next write
+            body = serialize(ReplicaDataSource.onPrimary(loader));
+            store(key, generation, body);
+            return body;
+        }
+    }
+
+    /**
+     * Removes the cached bodies for the given keys.
+     *
+     * @param keys The cache keys to invalidate
+     */
+    public void invalidate(String... keys) {
+        for (String key : keys) {
+            generationOf(key).incrementAndGet();
+            CachedBody removed = entries.remove(key);
+            if (removed != null) {
+                cachedBytes.addAndGet(-removed.sizeInBytes());
+            }
+        }
+    }
+
+    /**
+     * Invalidates the cached ToDo list after any ToDo write.
+     *
+     * @param event The ToDo change that happened
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onToDoChanged(ToDoChangedEvent event) {
+        invalidate(TODOS);
+    }
+
+    /**
+     * Invalidates the cached Assignee list after any Assignee write.
+     * ToDos embed their Assignees, so the ToDo list is invalidated as well unless an Assignee was only created.
+     *
+     * @param event The Assignee change that happened
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssigneeChanged(AssigneeChangedEvent event) {
+        if (event.getType() == AssigneeChangedEvent.Type.CREATED) {
+            invalidate(ASSIGNEES);
+        } else {
+            invalidate(ASSIGNEES, TODOS);
+        }
+    }
+
+    /**
+     * Gets the ratio of cache hits to all cache lookups.
+     *
+     * @return The hit ratio between 0 and 1
+     */
+    public double hitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    private void store(String key, long generation, CachedBody body) {
+        long size = body.sizeInBytes();
+        if (cachedBytes.get() + size > maxBytes) {
+            LOG.debug("Not caching response body for '" + key + "' (" + size + " bytes exceed the memory bound)");
+            skippedCounter.increment();
+            return;
+        }
+        // a write that happened while we were loading makes this body stale
+        if (generationOf(key).get() != generation) {
+            return;
+        }
+        entries.put(key, body);
+        cachedBytes.addAndGet(size);
+        // an invalidation may have raced with the put, in that case drop the body again
+        if (generationOf(key).get() != generation && entries.remove(key, body)) {
+            cachedBytes.addAndGet(-size);
+        }
+    }
+
+    private CachedBody serialize(Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            byte[] gzip = gzipEnabled && json.length >= GZIP_MIN_BYTES ? gzip(json) : null;
+            return new CachedBody(json, gzip);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error serializing cached response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private AtomicLong generationOf(String key) {
+        return generations.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private void recordHit() {
+        hits.incrementAndGet();
+        hitCounter.increment();
+    }
+
+    private void recordMiss() {
+        misses.incrementAndGet();
+        missCounter.increment();
+    }
+}
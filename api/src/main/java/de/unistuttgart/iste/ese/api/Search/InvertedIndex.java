@@ -0,0 +1,270 @@
+package de.unistuttgart.iste.ese.api.Search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from terms to the documents containing them, ranked with BM25.
+ *
+ * The postings of a term are kept as sorted primitive arrays. New documents have increasing IDs and are
+ * appended at the end, updates and deletes shift the arrays of the affected terms. Terms are kept sorted,
+ * so a prefix is resolved with one range lookup. Not thread-safe.
+ */
+class InvertedIndex {
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    /**
+     * Maximum number of terms a single prefix is expanded to.
+     */
+    static final int MAX_PREFIX_TERMS = 64;
+
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    private long totalLength;
+
+    /**
+     * Adds a document to the index or replaces it if it is already indexed.
+     *
+     * @param id    The ID of the document
+     * @param terms The terms of the document including duplicates
+     */
+    void put(long id, List<String> terms) {
+        remove(id);
+        if (terms.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        String[] distinctTerms = new String[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            Postings termPostings = postings.computeIfAbsent(entry.getKey(), Postings::new);
+            termPostings.put(id, entry.getValue(), terms.size());
+            // share the term instance of the postings instead of keeping one copy per document
+            distinctTerms[i++] = termPostings.term;
+        }
+        documents.put(id, new Document(distinctTerms, terms.size()));
+        totalLength += terms.size();
+    }
+
+    /**
+     * Removes a document from the index.
+     *
+     * @param id The ID of the document
+     */
+    void remove(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            Postings termPostings = postings.get(term);
+            termPostings.remove(id);
+            if (termPostings.size == 0) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= document.length;
+    }
+
+    /**
+     * Finds the documents best matching the given terms. A document matches if it contains at least one
+     * of the terms; documents containing more and rarer terms rank higher.
+     *
+     * @param terms    The terms that have to match exactly
+     * @param prefixes The prefixes that match every term starting with them
+     * @param limit    The maximum number of results
+     * @return The scores keyed by document ID, ordered by descending score
+     */
+    Map<Long, Double> search(Collection<String> terms, Collection<String> prefixes, int limit) {
+        List<Postings> matching = new ArrayList<>();
+        for (String term : terms) {
+            Postings termPostings = postings.get(term);
+            if (termPostings != null) {
+                matching.add(termPostings);
+            }
+        }
+        for (String prefix : prefixes) {
+            NavigableMap<String, Postings> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+            int expanded = 0;
+            for (Postings termPostings : range.values()) {
+                if (expanded++ == MAX_PREFIX_TERMS) {
+                    break;
+                }
+                matching.add(termPostings);
+            }
+        }
+
+        long postingCount = 0;
+        for (Postings termPostings : matching) {
+            postingCount += termPostings.size;
+        }
+        ScoreAccumulator scores = new ScoreAccumulator(postingCount);
+        double averageLength = documents.isEmpty() ? 0 : (double) totalLength / documents.size();
+        for (Postings termPostings : matching) {
+            double idf = Math.log(1 + (documents.size() - termPostings.size + 0.5) / (termPostings.size + 0.5));
+            for (int i = 0; i < termPostings.size; i++) {
+                int frequency = termPostings.frequencies[i];
+                double norm = K1 * (1 - B + B * termPostings.lengths[i] / averageLength);
+                scores.add(termPostings.ids[i], idf * frequency * (K1 + 1) / (frequency + norm));
+            }
+        }
+        return scores.top(limit);
+    }
+
+    /**
+     * Gets the number of indexed documents.
+     *
+     * @return The number of documents
+     */
+    int getDocumentCount() {
+        return documents.size();
+    }
+
+    /**
+     * Gets the number of distinct indexed terms.
+     *
+     * @return The number of terms
+     */
+    int getTermCount() {
+        return postings.size();
+    }
+
+    /**
+     * The distinct terms and the length of an indexed document, needed to remove it again.
+     */
+    private static final class Document {
+        private final String[] terms;
+
+        private final int length;
+
+        private Document(String[] terms, int length) {
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    /**
+     * The IDs of the documents containing a term and the term frequencies, sorted by ID.
+     */
+    private static final class Postings {
+        private final String term;
+
+        private long[] ids = new long[2];
+
+        private int[] frequencies = new int[2];
+
+        // the document lengths, kept next to the frequencies so scoring needs no document lookup
+        private int[] lengths = new int[2];
+
+        private int size;
+
+        private Postings(String term) {
+            this.term = term;
+        }
+
+        private void put(long id, int frequency, int length) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                frequencies[index] = frequency;
+                lengths[index] = length;
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(frequencies, index, frequencies, index + 1, size - index);
+            System.arraycopy(lengths, index, lengths, index + 1, size - index);
+            ids[index] = id;
+            frequencies[index] = frequency;
+            lengths[index] = length;
+            size++;
+        }
+
+        private void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            System.arraycopy(lengths, index + 1, lengths, index, size - index - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Sums the scores per document in an open-addressing table of primitives, so scoring large postings
+     * does not box every document ID. Document IDs must be positive, 0 marks an empty slot.
+     */
+    private static final class ScoreAccumulator {
+        private final long[] ids;
+
+        private final double[] scores;
+
+        private final int mask;
+
+        private ScoreAccumulator(long expectedDocuments) {
+            int capacity = Integer.highestOneBit((int) Math.max(8, Math.min(1 << 30, expectedDocuments * 2)) - 1) << 1;
+            ids = new long[capacity];
+            scores = new double[capacity];
+            mask = capacity - 1;
+        }
+
+        private void add(long id, double score) {
+            int slot = (int) (id * 0x9E3779B97F4A7C15L >>> 32) & mask;
+            while (ids[slot] != 0 && ids[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            ids[slot] = id;
+            scores[slot] += score;
+        }
+
+        private Map<Long, Double> top(int limit) {
+            Comparator<Map.Entry<Long, Double>> byScore = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+            PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(byScore);
+            for (int slot = 0; slot < ids.length; slot++) {
+                if (ids[slot] == 0) {
+                    continue;
+                }
+                if (best.size() == limit) {
+                    Map.Entry<Long, Double> worst = best.peek();
+                    if (scores[slot] < worst.getValue()
+                        || scores[slot] == worst.getValue() && ids[slot] > worst.getKey()) {
+                        continue;
+                    }
+                    best.poll();
+                }
+                best.add(Map.entry(ids[slot], scores[slot]));
+            }
+            List<Map.Entry<Long, Double>> ordered = new ArrayList<>(best);
+            ordered.sort(byScore.reversed());
+            Map<Long, Double> result = new LinkedHashMap<>();
+            for (Map.Entry<Long, Double> entry : ordered) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+            return result;
+        }
+    }
+}
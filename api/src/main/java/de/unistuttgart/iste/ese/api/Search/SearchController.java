@@ -0,0 +1,61 @@
+package de.unistuttgart.iste.ese.api.Search;
+
+import de.unistuttgart.iste.ese.api.ApiVersion1;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller for searching ToDos and suggesting titles.
+ */
+@RestController
+@ApiVersion1
+public class SearchController {
+
+    @Autowired
+    private ToDoSearchService searchService;
+
+    @Autowired
+    private TitleSuggestionService titleSuggestionService;
+
+    /**
+     * Searches the titles and descriptions of all ToDos.
+     * A word ending with "*" matches every word starting with it, e.g. "meet*" matches "meeting".
+     *
+     * @param q     The search query
+     * @param limit The maximum number of results
+     * @return ResponseEntity containing the matching ToDos with their scores, best match first
+     */
+    @GetMapping("/todos/search")
+    public ResponseEntity<List<ToDoSearchHit>> searchToDos(@RequestParam String q,
+                                                           @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(searchService.search(q, limit));
+    }
+
+    /**
+     * Suggests the most frequent existing ToDo titles starting with the typed prefix, ignoring case.
+     *
+     * @param prefix The typed beginning of the title
+     * @param limit  The maximum number of suggestions
+     * @return ResponseEntity containing the suggested titles with their counts, most frequent first
+     */
+    @GetMapping("/todos/suggestions")
+    public ResponseEntity<List<TitleSuggestion>> suggestTitles(@RequestParam String prefix,
+                                                               @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(titleSuggestionService.suggest(prefix, limit));
+    }
+
+    /**
+     * Handles IllegalArgumentException and returns a 400 status.
+     *
+     * @param ex The IllegalArgumentException that was thrown
+     * @return ResponseEntity with BAD_REQUEST status and error message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+}
@@ -0,0 +1,53 @@
+package de.unistuttgart.iste.ese.api.Search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into terms the same way the TextIndex of the classification model (model.pmml) does:
+ * the text is lowercased and split at whitespace, and punctuation around each word is dropped.
+ */
+public final class TextTokenizer {
+
+    private TextTokenizer() {
+    }
+
+    /**
+     * Splits a text into its terms.
+     *
+     * @param text The text to split, may be null
+     * @return The terms in order of appearance, including duplicates
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : text.split("\\s+")) {
+            String term = normalize(word);
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Normalizes a single word to a term.
+     *
+     * @param word The word without whitespace
+     * @return The lowercased word without leading and trailing punctuation, empty if nothing is left
+     */
+    public static String normalize(String word) {
+        int start = 0;
+        int end = word.length();
+        while (start < end && !Character.isLetterOrDigit(word.charAt(start))) {
+            start++;
+        }
+        while (end > start && !Character.isLetterOrDigit(word.charAt(end - 1))) {
+            end--;
+        }
+        return word.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+}
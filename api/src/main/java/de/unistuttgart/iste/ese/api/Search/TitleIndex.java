@@ -0,0 +1,278 @@
+package de.unistuttgart.iste.ese.api.Search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable, compact index of distinct ToDo titles with their number of occurrences.
+ *
+ * The titles are sorted case-insensitively and stored as one UTF-8 byte array with an offset per title,
+ * so all titles starting with a prefix form one contiguous range found by binary search. A segment tree
+ * over the counts returns the most frequent titles of such a range in O(k log n) without visiting the
+ * whole range.
+ */
+final class TitleIndex {
+
+    /**
+     * The order of the titles: case-insensitive first, then by their exact spelling.
+     */
+    static final Comparator<String> ORDER = Comparator.comparing((String title) -> title.toLowerCase(Locale.ROOT))
+        .thenComparing(Comparator.naturalOrder());
+
+    static final TitleIndex EMPTY = new TitleIndex(new byte[0], new int[1], new int[0]);
+
+    private final byte[] bytes;
+
+    private final int[] offsets;
+
+    private final int[] counts;
+
+    // tree[size + i] = i, tree[p] = the index with the higher count of tree[2p] and tree[2p + 1]
+    private final int[] tree;
+
+    private TitleIndex(byte[] bytes, int[] offsets, int[] counts) {
+        this.bytes = bytes;
+        this.offsets = offsets;
+        this.counts = counts;
+        int size = counts.length;
+        this.tree = new int[2 * size];
+        for (int i = 0; i < size; i++) {
+            tree[size + i] = i;
+        }
+        for (int p = size - 1; p > 0; p--) {
+            tree[p] = better(tree[2 * p], tree[2 * p + 1]);
+        }
+    }
+
+    /**
+     * Creates a new index from this one with the given count changes applied.
+     * Titles whose count drops to zero or below are dropped.
+     *
+     * @param changes The count changes keyed by title, sorted by ORDER
+     * @return The new index
+     */
+    TitleIndex merge(Iterable<Map.Entry<String, Integer>> changes) {
+        Builder builder = new Builder(bytes.length, counts.length);
+        Iterator<Map.Entry<String, Integer>> iterator = changes.iterator();
+        Map.Entry<String, Integer> change = iterator.hasNext() ? iterator.next() : null;
+        int i = 0;
+        while (i < counts.length || change != null) {
+            int comparison = i == counts.length ? 1 : change == null ? -1 : ORDER.compare(title(i), change.getKey());
+            if (comparison < 0) {
+                builder.add(bytes, offsets[i], offsets[i + 1], counts[i]);
+                i++;
+            } else {
+                byte[] title = change.getKey().getBytes(StandardCharsets.UTF_8);
+                int count = change.getValue();
+                if (comparison == 0) {
+                    count += counts[i];
+                    i++;
+                }
+                builder.add(title, 0, title.length, count);
+                change = iterator.hasNext() ? iterator.next() : null;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Gets the number of distinct titles.
+     *
+     * @return The number of titles
+     */
+    int size() {
+        return counts.length;
+    }
+
+    /**
+     * Gets the title at an index.
+     *
+     * @param index The index in ORDER
+     * @return The title
+     */
+    String title(int index) {
+        return new String(bytes, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the number of occurrences of the title at an index.
+     *
+     * @param index The index in ORDER
+     * @return The count
+     */
+    int count(int index) {
+        return counts[index];
+    }
+
+    /**
+     * Finds the index of a title.
+     *
+     * @param title The exact title
+     * @return The index, or -1 if the title is not contained
+     */
+    int indexOf(String title) {
+        int low = 0;
+        int high = counts.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = ORDER.compare(title(middle), title);
+            if (comparison == 0) {
+                return middle;
+            } else if (comparison < 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first index whose lowercased title starts with or comes after the prefix.
+     *
+     * @param prefix The lowercased prefix
+     * @return The first index of the prefix range
+     */
+    int rangeStart(String prefix) {
+        int low = 0;
+        int high = counts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (title(middle).toLowerCase(Locale.ROOT).compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first index after the range of titles starting with the prefix.
+     *
+     * @param prefix The lowercased prefix
+     * @param from   The first index of the prefix range
+     * @return The exclusive end of the prefix range
+     */
+    int rangeEnd(String prefix, int from) {
+        int low = from;
+        int high = counts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (title(middle).toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the indexes with the highest counts within a range.
+     *
+     * @param from  The first index of the range
+     * @param to    The exclusive end of the range
+     * @param limit The maximum number of indexes
+     * @return The indexes, highest count first
+     */
+    List<Integer> top(int from, int to, int limit) {
+        List<Integer> result = new ArrayList<>();
+        // candidate ranges ordered by the count of their maximum: {maximum, from, to}
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> a[0] == b[0] ? 0 : better(a[0], b[0]) == a[0] ? -1 : 1);
+        if (from < to) {
+            ranges.add(new int[] {maximum(from, to), from, to});
+        }
+        while (!ranges.isEmpty() && result.size() < limit) {
+            int[] range = ranges.poll();
+            int index = range[0];
+            result.add(index);
+            if (range[1] < index) {
+                ranges.add(new int[] {maximum(range[1], index), range[1], index});
+            }
+            if (index + 1 < range[2]) {
+                ranges.add(new int[] {maximum(index + 1, range[2]), index + 1, range[2]});
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the memory used by the index.
+     *
+     * @return The size in bytes
+     */
+    long memoryBytes() {
+        return bytes.length + 4L * (offsets.length + counts.length + tree.length);
+    }
+
+    private int maximum(int from, int to) {
+        int best = from;
+        for (int low = from + counts.length, high = to + counts.length; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                best = better(best, tree[low++]);
+            }
+            if ((high & 1) == 1) {
+                best = better(best, tree[--high]);
+            }
+        }
+        return best;
+    }
+
+    private int better(int a, int b) {
+        if (counts[a] != counts[b]) {
+            return counts[a] > counts[b] ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    /**
+     * Appends titles in ORDER and creates the index from them.
+     */
+    private static final class Builder {
+        private byte[] bytes;
+
+        private int[] offsets;
+
+        private int[] counts;
+
+        private int size;
+
+        private Builder(int expectedBytes, int expectedTitles) {
+            bytes = new byte[Math.max(16, expectedBytes)];
+            offsets = new int[Math.max(16, expectedTitles + 1)];
+            counts = new int[Math.max(16, expectedTitles)];
+        }
+
+        private void add(byte[] source, int from, int to, int count) {
+            if (count <= 0) {
+                return;
+            }
+            int length = to - from;
+            int end = offsets[size];
+            if (end + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, end + length));
+            }
+            if (size + 1 == counts.length) {
+                counts = Arrays.copyOf(counts, counts.length * 2);
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            System.arraycopy(source, from, bytes, end, length);
+            counts[size] = count;
+            offsets[size + 1] = end + length;
+            size++;
+        }
+
+        private TitleIndex build() {
+            return new TitleIndex(Arrays.copyOf(bytes, offsets[size]), Arrays.copyOf(offsets, size + 1),
+                Arrays.copyOf(counts, size));
+        }
+    }
+}
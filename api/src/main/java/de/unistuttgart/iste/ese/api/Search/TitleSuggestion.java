@@ -0,0 +1,36 @@
+package de.unistuttgart.iste.ese.api.Search;
+
+/**
+ * An existing ToDo title suggested for a typed prefix.
+ */
+public class TitleSuggestion {
+
+    private final String title;
+
+    private final int count;
+
+    /**
+     * Creates a new TitleSuggestion.
+     *
+     * @param title The suggested title
+     * @param count The number of ToDos with this title
+     */
+    public TitleSuggestion(String title, int count) {
+        this.title = title;
+        this.count = count;
+    }
+
+    /**
+     * Gets the suggested title.
+     *
+     * @return The title
+     */
+    public String getTitle() { return title; }
+
+    /**
+     * Gets the number of ToDos with this title.
+     *
+     * @return The count
+     */
+    public int getCount() { return count; }
+}
@@ -0,0 +1,274 @@
+package de.unistuttgart.iste.ese.api.Search;
+
+import de.unistuttgart.iste.ese.api.Invalidation.RemoteChangesEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshotScanner;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service suggesting the most frequent existing ToDo titles for a typed prefix.
+ *
+ * The titles are kept in an immutable, compact TitleIndex built on startup. Title changes of committed
+ * ToDo writes are collected as count changes in a small delta, which is considered by every lookup and
+ * merged into a new TitleIndex by a scheduled job. Writes of other nodes cause a rebuild. Writes committed
+ * while a rebuild is running may be counted twice, which only affects the ranking of the suggestions.
+ */
+@Service
+public class TitleSuggestionService {
+    private static final Log LOG = LogFactory.getLog(TitleSuggestionService.class);
+
+    /**
+     * Maximum number of suggestions of a single lookup.
+     */
+    public static final int MAX_LIMIT = 50;
+
+    // rough size of a delta entry besides its title: map entries, boxed count and string header
+    private static final int DELTA_ENTRY_OVERHEAD = 120;
+
+    private final ToDoSnapshotScanner scanner;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private TitleIndex index = TitleIndex.EMPTY;
+
+    // count changes since the index was built: lowercased title -> exact title -> change
+    private final TreeMap<String, Map<String, Integer>> delta = new TreeMap<>();
+
+    private int deltaSize;
+
+    /**
+     * Creates a new TitleSuggestionService.
+     *
+     * @param scanner       The scanner used to build the index
+     * @param meterRegistry The registry to publish the index size and memory usage to
+     */
+    public TitleSuggestionService(ToDoSnapshotScanner scanner, MeterRegistry meterRegistry) {
+        this.scanner = scanner;
+        Gauge.builder("api.todos.suggestions.titles", this, service -> service.readIndex().size())
+            .register(meterRegistry);
+        Gauge.builder("api.todos.suggestions.memory", this, TitleSuggestionService::memoryBytes)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Builds the index from all ToDo titles on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the index from all ToDo titles in one pass and replaces the current one.
+     * The changes recorded before the pass are dropped from the delta, those recorded during it are kept.
+     */
+    public synchronized void rebuild() {
+        List<Map.Entry<String, Integer>> before = readDelta();
+        Map<String, Integer> counts = new HashMap<>();
+        long count = scanner.scan(todo -> counts.merge(todo.getTitle(), 1, Integer::sum));
+        TreeMap<String, Integer> sorted = new TreeMap<>(TitleIndex.ORDER);
+        sorted.putAll(counts);
+        TitleIndex built = TitleIndex.EMPTY.merge(sorted.entrySet());
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<String, Integer> seen : before) {
+                change(seen.getKey(), -seen.getValue());
+            }
+            index = built;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOG.info("Built title suggestions from " + count + " ToDos");
+    }
+
+    /**
+     * Records the title change of a committed ToDo write.
+     *
+     * @param event The ToDo change that happened
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onToDoChanged(ToDoChangedEvent event) {
+        String previous = event.getPrevious() == null ? null : event.getPrevious().getTitle();
+        String current = event.getCurrent() == null ? null : event.getCurrent().getTitle();
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                change(previous, -1);
+            }
+            if (current != null) {
+                change(current, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the index after changes of other nodes sharing the database, whose previous titles are not known.
+     *
+     * @param event The changes of other nodes
+     */
+    @EventListener
+    public void onRemoteChanges(RemoteChangesEvent event) {
+        if (event.isRebuild()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Merges the collected title changes into a new index.
+     * The new index is built without holding the lock, so lookups are not blocked meanwhile.
+     */
+    @Scheduled(initialDelayString = "${api.todos.suggestions.compact-interval-ms:30000}",
+        fixedDelayString = "${api.todos.suggestions.compact-interval-ms:30000}")
+    public synchronized void compact() {
+        TitleIndex base;
+        List<Map.Entry<String, Integer>> changes;
+        lock.readLock().lock();
+        try {
+            if (deltaSize == 0) {
+                return;
+            }
+            base = index;
+            changes = readDelta();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        TitleIndex merged = base.merge(changes);
+
+        lock.writeLock().lock();
+        try {
+            // changes recorded while merging stay in the delta
+            for (Map.Entry<String, Integer> applied : changes) {
+                change(applied.getKey(), -applied.getValue());
+            }
+            index = merged;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Suggests the most frequent existing titles starting with a prefix, ignoring case.
+     *
+     * @param prefix The typed beginning of the title
+     * @param limit  The maximum number of suggestions, between 1 and MAX_LIMIT
+     * @return The suggestions, most frequent first
+     * @throws IllegalArgumentException if the limit is out of range
+     */
+    public List<TitleSuggestion> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        String lowercasePrefix = prefix.stripLeading().toLowerCase(Locale.ROOT);
+        Map<String, Integer> candidates = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> changed = new HashMap<>();
+            delta.subMap(lowercasePrefix, lowercasePrefix + Character.MAX_VALUE)
+                .values()
+                .forEach(changed::putAll);
+            int from = index.rangeStart(lowercasePrefix);
+            int to = index.rangeEnd(lowercasePrefix, from);
+            // at most changed.size() of the top titles can be pushed down by a change
+            for (int i : index.top(from, to, limit + changed.size())) {
+                candidates.put(index.title(i), index.count(i));
+            }
+            changed.forEach((title, change) -> {
+                int i = index.indexOf(title);
+                candidates.put(title, (i < 0 ? 0 : index.count(i)) + change);
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return candidates.entrySet().stream()
+            .filter(candidate -> candidate.getValue() > 0)
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey(TitleIndex.ORDER)))
+            .limit(limit)
+            .map(candidate -> new TitleSuggestion(candidate.getKey(), candidate.getValue()))
+            .toList();
+    }
+
+    private void change(String title, int change) {
+        Map<String, Integer> titles = delta.computeIfAbsent(title.toLowerCase(Locale.ROOT), key -> new HashMap<>());
+        Integer updated = titles.merge(title, change, Integer::sum);
+        if (updated == 0) {
+            titles.remove(title);
+            deltaSize--;
+            if (titles.isEmpty()) {
+                delta.remove(title.toLowerCase(Locale.ROOT));
+            }
+        } else if (updated == change) {
+            deltaSize++;
+        }
+    }
+
+    /**
+     * Gets the count changes of the delta in TitleIndex order.
+     */
+    private List<Map.Entry<String, Integer>> readDelta() {
+        List<Map.Entry<String, Integer>> changes = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Map<String, Integer> titles : delta.values()) {
+                List<Map.Entry<String, Integer>> sameLowercase = new ArrayList<>();
+                titles.forEach((title, count) -> sameLowercase.add(Map.entry(title, count)));
+                sameLowercase.sort(Map.Entry.comparingByKey());
+                changes.addAll(sameLowercase);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return changes;
+    }
+
+    private TitleIndex readIndex() {
+        lock.readLock().lock();
+        try {
+            return index;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double memoryBytes() {
+        lock.readLock().lock();
+        try {
+            long deltaBytes = 0;
+            for (Map<String, Integer> titles : delta.values()) {
+                for (String title : titles.keySet()) {
+                    deltaBytes += DELTA_ENTRY_OVERHEAD + 2L * title.length();
+                }
+            }
+            return index.memoryBytes() + deltaBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package de.unistuttgart.iste.ese.api.Search;
+
+import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+
+/**
+ * A ToDo matching a search query together with its relevance score.
+ */
+public class ToDoSearchHit {
+
+    private final double score;
+
+    private final ToDo todo;
+
+    /**
+     * Creates a new ToDoSearchHit.
+     *
+     * @param score The relevance score, higher is better
+     * @param todo  The matching ToDo
+     */
+    public ToDoSearchHit(double score, ToDo todo) {
+        this.score = score;
+        this.todo = todo;
+    }
+
+    /**
+     * Gets the relevance score.
+     *
+     * @return The score, higher is better
+     */
+    public double getScore() { return score; }
+
+    /**
+     * Gets the matching ToDo.
+     *
+     * @return The ToDo
+     */
+    public ToDo getTodo() { return todo; }
+}
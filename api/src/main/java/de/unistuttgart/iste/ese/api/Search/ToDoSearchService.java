@@ -0,0 +1,222 @@
+package de.unistuttgart.iste.ese.api.Search;
+
+import de.unistuttgart.iste.ese.api.Invalidation.RemoteChangesEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoRepository;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshot;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshotScanner;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service answering full-text searches over the titles and descriptions of all ToDos from an in-memory
+ * inverted index.
+ *
+ * The index is built from the database in one streaming pass on startup and afterwards updated from the
+ * ToDoChangedEvents of every write. Writes committed while a rebuild is running are replayed onto the
+ * rebuilt index before it replaces the old one. Writes of other nodes arrive as RemoteChangesEvents.
+ */
+@Service
+public class ToDoSearchService {
+    private static final Log LOG = LogFactory.getLog(ToDoSearchService.class);
+
+    /**
+     * Maximum number of results of a single search.
+     */
+    public static final int MAX_LIMIT = 100;
+
+    private final ToDoRepository toDoRepository;
+
+    private final ToDoSnapshotScanner scanner;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private InvertedIndex index = new InvertedIndex();
+
+    private List<ToDoChangedEvent> changesDuringRebuild;
+
+    /**
+     * Creates a new ToDoSearchService.
+     *
+     * @param toDoRepository The repository to load the matching ToDos from
+     * @param scanner        The scanner used to build the index
+     * @param meterRegistry  The registry to publish the index size to
+     */
+    public ToDoSearchService(ToDoRepository toDoRepository, ToDoSnapshotScanner scanner, MeterRegistry meterRegistry) {
+        this.toDoRepository = toDoRepository;
+        this.scanner = scanner;
+        Gauge.builder("api.todos.search.documents", this, service -> service.readSize(true))
+            .register(meterRegistry);
+        Gauge.builder("api.todos.search.terms", this, service -> service.readSize(false))
+            .register(meterRegistry);
+    }
+
+    /**
+     * Builds the index from the database on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the index from all ToDos in one streaming pass and replaces the current one.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        InvertedIndex rebuilt = new InvertedIndex();
+        long count;
+        try {
+            count = scanner.scan(todo -> rebuilt.put(todo.getId(), terms(todo)));
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<ToDoChangedEvent> changes = changesDuringRebuild;
+                changesDuringRebuild = null;
+                for (ToDoChangedEvent change : changes) {
+                    apply(rebuilt, change);
+                }
+                index = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        LOG.info("Rebuilt search index from " + count + " ToDos");
+    }
+
+    /**
+     * Updates the index after a ToDo write has been committed.
+     *
+     * @param event The ToDo change that happened
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onToDoChanged(ToDoChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(index, event);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the ToDos changed on other nodes, or rebuilds the index if they are not known.
+     *
+     * @param event The changes of other nodes
+     */
+    @EventListener
+    public void onRemoteChanges(RemoteChangesEvent event) {
+        if (event.isRebuildAll()) {
+            rebuild();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (ToDoChangedEvent change : event.toToDoChanges()) {
+                apply(index, change);
+                if (changesDuringRebuild != null) {
+                    changesDuringRebuild.add(change);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the titles and descriptions of all ToDos.
+     * Words are matched case-insensitively, a word ending with "*" matches every word starting with it.
+     *
+     * @param query The search query, words separated by whitespace
+     * @param limit The maximum number of results, between 1 and MAX_LIMIT
+     * @return The matching ToDos, best match first
+     * @throws IllegalArgumentException if the query contains no words or the limit is out of range
+     */
+    public List<ToDoSearchHit> search(String query, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        List<String> terms = new ArrayList<>();
+        List<String> prefixes = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            String term = TextTokenizer.normalize(word);
+            if (term.isEmpty()) {
+                continue;
+            }
+            if (word.endsWith("*")) {
+                prefixes.add(term);
+            } else {
+                terms.add(term);
+            }
+        }
+        if (terms.isEmpty() && prefixes.isEmpty()) {
+            throw new IllegalArgumentException("Query must contain at least one word");
+        }
+
+        Map<Long, Double> scores;
+        lock.readLock().lock();
+        try {
+            scores = index.search(terms, prefixes, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<Long, ToDo> todos = new HashMap<>();
+        for (ToDo todo : toDoRepository.findAllById(scores.keySet())) {
+            todos.put(todo.getId(), todo);
+        }
+        List<ToDoSearchHit> hits = new ArrayList<>();
+        scores.forEach((id, score) -> {
+            // skip ToDos deleted since the index was read
+            if (todos.containsKey(id)) {
+                hits.add(new ToDoSearchHit(score, todos.get(id)));
+            }
+        });
+        return hits;
+    }
+
+    private static void apply(InvertedIndex target, ToDoChangedEvent event) {
+        if (event.getCurrent() == null) {
+            target.remove(event.getToDoId());
+        } else {
+            target.put(event.getToDoId(), terms(event.getCurrent()));
+        }
+    }
+
+    private static List<String> terms(ToDoSnapshot todo) {
+        List<String> terms = TextTokenizer.tokenize(todo.getTitle());
+        terms.addAll(TextTokenizer.tokenize(todo.getDescription()));
+        return terms;
+    }
+
+    private double readSize(boolean documents) {
+        lock.readLock().lock();
+        try {
+            return documents ? index.getDocumentCount() : index.getTermCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package de.unistuttgart.iste.ese.api.Statistics;
+
+/**
+ * Number of ToDos assigned to one Assignee.
+ */
+public class AssigneeWorkload {
+
+    private final long total;
+
+    private final long open;
+
+    /**
+     * Creates a new AssigneeWorkload.
+     *
+     * @param total The number of ToDos assigned to the Assignee
+     * @param open  The number of unfinished ToDos assigned to the Assignee
+     */
+    public AssigneeWorkload(long total, long open) {
+        this.total = total;
+        this.open = open;
+    }
+
+    /**
+     * Gets the number of ToDos assigned to the Assignee.
+     *
+     * @return The total number of ToDos
+     */
+    public long getTotal() { return total; }
+
+    /**
+     * Gets the number of unfinished ToDos assigned to the Assignee.
+     *
+     * @return The number of open ToDos
+     */
+    public long getOpen() { return open; }
+}
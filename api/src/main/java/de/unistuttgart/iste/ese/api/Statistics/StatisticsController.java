@@ -0,0 +1,29 @@
+package de.unistuttgart.iste.ese.api.Statistics;
+
+import de.unistuttgart.iste.ese.api.ApiVersion1;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for ToDo statistics.
+ */
+@RestController
+@ApiVersion1
+public class StatisticsController {
+
+    @Autowired
+    private ToDoStatisticsService statisticsService;
+
+    /**
+     * Retrieves counts by category, finished status, overdue status and Assignee workload.
+     * The counts are maintained incrementally, so no table scan is needed.
+     *
+     * @return ResponseEntity containing the statistics over all ToDos
+     */
+    @GetMapping("/todos/stats")
+    public ResponseEntity<ToDoStatistics> getStatistics() {
+        return ResponseEntity.ok(statisticsService.getStatistics());
+    }
+}
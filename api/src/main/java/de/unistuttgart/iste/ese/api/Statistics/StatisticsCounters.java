@@ -0,0 +1,119 @@
+package de.unistuttgart.iste.ese.api.Statistics;
+
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The counters behind ToDoStatistics. Not thread-safe, access is guarded by ToDoStatisticsService.
+ *
+ * Overdue ToDos are tracked with a watermark: unfinished ToDos due before the watermark are counted in
+ * overdue, all others are kept in a map keyed by due date. Advancing the watermark moves the ToDos that
+ * became due in the meantime, so every ToDo is moved at most once.
+ */
+class StatisticsCounters {
+    static final String NO_CATEGORY = "none";
+
+    private long total;
+
+    private long finished;
+
+    private long overdue;
+
+    private long watermark = Long.MIN_VALUE;
+
+    private final TreeMap<Long, Long> pendingByDueDate = new TreeMap<>();
+
+    private final Map<String, Long> byCategory = new HashMap<>();
+
+    // [total, open] per Assignee ID
+    private final Map<Long, long[]> byAssignee = new HashMap<>();
+
+    /**
+     * Adds a ToDo to the counters.
+     *
+     * @param todo The ToDo to add
+     */
+    void add(ToDoSnapshot todo) {
+        apply(todo, 1);
+    }
+
+    /**
+     * Removes a ToDo from the counters.
+     *
+     * @param todo The ToDo in the state it was counted with
+     */
+    void remove(ToDoSnapshot todo) {
+        apply(todo, -1);
+    }
+
+    /**
+     * Drops the workload entry of a deleted Assignee.
+     *
+     * @param assigneeId The ID of the deleted Assignee
+     */
+    void removeAssignee(Long assigneeId) {
+        byAssignee.remove(assigneeId);
+    }
+
+    /**
+     * Copies the current counts into a ToDoStatistics, counting ToDos due before now as overdue.
+     *
+     * @param now The current time in milliseconds
+     * @return The statistics
+     */
+    ToDoStatistics toStatistics(long now) {
+        advanceWatermark(now);
+        Map<Long, AssigneeWorkload> workloads = new HashMap<>();
+        byAssignee.forEach((id, counts) -> workloads.put(id, new AssigneeWorkload(counts[0], counts[1])));
+        return new ToDoStatistics(total, finished, overdue, new HashMap<>(byCategory), workloads);
+    }
+
+    private void apply(ToDoSnapshot todo, int delta) {
+        total += delta;
+        if (todo.isFinished()) {
+            finished += delta;
+        } else if (todo.getDueDate() != null) {
+            if (todo.getDueDate() < watermark) {
+                overdue += delta;
+            } else {
+                addTo(pendingByDueDate, todo.getDueDate(), delta);
+            }
+        }
+        String category = todo.getCategory() == null ? NO_CATEGORY : todo.getCategory();
+        addTo(byCategory, category, delta);
+        for (Long assigneeId : todo.getAssigneeIds()) {
+            long[] counts = byAssignee.computeIfAbsent(assigneeId, id -> new long[2]);
+            counts[0] += delta;
+            if (!todo.isFinished()) {
+                counts[1] += delta;
+            }
+            if (counts[0] == 0) {
+                byAssignee.remove(assigneeId);
+            }
+        }
+    }
+
+    private void advanceWatermark(long now) {
+        if (now <= watermark) {
+            return;
+        }
+        Map<Long, Long> becameDue = pendingByDueDate.headMap(now);
+        for (long count : becameDue.values()) {
+            overdue += count;
+        }
+        becameDue.clear();
+        watermark = now;
+    }
+
+    private static <K> void addTo(Map<K, Long> counts, K key, long delta) {
+        long value = counts.getOrDefault(key, 0L) + delta;
+        if (value == 0) {
+            counts.remove(key);
+        } else {
+            counts.put(key, value);
+        }
+    }
+}
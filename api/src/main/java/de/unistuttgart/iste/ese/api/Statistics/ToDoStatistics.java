@@ -0,0 +1,82 @@
+package de.unistuttgart.iste.ese.api.Statistics;
+
+import java.util.Map;
+
+/**
+ * Aggregated counts over all ToDos, as returned by GET /todos/stats.
+ */
+public class ToDoStatistics {
+
+    private final long total;
+
+    private final long finished;
+
+    private final long unfinished;
+
+    private final long overdue;
+
+    private final Map<String, Long> byCategory;
+
+    private final Map<Long, AssigneeWorkload> byAssignee;
+
+    /**
+     * Creates a new ToDoStatistics.
+     *
+     * @param total      The number of ToDos
+     * @param finished   The number of finished ToDos
+     * @param overdue    The number of unfinished ToDos whose due date has passed
+     * @param byCategory The number of ToDos per category
+     * @param byAssignee The workload per Assignee ID
+     */
+    public ToDoStatistics(long total, long finished, long overdue,
+                          Map<String, Long> byCategory, Map<Long, AssigneeWorkload> byAssignee) {
+        this.total = total;
+        this.finished = finished;
+        this.unfinished = total - finished;
+        this.overdue = overdue;
+        this.byCategory = byCategory;
+        this.byAssignee = byAssignee;
+    }
+
+    /**
+     * Gets the number of ToDos.
+     *
+     * @return The total number of ToDos
+     */
+    public long getTotal() { return total; }
+
+    /**
+     * Gets the number of finished ToDos.
+     *
+     * @return The number of finished ToDos
+     */
+    public long getFinished() { return finished; }
+
+    /**
+     * Gets the number of unfinished ToDos.
+     *
+     * @return The number of unfinished ToDos
+     */
+    public long getUnfinished() { return unfinished; }
+
+    /**
+     * Gets the number of unfinished ToDos whose due date has passed.
+     *
+     * @return The number of overdue ToDos
+     */
+    public long getOverdue() { return overdue; }
+
+    /**
+     * Gets the number of ToDos per category.
+     *
+     * @return The counts keyed by category
+     */
+    public Map<String, Long> getByCategory() { return byCategory; }
+
+    /**
+     * Gets the workload per Assignee.
+     *
+     * @return The workloads keyed by Assignee ID
+     */
+    public Map<Long, AssigneeWorkload> getByAssignee() { return byAssignee; }
+}
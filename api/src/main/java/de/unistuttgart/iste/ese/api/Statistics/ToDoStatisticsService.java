@@ -0,0 +1,243 @@
+package de.unistuttgart.iste.ese.api.Statistics;
+
+import de.unistuttgart.iste.ese.api.Assignee.AssigneeChangedEvent;
+import de.unistuttgart.iste.ese.api.Invalidation.RemoteChangesEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoRepository;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshot;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshotScanner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service keeping ToDo statistics up to date without scanning the table on every request.
+ *
+ * The counters are built from the database once on startup and afterwards maintained incrementally
+ * from the ToDoChangedEvents of every write. Writes committed while a rebuild is running are replayed onto the
+ * rebuilt counters before they replace the old ones. A scheduled job compares all counters with the database and
+ * rebuilds them if they drifted apart. Writes of other nodes cause a rebuild.
+ */
+@Service
+public class ToDoStatisticsService {
+    private static final Log LOG = LogFactory.getLog(ToDoStatisticsService.class);
+
+    private final ToDoRepository toDoRepository;
+
+    private final ToDoSnapshotScanner scanner;
+
+    private final Counter driftCounter;
+
+    private final Object rebuildLock = new Object();
+
+    private StatisticsCounters counters = new StatisticsCounters();
+
+    // latest state of every ToDo written while a rebuild is running, null for deleted ToDos
+    private Map<Long, ToDoSnapshot> changesDuringRebuild;
+
+    private Set<Long> assigneesDeletedDuringRebuild;
+
+    /**
+     * Creates a new ToDoStatisticsService.
+     *
+     * @param toDoRepository The repository used for the consistency check
+     * @param scanner        The scanner used to rebuild the counters
+     * @param meterRegistry  The registry to publish the drift metric to
+     */
+    public ToDoStatisticsService(ToDoRepository toDoRepository, ToDoSnapshotScanner scanner, MeterRegistry meterRegistry) {
+        this.toDoRepository = toDoRepository;
+        this.scanner = scanner;
+        this.driftCounter = meterRegistry.counter("api.todos.statistics.drift");
+    }
+
+    /**
+     * Gets the current statistics.
+     *
+     * @return The statistics over all ToDos
+     */
+    public synchronized ToDoStatistics getStatistics() {
+        return counters.toStatistics(System.currentTimeMillis());
+    }
+
+    /**
+     * Computes the statistics of a set of ToDos that are not in the database, e.g. a state replayed from the
+     * mutation journal.
+     *
+     * @param todos The ToDos
+     * @param now   The time before which unfinished ToDos count as overdue, in milliseconds since the epoch
+     * @return The statistics over the given ToDos
+     */
+    public static ToDoStatistics of(Collection<ToDoSnapshot> todos, long now) {
+        StatisticsCounters counters = new StatisticsCounters();
+        todos.forEach(counters::add);
+        return counters.toStatistics(now);
+    }
+
+    /**
+     * Builds the counters from the database on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the counters from the database in one pass over all ToDos.
+     *
+     * The counters are not idempotent, and a write committed during the pass may or may not be seen by it. So the
+     * pass keeps the snapshot it counted of every ToDo, and each ToDo written during the pass is counted again with
+     * its latest state instead of the scanned one.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                changesDuringRebuild = new LinkedHashMap<>();
+                assigneesDeletedDuringRebuild = new HashSet<>();
+            }
+            StatisticsCounters rebuilt = new StatisticsCounters();
+            Map<Long, ToDoSnapshot> scanned = new HashMap<>();
+            long count;
+            try {
+                count = scanner.scan(todo -> {
+                    rebuilt.add(todo);
+                    scanned.put(todo.getId(), todo);
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    changesDuringRebuild = null;
+                    assigneesDeletedDuringRebuild = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                changesDuringRebuild.forEach((id, current) -> {
+                    ToDoSnapshot counted = scanned.get(id);
+                    if (counted != null) {
+                        rebuilt.remove(counted);
+                    }
+                    if (current != null) {
+                        rebuilt.add(current);
+                    }
+                });
+                assigneesDeletedDuringRebuild.forEach(rebuilt::removeAssignee);
+                LOG.info("Rebuilt ToDo statistics from " + count + " ToDos, replayed "
+                    + changesDuringRebuild.size() + " concurrent writes");
+                changesDuringRebuild = null;
+                assigneesDeletedDuringRebuild = null;
+                counters = rebuilt;
+            }
+        }
+    }
+
+    /**
+     * Updates the counters after a ToDo write has been committed.
+     *
+     * @param event The ToDo change that happened
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onToDoChanged(ToDoChangedEvent event) {
+        if (event.getPrevious() != null) {
+            counters.remove(event.getPrevious());
+        }
+        if (event.getCurrent() != null) {
+            counters.add(event.getCurrent());
+        }
+        if (changesDuringRebuild != null) {
+            ToDoSnapshot changed = event.getCurrent() != null ? event.getCurrent() : event.getPrevious();
+            changesDuringRebuild.put(changed.getId(), event.getCurrent());
+        }
+    }
+
+    /**
+     * Rebuilds the counters after changes of other nodes sharing the database, whose previous state is not known.
+     *
+     * @param event The changes of other nodes
+     */
+    @EventListener
+    public void onRemoteChanges(RemoteChangesEvent event) {
+        if (event.isRebuild()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Drops the workload of a deleted Assignee. Its ToDos are updated by separate ToDoChangedEvents.
+     *
+     * @param event The Assignee change that happened
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onAssigneeChanged(AssigneeChangedEvent event) {
+        if (event.getType() == AssigneeChangedEvent.Type.DELETED) {
+            counters.removeAssignee(event.getAssigneeId());
+            if (assigneesDeletedDuringRebuild != null) {
+                assigneesDeletedDuringRebuild.add(event.getAssigneeId());
+            }
+        }
+    }
+
+    /**
+     * Compares all counters (totals, overdue ToDos, categories and Assignee workloads) with the database and
+     * rebuilds them if they differ.
+     */
+    @Scheduled(initialDelayString = "${api.statistics.check-interval-ms:300000}",
+        fixedDelayString = "${api.statistics.check-interval-ms:300000}")
+    public void checkConsistency() {
+        long now = System.currentTimeMillis();
+        long total = 0;
+        long finished = 0;
+        Map<String, Long> byCategory = new HashMap<>();
+        for (Object[] row : toDoRepository.countByCategoryAndFinished()) {
+            String category = row[0] == null ? StatisticsCounters.NO_CATEGORY : (String) row[0];
+            long count = (Long) row[2];
+            total += count;
+            if ((Boolean) row[1]) {
+                finished += count;
+            }
+            byCategory.merge(category, count, Long::sum);
+        }
+        long overdue = toDoRepository.countOverdue(now);
+        Map<Long, Long> totalByAssignee = new HashMap<>();
+        Map<Long, Long> openByAssignee = new HashMap<>();
+        for (Object[] row : toDoRepository.countByAssigneeAndFinished()) {
+            Long assigneeId = (Long) row[0];
+            long count = (Long) row[2];
+            totalByAssignee.merge(assigneeId, count, Long::sum);
+            if (!(Boolean) row[1]) {
+                openByAssignee.put(assigneeId, count);
+            }
+        }
+        ToDoStatistics statistics;
+        synchronized (this) {
+            statistics = counters.toStatistics(now);
+        }
+        Map<Long, Long> countedTotals = new HashMap<>();
+        Map<Long, Long> countedOpen = new HashMap<>();
+        statistics.getByAssignee().forEach((assigneeId, workload) -> {
+            countedTotals.put(assigneeId, workload.getTotal());
+            if (workload.getOpen() != 0) {
+                countedOpen.put(assigneeId, workload.getOpen());
+            }
+        });
+        boolean consistent = statistics.getTotal() == total && statistics.getFinished() == finished
+            && statistics.getOverdue() == overdue && statistics.getByCategory().equals(byCategory)
+            && countedTotals.equals(totalByAssignee) && countedOpen.equals(openByAssignee);
+        if (!consistent) {
+            LOG.warn("ToDo statistics drifted from the database, rebuilding them");
+            driftCounter.increment();
+            rebuild();
+        }
+    }
+}
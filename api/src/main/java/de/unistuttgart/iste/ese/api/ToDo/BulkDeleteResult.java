@@ -0,0 +1,47 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+/**
+ * Outcome of a bulk delete of ToDos matching a filter.
+ */
+public class BulkDeleteResult {
+
+    private final long deleted;
+
+    private final int chunks;
+
+    private final long durationMs;
+
+    /**
+     * Creates a new BulkDeleteResult.
+     *
+     * @param deleted    The number of deleted ToDos
+     * @param chunks     The number of transactions the ToDos were deleted in
+     * @param durationMs The time the bulk delete took in milliseconds
+     */
+    public BulkDeleteResult(long deleted, int chunks, long durationMs) {
+        this.deleted = deleted;
+        this.chunks = chunks;
+        this.durationMs = durationMs;
+    }
+
+    /**
+     * Gets the number of deleted ToDos.
+     *
+     * @return The number of deleted ToDos
+     */
+    public long getDeleted() { return deleted; }
+
+    /**
+     * Gets the number of transactions the ToDos were deleted in.
+     *
+     * @return The number of chunks
+     */
+    public int getChunks() { return chunks; }
+
+    /**
+     * Gets the time the bulk delete took.
+     *
+     * @return The duration in milliseconds
+     */
+    public long getDurationMs() { return durationMs; }
+}
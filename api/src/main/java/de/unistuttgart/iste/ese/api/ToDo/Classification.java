@@ -0,0 +1,38 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import java.util.Map;
+
+/**
+ * The category predicted for a text together with the probability of every category.
+ */
+public class Classification {
+
+    private final String category;
+
+    private final Map<String, Double> probabilities;
+
+    /**
+     * Creates a new Classification.
+     *
+     * @param category      The predicted category
+     * @param probabilities The probability of every category
+     */
+    public Classification(String category, Map<String, Double> probabilities) {
+        this.category = category;
+        this.probabilities = probabilities;
+    }
+
+    /**
+     * Gets the predicted category.
+     *
+     * @return The category
+     */
+    public String getCategory() { return category; }
+
+    /**
+     * Gets the probability of every category as computed by the model.
+     *
+     * @return The probabilities by category
+     */
+    public Map<String, Double> getProbabilities() { return probabilities; }
+}
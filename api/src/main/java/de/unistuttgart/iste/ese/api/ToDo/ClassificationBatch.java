@@ -0,0 +1,49 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import java.util.List;
+
+/**
+ * The classifications of a batch of texts by one model.
+ */
+public class ClassificationBatch {
+
+    private final String model;
+
+    private final List<Classification> classifications;
+
+    private final long durationMs;
+
+    /**
+     * Creates a new ClassificationBatch.
+     *
+     * @param model           The name of the model that classified the texts
+     * @param classifications The classification of each text in input order
+     * @param durationMs      The time classifying the batch took in milliseconds
+     */
+    public ClassificationBatch(String model, List<Classification> classifications, long durationMs) {
+        this.model = model;
+        this.classifications = classifications;
+        this.durationMs = durationMs;
+    }
+
+    /**
+     * Gets the name of the model that classified the texts.
+     *
+     * @return The model name
+     */
+    public String getModel() { return model; }
+
+    /**
+     * Gets the classification of each text.
+     *
+     * @return The classifications in the order of the texts
+     */
+    public List<Classification> getClassifications() { return classifications; }
+
+    /**
+     * Gets the time classifying the batch took.
+     *
+     * @return The duration in milliseconds
+     */
+    public long getDurationMs() { return durationMs; }
+}
@@ -0,0 +1,154 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jpmml.evaluator.Evaluator;
+import org.jpmml.evaluator.OutputField;
+import org.jpmml.evaluator.TargetField;
+import org.dmg.pmml.ResultFeature;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An evaluator of a PMML classification model together with everything derived from it once at load time:
+ * the class labels, the names of the output fields holding the predicted label index and the class probabilities,
+ * and the meters of the model.
+ * Instances are immutable, so a prediction that started with one model finishes with it even if the model is
+ * swapped concurrently.
+ */
+class LoadedModel {
+
+    private final Evaluator evaluator;
+
+    private final String[] labels;
+
+    private final String labelIndexField;
+
+    private final String[] probabilityFields;
+
+    private final String[] probabilityLabels;
+
+    private final ModelInfo info;
+
+    private final Timer activeTimer;
+
+    private final Timer shadowTimer;
+
+    private final Counter agreeCounter;
+
+    private final Counter disagreeCounter;
+
+    /**
+     * Creates a new LoadedModel and registers its meters.
+     *
+     * @param evaluator     The evaluator of the model
+     * @param name          The name of the model
+     * @param source        Where the model was loaded from
+     * @param loadMs        The time loading the model took in milliseconds
+     * @param meterRegistry The registry to publish the latency and disagreement metrics of the model to
+     * @throws IllegalArgumentException if the model does not have the outputs of a ToDo classification model
+     */
+    LoadedModel(Evaluator evaluator, String name, String source, long loadMs, MeterRegistry meterRegistry) {
+        List<TargetField> targetFields = evaluator.getTargetFields();
+        List<OutputField> outputFields = evaluator.getOutputFields();
+        if (targetFields.isEmpty() || outputFields.size() < 3) {
+            throw new IllegalArgumentException("Model " + name + " is not a ToDo classification model");
+        }
+        this.evaluator = evaluator;
+        // the target field is named like "['label1' 'label2' ...]"
+        this.labels = targetFields.get(0).getName().replaceAll("[\\['\\]]", "").split(" ");
+        this.labelIndexField = outputFields.get(2).getName();
+        // probability output fields name the index of their label as value, e.g. value="1" for the second label
+        List<String> fields = new ArrayList<>();
+        List<String> fieldLabels = new ArrayList<>();
+        for (OutputField outputField : outputFields) {
+            org.dmg.pmml.OutputField field = outputField.getField();
+            if (field.getResultFeature() != ResultFeature.PROBABILITY || field.getValue() == null) {
+                continue;
+            }
+            int index = Integer.parseInt(field.getValue().toString());
+            if (index < 0 || index >= labels.length) {
+                throw new IllegalArgumentException("Model " + name + " has a probability output for an unknown class");
+            }
+            fields.add(outputField.getName());
+            fieldLabels.add(labels[index]);
+        }
+        this.probabilityFields = fields.toArray(new String[0]);
+        this.probabilityLabels = fieldLabels.toArray(new String[0]);
+        this.info = new ModelInfo(name, source, System.currentTimeMillis(), loadMs);
+        this.activeTimer = meterRegistry.timer("api.model.predictions", "model", name, "role", "active");
+        this.shadowTimer = meterRegistry.timer("api.model.predictions", "model", name, "role", "shadow");
+        this.agreeCounter = meterRegistry.counter("api.model.shadow.comparisons", "model", name, "result", "agree");
+        this.disagreeCounter = meterRegistry.counter("api.model.shadow.comparisons", "model", name, "result", "disagree");
+    }
+
+    /**
+     * Gets the evaluator of the model.
+     *
+     * @return The evaluator
+     */
+    Evaluator getEvaluator() { return evaluator; }
+
+    /**
+     * Gets the predicted class label from the results of an evaluation.
+     *
+     * @param results The results of evaluating the model
+     * @return The predicted class label
+     */
+    String getPredictedLabel(Map<String, ?> results) {
+        return labels[Integer.parseInt(results.get(labelIndexField).toString())];
+    }
+
+    /**
+     * Gets the probability of every class label from the results of an evaluation.
+     *
+     * @param results The results of evaluating the model
+     * @return The probabilities by class label, empty if the model has no probability outputs
+     */
+    Map<String, Double> getProbabilities(Map<String, ?> results) {
+        Map<String, Double> probabilities = new LinkedHashMap<>();
+        for (int i = 0; i < probabilityFields.length; i++) {
+            probabilities.put(probabilityLabels[i], ((Number) results.get(probabilityFields[i])).doubleValue());
+        }
+        return probabilities;
+    }
+
+    /**
+     * Gets the description of the model.
+     *
+     * @return The model info
+     */
+    ModelInfo getInfo() { return info; }
+
+    /**
+     * Gets the timer of predictions made while the model is active.
+     *
+     * @return The timer
+     */
+    Timer getActiveTimer() { return activeTimer; }
+
+    /**
+     * Gets the timer of predictions made while the model runs in shadow.
+     *
+     * @return The timer
+     */
+    Timer getShadowTimer() { return shadowTimer; }
+
+    /**
+     * Gets the counter of shadow predictions matching the active model.
+     *
+     * @return The counter
+     */
+    Counter getAgreeCounter() { return agreeCounter; }
+
+    /**
+     * Gets the counter of shadow predictions differing from the active model.
+     *
+     * @return The counter
+     */
+    Counter getDisagreeCounter() { return disagreeCounter; }
+}
@@ -0,0 +1,58 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+/**
+ * Description of a loaded classification model.
+ */
+public class ModelInfo {
+
+    private final String name;
+
+    private final String source;
+
+    private final long loadedAt;
+
+    private final long loadMs;
+
+    /**
+     * Creates a new ModelInfo.
+     *
+     * @param name     The name of the model
+     * @param source   Where the model was loaded from
+     * @param loadedAt The time the model was loaded as epoch milliseconds
+     * @param loadMs   The time loading the model took in milliseconds
+     */
+    public ModelInfo(String name, String source, long loadedAt, long loadMs) {
+        this.name = name;
+        this.source = source;
+        this.loadedAt = loadedAt;
+        this.loadMs = loadMs;
+    }
+
+    /**
+     * Gets the name of the model.
+     *
+     * @return The name, "bundled" for the model shipped with the application
+     */
+    public String getName() { return name; }
+
+    /**
+     * Gets where the model was loaded from.
+     *
+     * @return The path of the PMML file or the classpath resource
+     */
+    public String getSource() { return source; }
+
+    /**
+     * Gets the time the model was loaded.
+     *
+     * @return The time as epoch milliseconds
+     */
+    public long getLoadedAt() { return loadedAt; }
+
+    /**
+     * Gets the time loading the model took.
+     *
+     * @return The duration in milliseconds
+     */
+    public long getLoadMs() { return loadMs; }
+}
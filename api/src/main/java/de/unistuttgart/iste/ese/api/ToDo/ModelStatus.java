@@ -0,0 +1,94 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import java.util.List;
+
+/**
+ * The classification models available and in use, and how the shadow model compares to the active one.
+ */
+public class ModelStatus {
+
+    private final String directory;
+
+    private final List<String> available;
+
+    private final ModelInfo active;
+
+    private final ModelInfo shadow;
+
+    private final long shadowAgreements;
+
+    private final long shadowDisagreements;
+
+    private final long shadowDropped;
+
+    /**
+     * Creates a new ModelStatus.
+     *
+     * @param directory           The directory models are loaded from, null if none is configured
+     * @param available           The names of the models that can be loaded
+     * @param active              The active model, null if no model is loaded
+     * @param shadow              The shadow model, null if none runs in shadow
+     * @param shadowAgreements    The number of shadow predictions matching the active model
+     * @param shadowDisagreements The number of shadow predictions differing from the active model
+     * @param shadowDropped       The number of shadow predictions skipped because the shadow model fell behind
+     */
+    public ModelStatus(String directory, List<String> available, ModelInfo active, ModelInfo shadow,
+                       long shadowAgreements, long shadowDisagreements, long shadowDropped) {
+        this.directory = directory;
+        this.available = available;
+        this.active = active;
+        this.shadow = shadow;
+        this.shadowAgreements = shadowAgreements;
+        this.shadowDisagreements = shadowDisagreements;
+        this.shadowDropped = shadowDropped;
+    }
+
+    /**
+     * Gets the directory models are loaded from.
+     *
+     * @return The directory, null if none is configured
+     */
+    public String getDirectory() { return directory; }
+
+    /**
+     * Gets the names of the models that can be loaded.
+     *
+     * @return The model names, including "bundled"
+     */
+    public List<String> getAvailable() { return available; }
+
+    /**
+     * Gets the active model, whose predictions are used.
+     *
+     * @return The active model, null if no model is loaded
+     */
+    public ModelInfo getActive() { return active; }
+
+    /**
+     * Gets the model evaluated in shadow alongside the active model.
+     *
+     * @return The shadow model, null if none runs in shadow
+     */
+    public ModelInfo getShadow() { return shadow; }
+
+    /**
+     * Gets the number of shadow predictions matching the active model, counted since the application started.
+     *
+     * @return The number of agreements
+     */
+    public long getShadowAgreements() { return shadowAgreements; }
+
+    /**
+     * Gets the number of shadow predictions differing from the active model, counted since the application started.
+     *
+     * @return The number of disagreements
+     */
+    public long getShadowDisagreements() { return shadowDisagreements; }
+
+    /**
+     * Gets the number of shadow predictions skipped because the shadow model fell behind.
+     *
+     * @return The number of dropped shadow predictions
+     */
+    public long getShadowDropped() { return shadowDropped; }
+}
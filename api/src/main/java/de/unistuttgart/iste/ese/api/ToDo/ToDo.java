@@ -3,15 +3,33 @@ package de.unistuttgart.iste.ese.api.ToDo;
 import de.unistuttgart.iste.ese.api.Assignee.Assignee;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Represents a ToDo item in the system.
  * A ToDo can be assigned to multiple Assignees.
+ * ToDos and their Assignee lists are kept in the Hibernate second-level cache.
+ * Updates only write the changed columns and are checked against the version for concurrent modifications.
+ * The index on (finished, dueDate) serves the overdue and upcoming queries with range scans, the index on
+ * dueDate the due date ordered ToDo list of an Assignee, the index on (category, finished) the statistics,
+ * the index on (finished, finishedDate) the archival job, and the index on the join table lookups of the
+ * ToDos of an Assignee.
+ * The indexes are created by the migrations in db/migration, these annotations only document them.
  */
 @Entity
-@Table(name = "todos")
+@Table(name = "todos", indexes = {
+    @Index(name = "idx_todos_finished_due_date", columnList = "finished, dueDate"),
+    @Index(name = "idx_todos_category_finished", columnList = "category, finished"),
+    @Index(name = "idx_todos_finished_finished_date", columnList = "finished, finishedDate"),
+    @Index(name = "idx_todos_due_date", columnList = "dueDate")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "todos")
+@DynamicUpdate
 public class ToDo {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,6 +44,11 @@ public class ToDo {
     private boolean finished;
 
     @ManyToMany
+    @JoinTable(name = "todos_assignee_list",
+        joinColumns = @JoinColumn(name = "todos_id"),
+        inverseJoinColumns = @JoinColumn(name = "assignee_list_id"),
+        indexes = @Index(name = "idx_todos_assignee_list_assignee", columnList = "assignee_list_id, todos_id"))
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "todos.assigneeList")
     private List<Assignee> assigneeList = new ArrayList<>();
 
     private Long createdDate;
@@ -36,6 +59,9 @@ public class ToDo {
 
     private String category;
 
+    @Version
+    private long version;
+
     // Constructors
     /**
      * Default constructor for JPA.
@@ -200,4 +226,17 @@ public class ToDo {
      * @param category The category to set
      */
     public void setCategory(String category) { this.category = category; }
+
+    /**
+     * Gets the version of the ToDo, incremented with every update.
+     *
+     * @return The ToDo's version
+     */
+    public long getVersion() { return version; }
+    /**
+     * Sets the version of the ToDo.
+     *
+     * @param version The version to set
+     */
+    public void setVersion(long version) { this.version = version; }
 }
@@ -0,0 +1,107 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+/**
+ * Application event published by the ToDo write paths after a ToDo has been created, updated or deleted.
+ * Listeners use it to keep derived state (e.g. cached responses or statistics) in sync with the database.
+ * It carries snapshots of the ToDo before and after the change.
+ */
+public class ToDoChangedEvent {
+
+    /**
+     * The kind of change that happened to the ToDo. An archived ToDo was moved into the archive and is gone from the
+     * todos table, like a deleted one.
+     */
+    public enum Type { CREATED, UPDATED, DELETED, ARCHIVED }
+
+    private final Type type;
+
+    private final Long toDoId;
+
+    private final ToDoSnapshot previous;
+
+    private final ToDoSnapshot current;
+
+    /**
+     * Creates a new ToDoChangedEvent.
+     *
+     * @param type     The kind of change
+     * @param toDoId   The ID of the changed ToDo
+     * @param previous The state before the change, or null if the ToDo was created
+     * @param current  The state after the change, or null if the ToDo was deleted or archived
+     */
+    public ToDoChangedEvent(Type type, Long toDoId, ToDoSnapshot previous, ToDoSnapshot current) {
+        this.type = type;
+        this.toDoId = toDoId;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    /**
+     * Creates the event for a newly created ToDo.
+     *
+     * @param todo The created ToDo
+     * @return The event
+     */
+    public static ToDoChangedEvent created(ToDo todo) {
+        return new ToDoChangedEvent(Type.CREATED, todo.getId(), null, ToDoSnapshot.of(todo));
+    }
+
+    /**
+     * Creates the event for an updated ToDo.
+     *
+     * @param previous The state before the update
+     * @param todo     The updated ToDo
+     * @return The event
+     */
+    public static ToDoChangedEvent updated(ToDoSnapshot previous, ToDo todo) {
+        return new ToDoChangedEvent(Type.UPDATED, todo.getId(), previous, ToDoSnapshot.of(todo));
+    }
+
+    /**
+     * Creates the event for a deleted ToDo.
+     *
+     * @param previous The state before the deletion
+     * @return The event
+     */
+    public static ToDoChangedEvent deleted(ToDoSnapshot previous) {
+        return new ToDoChangedEvent(Type.DELETED, previous.getId(), previous, null);
+    }
+
+    /**
+     * Creates the event for a ToDo that was moved into the archive.
+     *
+     * @param previous The state before it was archived
+     * @return The event
+     */
+    public static ToDoChangedEvent archived(ToDoSnapshot previous) {
+        return new ToDoChangedEvent(Type.ARCHIVED, previous.getId(), previous, null);
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return The change type
+     */
+    public Type getType() { return type; }
+
+    /**
+     * Gets the ID of the changed ToDo.
+     *
+     * @return The ToDo's ID
+     */
+    public Long getToDoId() { return toDoId; }
+
+    /**
+     * Gets the state of the ToDo before the change.
+     *
+     * @return The previous state, or null if the ToDo was created
+     */
+    public ToDoSnapshot getPrevious() { return previous; }
+
+    /**
+     * Gets the state of the ToDo after the change.
+     *
+     * @return The current state, or null if the ToDo was deleted or archived
+     */
+    public ToDoSnapshot getCurrent() { return current; }
+}
@@ -1,13 +1,25 @@
 package de.unistuttgart.iste.ese.api.ToDo;
 
 import de.unistuttgart.iste.ese.api.ApiVersion1;
+import de.unistuttgart.iste.ese.api.Duplicates.DuplicateDetectionService;
+import de.unistuttgart.iste.ese.api.Duplicates.DuplicateSuggestion;
+import de.unistuttgart.iste.ese.api.MultiGetResult;
+import de.unistuttgart.iste.ese.api.ResponseCache.SerializedResponseCache;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import jakarta.servlet.http.HttpServletResponse;
+
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * REST Controller for managing ToDo entities.
@@ -16,19 +28,45 @@ import java.util.List;
 @RestController
 @ApiVersion1
 public class ToDoController {
+    private static final String POSSIBLE_DUPLICATES_HEADER = "X-Possible-Duplicates";
+
+    private static final int DUPLICATE_SUGGESTIONS = 5;
 
     @Autowired
     private ToDoService toDoService;
 
+    @Autowired
+    private SerializedResponseCache responseCache;
+
+    @Autowired
+    private DuplicateDetectionService duplicateDetectionService;
+
     /**
      * Retrieves all ToDos.
+     * The serialized list is served from the response cache until the next ToDo or Assignee write.
      *
-     * @return ResponseEntity containing a list of all ToDos
+     * @param acceptEncoding The client's Accept-Encoding header, used to serve a pre-gzipped body
+     * @return ResponseEntity containing the serialized list of all ToDos
      */
     @GetMapping("/todos")
-    public ResponseEntity<List<ToDo>> getAllToDos() {
-        List<ToDo> todos = toDoService.getAllToDos();
-        return ResponseEntity.ok(todos);
+    // the body is pre-serialized, so the schema has to be declared for the API docs
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+        array = @ArraySchema(schema = @Schema(implementation = ToDo.class))))
+    public ResponseEntity<byte[]> getAllToDos(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responseCache.get(SerializedResponseCache.TODOS, toDoService::getAllToDos)
+            .toResponse(acceptEncoding);
+    }
+
+    /**
+     * Retrieves several ToDos with their Assignees by ID in one request.
+     *
+     * @param ids The IDs of the ToDos
+     * @return ResponseEntity containing the found ToDos in request order and the IDs that were not found
+     */
+    @GetMapping(value = "/todos", params = "ids")
+    public ResponseEntity<MultiGetResult<ToDo>> getToDosByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(toDoService.getToDosByIds(ids));
     }
 
     /**
@@ -44,17 +82,90 @@ public class ToDoController {
         return ResponseEntity.ok(todo);
     }
 
+    /**
+     * Retrieves unfinished ToDos whose due date has passed, earliest first.
+     *
+     * @param limit The maximum number of ToDos
+     * @return ResponseEntity containing the overdue ToDos
+     */
+    @GetMapping("/todos/overdue")
+    public ResponseEntity<List<ToDo>> getOverdueToDos(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(toDoService.getOverdueToDos(limit));
+    }
+
+    /**
+     * Retrieves unfinished ToDos that are due within the given time from now, earliest first.
+     *
+     * @param withinMs The length of the window in milliseconds, one week by default
+     * @param limit    The maximum number of ToDos
+     * @return ResponseEntity containing the upcoming ToDos
+     */
+    @GetMapping("/todos/upcoming")
+    public ResponseEntity<List<ToDo>> getUpcomingToDos(@RequestParam(defaultValue = "604800000") long withinMs,
+                                                       @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(toDoService.getUpcomingToDos(withinMs, limit));
+    }
+
+    /**
+     * Retrieves the unfinished ToDos of an Assignee that are due next, overdue ones first.
+     *
+     * @param assigneeId The ID of the Assignee
+     * @param limit      The number of ToDos
+     * @return ResponseEntity containing the next due ToDos of the Assignee
+     */
+    @GetMapping("/assignees/{assigneeId}/todos/next-due")
+    public ResponseEntity<List<ToDo>> getNextDueToDos(@PathVariable Long assigneeId,
+                                                      @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(toDoService.getNextDueToDos(assigneeId, limit));
+    }
+
+    /**
+     * Retrieves a page of the ToDos of an Assignee, ordered by due date.
+     * The next page is requested with the nextCursor of the previous page.
+     *
+     * @param assigneeId The ID of the Assignee
+     * @param finished   Only return ToDos with this finished status
+     * @param dueFrom    Only return ToDos due at or after this point in time, in milliseconds since the epoch
+     * @param dueTo      Only return ToDos due before this point in time, in milliseconds since the epoch
+     * @param cursor     The cursor of the previous page
+     * @param limit      The maximum number of ToDos
+     * @return ResponseEntity containing the page of ToDos and the cursor of the next page
+     */
+    @GetMapping("/assignees/{assigneeId}/todos")
+    public ResponseEntity<ToDoPage> getToDosByAssignee(@PathVariable Long assigneeId,
+                                                       @RequestParam(required = false) Boolean finished,
+                                                       @RequestParam(required = false) Long dueFrom,
+                                                       @RequestParam(required = false) Long dueTo,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(toDoService.getToDoPageByAssignee(assigneeId, finished, dueFrom, dueTo, cursor, limit));
+    }
+
     /**
      * Creates a new ToDo.
+     * If requested, the IDs of existing ToDos with a similar title are returned in the
+     * X-Possible-Duplicates header; the ToDo is created either way.
      *
      * @param dto The ToDoDTO object containing the new ToDo details
+     * @param suggestDuplicates Whether to look for existing ToDos with a similar title
      * @return ResponseEntity containing the created ToDo
      * @throws IllegalArgumentException if the request is invalid
      */
     @PostMapping("/todos")
-    public ResponseEntity<ToDo> createToDo(@Valid @RequestBody ToDoDTO dto) {
+    public ResponseEntity<ToDo> createToDo(@Valid @RequestBody ToDoDTO dto,
+                                           @RequestParam(defaultValue = "false") boolean suggestDuplicates) {
+        // look up before creating, so the new ToDo does not suggest itself
+        List<DuplicateSuggestion> duplicates = suggestDuplicates
+            ? duplicateDetectionService.findSimilar(dto.getTitle(), DUPLICATE_SUGGESTIONS)
+            : List.of();
         ToDo createdTodo = toDoService.createToDo(dto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdTodo);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (!duplicates.isEmpty()) {
+            response.header(POSSIBLE_DUPLICATES_HEADER, duplicates.stream()
+                .map(duplicate -> duplicate.getTodo().getId().toString())
+                .collect(Collectors.joining(", ")));
+        }
+        return response.body(createdTodo);
     }
 
     /**
@@ -72,6 +183,38 @@ public class ToDoController {
         return ResponseEntity.ok(updatedTodo);
     }
 
+    /**
+     * Partially updates an existing ToDo.
+     * Only the fields present in the request body are changed.
+     *
+     * @param id The ID of the ToDo to update
+     * @param dto The ToDoPatchDTO object containing the fields to change and optionally the expected version
+     * @return ResponseEntity containing the updated ToDo
+     * @throws ResourceNotFoundException if the ToDo is not found
+     * @throws ObjectOptimisticLockingFailureException if the ToDo was modified concurrently
+     */
+    @PatchMapping("/todos/{id}")
+    public ResponseEntity<ToDo> patchToDo(@PathVariable Long id, @Valid @RequestBody ToDoPatchDTO dto) {
+        ToDo patchedTodo = toDoService.patchToDo(id, dto);
+        return ResponseEntity.ok(patchedTodo);
+    }
+
+    /**
+     * Updates only the finished status of a ToDo.
+     * The change is written asynchronously together with other status updates,
+     * so it becomes visible within the configured flush interval.
+     *
+     * @param id The ID of the ToDo to update
+     * @param dto The ToDoStatusDTO object containing the requested status
+     * @return ResponseEntity with ACCEPTED status
+     * @throws ResourceNotFoundException if the ToDo is not found
+     */
+    @PutMapping("/todos/{id}/status")
+    public ResponseEntity<Void> updateToDoStatus(@PathVariable Long id, @Valid @RequestBody ToDoStatusDTO dto) {
+        toDoService.updateToDoStatus(id, dto);
+        return ResponseEntity.accepted().build();
+    }
+
     /**
      * Deletes a specific ToDo by ID.
      *
@@ -84,6 +227,21 @@ public class ToDoController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Deletes all ToDos matching the given filter; at least one filter is required.
+     *
+     * @param category       Only delete ToDos of this category
+     * @param finished       Only delete ToDos with this finished status
+     * @param finishedBefore Only delete ToDos finished before this point in time, in milliseconds since the epoch
+     * @return ResponseEntity containing the number of deleted ToDos
+     */
+    @DeleteMapping("/todos")
+    public ResponseEntity<BulkDeleteResult> deleteToDos(@RequestParam(required = false) String category,
+                                                        @RequestParam(required = false) Boolean finished,
+                                                        @RequestParam(required = false) Long finishedBefore) {
+        return ResponseEntity.ok(toDoService.deleteToDos(category, finished, finishedBefore));
+    }
+
     /**
      * Exports all ToDos to a CSV file.
      *
@@ -110,6 +268,17 @@ public class ToDoController {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    /**
+     * Handles concurrent modifications detected by the version check and returns a 409 status.
+     *
+     * @param ex The ObjectOptimisticLockingFailureException that was thrown
+     * @return ResponseEntity with CONFLICT status and error message
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("ToDo was modified concurrently, reload it and try again");
+    }
+
     /**
      * Handles IllegalArgumentException and returns a 400 status.
      *
@@ -24,6 +24,8 @@ public class ToDoDTO {
 
     private String category;
 
+    private Long version;
+
     // Constructors
     /**
      * Default constructor.
@@ -149,4 +151,21 @@ public class ToDoDTO {
     public void setCategory(String category) {
         this.category = category;
     }
+
+    /**
+     * Gets the version of the ToDo the client based its changes on.
+     *
+     * @return The expected version, or null to skip the version check
+     */
+    public Long getVersion() {
+        return version;
+    }
+    /**
+     * Sets the version of the ToDo the client based its changes on.
+     *
+     * @param version The expected version to set
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
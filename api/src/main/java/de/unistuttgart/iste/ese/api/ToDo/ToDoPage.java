@@ -0,0 +1,39 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated ToDo list.
+ * The next page is requested with the cursor of this page; there are no more pages if it is null.
+ */
+public class ToDoPage {
+
+    private final List<ToDo> items;
+
+    private final String nextCursor;
+
+    /**
+     * Creates a new ToDoPage.
+     *
+     * @param items      The ToDos of this page
+     * @param nextCursor The cursor of the next page, or null if this is the last page
+     */
+    public ToDoPage(List<ToDo> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the ToDos of this page.
+     *
+     * @return The ToDos
+     */
+    public List<ToDo> getItems() { return items; }
+
+    /**
+     * Gets the cursor of the next page.
+     *
+     * @return The cursor, or null if this is the last page
+     */
+    public String getNextCursor() { return nextCursor; }
+}
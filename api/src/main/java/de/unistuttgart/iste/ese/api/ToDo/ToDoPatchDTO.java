@@ -0,0 +1,131 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+/**
+ * Data Transfer Object for partial updates of ToDo entities.
+ * Every field is optional, fields that are null are left unchanged.
+ */
+public class ToDoPatchDTO {
+
+    @Size(min = 1, max = 100, message = "Title must be between 1 and 100 characters")
+    private String title;
+
+    private String description;
+
+    private Boolean finished;
+
+    private Long dueDate;
+
+    private List<Long> assigneeIdList;
+
+    private Long version;
+
+    /**
+     * Default constructor.
+     */
+    public ToDoPatchDTO() {}
+
+    /**
+     * Gets the new title of the ToDo.
+     *
+     * @return The new title, or null to keep the current one
+     */
+    public String getTitle() {
+        return title;
+    }
+    /**
+     * Sets the new title of the ToDo.
+     *
+     * @param title The title to set
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Gets the new description of the ToDo.
+     *
+     * @return The new description, or null to keep the current one
+     */
+    public String getDescription() {
+        return description;
+    }
+    /**
+     * Sets the new description of the ToDo.
+     *
+     * @param description The description to set
+     */
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Gets the new finished status of the ToDo.
+     *
+     * @return The new finished status, or null to keep the current one
+     */
+    public Boolean getFinished() {
+        return finished;
+    }
+    /**
+     * Sets the new finished status of the ToDo.
+     *
+     * @param finished The finished status to set
+     */
+    public void setFinished(Boolean finished) {
+        this.finished = finished;
+    }
+
+    /**
+     * Gets the new due date of the ToDo.
+     *
+     * @return The new due date, or null to keep the current one
+     */
+    public Long getDueDate() {
+        return dueDate;
+    }
+    /**
+     * Sets the new due date of the ToDo.
+     *
+     * @param dueDate The due date to set
+     */
+    public void setDueDate(Long dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    /**
+     * Gets the new list of Assignee IDs for this ToDo.
+     *
+     * @return The new list of Assignee IDs, or null to keep the current Assignees
+     */
+    public List<Long> getAssigneeIdList() {
+        return assigneeIdList;
+    }
+    /**
+     * Sets the new list of Assignee IDs for this ToDo.
+     *
+     * @param assigneeIdList The list of Assignee IDs to set
+     */
+    public void setAssigneeIdList(List<Long> assigneeIdList) {
+        this.assigneeIdList = assigneeIdList;
+    }
+
+    /**
+     * Gets the version of the ToDo the client based its changes on.
+     *
+     * @return The expected version, or null to skip the version check
+     */
+    public Long getVersion() {
+        return version;
+    }
+    /**
+     * Sets the version of the ToDo the client based its changes on.
+     *
+     * @param version The expected version to set
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
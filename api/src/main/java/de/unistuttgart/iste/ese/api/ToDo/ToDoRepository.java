@@ -1,8 +1,19 @@
 package de.unistuttgart.iste.ese.api.ToDo;
 
 import de.unistuttgart.iste.ese.api.Assignee.Assignee;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for ToDo entity.
@@ -16,6 +27,15 @@ public interface ToDoRepository extends CrudRepository<ToDo, Long> {
      */
     List<ToDo> findAll();
 
+    /**
+     * Finds the ToDo entities with the given IDs together with their Assignees in one query.
+     *
+     * @param ids the IDs of the ToDo entities
+     * @return the found ToDo entities in any order
+     */
+    @Query("select distinct t from ToDo t left join fetch t.assigneeList where t.id in :ids")
+    List<ToDo> findAllWithAssigneesByIdIn(@Param("ids") Collection<Long> ids);
+
     /**
      * Finds all ToDo entities associated with a specific Assignee ID.
      *
@@ -31,4 +51,159 @@ public interface ToDoRepository extends CrudRepository<ToDo, Long> {
      * @return a list of ToDo entities that contain the given Assignee
      */
     List<ToDo> findAllByAssigneeListContaining(Assignee assignee);
+
+    /**
+     * Streams all ToDo entities ordered by ID without loading them into memory at once.
+     * The stream must be consumed and closed inside a transaction.
+     *
+     * @return a stream of all ToDo entities
+     */
+    @Query("select t from ToDo t order by t.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ToDo> streamAll();
+
+    /**
+     * Counts ToDo entities grouped by category and finished status.
+     *
+     * @return rows of [category, finished, count]
+     */
+    @Query("select t.category, t.finished, count(t) from ToDo t group by t.category, t.finished")
+    List<Object[]> countByCategoryAndFinished();
+
+    /**
+     * Counts the unfinished ToDo entities due before a point in time.
+     *
+     * @param now the point in time in milliseconds since the epoch
+     * @return the number of overdue ToDo entities
+     */
+    @Query("select count(t) from ToDo t where t.finished = false and t.dueDate < :now")
+    long countOverdue(@Param("now") Long now);
+
+    /**
+     * Counts the ToDo entities of every Assignee grouped by finished status.
+     *
+     * @return rows of [assignee ID, finished, count]
+     */
+    @Query("select a.id, t.finished, count(t) from ToDo t join t.assigneeList a group by a.id, t.finished")
+    List<Object[]> countByAssigneeAndFinished();
+
+    /**
+     * Finds unfinished ToDo entities due before a point in time, earliest first.
+     * Served by a range scan on the (finished, dueDate) index.
+     *
+     * @param now   the point in time in milliseconds since the epoch
+     * @param limit the maximum number of results
+     * @return the overdue ToDo entities ordered by due date
+     */
+    @Query("select t from ToDo t where t.finished = false and t.dueDate < :now order by t.dueDate, t.id")
+    List<ToDo> findOverdue(@Param("now") Long now, Limit limit);
+
+    /**
+     * Finds unfinished ToDo entities due within a time window, earliest first.
+     * Served by a range scan on the (finished, dueDate) index.
+     *
+     * @param from  the start of the window (inclusive) in milliseconds since the epoch
+     * @param to    the end of the window (exclusive) in milliseconds since the epoch
+     * @param limit the maximum number of results
+     * @return the ToDo entities due within the window ordered by due date
+     */
+    @Query("select t from ToDo t where t.finished = false and t.dueDate >= :from and t.dueDate < :to "
+        + "order by t.dueDate, t.id")
+    List<ToDo> findDueBetween(@Param("from") Long from, @Param("to") Long to, Limit limit);
+
+    /**
+     * Finds the unfinished ToDo entities of an Assignee that have a due date, earliest due date first.
+     * ToDos without a due date are left out, databases differ in where they sort them.
+     * The ToDos of the Assignee are found with the assignee index of the join table.
+     *
+     * @param assigneeId the ID of the Assignee
+     * @param limit      the maximum number of results
+     * @return the unfinished ToDo entities of the Assignee ordered by due date
+     */
+    @Query("select t from ToDo t join t.assigneeList a where a.id = :assigneeId and t.finished = false "
+        + "and t.dueDate is not null order by t.dueDate, t.id")
+    List<ToDo> findNextDueByAssignee(@Param("assigneeId") Long assigneeId, Limit limit);
+
+    /**
+     * Finds a page of the ToDo entities of an Assignee with a due date, ordered by due date and ID.
+     * The page starts after the given (due date, ID) position. The ToDos of the Assignee are found with the
+     * assignee index of the join table.
+     *
+     * @param assigneeId the ID of the Assignee
+     * @param finished   the finished status to match, or null
+     * @param dueFrom    the start of the due date range (inclusive)
+     * @param dueTo      the end of the due date range (exclusive)
+     * @param afterDue   the due date of the last ToDo of the previous page
+     * @param afterId    the ID of the last ToDo of the previous page
+     * @param limit      the maximum number of results
+     * @return the ToDo entities of the page
+     */
+    @Query("select t from ToDo t join t.assigneeList a where a.id = :assigneeId "
+        + "and (:finished is null or t.finished = :finished) "
+        + "and t.dueDate >= :dueFrom and t.dueDate < :dueTo "
+        + "and (t.dueDate > :afterDue or (t.dueDate = :afterDue and t.id > :afterId)) "
+        + "order by t.dueDate, t.id")
+    List<ToDo> findPageByAssignee(@Param("assigneeId") Long assigneeId, @Param("finished") Boolean finished,
+                                  @Param("dueFrom") Long dueFrom, @Param("dueTo") Long dueTo,
+                                  @Param("afterDue") Long afterDue, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Finds a page of the ToDo entities of an Assignee without a due date, ordered by ID.
+     *
+     * @param assigneeId the ID of the Assignee
+     * @param finished   the finished status to match, or null
+     * @param afterId    the ID of the last ToDo of the previous page
+     * @param limit      the maximum number of results
+     * @return the ToDo entities of the page
+     */
+    @Query("select t from ToDo t join t.assigneeList a where a.id = :assigneeId "
+        + "and (:finished is null or t.finished = :finished) "
+        + "and t.dueDate is null and t.id > :afterId "
+        + "order by t.id")
+    List<ToDo> findUndatedPageByAssignee(@Param("assigneeId") Long assigneeId, @Param("finished") Boolean finished,
+                                         @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Finds the IDs of ToDo entities finished before a point in time, longest finished first.
+     * Served by a range scan on the (finished, finishedDate) index.
+     *
+     * @param cutoff the point in time in milliseconds since the epoch
+     * @param limit  the maximum number of results
+     * @return the IDs of the ToDo entities ordered by finished date
+     */
+    @Query("select t.id from ToDo t where t.finished = true and t.finishedDate < :cutoff order by t.finishedDate, t.id")
+    List<Long> findIdsFinishedBefore(@Param("cutoff") Long cutoff, Limit limit);
+
+    /**
+     * Finds and locks the next ToDo entities matching a bulk delete filter, ordered by ID.
+     * A null filter value matches every ToDo. The rows stay locked until the transaction ends,
+     * so they cannot change between being selected and being deleted.
+     *
+     * @param afterId        the ID after which the search starts
+     * @param category       the category to match, or null
+     * @param finished       the finished status to match, or null
+     * @param finishedBefore the point in time the ToDos must be finished before, or null
+     * @param limit          the maximum number of results
+     * @return the matching ToDo entities ordered by ID
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from ToDo t where t.id > :afterId "
+        + "and (:category is null or t.category = :category) "
+        + "and (:finished is null or t.finished = :finished) "
+        + "and (:finishedBefore is null or t.finishedDate < :finishedBefore) "
+        + "order by t.id")
+    List<ToDo> findForDeletion(@Param("afterId") Long afterId, @Param("category") String category,
+                               @Param("finished") Boolean finished, @Param("finishedBefore") Long finishedBefore,
+                               Limit limit);
+
+    /**
+     * Deletes the ToDo entities with the given IDs and their Assignee links with one statement per table.
+     * Bypasses the persistence context and the version check; the rows must be locked by the caller.
+     *
+     * @param ids the IDs of the ToDo entities to delete
+     * @return the number of deleted ToDo entities
+     */
+    @Modifying
+    @Query("delete from ToDo t where t.id in :ids")
+    int deleteAllByIdIn(@Param("ids") List<Long> ids);
 }
@@ -1,13 +1,20 @@
 package de.unistuttgart.iste.ese.api.ToDo;
 
 import de.unistuttgart.iste.ese.api.Assignee.AssigneeService;
+import de.unistuttgart.iste.ese.api.MultiGetResult;
 import de.unistuttgart.iste.ese.api.Assignee.Assignee;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
@@ -18,6 +25,7 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,6 +34,11 @@ import java.util.stream.Collectors;
  */
 @Service
 public class ToDoService {
+    /**
+     * Maximum number of ToDos returned by the due date queries.
+     */
+    public static final int MAX_DUE_RESULTS = 500;
+
     @Autowired
     private ToDoRepository toDoRepository;
 
@@ -35,6 +48,18 @@ public class ToDoService {
     @Autowired
     private TodoModel todoModel;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ToDoStatusWriteBehind statusWriteBehind;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${api.todos.bulk-delete.chunk-size:500}")
+    private int bulkDeleteChunkSize;
+
     /**
      * Creates a new ToDo based on the provided DTO.
      *
@@ -42,6 +67,7 @@ public class ToDoService {
      * @return The created ToDo entity
      * @throws IllegalArgumentException if the request is invalid
      */
+    @Transactional
     public ToDo createToDo(ToDoDTO dto) {
         validateToDoDTO(dto);
         ToDo todo = new ToDo();
@@ -53,7 +79,9 @@ public class ToDoService {
         } catch (Exception e) {
             todo.setCategory("work");
         }
-        return toDoRepository.save(todo);
+        ToDo saved = toDoRepository.save(todo);
+        eventPublisher.publishEvent(ToDoChangedEvent.created(saved));
+        return saved;
     }
 
     /**
@@ -64,11 +92,18 @@ public class ToDoService {
      * @return The updated ToDo entity
      * @throws ResponseStatusException if the ToDo is not found
      * @throws IllegalArgumentException if the request is invalid
+     * @throws ObjectOptimisticLockingFailureException if the ToDo was modified concurrently
      */
+    @Transactional
     public ToDo updateToDo(Long id, ToDoDTO dto) {
         ToDo todo = toDoRepository.findById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "ToDo not found"));
+        if (dto.getVersion() != null && dto.getVersion() != todo.getVersion()) {
+            throw new ObjectOptimisticLockingFailureException(ToDo.class, id);
+        }
         validateToDoDTO(dto);
+        statusWriteBehind.discard(id);
+        ToDoSnapshot previous = ToDoSnapshot.of(todo);
         updateToDoFromDTO(todo, dto);
 
         try {
@@ -79,7 +114,90 @@ public class ToDoService {
                 todo.setCategory("work");
             }
         }
-        return toDoRepository.save(todo);
+        ToDo saved = toDoRepository.save(todo);
+        eventPublisher.publishEvent(ToDoChangedEvent.updated(previous, saved));
+        return saved;
+    }
+
+    /**
+     * Partially updates an existing ToDo.
+     * Only fields present in the DTO are changed and only changed columns are written.
+     * The Assignee join table is only touched if the Assignee IDs change,
+     * and the ToDo is only reclassified if its title changes.
+     *
+     * @param id The ID of the ToDo to update
+     * @param dto The DTO containing the fields to change
+     * @return The updated ToDo entity
+     * @throws ResponseStatusException if the ToDo is not found or the request is invalid
+     * @throws ObjectOptimisticLockingFailureException if the ToDo was modified concurrently
+     */
+    @Transactional
+    public ToDo patchToDo(Long id, ToDoPatchDTO dto) {
+        ToDo todo = getToDoById(id);
+        if (dto.getVersion() != null && dto.getVersion() != todo.getVersion()) {
+            throw new ObjectOptimisticLockingFailureException(ToDo.class, id);
+        }
+        ToDoSnapshot previous = ToDoSnapshot.of(todo);
+
+        if (dto.getTitle() != null && !dto.getTitle().equals(todo.getTitle())) {
+            if (dto.getTitle().isBlank()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Title is required");
+            }
+            todo.setTitle(dto.getTitle());
+            try {
+                todo.setCategory(todoModel.predictClass(dto.getTitle()));
+            } catch (Exception e) {
+                if (todo.getCategory() == null) {
+                    todo.setCategory("work");
+                }
+            }
+        }
+        if (dto.getDescription() != null) {
+            todo.setDescription(dto.getDescription());
+        }
+        if (dto.getFinished() != null) {
+            statusWriteBehind.discard(id);
+            todo.setFinished(dto.getFinished());
+        }
+        if (dto.getDueDate() != null) {
+            todo.setDueDate(dto.getDueDate());
+        }
+        if (dto.getAssigneeIdList() != null && !hasAssigneeIds(todo, dto.getAssigneeIdList())) {
+            assigneeService.validateAssigneeIds(dto.getAssigneeIdList());
+            todo.setAssigneeList(assigneeService.getAssigneesByIds(dto.getAssigneeIdList()));
+        }
+
+        // saved explicitly for repositories without dirty checking, the version check makes concurrent writes fail
+        ToDo saved = toDoRepository.save(todo);
+        eventPublisher.publishEvent(ToDoChangedEvent.updated(previous, saved));
+        return saved;
+    }
+
+    /**
+     * Checks whether a ToDo is assigned to exactly the given Assignees.
+     *
+     * @param todo The ToDo to check
+     * @param assigneeIds The Assignee IDs to compare with
+     * @return true if the ToDo's Assignees match the given IDs, false otherwise
+     */
+    private boolean hasAssigneeIds(ToDo todo, List<Long> assigneeIds) {
+        List<Long> currentIds = todo.getAssigneeList().stream().map(Assignee::getId).toList();
+        return currentIds.size() == assigneeIds.size() && new HashSet<>(currentIds).equals(new HashSet<>(assigneeIds));
+    }
+
+    /**
+     * Accepts a finished-status toggle for a ToDo without a full update.
+     * The toggle is coalesced with other toggles and written asynchronously in a batch.
+     *
+     * @param id The ID of the ToDo to update
+     * @param dto The DTO containing the requested status
+     * @throws ResponseStatusException if the ToDo is not found
+     */
+    public void updateToDoStatus(Long id, ToDoStatusDTO dto) {
+        if (!toDoRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "ToDo not found");
+        }
+        statusWriteBehind.enqueue(id, dto.getFinished());
     }
 
     /**
@@ -124,6 +242,7 @@ public class ToDoService {
      *
      * @return List of all ToDos
      */
+    @Transactional(readOnly = true)
     public List<ToDo> getAllToDos() {
         return toDoRepository.findAll();
     }
@@ -135,6 +254,7 @@ public class ToDoService {
      * @return The requested ToDo
      * @throws ResponseStatusException if the ToDo is not found
      */
+    @Transactional(readOnly = true)
     public ToDo getToDoById(Long id) {
         return toDoRepository.findById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "ToDo not found"));
@@ -146,12 +266,79 @@ public class ToDoService {
      * @param id The ID of the ToDo to delete
      * @throws ResponseStatusException if the ToDo is not found
      */
+    @Transactional
     public void deleteToDo(Long id) {
         ToDo todo = getToDoById(id);
         if (!toDoRepository.existsById(id)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "ToDo not found");
         }
+        ToDoSnapshot previous = ToDoSnapshot.of(todo);
+        statusWriteBehind.discard(id);
         toDoRepository.deleteById(id);
+        eventPublisher.publishEvent(ToDoChangedEvent.deleted(previous));
+    }
+
+    /**
+     * Deletes all ToDos matching the given filter.
+     * The ToDos are deleted in chunks, each in its own transaction, so rows are only locked for the duration
+     * of one chunk. Each chunk locks the matching rows and removes them and their Assignee links with one
+     * statement per table.
+     *
+     * @param category       Only delete ToDos of this category, or null for any category
+     * @param finished       Only delete ToDos with this finished status, or null for any status
+     * @param finishedBefore Only delete ToDos finished before this point in time, or null for any finished date
+     * @return The number of deleted ToDos and chunks
+     * @throws ResponseStatusException if no filter is given
+     */
+    public BulkDeleteResult deleteToDos(String category, Boolean finished, Long finishedBefore) {
+        if (category == null && finished == null && finishedBefore == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one filter is required");
+        }
+        long start = System.currentTimeMillis();
+        long deleted = 0;
+        int chunks = 0;
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            List<Long> ids = transactionTemplate.execute(tx -> deleteChunk(from, category, finished, finishedBefore));
+            if (ids.isEmpty()) {
+                break;
+            }
+            deleted += ids.size();
+            chunks++;
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < bulkDeleteChunkSize) {
+                break;
+            }
+        }
+        return new BulkDeleteResult(deleted, chunks, System.currentTimeMillis() - start);
+    }
+
+    private List<Long> deleteChunk(long afterId, String category, Boolean finished, Long finishedBefore) {
+        List<ToDo> todos = toDoRepository.findForDeletion(afterId, category, finished, finishedBefore,
+            Limit.of(bulkDeleteChunkSize));
+        if (todos.isEmpty()) {
+            return List.of();
+        }
+        List<ToDoSnapshot> previous = todos.stream().map(ToDoSnapshot::of).toList();
+        List<Long> ids = todos.stream().map(ToDo::getId).toList();
+        ids.forEach(statusWriteBehind::discard);
+        toDoRepository.deleteAllByIdIn(ids);
+        // delivered to transactional listeners after the chunk has been committed
+        previous.forEach(snapshot -> eventPublisher.publishEvent(ToDoChangedEvent.deleted(snapshot)));
+        return ids;
+    }
+
+    /**
+     * Retrieves several ToDos with their Assignees in one query.
+     *
+     * @param ids The IDs of the ToDos, at most MultiGetResult.MAX_IDS
+     * @return The found ToDos in request order and the IDs that were not found
+     * @throws ResponseStatusException if no or too many IDs are given
+     */
+    public MultiGetResult<ToDo> getToDosByIds(List<Long> ids) {
+        MultiGetResult.validateIds(ids);
+        return MultiGetResult.of(ids, toDoRepository.findAllWithAssigneesByIdIn(new HashSet<>(ids)), ToDo::getId);
     }
 
     /**
@@ -164,6 +351,123 @@ public class ToDoService {
         return toDoRepository.findByAssigneeListId(assigneeId);
     }
 
+    /**
+     * Retrieves unfinished ToDos whose due date has passed, earliest first.
+     *
+     * @param limit The maximum number of ToDos, between 1 and MAX_DUE_RESULTS
+     * @return List of overdue ToDos
+     * @throws ResponseStatusException if the limit is out of range
+     */
+    public List<ToDo> getOverdueToDos(int limit) {
+        validateDueLimit(limit);
+        return toDoRepository.findOverdue(System.currentTimeMillis(), Limit.of(limit));
+    }
+
+    /**
+     * Retrieves unfinished ToDos that are due within the given time from now, earliest first.
+     *
+     * @param withinMs The length of the window in milliseconds
+     * @param limit    The maximum number of ToDos, between 1 and MAX_DUE_RESULTS
+     * @return List of upcoming ToDos
+     * @throws ResponseStatusException if the window is negative, ends after the largest due date or the limit is
+     *                                 out of range
+     */
+    public List<ToDo> getUpcomingToDos(long withinMs, int limit) {
+        if (withinMs < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Window must not be negative");
+        }
+        validateDueLimit(limit);
+        long now = System.currentTimeMillis();
+        long end;
+        try {
+            end = Math.addExact(now, withinMs);
+        } catch (ArithmeticException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Window is too large");
+        }
+        return toDoRepository.findDueBetween(now, end, Limit.of(limit));
+    }
+
+    /**
+     * Retrieves the unfinished ToDos of an Assignee that are due next, overdue ones first.
+     * ToDos without a due date are left out.
+     *
+     * @param assigneeId The ID of the Assignee
+     * @param limit      The maximum number of ToDos, between 1 and MAX_DUE_RESULTS
+     * @return List of the Assignee's unfinished ToDos ordered by due date
+     * @throws ResponseStatusException if the Assignee is not found or the limit is out of range
+     */
+    public List<ToDo> getNextDueToDos(Long assigneeId, int limit) {
+        validateDueLimit(limit);
+        assigneeService.getAssigneeById(assigneeId);
+        return toDoRepository.findNextDueByAssignee(assigneeId, Limit.of(limit));
+    }
+
+    /**
+     * Retrieves a page of the ToDos of an Assignee, ordered by due date and ID.
+     * Pages are addressed by the position of the last ToDo of the previous page, so each page is one
+     * bounded query regardless of how far into the list it is. ToDos without a due date follow at the end
+     * unless a due date range is given.
+     *
+     * @param assigneeId The ID of the Assignee
+     * @param finished   Only return ToDos with this finished status, or null for any status
+     * @param dueFrom    Only return ToDos due at or after this point in time, or null
+     * @param dueTo      Only return ToDos due before this point in time, or null
+     * @param cursor     The cursor of the previous page, or null for the first page
+     * @param limit      The maximum number of ToDos, between 1 and MAX_DUE_RESULTS
+     * @return The page of ToDos and the cursor of the next page
+     * @throws ResponseStatusException if the Assignee is not found, the cursor is invalid or the limit is out of range
+     */
+    public ToDoPage getToDoPageByAssignee(Long assigneeId, Boolean finished, Long dueFrom, Long dueTo,
+                                          String cursor, int limit) {
+        validateDueLimit(limit);
+        assigneeService.getAssigneeById(assigneeId);
+        boolean includeUndated = dueFrom == null && dueTo == null;
+
+        // the cursor is "<dueDate>:<id>" within the dated ToDos and "null:<id>" within the undated ones
+        Long afterDue = Long.MIN_VALUE;
+        long afterId = 0;
+        boolean undated = false;
+        if (cursor != null) {
+            String[] parts = cursor.split(":", 2);
+            try {
+                if (parts.length != 2) {
+                    throw new NumberFormatException(cursor);
+                }
+                undated = parts[0].equals("null");
+                afterDue = undated ? null : Long.valueOf(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+
+        List<ToDo> items = new ArrayList<>();
+        if (!undated) {
+            items.addAll(toDoRepository.findPageByAssignee(assigneeId, finished,
+                dueFrom == null ? Long.MIN_VALUE : dueFrom, dueTo == null ? Long.MAX_VALUE : dueTo,
+                afterDue, afterId, Limit.of(limit)));
+            afterId = 0;
+        }
+        if (includeUndated && items.size() < limit) {
+            items.addAll(toDoRepository.findUndatedPageByAssignee(assigneeId, finished, afterId,
+                Limit.of(limit - items.size())));
+        }
+
+        String nextCursor = null;
+        if (items.size() == limit) {
+            ToDo last = items.get(items.size() - 1);
+            nextCursor = last.getDueDate() + ":" + last.getId();
+        }
+        return new ToDoPage(items, nextCursor);
+    }
+
+    private static void validateDueLimit(int limit) {
+        if (limit < 1 || limit > MAX_DUE_RESULTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Limit must be between 1 and " + MAX_DUE_RESULTS);
+        }
+    }
+
     /**
      * Exports all ToDos to a CSV file.
      *
@@ -173,6 +477,7 @@ public class ToDoService {
      *
      * @param response The HttpServletResponse to write the CSV data to
      */
+    @Transactional(readOnly = true)
     public void exportToCsv(HttpServletResponse response) {
         response.setContentType("text/csv;charset=UTF-8");
         response.setHeader("Content-Disposition", "attachment; filename=\"todos.csv\"");
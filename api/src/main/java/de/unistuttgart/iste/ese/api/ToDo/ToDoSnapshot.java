@@ -0,0 +1,132 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import de.unistuttgart.iste.ese.api.Assignee.Assignee;
+import java.util.List;
+
+/**
+ * Immutable copy of the state of a ToDo at one point in time.
+ * Carried by ToDoChangedEvents, so listeners can compare the state before and after a change
+ * without touching the (possibly detached) entity.
+ */
+public class ToDoSnapshot {
+
+    private final Long id;
+
+    private final String title;
+
+    private final String description;
+
+    private final boolean finished;
+
+    private final String category;
+
+    private final Long createdDate;
+
+    private final Long dueDate;
+
+    private final Long finishedDate;
+
+    private final List<Long> assigneeIds;
+
+    /**
+     * Creates a new ToDoSnapshot.
+     *
+     * @param id           The ID of the ToDo
+     * @param title        The title of the ToDo
+     * @param description  The description of the ToDo
+     * @param finished     Whether the ToDo is finished
+     * @param category     The category of the ToDo
+     * @param createdDate  The created date of the ToDo
+     * @param dueDate      The due date of the ToDo
+     * @param finishedDate The finished date of the ToDo
+     * @param assigneeIds  The IDs of the ToDo's Assignees
+     */
+    public ToDoSnapshot(Long id, String title, String description, boolean finished, String category,
+                        Long createdDate, Long dueDate, Long finishedDate, List<Long> assigneeIds) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.finished = finished;
+        this.category = category;
+        this.createdDate = createdDate;
+        this.dueDate = dueDate;
+        this.finishedDate = finishedDate;
+        this.assigneeIds = List.copyOf(assigneeIds);
+    }
+
+    /**
+     * Takes a snapshot of the current state of a ToDo.
+     * Must be called while the ToDo's Assignee list can still be loaded.
+     *
+     * @param todo The ToDo to copy
+     * @return The snapshot
+     */
+    public static ToDoSnapshot of(ToDo todo) {
+        return new ToDoSnapshot(todo.getId(), todo.getTitle(), todo.getDescription(), todo.isFinished(),
+            todo.getCategory(), todo.getCreatedDate(), todo.getDueDate(), todo.getFinishedDate(),
+            todo.getAssigneeList().stream().map(Assignee::getId).toList());
+    }
+
+    /**
+     * Gets the ID of the ToDo.
+     *
+     * @return The ToDo's ID
+     */
+    public Long getId() { return id; }
+
+    /**
+     * Gets the title of the ToDo.
+     *
+     * @return The ToDo's title
+     */
+    public String getTitle() { return title; }
+
+    /**
+     * Gets the description of the ToDo.
+     *
+     * @return The ToDo's description
+     */
+    public String getDescription() { return description; }
+
+    /**
+     * Checks if the ToDo is finished.
+     *
+     * @return true if the ToDo is finished, false otherwise
+     */
+    public boolean isFinished() { return finished; }
+
+    /**
+     * Gets the category of the ToDo.
+     *
+     * @return The ToDo's category
+     */
+    public String getCategory() { return category; }
+
+    /**
+     * Gets the created date of the ToDo.
+     *
+     * @return The ToDo's created date
+     */
+    public Long getCreatedDate() { return createdDate; }
+
+    /**
+     * Gets the due date of the ToDo.
+     *
+     * @return The ToDo's due date
+     */
+    public Long getDueDate() { return dueDate; }
+
+    /**
+     * Gets the finished date of the ToDo.
+     *
+     * @return The ToDo's finished date
+     */
+    public Long getFinishedDate() { return finishedDate; }
+
+    /**
+     * Gets the IDs of the ToDo's Assignees.
+     *
+     * @return The Assignee IDs
+     */
+    public List<Long> getAssigneeIds() { return assigneeIds; }
+}
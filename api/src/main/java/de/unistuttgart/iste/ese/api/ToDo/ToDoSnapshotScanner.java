@@ -0,0 +1,84 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import de.unistuttgart.iste.ese.api.ReadReplica.ReplicaDataSource;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Streams snapshots of all ToDos in one pass over the table, or loads those of a few ToDos.
+ * Used to rebuild in-memory state (e.g. statistics) from the database without loading every ToDo at once.
+ */
+@Component
+public class ToDoSnapshotScanner {
+    // entities are detached after this many rows to keep the persistence context small
+    private static final int CLEAR_INTERVAL = 500;
+
+    private final ToDoRepository toDoRepository;
+
+    // null with the embedded store, which does not keep loaded entities
+    private final EntityManager entityManager;
+
+    /**
+     * Creates a new ToDoSnapshotScanner.
+     *
+     * @param toDoRepository The repository to stream the ToDos from
+     * @param entityManager  The shared EntityManager, if JPA is used
+     */
+    public ToDoSnapshotScanner(ToDoRepository toDoRepository, ObjectProvider<EntityManager> entityManager) {
+        this.toDoRepository = toDoRepository;
+        this.entityManager = entityManager.getIfAvailable();
+    }
+
+    /**
+     * Passes a snapshot of every ToDo to the given consumer, ordered by ID. Always reads from the primary.
+     *
+     * @param consumer The consumer receiving the snapshots
+     * @return The number of ToDos scanned
+     */
+    @Transactional(readOnly = true)
+    public long scan(Consumer<ToDoSnapshot> consumer) {
+        // state rebuilt from a lagging read replica would miss the latest changes for good
+        return ReplicaDataSource.onPrimary(() -> {
+            long count = 0;
+            try (Stream<ToDo> todos = toDoRepository.streamAll()) {
+                for (ToDo todo : (Iterable<ToDo>) todos::iterator) {
+                    consumer.accept(ToDoSnapshot.of(todo));
+                    if (++count % CLEAR_INTERVAL == 0 && entityManager != null) {
+                        entityManager.clear();
+                    }
+                }
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Loads snapshots of the given ToDos. Always reads from the primary and bypasses the second-level cache.
+     *
+     * @param ids The IDs of the ToDos
+     * @return The snapshots by ID, with null for the IDs of ToDos that do not exist
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ToDoSnapshot> load(Collection<Long> ids) {
+        if (entityManager != null) {
+            // a reload racing with a concurrent delete must not put the stale row back into the cache
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        }
+        return ReplicaDataSource.onPrimary(() -> {
+            Map<Long, ToDoSnapshot> snapshots = new HashMap<>();
+            ids.forEach(id -> snapshots.put(id, null));
+            toDoRepository.findAllById(ids).forEach(todo -> snapshots.put(todo.getId(), ToDoSnapshot.of(todo)));
+            return snapshots;
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Data Transfer Object for lightweight status updates of a ToDo.
+ * Only carries the finished flag.
+ */
+public class ToDoStatusDTO {
+
+    @NotNull(message = "Finished is required")
+    private Boolean finished;
+
+    /**
+     * Default constructor.
+     */
+    public ToDoStatusDTO() {}
+
+    /**
+     * Gets the requested finished status.
+     *
+     * @return The finished status
+     */
+    public Boolean getFinished() {
+        return finished;
+    }
+    /**
+     * Sets the requested finished status.
+     *
+     * @param finished The finished status to set
+     */
+    public void setFinished(Boolean finished) {
+        this.finished = finished;
+    }
+}
@@ -0,0 +1,289 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for finished-status toggles.
+ *
+ * Toggles are coalesced in memory per ToDo ID (the last requested status wins) and written in batched
+ * transactions, either every flush interval or as soon as the batch size is reached.
+ *
+ * Guarantees:
+ * - Ordering: toggles of the same ToDo are applied in the order they were accepted; only the final status is written.
+ * - finishedDate: set to the time of the first accepted "finished" toggle, exactly as ToDo.setFinished would have done.
+ * - Durability: a toggle is durable once its batch is committed. Pending toggles are flushed on a regular shutdown,
+ *   but toggles accepted within the last flush interval are lost if the process crashes.
+ * - A full update or delete of a ToDo discards its pending toggle, so the later write wins. This also holds for
+ *   toggles of a batch that is being written: each toggle carries a generation, and a toggle is only written or
+ *   retried while its generation is still the one in flight.
+ * - A batch that fails is retried row by row. Rows that conflict with a newer write or were deleted are skipped,
+ *   rows that fail for other reasons (e.g. the database is down) are queued again for the next flush.
+ */
+@Component
+public class ToDoStatusWriteBehind {
+    private static final Log LOG = LogFactory.getLog(ToDoStatusWriteBehind.class);
+
+    private final ToDoRepository toDoRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int batchSize;
+
+    private final Map<Long, PendingStatus> pending = new ConcurrentHashMap<>();
+
+    // generation of each toggle that has been drained and is being written, removed by discard
+    private final Map<Long, Long> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong generations = new AtomicLong();
+
+    // serializes discards with draining and re-queueing, so a discarded toggle cannot come back
+    private final Object queueLock = new Object();
+
+    private final Object flushLock = new Object();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "todo-status-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter acceptedCounter;
+
+    private final Counter writtenCounter;
+
+    private final Counter skippedCounter;
+
+    private final Timer flushTimer;
+
+    /**
+     * Creates a new ToDoStatusWriteBehind.
+     *
+     * @param toDoRepository      The repository the toggles are written to
+     * @param transactionTemplate The template used to run each batch in its own transaction
+     * @param eventPublisher      The publisher for ToDoChangedEvents of written ToDos
+     * @param meterRegistry       The registry to publish throughput metrics to
+     * @param batchSize           The maximum number of ToDos written per transaction
+     */
+    public ToDoStatusWriteBehind(ToDoRepository toDoRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${api.todos.status-flush-batch-size:500}") int batchSize) {
+        this.toDoRepository = toDoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.acceptedCounter = meterRegistry.counter("api.todos.status.toggles", "result", "accepted");
+        this.writtenCounter = meterRegistry.counter("api.todos.status.toggles", "result", "written");
+        this.skippedCounter = meterRegistry.counter("api.todos.status.toggles", "result", "skipped");
+        this.flushTimer = meterRegistry.timer("api.todos.status.flush");
+        Gauge.builder("api.todos.status.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Accepts a status toggle for a ToDo. It is written with the next batch.
+     * Triggers an early flush once the configured batch size is pending.
+     *
+     * @param id       The ID of the ToDo
+     * @param finished The requested finished status
+     */
+    public void enqueue(Long id, boolean finished) {
+        Long finishedAt = finished ? System.currentTimeMillis() : null;
+        acceptedCounter.increment();
+        // the last status wins, but the time of the first "finished" toggle is kept for the finishedDate
+        pending.merge(id, new PendingStatus(finished, finishedAt, generations.incrementAndGet()),
+            (previous, current) -> previous.firstFinishedAt != null
+                ? new PendingStatus(current.finished, previous.firstFinishedAt, current.generation)
+                : current);
+        if (pending.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * Discards a pending toggle, e.g. because the ToDo was fully updated or deleted afterwards.
+     * A toggle of the batch being written is discarded as well, so it is neither written nor retried.
+     *
+     * @param id The ID of the ToDo
+     */
+    public void discard(Long id) {
+        synchronized (queueLock) {
+            inFlight.remove(id);
+            pending.remove(id);
+        }
+    }
+
+    /**
+     * Checks whether a toggle of a ToDo is waiting to be written.
+     *
+     * @param id The ID of the ToDo
+     * @return true if a toggle is pending
+     */
+    public boolean isPending(Long id) {
+        return pending.containsKey(id);
+    }
+
+    /**
+     * Writes all pending toggles in batches of at most the configured batch size.
+     * Stops at the first batch with toggles that have to be retried, they are written with the next flush.
+     */
+    @Scheduled(fixedDelayString = "${api.todos.status-flush-interval-ms:200}")
+    public void flush() {
+        synchronized (flushLock) {
+            boolean retry = false;
+            while (!retry && !pending.isEmpty()) {
+                Map<Long, PendingStatus> batch = drainBatch();
+                retry = flushTimer.record(() -> writeBatch(batch));
+            }
+        }
+    }
+
+    /**
+     * Flushes the remaining toggles on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    private Map<Long, PendingStatus> drainBatch() {
+        Map<Long, PendingStatus> batch = new HashMap<>();
+        synchronized (queueLock) {
+            Iterator<Long> ids = pending.keySet().iterator();
+            while (ids.hasNext() && batch.size() < batchSize) {
+                Long id = ids.next();
+                PendingStatus status = pending.remove(id);
+                if (status != null) {
+                    batch.put(id, status);
+                    inFlight.put(id, status.generation);
+                }
+            }
+        }
+        return batch;
+    }
+
+    private boolean writeBatch(Map<Long, PendingStatus> batch) {
+        try {
+            writtenCounter.increment(write(batch));
+            return false;
+        } catch (RuntimeException e) {
+            LOG.warn("Could not write " + batch.size() + " ToDo status toggles in one batch, writing them one by one", e);
+            boolean retry = false;
+            for (Map.Entry<Long, PendingStatus> entry : batch.entrySet()) {
+                retry |= !writeRow(entry.getKey(), entry.getValue());
+            }
+            return retry;
+        } finally {
+            batch.forEach((id, status) -> inFlight.remove(id, status.generation));
+        }
+    }
+
+    private boolean writeRow(Long id, PendingStatus status) {
+        try {
+            writtenCounter.increment(write(Map.of(id, status)));
+        } catch (OptimisticLockingFailureException e) {
+            // the ToDo was changed or deleted by a newer write, which wins
+            LOG.warn("Skipping status toggle of ToDo " + id + ", it was changed concurrently");
+            skippedCounter.increment();
+        } catch (RuntimeException e) {
+            LOG.error("Could not write status toggle of ToDo " + id + ", retrying with the next flush", e);
+            requeue(id, status);
+            return false;
+        }
+        return true;
+    }
+
+    private int write(Map<Long, PendingStatus> batch) {
+        Integer written = transactionTemplate.execute(tx -> {
+            int count = 0;
+            for (ToDo todo : toDoRepository.findAllById(batch.keySet())) {
+                PendingStatus status = batch.get(todo.getId());
+                if (!isCurrent(todo.getId(), status)) {
+                    // discarded by a newer write since the batch was drained
+                    continue;
+                }
+                ToDoSnapshot previous = ToDoSnapshot.of(todo);
+                status.applyTo(todo);
+                toDoRepository.save(todo);
+                // delivered to transactional listeners after the batch has been committed
+                eventPublisher.publishEvent(ToDoChangedEvent.updated(previous, todo));
+                count++;
+            }
+            return count;
+        });
+        int skipped = batch.size() - written;
+        if (skipped > 0) {
+            LOG.debug("Skipped " + skipped + " status toggles of deleted or updated ToDos");
+            skippedCounter.increment(skipped);
+        }
+        return written;
+    }
+
+    private boolean isCurrent(Long id, PendingStatus status) {
+        return Long.valueOf(status.generation).equals(inFlight.get(id));
+    }
+
+    private void requeue(Long id, PendingStatus status) {
+        synchronized (queueLock) {
+            // not if a newer write discarded it, and newer toggles accepted in the meantime win over it
+            if (isCurrent(id, status)) {
+                pending.putIfAbsent(id, status);
+            }
+        }
+    }
+
+    /**
+     * A coalesced status toggle that has not been written yet.
+     */
+    private static final class PendingStatus {
+        private final boolean finished;
+
+        private final Long firstFinishedAt;
+
+        private final long generation;
+
+        private PendingStatus(boolean finished, Long firstFinishedAt, long generation) {
+            this.finished = finished;
+            this.firstFinishedAt = firstFinishedAt;
+            this.generation = generation;
+        }
+
+        private void applyTo(ToDo todo) {
+            if (firstFinishedAt != null && todo.getFinishedDate() == null) {
+                // finished at some point in this batch: record when, as ToDo.setFinished would have
+                todo.setFinished(true);
+                todo.setFinishedDate(firstFinishedAt);
+            }
+            todo.setFinished(finished);
+        }
+    }
+}
@@ -1,68 +1,373 @@
 package de.unistuttgart.iste.ese.api.ToDo;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.xml.bind.JAXBException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.jpmml.evaluator.Evaluator;
 import org.jpmml.evaluator.LoadingModelEvaluatorBuilder;
-import org.jpmml.evaluator.OutputField;
-import org.jpmml.evaluator.TargetField;
 import org.xml.sax.SAXException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 /**
  * A class for loading and using a PMML-based Todo classification model.
+ *
+ * Besides the model bundled with the application, models can be loaded from the PMML files of a configurable
+ * directory at runtime. The active model is held in an AtomicReference and swapped atomically: a prediction uses
+ * the model that was active when it started, so requests never wait for a swap. Optionally a second model runs in
+ * shadow: it classifies the same titles on a background thread, and its latency and its disagreements with the
+ * active model are published as metrics, while its predictions are never returned.
  */
 @Component
 public class TodoModel {
     private static final Log LOG = LogFactory.getLog(TodoModel.class);
-    private Evaluator evaluator;
 
     /**
-     * Constructs a TodoModel with the specified PMML model file path.
+     * Name of the model shipped with the application as classpath resource model.pmml.
      */
-    public TodoModel() {
-        loadModel();
+    public static final String BUNDLED = "bundled";
+
+    /**
+     * Maximum number of texts per call of classify().
+     */
+    public static final int MAX_CLASSIFY_BATCH = 10_000;
+
+    private static final Pattern MODEL_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+
+    private final AtomicReference<LoadedModel> active = new AtomicReference<>();
+
+    private final AtomicReference<LoadedModel> shadow = new AtomicReference<>();
+
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final Path directory;
+
+    private final String initialModel;
+
+    private final String initialShadowModel;
+
+    private final Counter shadowDroppedCounter;
+
+    private final ThreadPoolExecutor shadowExecutor;
+
+    /**
+     * Constructs a TodoModel.
+     * The model is loaded in the background after construction, see startLoading().
+     *
+     * @param meterRegistry      The registry to publish prediction latencies and shadow disagreements to
+     * @param directory          The directory to load models from, empty to only use the bundled model
+     * @param initialModel       The name of the model activated on startup
+     * @param initialShadowModel The name of the model run in shadow from startup, empty for none
+     * @param shadowQueueSize    The maximum number of titles waiting for the shadow model before they are dropped
+     */
+    public TodoModel(MeterRegistry meterRegistry,
+                     @Value("${api.model.directory:}") String directory,
+                     @Value("${api.model.active:bundled}") String initialModel,
+                     @Value("${api.model.shadow:}") String initialShadowModel,
+                     @Value("${api.model.shadow-queue-size:1000}") int shadowQueueSize) {
+        this.meterRegistry = meterRegistry;
+        this.directory = directory.isBlank() ? null : Path.of(directory).toAbsolutePath().normalize();
+        this.initialModel = initialModel;
+        this.initialShadowModel = initialShadowModel;
+        this.shadowDroppedCounter = meterRegistry.counter("api.model.shadow.dropped");
+        // a single thread, so a slow shadow model never takes more than one core from the requests
+        this.shadowExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(shadowQueueSize),
+            runnable -> {
+                Thread thread = new Thread(runnable, "todo-model-shadow");
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, executor) -> shadowDroppedCounter.increment());
+    }
+
+    /**
+     * Starts loading the model in a background thread, so parsing the PMML file does not delay the startup
+     * of the application context. Predictions requested before the model is loaded wait for it.
+     */
+    @PostConstruct
+    public void startLoading() {
+        Thread loader = new Thread(this::loadModel, "todo-model-loader");
+        loader.setDaemon(true);
+        loader.start();
     }
 
     /**
-     * Loads the PMML model from the specified file path and initializes the model
-     * evaluator.
-     * If the loading process encounters any exceptions, the evaluator is set to
-     * null.
+     * Stops the shadow evaluation.
+     */
+    @PreDestroy
+    public void shutdown() {
+        shadowExecutor.shutdownNow();
+    }
+
+    /**
+     * Whether the first attempt to load the model has finished, successfully or not.
+     *
+     * @return true once the model has been loaded or failed to load
+     */
+    public boolean isLoaded() {
+        return loaded.isDone();
+    }
+
+    /**
+     * Whether a model is loaded and predictions use it.
+     *
+     * @return true if the model is loaded
+     */
+    public boolean isAvailable() {
+        return active.get() != null;
+    }
+
+    /**
+     * Loads the configured active and shadow models.
+     * If the active model cannot be loaded, no model is active and ToDos are classified as "unknown".
      */
     public void loadModel() {
+        try {
+            try {
+                active.set(load(initialModel));
+            } catch (IllegalArgumentException e) {
+                LOG.error("Could not load AI model:", e);
+                active.set(null);
+            }
+            if (!initialShadowModel.isBlank()) {
+                try {
+                    shadow.set(load(initialShadowModel));
+                } catch (IllegalArgumentException e) {
+                    LOG.error("Could not load AI shadow model:", e);
+                }
+            }
+        } finally {
+            loaded.complete(null);
+        }
+    }
+
+    /**
+     * Unloads the active and shadow models, releasing resources.
+     */
+    public void unloadModel() {
+        active.set(null);
+        shadow.set(null);
+    }
+
+    /**
+     * Loads a model and makes it the active model. Predictions in progress finish with the previous model.
+     *
+     * @param name The name of the model
+     * @return The loaded model
+     * @throws IllegalArgumentException if the model does not exist or cannot be loaded
+     */
+    public ModelInfo activate(String name) {
+        LoadedModel model = load(name);
+        active.set(model);
+        LOG.info("Activated AI model " + name);
+        return model.getInfo();
+    }
+
+    /**
+     * Loads a model and evaluates it in shadow of the active model, replacing the previous shadow model.
+     *
+     * @param name The name of the model
+     * @return The loaded model
+     * @throws IllegalArgumentException if the model does not exist or cannot be loaded
+     */
+    public ModelInfo startShadow(String name) {
+        LoadedModel model = load(name);
+        shadow.set(model);
+        LOG.info("Evaluating AI model " + name + " in shadow");
+        return model.getInfo();
+    }
+
+    /**
+     * Stops evaluating the shadow model.
+     *
+     * @return true if a model was running in shadow
+     */
+    public boolean stopShadow() {
+        return shadow.getAndSet(null) != null;
+    }
+
+    /**
+     * Makes the shadow model the active model without loading it again.
+     *
+     * @return The promoted model
+     * @throws IllegalArgumentException if no model is running in shadow
+     */
+    public ModelInfo promoteShadow() {
+        LoadedModel model = shadow.getAndSet(null);
+        if (model == null) {
+            throw new IllegalArgumentException("No model is running in shadow");
+        }
+        active.set(model);
+        LOG.info("Promoted AI shadow model " + model.getInfo().getName());
+        return model.getInfo();
+    }
+
+    /**
+     * Gets the models available and in use, and the shadow evaluation counts of the current shadow model.
+     *
+     * @return The model status
+     */
+    public ModelStatus getStatus() {
+        LoadedModel activeModel = active.get();
+        LoadedModel shadowModel = shadow.get();
+        return new ModelStatus(
+            directory == null ? null : directory.toString(),
+            getAvailableModels(),
+            activeModel == null ? null : activeModel.getInfo(),
+            shadowModel == null ? null : shadowModel.getInfo(),
+            shadowModel == null ? 0 : (long) shadowModel.getAgreeCounter().count(),
+            shadowModel == null ? 0 : (long) shadowModel.getDisagreeCounter().count(),
+            (long) shadowDroppedCounter.count());
+    }
+
+    /**
+     * Gets the names of the models that can be loaded: the bundled model and the PMML files of the directory.
+     *
+     * @return The model names
+     */
+    public List<String> getAvailableModels() {
+        List<String> names = new ArrayList<>();
+        names.add(BUNDLED);
+        if (directory == null) {
+            return names;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                .filter(file -> file.endsWith(".pmml"))
+                .map(file -> file.substring(0, file.length() - ".pmml".length()))
+                .filter(name -> MODEL_NAME.matcher(name).matches() && !name.equals(BUNDLED))
+                .sorted()
+                .forEach(names::add);
+        } catch (IOException e) {
+            LOG.warn("Could not list the AI models in " + directory, e);
+        }
+        return names;
+    }
+
+    private LoadedModel load(String name) {
+        if (!MODEL_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid model name: " + name);
+        }
+        long start = System.currentTimeMillis();
+        String source;
+        Evaluator evaluator;
         // Building a model evaluator from a PMML file
         try {
-            this.evaluator = new LoadingModelEvaluatorBuilder()
-                .load(getClass().getClassLoader().getResourceAsStream("model.pmml"))
-                .build();
-        } catch (ParserConfigurationException | SAXException | JAXBException e) {
-            LOG.error("Could not load AI model:", e);
-            this.evaluator = null;
+            if (name.equals(BUNDLED)) {
+                source = "classpath:model.pmml";
+                try (InputStream in = getClass().getClassLoader().getResourceAsStream("model.pmml")) {
+                    evaluator = new LoadingModelEvaluatorBuilder().load(in).build();
+                }
+            } else {
+                if (directory == null) {
+                    throw new IllegalArgumentException("No model directory is configured");
+                }
+                Path file = directory.resolve(name + ".pmml");
+                if (!Files.isRegularFile(file)) {
+                    throw new IllegalArgumentException("Model not found: " + name);
+                }
+                source = file.toString();
+                evaluator = new LoadingModelEvaluatorBuilder().load(file.toFile()).build();
+            }
+            evaluator.verify();
+        } catch (IOException | ParserConfigurationException | SAXException | JAXBException e) {
+            throw new IllegalArgumentException("Could not load model " + name + ": " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalArgumentException) {
+                throw e;
+            }
+            // the JPMML evaluator reports unsupported or invalid model content with runtime exceptions
+            throw new IllegalArgumentException("Could not load model " + name + ": " + e.getMessage(), e);
         }
+        long loadMs = System.currentTimeMillis() - start;
+        LoadedModel model = new LoadedModel(evaluator, name, source, loadMs, meterRegistry);
+        LOG.info("Loaded AI model " + name + " in " + loadMs + " ms");
+        return model;
+    }
+
+    /**
+     * Classifies a text with a model and records the latency.
+     *
+     * @param model       The model to classify with
+     * @param inputString The input text to be classified
+     * @param shadowRun   Whether the model runs in shadow
+     * @return The predicted class/category
+     */
+    private String evaluate(LoadedModel model, String inputString, boolean shadowRun) {
+        // Prepare the input data
+        Map<String, Object> input = new HashMap<>();
+        input.put("text", inputString);
+
+        // Predict class and parse results
+        return model.getPredictedLabel(evaluate(model, input, shadowRun));
     }
 
     /**
-     * Parses the model's output to retrieve the predicted class/category.
+     * Evaluates a model on prepared input data and records the latency.
      *
-     * @param results The results obtained from evaluating the model on input data.
-     * @return The predicted class/category based on the model's output.
+     * @param model     The model to evaluate
+     * @param input     The input data
+     * @param shadowRun Whether the model runs in shadow
+     * @return The results of the model
      */
-    private String parseModelOutput(Map<String, ?> results) {
-        // Primary result (y) field(s)
-        List<TargetField> targetFields = this.evaluator.getTargetFields();
-        // Secondary result (eg. probability(y), decision(y)) fields
-        List<OutputField> outputFields = this.evaluator.getOutputFields();
+    private Map<String, ?> evaluate(LoadedModel model, Map<String, ?> input, boolean shadowRun) {
+        long start = System.nanoTime();
+        Map<String, ?> results = model.getEvaluator().evaluate(input);
+        (shadowRun ? model.getShadowTimer() : model.getActiveTimer())
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return results;
+    }
 
-        int predictedLabelIndex = Integer.parseInt(results.get(outputFields.get(2).getName()).toString());
-        String[] targetLabels = targetFields.get(0).getName().replaceAll("[\\['\\]]", "").split(" ");
-        return targetLabels[predictedLabelIndex];
+    /**
+     * Classifies a text with the shadow model, if any, on the shadow thread and counts whether it agrees with
+     * the prediction of the active model. Titles are dropped if the shadow model falls behind.
+     *
+     * @param inputString The input text that was classified
+     * @param activeClass The class predicted by the active model
+     */
+    private void submitShadow(String inputString, String activeClass) {
+        LoadedModel model = shadow.get();
+        if (model == null) {
+            return;
+        }
+        shadowExecutor.execute(() -> {
+            try {
+                String shadowClass = evaluate(model, inputString, true);
+                (shadowClass.equals(activeClass) ? model.getAgreeCounter() : model.getDisagreeCounter()).increment();
+            } catch (RuntimeException e) {
+                LOG.warn("AI shadow model " + model.getInfo().getName() + " failed to classify a title", e);
+            }
+        });
     }
 
     /**
@@ -72,25 +377,80 @@ public class TodoModel {
      * @return The predicted class/category for the input text.
      */
     public String predictClass(String inputString) {
-        if (evaluator == null) {
+        loaded.join();
+        LoadedModel model = active.get();
+        if (model == null) {
             LOG.warn("Cannot predict class without a loaded model");
             return "unknown";
         }
+        String category = evaluate(model, inputString, false);
+        submitShadow(inputString, category);
+        return category;
+    }
 
-        // Prepare the input data
-        Map<String, Object> input = new HashMap<>();
-        input.put("text", inputString);
-
-        // Predict class and parse results
-        Map<String, ?> results = this.evaluator.evaluate(input);
-
-        return parseModelOutput(results);
+    /**
+     * Classifies a batch of texts with the active model and returns the category and the class probabilities of
+     * each. The texts are evaluated one after another by the shared evaluator, reusing one input map for the
+     * whole batch; a text repeated within the batch is only evaluated once. Unlike predictions for ToDos,
+     * these texts are not passed to the shadow model.
+     *
+     * @param texts The texts to classify, at most MAX_CLASSIFY_BATCH
+     * @return The classification of each text in input order
+     * @throws IllegalArgumentException if the batch is too large or contains null
+     * @throws ResponseStatusException with status 503 if no model is loaded
+     */
+    public ClassificationBatch classify(List<String> texts) {
+        if (texts.size() > MAX_CLASSIFY_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_CLASSIFY_BATCH + " texts can be classified at once");
+        }
+        loaded.join();
+        LoadedModel model = active.get();
+        if (model == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "No AI model is loaded");
+        }
+        long start = System.nanoTime();
+        // the evaluator copies what it needs from the input, so one map serves the whole batch
+        Map<String, Object> input = new HashMap<>(2);
+        Map<String, Classification> classified = new HashMap<>();
+        List<Classification> classifications = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            if (text == null) {
+                throw new IllegalArgumentException("Texts must not be null");
+            }
+            Classification classification = classified.get(text);
+            if (classification == null) {
+                input.put("text", text);
+                Map<String, ?> results = evaluate(model, input, false);
+                classification = new Classification(model.getPredictedLabel(results), model.getProbabilities(results));
+                classified.put(text, classification);
+            }
+            classifications.add(classification);
+        }
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new ClassificationBatch(model.getInfo().getName(), classifications, durationMs);
     }
 
     /**
-     * Unloads the loaded PMML model, releasing resources.
+     * Predicts the classes/categories of several input texts at once.
+     * Each distinct text is evaluated only once, and the evaluations run in parallel.
+     * All texts are classified by the same model, even if the active model is swapped meanwhile.
+     *
+     * @param inputStrings The input texts to be classified.
+     * @return The predicted class/category for each input text, in input order.
      */
-    public void unloadModel() {
-        this.evaluator = null;
+    public List<String> predictClasses(List<String> inputStrings) {
+        loaded.join();
+        LoadedModel model = active.get();
+        if (model == null) {
+            LOG.warn("Cannot predict classes without a loaded model");
+            return Collections.nCopies(inputStrings.size(), "unknown");
+        }
+        Map<String, String> classes = new LinkedHashSet<>(inputStrings).parallelStream()
+            .collect(Collectors.toConcurrentMap(Function.identity(), text -> {
+                String category = evaluate(model, text, false);
+                submitShadow(text, category);
+                return category;
+            }));
+        return inputStrings.stream().map(classes::get).toList();
     }
 }
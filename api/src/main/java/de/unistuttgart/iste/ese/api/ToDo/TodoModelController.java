@@ -0,0 +1,94 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import de.unistuttgart.iste.ese.api.ApiVersion1;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller for classifying texts with the AI model and managing the models at runtime.
+ */
+@RestController
+@ApiVersion1
+public class TodoModelController {
+
+    @Autowired
+    private TodoModel todoModel;
+
+    /**
+     * Classifies texts with the active model, e.g. the titles of another service's items.
+     *
+     * @param texts The texts to classify as JSON array, at most 10,000
+     * @return ResponseEntity containing the category and class probabilities of each text in request order
+     */
+    @PostMapping("/classify")
+    public ResponseEntity<ClassificationBatch> classify(@RequestBody List<String> texts) {
+        return ResponseEntity.ok(todoModel.classify(texts));
+    }
+
+    /**
+     * Retrieves the available models, the active and the shadow model, and the shadow evaluation counts.
+     *
+     * @return ResponseEntity containing the model status
+     */
+    @GetMapping("/models")
+    public ResponseEntity<ModelStatus> getModelStatus() {
+        return ResponseEntity.ok(todoModel.getStatus());
+    }
+
+    /**
+     * Loads a model from the model directory and makes it the active model.
+     *
+     * @param name The name of the model, i.e. its file name without ".pmml", or "bundled"
+     * @return ResponseEntity containing the activated model
+     */
+    @PutMapping("/models/active")
+    public ResponseEntity<ModelInfo> activateModel(@RequestParam String name) {
+        return ResponseEntity.ok(todoModel.activate(name));
+    }
+
+    /**
+     * Loads a model from the model directory and evaluates it in shadow of the active model.
+     *
+     * @param name The name of the model, i.e. its file name without ".pmml", or "bundled"
+     * @return ResponseEntity containing the shadow model
+     */
+    @PutMapping("/models/shadow")
+    public ResponseEntity<ModelInfo> startShadowModel(@RequestParam String name) {
+        return ResponseEntity.ok(todoModel.startShadow(name));
+    }
+
+    /**
+     * Stops evaluating the shadow model.
+     *
+     * @return ResponseEntity with NO_CONTENT status, or NOT_FOUND if no model runs in shadow
+     */
+    @DeleteMapping("/models/shadow")
+    public ResponseEntity<Void> stopShadowModel() {
+        return todoModel.stopShadow() ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Makes the shadow model the active model.
+     *
+     * @return ResponseEntity containing the new active model
+     */
+    @PostMapping("/models/shadow/promote")
+    public ResponseEntity<ModelInfo> promoteShadowModel() {
+        return ResponseEntity.ok(todoModel.promoteShadow());
+    }
+
+    /**
+     * Handles IllegalArgumentException and returns a 400 status.
+     *
+     * @param ex The IllegalArgumentException that was thrown
+     * @return ResponseEntity with BAD_REQUEST status and error message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+}
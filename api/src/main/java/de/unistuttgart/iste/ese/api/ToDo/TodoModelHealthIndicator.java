@@ -0,0 +1,38 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health indicator reporting whether the AI model has been loaded.
+ * Part of the readiness group, so an instance only receives traffic once ToDos can be classified.
+ * A model that failed to load does not block readiness, as ToDos are then created with the category "unknown".
+ */
+@Component
+public class TodoModelHealthIndicator implements HealthIndicator {
+
+    private final TodoModel todoModel;
+
+    /**
+     * Creates a new TodoModelHealthIndicator.
+     *
+     * @param todoModel The model whose loading state is reported
+     */
+    public TodoModelHealthIndicator(TodoModel todoModel) {
+        this.todoModel = todoModel;
+    }
+
+    /**
+     * Reports OUT_OF_SERVICE while the model is loading and UP afterwards.
+     *
+     * @return The health of the model
+     */
+    @Override
+    public Health health() {
+        if (!todoModel.isLoaded()) {
+            return Health.outOfService().withDetail("model", "loading").build();
+        }
+        return Health.up().withDetail("model", todoModel.isAvailable() ? "loaded" : "unavailable").build();
+    }
+}
@@ -0,0 +1,32 @@
+-- Schema as previously created by Hibernate (ddl-auto = create), H2 dialect of mariadb/V1__create_schema.sql.
+create table assignees (
+    id bigint generated by default as identity,
+    version bigint default 0 not null,
+    name varchar(40) not null,
+    prename varchar(40) not null,
+    email varchar(255),
+    primary key (id)
+);
+
+create table todos (
+    finished boolean not null,
+    created_date bigint,
+    due_date bigint,
+    finished_date bigint,
+    id bigint generated by default as identity,
+    version bigint default 0 not null,
+    title varchar(100) not null,
+    category varchar(255),
+    description varchar(255),
+    primary key (id)
+);
+
+create table todos_assignee_list (
+    assignee_list_id bigint not null,
+    todos_id bigint not null
+);
+
+alter table todos_assignee_list
+    add constraint FK1i0j8lsrv63pbj8c2hxdpqxww foreign key (assignee_list_id) references assignees (id);
+alter table todos_assignee_list
+    add constraint FKt0g7q6a5efwud8lllxwdqcb2w foreign key (todos_id) references todos (id);
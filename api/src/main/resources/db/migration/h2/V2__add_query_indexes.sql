@@ -0,0 +1,5 @@
+-- H2 dialect of mariadb/V2__add_query_indexes.sql. H2 has no online index options.
+create index if not exists idx_todos_finished_due_date on todos (finished, due_date);
+create index if not exists idx_todos_category_finished on todos (category, finished);
+create index if not exists idx_todos_assignee_list_assignee on todos_assignee_list (assignee_list_id, todos_id);
+create index if not exists idx_assignees_name on assignees (name);
@@ -0,0 +1,16 @@
+-- H2 dialect of mariadb/V3__create_archived_todos.sql.
+create table archived_todos (
+    id bigint not null,
+    title varchar(100) not null,
+    description varchar(255),
+    category varchar(255),
+    created_date bigint,
+    due_date bigint,
+    finished_date bigint,
+    archived_date bigint not null,
+    assignee_ids varchar(1000),
+    assignee_names varchar(2000),
+    primary key (id)
+);
+
+create index if not exists idx_todos_finished_finished_date on todos (finished, finished_date);
@@ -0,0 +1,2 @@
+-- H2 dialect of mariadb/V4__add_due_date_index.sql.
+create index if not exists idx_todos_due_date on todos (due_date);
@@ -0,0 +1,11 @@
+-- H2 dialect of mariadb/V5__create_cache_invalidations.sql.
+create table cache_invalidations (
+    id bigint generated by default as identity,
+    node varchar(36) not null,
+    entity varchar(16) not null,
+    entity_id bigint,
+    created_at bigint not null,
+    primary key (id)
+);
+
+create index idx_cache_invalidations_created_at on cache_invalidations (created_at);
@@ -0,0 +1,33 @@
+-- Schema as previously created by Hibernate (ddl-auto = update).
+-- Existing databases are baselined at this version, so this script only runs on empty databases.
+create table assignees (
+    id bigint not null auto_increment,
+    version bigint not null default 0,
+    name varchar(40) not null,
+    prename varchar(40) not null,
+    email varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table todos (
+    finished bit not null,
+    created_date bigint,
+    due_date bigint,
+    finished_date bigint,
+    id bigint not null auto_increment,
+    version bigint not null default 0,
+    title varchar(100) not null,
+    category varchar(255),
+    description varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table todos_assignee_list (
+    assignee_list_id bigint not null,
+    todos_id bigint not null
+) engine=InnoDB;
+
+alter table todos_assignee_list
+    add constraint FK1i0j8lsrv63pbj8c2hxdpqxww foreign key (assignee_list_id) references assignees (id);
+alter table todos_assignee_list
+    add constraint FKt0g7q6a5efwud8lllxwdqcb2w foreign key (todos_id) references todos (id);
@@ -0,0 +1,16 @@
+-- Secondary indexes for the query paths (overdue/upcoming, statistics, ToDos of an Assignee, findByName).
+-- The indexes are built online: ALGORITHM=INPLACE with LOCK=NONE keeps the tables readable and writable
+-- while the index is built and fails instead of silently falling back to a table copy or a table lock.
+-- IF NOT EXISTS skips indexes that ddl-auto = update already created on older databases.
+-- Do not wait longer than 10 seconds for the metadata lock, so long-running transactions cannot make
+-- the migration block all other queries on the table.
+set session lock_wait_timeout = 10;
+
+create index if not exists idx_todos_finished_due_date on todos (finished, due_date)
+    algorithm = inplace lock = none;
+create index if not exists idx_todos_category_finished on todos (category, finished)
+    algorithm = inplace lock = none;
+create index if not exists idx_todos_assignee_list_assignee on todos_assignee_list (assignee_list_id, todos_id)
+    algorithm = inplace lock = none;
+create index if not exists idx_assignees_name on assignees (name)
+    algorithm = inplace lock = none;
@@ -0,0 +1,20 @@
+-- Archive of finished ToDos, filled by the ToDoArchiver. Assignees are stored denormalized.
+create table archived_todos (
+    id bigint not null,
+    title varchar(100) not null,
+    description varchar(255),
+    category varchar(255),
+    created_date bigint,
+    due_date bigint,
+    finished_date bigint,
+    archived_date bigint not null,
+    assignee_ids varchar(1000),
+    assignee_names varchar(2000),
+    primary key (id)
+) engine=InnoDB;
+
+-- lets the archival job find the longest finished ToDos without scanning the table, built online
+set session lock_wait_timeout = 10;
+
+create index if not exists idx_todos_finished_finished_date on todos (finished, finished_date)
+    algorithm = inplace lock = none;
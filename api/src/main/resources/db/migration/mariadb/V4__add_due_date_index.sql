@@ -0,0 +1,6 @@
+-- lets the ToDo list of an Assignee be read in due date order without sorting all of its ToDos
+-- (InnoDB appends the primary key, so the index is ordered by (due_date, id)), built online
+set session lock_wait_timeout = 10;
+
+create index if not exists idx_todos_due_date on todos (due_date)
+    algorithm = inplace lock = none;
@@ -0,0 +1,13 @@
+-- Change table of the cache invalidation bus: every node appends the IDs of the ToDos and Assignees it changed,
+-- and all nodes poll the table to evict them from their local caches. Rows are deleted after
+-- api.cache.invalidation.retention-ms. entity is TODO, ASSIGNEE or ALL (evict everything, entity_id is null).
+create table cache_invalidations (
+    id bigint not null auto_increment,
+    node varchar(36) not null,
+    entity varchar(16) not null,
+    entity_id bigint,
+    created_at bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_cache_invalidations_created_at on cache_invalidations (created_at);
@@ -0,0 +1,204 @@
+package de.unistuttgart.iste.ese.api.Admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the admission control: validation of the expensive cost, query-aware classification of the requests,
+ * charging tokens only for admitted requests and isolating cheap requests from a flood of expensive ones.
+ */
+public class AdmissionControlFilterTests {
+    private static final List<String> EXPENSIVE = List.of("GET /todos?!ids", "DELETE /todos",
+        "GET /csv-downloads/todos", "GET /csv-downloads/todos/archive", "POST /csv-uploads/todos");
+
+    private static final int FLOOD_CLIENTS = 16;
+
+    // an export takes 50 ms, so a cheap request queued behind exports would exceed this
+    private static final long CHEAP_P99_BOUND_MS = 40;
+
+    private MeterRegistry meterRegistry;
+
+    private AdmissionControlFilter filter;
+
+    private int clients;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // buckets hardly refill during a test, and one expensive request empties a bucket
+        filter = filter(10);
+    }
+
+    @Test
+    @DisplayName("An expensive cost above the burst is rejected on startup")
+    void testExpensiveCostAboveBurst() {
+        assertThrows(IllegalArgumentException.class, () -> filter(11));
+        assertThrows(IllegalArgumentException.class, () -> filter(0));
+    }
+
+    @Test
+    @DisplayName("Requests are classified by method, path and query parameters")
+    void testClassification() throws Exception {
+        assertEquals("expensive", classOf("GET", "/api/v1/todos", null));
+        assertEquals("cheap", classOf("GET", "/api/v1/todos", "ids=1,2,3"));
+        assertEquals("cheap", classOf("GET", "/api/v1/todos", "ids="));
+        assertEquals("expensive", classOf("GET", "/api/v1/todos", "other=1"));
+        assertEquals("expensive", classOf("DELETE", "/api/v1/todos", "finished=true"));
+        assertEquals("cheap", classOf("DELETE", "/api/v1/todos/5", null));
+        assertEquals("expensive", classOf("POST", "/api/v1/csv-uploads/todos", null));
+        assertEquals("cheap", classOf("GET", "/api/v1/todos/5", null));
+    }
+
+    @Test
+    @DisplayName("Shed requests do not take tokens from their client")
+    void testShedRequestsAreFree() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // another client holds the only expensive permit
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(request("GET", "/api/v1/todos", null, "10.0.0.1"), new MockHttpServletResponse(),
+                    blockingChain(running, release));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(429, perform("GET", "/api/v1/todos", null, "10.0.0.2").getStatus());
+        }
+        assertEquals(3.0, count("expensive", "shed"));
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+
+        // the bucket of the shed client is still full, so it pays for one expensive request and then has to wait
+        assertEquals(200, perform("GET", "/api/v1/todos", null, "10.0.0.2").getStatus());
+        MockHttpServletResponse limited = perform("GET", "/api/v1/todos", null, "10.0.0.2");
+        assertEquals(429, limited.getStatus());
+        assertEquals(1.0, count("expensive", "rate-limited"));
+        assertTrue(Long.parseLong(limited.getHeader("Retry-After")) > 0);
+    }
+
+    @Test
+    @DisplayName("Cheap requests are admitted within a bound while exports flood the expensive class")
+    void testCheapLatencyUnderExportFlood() throws Exception {
+        // enough tokens for every client, so only the concurrency limits decide
+        AdmissionControlFilter flooded = new AdmissionControlFilter(meterRegistry, EXPENSIVE, 1000, 1000, 10, 4, 2,
+            100, 4, 1000, false);
+        FilterChain handler = (request, response) -> {
+            try {
+                // an export takes 50 ms, a cheap request 1 ms
+                Thread.sleep(((MockHttpServletRequest) request).getRequestURI().contains("csv-downloads") ? 50 : 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        long floodEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        ExecutorService executor = Executors.newFixedThreadPool(FLOOD_CLIENTS + 4);
+        List<Future<?>> flood = new ArrayList<>();
+        for (int i = 0; i < FLOOD_CLIENTS; i++) {
+            String client = "10.2.0." + i;
+            flood.add(executor.submit(() -> {
+                while (System.nanoTime() < floodEnd) {
+                    flooded.doFilter(request("GET", "/api/v1/csv-downloads/todos", null, client),
+                        new MockHttpServletResponse(), handler);
+                }
+                return null;
+            }));
+        }
+        List<Future<List<Long>>> cheap = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String client = "10.3.0." + i;
+            cheap.add(executor.submit(() -> {
+                List<Long> latencies = new ArrayList<>();
+                while (System.nanoTime() < floodEnd) {
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    long start = System.nanoTime();
+                    flooded.doFilter(request("GET", "/api/v1/todos/5", null, client), response, handler);
+                    latencies.add(System.nanoTime() - start);
+                    assertEquals(200, response.getStatus());
+                }
+                return latencies;
+            }));
+        }
+        List<Long> latencies = new ArrayList<>();
+        for (Future<List<Long>> result : cheap) {
+            latencies.addAll(result.get(10, TimeUnit.SECONDS));
+        }
+        for (Future<?> result : flood) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // the flood saturated the expensive class, but no cheap request waited for it
+        assertTrue(count("expensive", "shed") > 0);
+        assertEquals(0.0, count("cheap", "shed") + count("cheap", "rate-limited"));
+        Collections.sort(latencies);
+        long p99 = latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+        assertTrue(p99 < TimeUnit.MILLISECONDS.toNanos(CHEAP_P99_BOUND_MS),
+            "cheap p99 " + p99 / 1_000_000 + " ms over " + latencies.size() + " requests");
+    }
+
+    private AdmissionControlFilter filter(double expensiveCost) {
+        return new AdmissionControlFilter(meterRegistry, EXPENSIVE, 0.001, 10, expensiveCost, 4, 1, 10, 0, 0,
+            false);
+    }
+
+    private String classOf(String method, String path, String query) throws Exception {
+        double cheap = count("cheap", "admitted");
+        double expensive = count("expensive", "admitted");
+        assertEquals(200, perform(method, path, query, "10.1.0." + ++clients).getStatus());
+        assertEquals(1.0, count("cheap", "admitted") - cheap + count("expensive", "admitted") - expensive);
+        return count("cheap", "admitted") > cheap ? "cheap" : "expensive";
+    }
+
+    private MockHttpServletResponse perform(String method, String path, String query, String client) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, path, query, client), response, new MockFilterChain());
+        return response;
+    }
+
+    private double count(String requestClass, String result) {
+        return meterRegistry.counter("api.admission.requests", "class", requestClass, "result", result).count();
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String query, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setQueryString(query);
+        request.setRemoteAddr(client);
+        return request;
+    }
+
+    private static FilterChain blockingChain(CountDownLatch running, CountDownLatch release) {
+        return (request, response) -> {
+            running.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+}
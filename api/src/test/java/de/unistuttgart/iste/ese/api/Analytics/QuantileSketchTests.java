@@ -0,0 +1,92 @@
+package de.unistuttgart.iste.ese.api.Analytics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QuantileSketchTests {
+    private static final double ACCURACY = 0.01;
+
+    private static final double[] QUANTILES = {0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999, 1};
+
+    private static double exactQuantile(double[] sorted, double quantile) {
+        int rank = Math.max(0, (int) Math.ceil(quantile * sorted.length) - 1);
+        return sorted[rank];
+    }
+
+    private static void assertWithinBound(double[] values, QuantileSketch sketch) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double quantile : QUANTILES) {
+            double exact = exactQuantile(sorted, quantile);
+            double estimate = sketch.quantile(quantile);
+            // a little slack for the rounding of the bucket index
+            assertTrue(Math.abs(estimate - exact) <= ACCURACY * exact * (1 + 1e-9),
+                "q" + quantile + ": estimated " + estimate + ", exact " + exact);
+        }
+    }
+
+    @Test
+    @DisplayName("Quantiles of skewed lead times are within the relative accuracy of the exact quantiles")
+    void testAccuracy() {
+        Random random = new Random(7);
+        double[] values = new double[200_000];
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        for (int i = 0; i < values.length; i++) {
+            // log-normal lead times in ms, from seconds to months
+            values[i] = Math.exp(15 + 3 * random.nextGaussian()) + 1;
+            sketch.add(values[i]);
+        }
+
+        assertEquals(values.length, sketch.getCount());
+        assertWithinBound(values, sketch);
+    }
+
+    @Test
+    @DisplayName("Merged sketches answer like one sketch of all values")
+    void testMerge() {
+        Random random = new Random(11);
+        double[] values = new double[50_000];
+        QuantileSketch all = new QuantileSketch(ACCURACY);
+        QuantileSketch first = new QuantileSketch(ACCURACY);
+        QuantileSketch second = new QuantileSketch(ACCURACY);
+        for (int i = 0; i < values.length; i++) {
+            // the halves cover different ranges, so the merged sketch has to grow its buckets
+            values[i] = i % 2 == 0 ? 1 + random.nextDouble() * 1_000 : 1e6 + random.nextDouble() * 1e9;
+            all.add(values[i]);
+            (i % 2 == 0 ? first : second).add(values[i]);
+        }
+
+        first.merge(second);
+
+        assertEquals(values.length, first.getCount());
+        for (double quantile : QUANTILES) {
+            assertEquals(all.quantile(quantile), first.quantile(quantile));
+        }
+        assertWithinBound(values, first);
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new QuantileSketch(0.05)));
+    }
+
+    @Test
+    @DisplayName("Values below 1 count as zero, an empty sketch has no quantiles")
+    void testEdgeCases() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+
+        sketch.add(0);
+        sketch.add(0.5);
+        sketch.add(100);
+        assertEquals(0, sketch.quantile(0.5));
+        assertEquals(100, sketch.quantile(1), 100 * ACCURACY);
+
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(0));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(1));
+    }
+}
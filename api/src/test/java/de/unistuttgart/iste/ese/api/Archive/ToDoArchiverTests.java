@@ -0,0 +1,154 @@
+package de.unistuttgart.iste.ese.api.Archive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoRepository;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoStatusWriteBehind;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the archival of long-finished ToDos: which ToDos are moved, and where they can be read afterwards.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:archive;DB_CLOSE_DELAY=-1",
+    "api.todos.archive.max-age-ms=86400000",
+    "api.todos.archive.batch-size=2",
+    // toggles are only written when a test flushes them
+    "api.todos.status-flush-interval-ms=3600000"})
+@AutoConfigureMockMvc
+public class ToDoArchiverTests {
+    private static final long DAY = 86_400_000L;
+
+    private static final long DUE_DATE = 2_000_000_000_000L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ToDoRepository toDoRepository;
+
+    @Autowired
+    private ToDoStatusWriteBehind statusWriteBehind;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ToDoArchiver archiver;
+
+    @Test
+    @DisplayName("ToDos finished before the cutoff move from the ToDo list and export to the archive")
+    void testArchiveMovesOldFinishedToDos() throws Exception {
+        long assigneeId = createAssignee();
+        long now = System.currentTimeMillis();
+        // three batches of at most two ToDos
+        List<Long> old = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            old.add(finish(createToDo("Old " + i, assigneeId), now - 2 * DAY));
+        }
+        long recent = finish(createToDo("Recent", assigneeId), now - DAY / 2);
+        long open = createToDo("Open", assigneeId);
+
+        assertEquals(old.size(), archiver.archive());
+
+        List<Long> remaining = ids(get("/api/v1/todos"));
+        assertTrue(remaining.contains(recent) && remaining.contains(open), remaining.toString());
+        String export = perform(MockMvcRequestBuilders.get("/api/v1/csv-downloads/todos")).getContentAsString();
+        assertTrue(export.contains("Recent") && export.contains("Open"), export);
+        List<Long> archived = ids(get("/api/v1/todos/archive"));
+        String archiveExport = perform(MockMvcRequestBuilders.get("/api/v1/csv-downloads/todos/archive"))
+            .getContentAsString();
+        assertTrue(archiveExport.startsWith("id,title,description,finished,assignees,createdDate,dueDate,"
+            + "finishedDate,category,archivedDate"), archiveExport);
+        for (int i = 0; i < old.size(); i++) {
+            long id = old.get(i);
+            assertFalse(remaining.contains(id), "ToDo " + id + " is still listed");
+            assertFalse(export.contains("Old " + i), "ToDo " + id + " is still exported");
+            assertEquals(404, perform(MockMvcRequestBuilders.get("/api/v1/todos/" + id)).getStatus());
+            assertTrue(archived.contains(id), "ToDo " + id + " is not archived");
+            JsonNode todo = get("/api/v1/todos/archive/" + id);
+            assertEquals("Old " + i, todo.get("title").asText());
+            assertTrue(archiveExport.contains("Old " + i), "ToDo " + id + " is not in the archive export");
+        }
+        assertFalse(archived.contains(recent) || archived.contains(open));
+        assertEquals(0, archiver.archive());
+    }
+
+    @Test
+    @DisplayName("A ToDo with a pending status toggle is archived only after the toggle has been written")
+    void testPendingToggleDelaysArchival() throws Exception {
+        long id = finish(createToDo("Toggled", createAssignee()), System.currentTimeMillis() - 2 * DAY);
+        statusWriteBehind.enqueue(id, true);
+
+        assertEquals(0, archiver.archive());
+        assertEquals(200, perform(MockMvcRequestBuilders.get("/api/v1/todos/" + id)).getStatus());
+
+        statusWriteBehind.flush();
+        assertEquals(1, archiver.archive());
+        assertEquals(200, perform(MockMvcRequestBuilders.get("/api/v1/todos/archive/" + id)).getStatus());
+    }
+
+    private long finish(long id, long finishedDate) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            ToDo todo = toDoRepository.findById(id).orElseThrow();
+            todo.setFinished(true);
+            todo.setFinishedDate(finishedDate);
+            toDoRepository.save(todo);
+        });
+        return id;
+    }
+
+    private long createAssignee() throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.post("/api/v1/assignees")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"Archive\",\"prename\":\"Test\",\"email\":\"archive@uni-stuttgart.de\"}"));
+        assertEquals(201, response.getStatus(), response.getContentAsString());
+        return objectMapper.readTree(response.getContentAsString()).get("id").asLong();
+    }
+
+    private long createToDo(String title, long assigneeId) throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.post("/api/v1/todos")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"" + title + "\",\"dueDate\":" + DUE_DATE + ",\"assigneeIdList\":[" + assigneeId
+                + "]}"));
+        assertEquals(201, response.getStatus(), response.getContentAsString());
+        return objectMapper.readTree(response.getContentAsString()).get("id").asLong();
+    }
+
+    private static List<Long> ids(JsonNode todos) {
+        List<Long> ids = new ArrayList<>();
+        todos.forEach(todo -> ids.add(todo.get("id").asLong()));
+        return ids;
+    }
+
+    private JsonNode get(String path) throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.get(path));
+        assertEquals(200, response.getStatus(), path);
+        return objectMapper.readTree(response.getContentAsString());
+    }
+
+    private MockHttpServletResponse perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
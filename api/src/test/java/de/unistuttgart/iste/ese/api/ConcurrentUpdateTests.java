@@ -0,0 +1,254 @@
+package de.unistuttgart.iste.ese.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress tests for concurrent writers: every write is based on a version, conflicting writes get 409 and are retried,
+ * and no successful write may be lost.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ConcurrentUpdateTests {
+    private static final int THREADS = 8;
+
+    private static final int UPDATES_PER_THREAD = 15;
+
+    private static final long DUE_DATE = 2_000_000_000_000L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Concurrent PUTs and PATCHes of one ToDo lose no update")
+    void testConcurrentToDoUpdates() throws Exception {
+        long assigneeId = createAssignee("Shared");
+        long id = createToDo("Counter 0", assigneeId);
+        long initialVersion = get("/api/v1/todos/" + id).get("version").asLong();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                while (true) {
+                    JsonNode todo = get("/api/v1/todos/" + id);
+                    int counter = Integer.parseInt(todo.get("title").asText().substring("Counter ".length()));
+                    String body = "{\"title\":\"Counter " + (counter + 1) + "\",\"version\":" + todo.get("version").asLong();
+                    // half of the threads send full updates, the other half partial ones
+                    MockHttpServletResponse response = thread % 2 == 0
+                        ? perform(MockMvcRequestBuilders.put("/api/v1/todos/" + id).contentType(MediaType.APPLICATION_JSON)
+                            .content(body + ",\"dueDate\":" + DUE_DATE + ",\"assigneeIdList\":[" + assigneeId + "]}"))
+                        : perform(MockMvcRequestBuilders.patch("/api/v1/todos/" + id).contentType(MediaType.APPLICATION_JSON)
+                            .content(body + "}"));
+                    if (response.getStatus() == 200) {
+                        break;
+                    }
+                    assertEquals(409, response.getStatus(), response.getContentAsString());
+                }
+            }
+        });
+
+        int updates = THREADS * UPDATES_PER_THREAD;
+        JsonNode todo = get("/api/v1/todos/" + id);
+        assertEquals("Counter " + updates, todo.get("title").asText());
+        assertEquals(initialVersion + updates, todo.get("version").asLong());
+        // a write based on an old version is rejected and changes nothing
+        MockHttpServletResponse stale = perform(MockMvcRequestBuilders.patch("/api/v1/todos/" + id)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"Stale\",\"version\":" + initialVersion + "}"));
+        assertEquals(409, stale.getStatus(), stale.getContentAsString());
+        assertEquals(todo, get("/api/v1/todos/" + id));
+    }
+
+    @Test
+    @DisplayName("Concurrent PUTs of one Assignee with If-Match lose no update")
+    void testConcurrentAssigneeUpdates() throws Exception {
+        long id = createAssignee("Counter 0");
+        long initialVersion = get("/api/v1/assignees/" + id).get("version").asLong();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                while (true) {
+                    JsonNode assignee = get("/api/v1/assignees/" + id);
+                    int counter = Integer.parseInt(assignee.get("name").asText().substring("Counter ".length()));
+                    MockHttpServletResponse response = perform(MockMvcRequestBuilders.put("/api/v1/assignees/" + id)
+                        .header(HttpHeaders.IF_MATCH, "\"" + assignee.get("version").asLong() + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Counter " + (counter + 1) + "\",\"prename\":\"Stress\","
+                            + "\"email\":\"stress@uni-stuttgart.de\"}"));
+                    if (response.getStatus() == 200) {
+                        break;
+                    }
+                    assertEquals(409, response.getStatus(), response.getContentAsString());
+                }
+            }
+        });
+
+        int updates = THREADS * UPDATES_PER_THREAD;
+        JsonNode assignee = get("/api/v1/assignees/" + id);
+        assertEquals("Counter " + updates, assignee.get("name").asText());
+        assertEquals(initialVersion + updates, assignee.get("version").asLong());
+        // a write based on an old version is rejected and changes nothing
+        MockHttpServletResponse stale = perform(MockMvcRequestBuilders.put("/api/v1/assignees/" + id)
+            .header(HttpHeaders.IF_MATCH, "\"" + initialVersion + "\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"Stale\",\"prename\":\"Stress\",\"email\":\"stress@uni-stuttgart.de\"}"));
+        assertEquals(409, stale.getStatus(), stale.getContentAsString());
+        assertEquals(assignee, get("/api/v1/assignees/" + id));
+    }
+
+    @Test
+    @DisplayName("Concurrent updates and deletes of the same ToDos delete each ToDo exactly once")
+    void testConcurrentToDoDeletes() throws Exception {
+        long assigneeId = createAssignee("Deletes");
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(createToDo("Delete " + i, assigneeId));
+        }
+        AtomicInteger deleted = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (Long id : ids) {
+                MockHttpServletResponse response;
+                do {
+                    // a deletion conflicting with an update is retried, as a client would
+                    response = thread % 2 == 0
+                        ? perform(MockMvcRequestBuilders.delete("/api/v1/todos/" + id))
+                        : perform(MockMvcRequestBuilders.patch("/api/v1/todos/" + id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"description\":\"patched by " + thread + "\"}"));
+                } while (thread % 2 == 0 && response.getStatus() == 409);
+                if (response.getStatus() == 200) {
+                    if (thread % 2 == 0) {
+                        deleted.incrementAndGet();
+                    }
+                } else {
+                    assertTrue(response.getStatus() == 404 || response.getStatus() == 409,
+                        response.getStatus() + " " + response.getContentAsString());
+                }
+            }
+        });
+
+        assertEquals(ids.size(), deleted.get());
+        for (Long id : ids) {
+            assertEquals(404, perform(MockMvcRequestBuilders.get("/api/v1/todos/" + id)).getStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("Deleting an Assignee while its ToDos are updated leaves no ToDo assigned to it")
+    void testAssigneeDeleteDuringToDoUpdates() throws Exception {
+        long keptId = createAssignee("Kept");
+        long deletedId = createAssignee("Deleted");
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(createToDo("Shared " + i, deletedId));
+        }
+        AtomicInteger deletes = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            if (thread == 0) {
+                // retried until the deletion does not conflict with an update of one of the ToDos
+                while (true) {
+                    int status = perform(MockMvcRequestBuilders.delete("/api/v1/assignees/" + deletedId)).getStatus();
+                    if (status == 200) {
+                        deletes.incrementAndGet();
+                        return;
+                    }
+                    assertEquals(409, status);
+                }
+            }
+            for (Long id : ids) {
+                perform(MockMvcRequestBuilders.patch("/api/v1/todos/" + id).contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"description\":\"updated by " + thread + "\"}"));
+            }
+        });
+
+        assertEquals(1, deletes.get());
+        assertEquals(404, perform(MockMvcRequestBuilders.get("/api/v1/assignees/" + deletedId)).getStatus());
+        for (Long id : ids) {
+            JsonNode todo = get("/api/v1/todos/" + id);
+            for (JsonNode assignee : todo.get("assigneeList")) {
+                assertFalse(assignee.get("id").asLong() == deletedId, "ToDo " + id + " still has the deleted Assignee");
+            }
+        }
+        assertEquals(200, perform(MockMvcRequestBuilders.get("/api/v1/assignees/" + keptId)).getStatus());
+    }
+
+    private void runConcurrently(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Void>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            results.add(executor.submit((Callable<Void>) () -> {
+                worker.run(thread);
+                return null;
+            }));
+        }
+        try {
+            for (Future<Void> result : results) {
+                // rethrows assertion errors of the workers
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long createAssignee(String name) throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.post("/api/v1/assignees")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"" + name + "\",\"prename\":\"Stress\",\"email\":\"stress@uni-stuttgart.de\"}"));
+        assertEquals(201, response.getStatus(), response.getContentAsString());
+        return objectMapper.readTree(response.getContentAsString()).get("id").asLong();
+    }
+
+    private long createToDo(String title, long assigneeId) throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.post("/api/v1/todos")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"" + title + "\",\"dueDate\":" + DUE_DATE + ",\"assigneeIdList\":[" + assigneeId + "]}"));
+        assertEquals(201, response.getStatus(), response.getContentAsString());
+        return objectMapper.readTree(response.getContentAsString()).get("id").asLong();
+    }
+
+    private JsonNode get(String path) throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.get(path));
+        assertEquals(200, response.getStatus(), path);
+        return objectMapper.readTree(response.getContentAsString());
+    }
+
+    private MockHttpServletResponse perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    /**
+     * The work of one of the concurrent threads.
+     */
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+}
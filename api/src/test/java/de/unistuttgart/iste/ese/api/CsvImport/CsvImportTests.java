@@ -0,0 +1,182 @@
+package de.unistuttgart.iste.ese.api.CsvImport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the CSV import: round trip of the CSV export, per-row error reporting and malformed files.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:csvImport;DB_CLOSE_DELAY=-1",
+    "api.todos.import.chunk-size=2"})
+@AutoConfigureMockMvc
+public class CsvImportTests {
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    // 2033-05-18 in every time zone
+    private static final long DUE_DATE = 2_000_000_000_000L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("The output of the CSV export imports as copies of the exported ToDos")
+    void testExportRoundTrip() throws Exception {
+        long assigneeId = createAssignee("Trip", "Round");
+        createToDo("{\"title\":\"Round trip plain\",\"dueDate\":" + DUE_DATE + ",\"assigneeIdList\":[" + assigneeId
+            + "]}");
+        createToDo("{\"title\":\"Round trip, \\\"quoted\\\"\",\"description\":\"line one\\nline two, with comma\","
+            + "\"finished\":true,\"dueDate\":" + DUE_DATE + ",\"assigneeIdList\":[" + assigneeId + "]}");
+        JsonNode exported = get("/api/v1/todos");
+        String csv = perform(MockMvcRequestBuilders.get("/api/v1/csv-downloads/todos")).getContentAsString();
+
+        JsonNode result = importCsv(csv);
+
+        assertEquals(exported.size(), result.get("rows").asLong());
+        assertEquals(exported.size(), result.get("imported").asLong());
+        assertEquals(0, result.get("failed").asLong(), result.toString());
+        JsonNode all = get("/api/v1/todos");
+        assertEquals(2 * exported.size(), all.size());
+        for (JsonNode original : exported) {
+            JsonNode copy = copyOf(original, all);
+            assertEquals(original.get("description"), copy.get("description"));
+            assertEquals(original.get("finished"), copy.get("finished"));
+            assertEquals(assigneeIds(original), assigneeIds(copy));
+            // the export writes days, so the due date is compared by day
+            assertEquals(original.get("dueDate").asLong() / 86_400_000, copy.get("dueDate").asLong() / 86_400_000);
+        }
+    }
+
+    @Test
+    @DisplayName("Rows with errors or unknown assignees are reported by row number, the other rows are imported")
+    void testRowErrors() throws Exception {
+        createAssignee("Known", "Row");
+        String csv = "title,dueDate,assignees,finished\n"
+            + "Good row one,2033-05-18,Row Known,FALSE\n"
+            + ",2033-05-18,,\n"
+            + "Bad date,18.05.2033,,\n"
+            + "Unknown assignee,2033-05-18,Row Known+Nobody Here,\n"
+            + "Bad finished,2033-05-18,,maybe\n"
+            + "\n"
+            + "Good row two,2033-05-18,,TRUE\n";
+
+        JsonNode result = importCsv(csv);
+
+        assertEquals(6, result.get("rows").asLong());
+        assertEquals(2, result.get("imported").asLong());
+        assertEquals(4, result.get("failed").asLong());
+        List<String> errors = new ArrayList<>();
+        result.get("errors").forEach(error -> errors.add(error.get("row").asLong() + ": "
+            + error.get("message").asText()));
+        assertEquals(List.of(
+            "3: Title is required",
+            "4: Date must be formatted as yyyy-MM-dd: 18.05.2033",
+            "5: Unknown assignee: Nobody Here",
+            "6: Finished must be TRUE or FALSE: maybe"), errors);
+        List<String> titles = titles(get("/api/v1/todos"));
+        assertTrue(titles.containsAll(List.of("Good row one", "Good row two")), titles.toString());
+        assertTrue(titles.stream().noneMatch(title -> title.startsWith("Bad") || title.startsWith("Unknown")));
+    }
+
+    @Test
+    @DisplayName("An unclosed quote stops the import, the rows before it are kept")
+    void testMalformedQuoteStopsImport() throws Exception {
+        String csv = "title,dueDate\n"
+            + "Before malformed one,2033-05-18\n"
+            + "Before malformed two,2033-05-18\n"
+            + "Before malformed three,2033-05-18\n"
+            + "\"Unclosed quote,2033-05-18\n"
+            + "After malformed,2033-05-18\n";
+
+        JsonNode result = importCsv(csv);
+
+        assertEquals(3, result.get("imported").asLong());
+        assertEquals(1, result.get("failed").asLong());
+        assertTrue(result.get("errors").get(0).get("message").asText().startsWith("Malformed CSV, import stopped"),
+            result.toString());
+        List<String> titles = titles(get("/api/v1/todos"));
+        assertTrue(titles.contains("Before malformed three"), titles.toString());
+        assertTrue(titles.stream().noneMatch(title -> title.contains("After malformed")), titles.toString());
+    }
+
+    @Test
+    @DisplayName("A file without a title or dueDate column is rejected")
+    void testMissingColumns() throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.post("/api/v1/csv-uploads/todos")
+            .contentType(TEXT_CSV).content("title,description\nNo due date,\n"));
+        assertEquals(400, response.getStatus());
+    }
+
+    private JsonNode importCsv(String csv) throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.post("/api/v1/csv-uploads/todos")
+            .contentType(TEXT_CSV).content(csv));
+        assertEquals(200, response.getStatus(), response.getContentAsString());
+        return objectMapper.readTree(response.getContentAsString());
+    }
+
+    private static JsonNode copyOf(JsonNode original, JsonNode all) {
+        for (JsonNode todo : all) {
+            if (todo.get("title").equals(original.get("title")) && !todo.get("id").equals(original.get("id"))) {
+                return todo;
+            }
+        }
+        throw new AssertionError("No imported copy of " + original);
+    }
+
+    private static List<Long> assigneeIds(JsonNode todo) {
+        List<Long> ids = new ArrayList<>();
+        todo.get("assigneeList").forEach(assignee -> ids.add(assignee.get("id").asLong()));
+        ids.sort(null);
+        return ids;
+    }
+
+    private static List<String> titles(JsonNode todos) {
+        List<String> titles = new ArrayList<>();
+        todos.forEach(todo -> titles.add(todo.get("title").asText()));
+        return titles;
+    }
+
+    private long createAssignee(String name, String prename) throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.post("/api/v1/assignees")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"" + name + "\",\"prename\":\"" + prename + "\","
+                + "\"email\":\"import@uni-stuttgart.de\"}"));
+        assertEquals(201, response.getStatus(), response.getContentAsString());
+        return objectMapper.readTree(response.getContentAsString()).get("id").asLong();
+    }
+
+    private void createToDo(String json) throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.post("/api/v1/todos")
+            .contentType(MediaType.APPLICATION_JSON).content(json));
+        assertEquals(201, response.getStatus(), response.getContentAsString());
+    }
+
+    private JsonNode get(String path) throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.get(path));
+        assertEquals(200, response.getStatus(), path);
+        return objectMapper.readTree(response.getContentAsString());
+    }
+
+    private MockHttpServletResponse perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,109 @@
+package de.unistuttgart.iste.ese.api.Embedded;
+
+import de.unistuttgart.iste.ese.api.Assignee.Assignee;
+import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that uncommitted changes of the embedded store are not visible to other threads and that entities are
+ * validated before they are stored.
+ */
+public class EmbeddedStoreTests {
+
+    @TempDir
+    private Path directory;
+
+    private EmbeddedStore store;
+
+    private EmbeddedToDoRepository toDoRepository;
+
+    private EmbeddedAssigneeRepository assigneeRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new EmbeddedStore(directory.toString(), 1 << 20, new SimpleMeterRegistry());
+        store.recover();
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        toDoRepository = new EmbeddedToDoRepository(store, validator);
+        assigneeRepository = new EmbeddedAssigneeRepository(store, validator);
+        transactionTemplate = new TransactionTemplate(new EmbeddedTransactionManager(store));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Other threads do not see the changes of a transaction that is rolled back")
+    void testRolledBackChangesAreNotVisible() throws Exception {
+        Assignee assignee = assigneeRepository.save(new Assignee("Visible", "Test", "visible@uni-stuttgart.de"));
+        CompletableFuture<Optional<ToDo>> reader = new CompletableFuture<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Long id = toDoRepository.save(
+                new ToDo("Uncommitted", "", false, 2_000_000_000_000L, List.of(assignee))).getId();
+            assigneeRepository.deleteById(assignee.getId());
+            // the transaction reads its own changes
+            assertTrue(toDoRepository.findById(id).isPresent());
+            CompletableFuture.runAsync(() -> reader.complete(toDoRepository.findById(id)));
+            // the reader waits for the end of the transaction
+            assertThrows(TimeoutException.class, () -> reader.get(200, TimeUnit.MILLISECONDS));
+            status.setRollbackOnly();
+        });
+
+        assertFalse(reader.get(5, TimeUnit.SECONDS).isPresent());
+        assertTrue(assigneeRepository.existsById(assignee.getId()));
+        assertEquals(0, toDoRepository.count());
+    }
+
+    @Test
+    @DisplayName("Readers of other threads see the changes of a transaction once it is committed")
+    void testCommittedChangesAreVisible() throws Exception {
+        CompletableFuture<Long> reader = new CompletableFuture<>();
+
+        Long id = transactionTemplate.execute(status -> {
+            Long saved = toDoRepository.save(new ToDo("Committed", "", false, 2_000_000_000_000L, List.of())).getId();
+            CompletableFuture.runAsync(() -> reader.complete(toDoRepository.count()));
+            return saved;
+        });
+
+        assertEquals(1L, reader.get(5, TimeUnit.SECONDS));
+        assertEquals("Committed", toDoRepository.findById(id).orElseThrow().getTitle());
+    }
+
+    @Test
+    @DisplayName("ToDos and Assignees violating the entity constraints are not stored")
+    void testValidation() {
+        assertThrows(ConstraintViolationException.class,
+            () -> toDoRepository.save(new ToDo("x".repeat(101), "", false, 2_000_000_000_000L, List.of())));
+        assertThrows(ConstraintViolationException.class,
+            () -> assigneeRepository.save(new Assignee("Name", "Test", "someone@example.com")));
+
+        assertEquals(0, toDoRepository.count());
+        assertEquals(0, assigneeRepository.count());
+    }
+}
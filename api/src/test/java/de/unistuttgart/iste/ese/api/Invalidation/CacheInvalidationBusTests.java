@@ -0,0 +1,144 @@
+package de.unistuttgart.iste.ese.api.Invalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.iste.ese.api.Analytics.LeadTimeAnalyticsService;
+import de.unistuttgart.iste.ese.api.Application;
+import de.unistuttgart.iste.ese.api.Duplicates.DuplicateDetectionService;
+import de.unistuttgart.iste.ese.api.Search.TitleSuggestion;
+import de.unistuttgart.iste.ese.api.Search.TitleSuggestionService;
+import de.unistuttgart.iste.ese.api.Search.ToDoSearchService;
+import de.unistuttgart.iste.ese.api.Statistics.ToDoStatistics;
+import de.unistuttgart.iste.ese.api.Statistics.ToDoStatisticsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs two application contexts against one shared H2 database, like two API instances, and checks that the writes
+ * of one node reach the caches and in-memory indexes of the other through the cache invalidation bus.
+ */
+public class CacheInvalidationBusTests {
+    private static final String TITLE = "Calibrate zebrafish incubator";
+
+    @TempDir
+    private Path directory;
+
+    private ConfigurableApplicationContext nodeA;
+
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = start("a");
+        nodeB = start("b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    @DisplayName("A ToDo written on one node shows up in the caches and indexes of the other node")
+    void testIndexesFollowOtherNode() throws Exception {
+        ToDoStatistics before = nodeB.getBean(ToDoStatisticsService.class).getStatistics();
+        long leadTimesBefore = leadTimes();
+        MockMvc mockMvcA = mockMvc(nodeA);
+        MockMvc mockMvcB = mockMvc(nodeB);
+
+        MockHttpServletResponse created = perform(mockMvcA, MockMvcRequestBuilders.post("/api/v1/todos")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"" + TITLE + "\",\"finished\":true,\"dueDate\":2000000000000,"
+                + "\"assigneeIdList\":[1]}"));
+        assertEquals(201, created.getStatus(), created.getContentAsString());
+        long id = new ObjectMapper().readTree(created.getContentAsString()).get("id").asLong();
+
+        await(() -> statistics().getTotal() == before.getTotal() + 1
+            && statistics().getFinished() == before.getFinished() + 1);
+        await(() -> searchHits() == 1 && suggestions().contains(TITLE) && duplicates() == 1);
+        await(() -> leadTimes() == leadTimesBefore + 1);
+        assertEquals(200, perform(mockMvcB, MockMvcRequestBuilders.get("/api/v1/todos/" + id)).getStatus());
+
+        assertEquals(200, perform(mockMvcA, MockMvcRequestBuilders.delete("/api/v1/todos/" + id)).getStatus());
+
+        await(() -> statistics().getTotal() == before.getTotal()
+            && statistics().getFinished() == before.getFinished());
+        await(() -> searchHits() == 0 && !suggestions().contains(TITLE) && duplicates() == 0);
+        await(() -> status(mockMvcB, "/api/v1/todos/" + id) == 404);
+    }
+
+    private ConfigurableApplicationContext start(String node) {
+        return new SpringApplicationBuilder(Application.class).run(
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:twoNodes;DB_CLOSE_DELAY=-1",
+            "--api.journal.directory=" + directory.resolve("journal-" + node),
+            "--api.cache.invalidation.publish-interval-ms=50",
+            "--api.cache.invalidation.poll-interval-ms=50",
+            "--api.cache.invalidation.rebuild-interval-ms=0");
+    }
+
+    private ToDoStatistics statistics() {
+        return nodeB.getBean(ToDoStatisticsService.class).getStatistics();
+    }
+
+    private int searchHits() {
+        return nodeB.getBean(ToDoSearchService.class).search("zebrafish", 10).size();
+    }
+
+    private List<String> suggestions() {
+        return nodeB.getBean(TitleSuggestionService.class).suggest("calibrate zeb", 10).stream()
+            .map(TitleSuggestion::getTitle)
+            .toList();
+    }
+
+    private int duplicates() {
+        return nodeB.getBean(DuplicateDetectionService.class).findSimilar(TITLE, 5).size();
+    }
+
+    private long leadTimes() {
+        return nodeB.getBean(LeadTimeAnalyticsService.class).getReport(List.of(0.5)).getOverall().getCount();
+    }
+
+    private static MockMvc mockMvc(ConfigurableApplicationContext context) {
+        return MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    private static MockHttpServletResponse perform(MockMvc mockMvc, RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    private static int status(MockMvc mockMvc, String path) {
+        try {
+            return perform(mockMvc, MockMvcRequestBuilders.get(path)).getStatus();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the other node");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package de.unistuttgart.iste.ese.api.Journal;
+
+import de.unistuttgart.iste.ese.api.Assignee.AssigneeChangedEvent;
+import de.unistuttgart.iste.ese.api.Assignee.AssigneeSnapshot;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the mutation journal: histories read through the index, replays from the checkpoint, archived ToDos
+ * and starting a new segment.
+ */
+public class MutationJournalTests {
+    // small segments, so a few dozen entries span several of them
+    private static final int SEGMENT_BYTES = 2048;
+
+    @TempDir
+    private Path directory;
+
+    private MeterRegistry meterRegistry;
+
+    private MutationJournal journal;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        journal = open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("The history read through the index equals a scan of all segments, also after reopening")
+    void testHistoryThroughIndex() throws Exception {
+        journal.onAssigneeChanged(new AssigneeChangedEvent(AssigneeChangedEvent.Type.CREATED, 1L,
+            new AssigneeSnapshot(1L, "Ada", "Lovelace", "ada@uni-stuttgart.de")));
+        for (int i = 0; i < 60; i++) {
+            long id = i % 3 + 1;
+            journal.onToDoChanged(new ToDoChangedEvent(i < 3 ? ToDoChangedEvent.Type.CREATED
+                : ToDoChangedEvent.Type.UPDATED, id, null, todo(id, "Version " + i)));
+        }
+        awaitWritten(61);
+        assertTrue(JournalReader.segments(directory).size() > 2);
+
+        for (long id = 1; id <= 3; id++) {
+            assertHistory(JournalReplay.history(directory, true, id), journal.getHistory(true, id));
+            assertEquals(20, journal.getHistory(true, id).size());
+        }
+        assertHistory(JournalReplay.history(directory, false, 1), journal.getHistory(false, 1));
+        assertEquals(0, journal.getHistory(true, 4).size());
+
+        journal.close();
+        journal = open();
+        assertHistory(JournalReplay.history(directory, true, 2), journal.getHistory(true, 2));
+        assertEquals("Version 58", journal.getHistory(true, 2).get(19).getTodo().getTitle());
+    }
+
+    @Test
+    @DisplayName("Replays from the checkpoint equal replays of all segments")
+    void testReplayFromCheckpoint() throws Exception {
+        List<Long> times = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            journal.onToDoChanged(new ToDoChangedEvent(ToDoChangedEvent.Type.CREATED, (long) i, null,
+                todo(i, "ToDo " + i)));
+            if (i % 10 == 9) {
+                awaitWritten(i + 1);
+                times.add(System.currentTimeMillis());
+                Thread.sleep(2);
+            }
+        }
+        journal.onToDoChanged(ToDoChangedEvent.deleted(todo(5, "ToDo 5")));
+        awaitWritten(61);
+        times.add(Long.MAX_VALUE);
+
+        for (long until : times.reversed()) {
+            JournalReplay expected = JournalReplay.replay(directory, until);
+            JournalReplay actual = journal.replay(until);
+            assertEquals(expected.getEntries(), actual.getEntries(), "until " + until);
+            assertEquals(expected.getToDos().keySet(), actual.getToDos().keySet(), "until " + until);
+        }
+        assertFalse(journal.replay(Long.MAX_VALUE).getToDos().containsKey(5L));
+    }
+
+    @Test
+    @DisplayName("Archived ToDos are journaled as archived and removed from the replayed state")
+    void testArchivedToDo() throws Exception {
+        journal.onToDoChanged(new ToDoChangedEvent(ToDoChangedEvent.Type.CREATED, 7L, null, todo(7, "Old")));
+        journal.onToDoChanged(ToDoChangedEvent.archived(todo(7, "Old")));
+        awaitWritten(2);
+
+        List<JournalEntry> history = journal.getHistory(true, 7);
+        assertEquals(JournalEntry.Type.TODO_ARCHIVED, history.get(1).getType());
+        assertTrue(history.get(1).getTodo() == null);
+        assertTrue(journal.replay(Long.MAX_VALUE).getToDos().isEmpty());
+    }
+
+    @Test
+    @DisplayName("If the next segment cannot be created, the current one stays open and a later entry succeeds")
+    void testFailedSegmentRoll() throws Exception {
+        // directories with the names of the next segments make creating them fail
+        List<Path> blocked = new ArrayList<>();
+        for (long sequence = 2; sequence < 100; sequence++) {
+            blocked.add(Files.createDirectory(directory.resolve(JournalReader.segmentName(sequence))));
+        }
+        for (int i = 0; i < 40; i++) {
+            journal.onToDoChanged(new ToDoChangedEvent(ToDoChangedEvent.Type.CREATED, (long) i, null,
+                todo(i, "ToDo " + i)));
+        }
+        await(() -> written() + failed() == 40);
+        assertTrue(failed() > 0);
+        long before = written();
+        for (Path path : blocked) {
+            Files.delete(path);
+        }
+
+        journal.onToDoChanged(new ToDoChangedEvent(ToDoChangedEvent.Type.CREATED, 100L, null, todo(100, "Later")));
+        awaitWritten(before + 1);
+
+        assertEquals("Later", journal.getHistory(true, 100).get(0).getTodo().getTitle());
+        assertEquals("ToDo 0", journal.getHistory(true, 0).get(0).getTodo().getTitle());
+        assertEquals(2, JournalReader.segments(directory).size());
+        assertEquals(before + 1, JournalReplay.replay(directory, Long.MAX_VALUE).getEntries());
+    }
+
+    private MutationJournal open() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        MutationJournal opened = new MutationJournal(directory.toString(), SEGMENT_BYTES, 0, 1000, meterRegistry);
+        opened.open();
+        return opened;
+    }
+
+    private static ToDoSnapshot todo(long id, String title) {
+        return new ToDoSnapshot(id, title, "", false, null, 1L, 2L, null, List.of());
+    }
+
+    private static void assertHistory(List<JournalEntry> expected, List<JournalEntry> actual) {
+        assertEquals(expected.stream().map(JournalEntry::getSequence).toList(),
+            actual.stream().map(JournalEntry::getSequence).toList());
+    }
+
+    private long written() {
+        return (long) meterRegistry.counter("api.journal.entries", "result", "written").count();
+    }
+
+    private long failed() {
+        return (long) meterRegistry.counter("api.journal.entries", "result", "failed").count();
+    }
+
+    private void awaitWritten(long count) throws InterruptedException {
+        await(() -> written() >= count);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the journal writer");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package de.unistuttgart.iste.ese.api;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the MariaDB migrations create the schema the entities expect, on an embedded MariaDB server.
+ */
+@SpringBootTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@DirtiesContext
+public class MariaDbMigrationTests {
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void mariaDb(DynamicPropertyRegistry registry) throws ManagedProcessException {
+        DBConfigurationBuilder builder = DBConfigurationBuilder.newBuilder().setPort(0);
+        // mariadbd refuses to run as root without being told to, e.g. in CI containers
+        builder.addArg("--user=" + System.getProperty("user.name"));
+        DBConfiguration configuration = builder.build();
+        // stopped by the shutdown hook of MariaDB4j, after the context below has been closed
+        DB db = DB.newEmbeddedDB(configuration);
+        db.start();
+        // created by the driver, the mariadb client that DB.createDB runs needs libraries CI images often lack
+        registry.add("spring.datasource.url", () -> configuration.getURL("todos") + "?createDatabaseIfNotExist=true");
+        registry.add("spring.datasource.driver-class-name", () -> "org.mariadb.jdbc.Driver");
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Test
+    @DisplayName("All MariaDB migrations apply to an empty database and Hibernate validates the result")
+    void testMigrationsOnEmptyDatabase() {
+        // the context only starts if Hibernate's validation of the migrated schema passed
+        MigrationInfo[] all = flyway.info().all();
+        assertEquals(0, flyway.info().pending().length);
+        assertEquals(all.length, flyway.info().applied().length);
+        for (MigrationInfo migration : all) {
+            assertEquals(MigrationState.SUCCESS, migration.getState(), migration.getScript());
+        }
+    }
+
+    @Test
+    @DisplayName("The indexes of the query paths exist, Hibernate's validation does not check them")
+    void testQueryIndexesExist() {
+        List<String> indexes = jdbcTemplate.queryForList(
+            "select distinct index_name from information_schema.statistics where table_schema = database()",
+            String.class);
+        assertTrue(indexes.containsAll(List.of("idx_todos_finished_due_date", "idx_todos_category_finished",
+            "idx_todos_assignee_list_assignee", "idx_assignees_name")), indexes.toString());
+    }
+}
@@ -0,0 +1,133 @@
+package de.unistuttgart.iste.ese.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of fetching several ToDos or Assignees by ID in one request.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:multiGet;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class MultiGetTests {
+    private static final long MISSING_ID = 999_999L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("ToDos are returned in request order with their Assignees, unknown IDs are reported as missing")
+    void testToDosInRequestOrder() throws Exception {
+        long first = createAssignee("First");
+        long second = createAssignee("Second");
+        long a = createToDo("A", first);
+        long b = createToDo("B", first, second);
+        long c = createToDo("C", second);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // a repeated ID is answered once, at its first position
+        JsonNode result = get("/api/v1/todos?ids=" + c + "," + MISSING_ID + "," + a + "," + c + "," + b);
+
+        assertEquals(List.of(c, a, b), ids(result.get("items")));
+        assertEquals(List.of(MISSING_ID), longs(result.get("missingIds")));
+        assertEquals(List.of(first, second), ids(result.get("items").get(2).get("assigneeList")).stream().sorted()
+            .toList());
+        // the ToDos and their Assignees are fetched with a single query
+        assertTrue(statistics.getPrepareStatementCount() <= 1, "Statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Assignees are returned in request order, unknown IDs are reported as missing")
+    void testAssigneesInRequestOrder() throws Exception {
+        long first = createAssignee("First");
+        long second = createAssignee("Second");
+
+        JsonNode result = get("/api/v1/assignees?ids=" + MISSING_ID + "," + second + "," + first);
+
+        assertEquals(List.of(second, first), ids(result.get("items")));
+        assertEquals("Second", result.get("items").get(0).get("name").asText());
+        assertEquals(List.of(MISSING_ID), longs(result.get("missingIds")));
+
+        result = get("/api/v1/assignees?ids=" + MISSING_ID + "," + (MISSING_ID + 1));
+        assertEquals(List.of(), ids(result.get("items")));
+        assertEquals(List.of(MISSING_ID, MISSING_ID + 1), longs(result.get("missingIds")));
+    }
+
+    @Test
+    @DisplayName("Requests with more than MAX_IDS IDs are rejected")
+    void testTooManyIds() throws Exception {
+        String ids = LongStream.rangeClosed(1, MultiGetResult.MAX_IDS + 1).mapToObj(Long::toString)
+            .collect(Collectors.joining(","));
+
+        assertEquals(400, perform(MockMvcRequestBuilders.get("/api/v1/todos").param("ids", ids)).getStatus());
+        assertEquals(400, perform(MockMvcRequestBuilders.get("/api/v1/assignees").param("ids", ids)).getStatus());
+        String maximum = ids.substring(0, ids.lastIndexOf(','));
+        assertEquals(200, perform(MockMvcRequestBuilders.get("/api/v1/todos").param("ids", maximum)).getStatus());
+    }
+
+    private static List<Long> ids(JsonNode entities) {
+        List<Long> ids = new ArrayList<>();
+        entities.forEach(entity -> ids.add(entity.get("id").asLong()));
+        return ids;
+    }
+
+    private static List<Long> longs(JsonNode values) {
+        List<Long> longs = new ArrayList<>();
+        values.forEach(value -> longs.add(value.asLong()));
+        return longs;
+    }
+
+    private long createAssignee(String name) throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.post("/api/v1/assignees")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"" + name + "\",\"prename\":\"Multi\",\"email\":\"multi@uni-stuttgart.de\"}"));
+        assertEquals(201, response.getStatus(), response.getContentAsString());
+        return objectMapper.readTree(response.getContentAsString()).get("id").asLong();
+    }
+
+    private long createToDo(String title, long... assigneeIds) throws Exception {
+        String assignees = LongStream.of(assigneeIds).mapToObj(Long::toString).collect(Collectors.joining(","));
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.post("/api/v1/todos")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"" + title + "\",\"dueDate\":2000000000000,\"assigneeIdList\":[" + assignees + "]}"));
+        assertEquals(201, response.getStatus(), response.getContentAsString());
+        return objectMapper.readTree(response.getContentAsString()).get("id").asLong();
+    }
+
+    private JsonNode get(String path) throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.get(path));
+        assertEquals(200, response.getStatus(), path);
+        return objectMapper.readTree(response.getContentAsString());
+    }
+
+    private MockHttpServletResponse perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,173 @@
+package de.unistuttgart.iste.ese.api.ReadReplica;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests of the read replica routing with two H2 databases: the primary in memory and a replica served
+ * over TCP, so the test can take it down. Nothing is replicated, so a row inserted into one database only shows
+ * which one a request read from.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:replicaPrimary;DB_CLOSE_DELAY=-1",
+    // the health checks are run by the tests
+    "api.datasource.replica-check-interval-ms=3600000",
+    "api.datasource.replica-connect-timeout-ms=500",
+    "api.datasource.read-your-writes-ms=60000"})
+@AutoConfigureMockMvc
+public class ReadReplicaTests {
+    private static final int PORT = freePort();
+
+    private static final String REPLICA_URL = "jdbc:h2:tcp://localhost:" + PORT + "/mem:replica;DB_CLOSE_DELAY=-1";
+
+    // IDs far above the ones generated by the other test contexts sharing the second-level cache
+    private static final long REPLICA_ONLY_ID = 900_000_001L;
+
+    private static final long FALLBACK_ID = 900_000_002L;
+
+    private static Server server;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ReplicaDataSource replicaDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void replicaUrls(DynamicPropertyRegistry registry) throws SQLException {
+        startReplica();
+        registry.add("api.datasource.replica-urls", () -> REPLICA_URL);
+    }
+
+    @AfterAll
+    static void stopReplica() {
+        server.stop();
+    }
+
+    @Test
+    @DisplayName("Reads go to the replica until the client writes, then to the primary")
+    void testReadYourWrites() throws Exception {
+        insertIntoReplica(REPLICA_ONLY_ID, "Replica only");
+        double replicaReads = reads("replica");
+
+        MockHttpServletResponse fromReplica = perform(MockMvcRequestBuilders.get("/api/v1/todos/" + REPLICA_ONLY_ID));
+        assertEquals(200, fromReplica.getStatus());
+        assertTrue(fromReplica.getContentAsString().contains("Replica only"));
+        assertTrue(reads("replica") > replicaReads);
+
+        MockHttpServletResponse created = perform(MockMvcRequestBuilders.post("/api/v1/todos")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"Written\",\"dueDate\":2000000000000,\"assigneeIdList\":[1]}"));
+        assertEquals(201, created.getStatus(), created.getContentAsString());
+        Cookie cookie = created.getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(cookie);
+        String location = "/api/v1/todos/" + objectMapper.readTree(created.getContentAsString()).get("id").asLong();
+        double pinnedReads = reads("pinned");
+
+        // with the cookie the client reads from the primary: its own write is there, the replica's row is not
+        assertEquals(200, perform(MockMvcRequestBuilders.get(location).cookie(cookie)).getStatus());
+        assertEquals(404, perform(MockMvcRequestBuilders.get("/api/v1/todos/" + REPLICA_ONLY_ID).cookie(cookie))
+            .getStatus());
+        assertTrue(reads("pinned") > pinnedReads);
+
+        // once the cookie has expired the client reads from the replica again
+        Cookie expired = new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(System.currentTimeMillis() - 1));
+        assertEquals(200, perform(MockMvcRequestBuilders.get("/api/v1/todos/" + REPLICA_ONLY_ID).cookie(expired))
+            .getStatus());
+    }
+
+    @Test
+    @DisplayName("Reads fall back to the primary while the replica is down and return once it is healthy")
+    void testHealthFallback() throws Exception {
+        insertIntoReplica(FALLBACK_ID, "Replica row");
+        assertEquals(200, perform(MockMvcRequestBuilders.get("/api/v1/todos/" + FALLBACK_ID)).getStatus());
+
+        server.stop();
+        try {
+            replicaDataSource.checkReplicas();
+            assertEquals(0.0, meterRegistry.get("api.datasource.replica.healthy").gauge().value());
+            double fallbackReads = reads("fallback");
+
+            assertEquals(404, perform(MockMvcRequestBuilders.get("/api/v1/todos/" + FALLBACK_ID)).getStatus());
+            assertTrue(reads("fallback") > fallbackReads);
+        } finally {
+            startReplica();
+        }
+        insertIntoReplica(FALLBACK_ID, "Replica row");
+
+        // the pool replaces connections broken by the restart when it validates them, after 500 ms of idleness
+        for (int i = 0; i < 20 && meterRegistry.get("api.datasource.replica.healthy").gauge().value() == 0; i++) {
+            Thread.sleep(600);
+            replicaDataSource.checkReplicas();
+        }
+        assertEquals(1.0, meterRegistry.get("api.datasource.replica.healthy").gauge().value());
+        assertEquals(200, perform(MockMvcRequestBuilders.get("/api/v1/todos/" + FALLBACK_ID)).getStatus());
+    }
+
+    private double reads(String route) {
+        return meterRegistry.counter("api.datasource.reads", "route", route).count();
+    }
+
+    private MockHttpServletResponse perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    private static void startReplica() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", Integer.toString(PORT), "-ifNotExists").start();
+        Flyway.configure()
+            .dataSource(REPLICA_URL, "sa", "")
+            .locations("classpath:db/migration/h2")
+            .load()
+            .migrate();
+    }
+
+    private static void insertIntoReplica(long id, String title) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("merge into todos (id, version, title, finished, created_date, due_date) key (id) "
+                + "values (" + id + ", 0, '" + title + "', false, 0, 2000000000000)");
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package de.unistuttgart.iste.ese.api;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the H2 migrations create the schema the entities expect.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:migrations;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=validate"})
+public class SchemaMigrationTests {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Test
+    @DisplayName("All migrations apply to an empty database and Hibernate validates the result")
+    void testMigrationsOnEmptyDatabase() {
+        // the context only starts if Hibernate's validation of the migrated schema passed
+        MigrationInfo[] all = flyway.info().all();
+        assertEquals(0, flyway.info().pending().length);
+        assertEquals(all.length, flyway.info().applied().length);
+        assertEquals(all[all.length - 1].getVersion(), flyway.info().current().getVersion());
+        for (MigrationInfo migration : all) {
+            assertEquals(MigrationState.SUCCESS, migration.getState(), migration.getScript());
+        }
+    }
+
+    @Test
+    @DisplayName("A database created before the migrations is baselined at V1 and migrated from there")
+    void testBaselineOfExistingDatabase() throws Exception {
+        DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:legacy;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = dataSource.getConnection()) {
+            // the schema Hibernate used to create, which V1 reproduces
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/h2/V1__create_schema.sql"));
+        }
+        Flyway legacy = Flyway.configure()
+            .dataSource(dataSource)
+            .locations("classpath:db/migration/h2")
+            .baselineOnMigrate(true)
+            .load();
+
+        legacy.migrate();
+
+        List<String> applied = Arrays.stream(legacy.info().applied())
+            .map(migration -> migration.getVersion().getVersion())
+            .toList();
+        assertEquals("1", applied.get(0));
+        assertEquals(MigrationState.BASELINE, legacy.info().applied()[0].getState());
+        assertEquals(flyway.info().current().getVersion(), legacy.info().current().getVersion());
+        assertEquals(0, legacy.info().pending().length);
+    }
+}
@@ -0,0 +1,108 @@
+package de.unistuttgart.iste.ese.api.Search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares searching 1M ToDo titles in the inverted index with the LIKE scan the database would need.
+ */
+public class InvertedIndexBenchmarkTests {
+    private static final int TODOS = 1_000_000;
+
+    private static final int VOCABULARY = 20_000;
+
+    private static final int WORDS_PER_TITLE = 4;
+
+    private static final int QUERIES = 20;
+
+    /**
+     * The index has to answer a query at least this many times faster than the LIKE scan.
+     */
+    private static final double MIN_SPEEDUP = 10;
+
+    @Test
+    @DisplayName("At 1M ToDos the index returns the same matches as a LIKE scan at least 10 times faster")
+    void testIndexAgainstLikeScan() throws Exception {
+        InvertedIndex index = new InvertedIndex();
+        Random random = new Random(42);
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:searchBenchmark", "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE todos (id BIGINT PRIMARY KEY, title VARCHAR(100))");
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO todos VALUES (?, ?)")) {
+                for (long id = 1; id <= TODOS; id++) {
+                    String title = title(random);
+                    index.put(id, TextTokenizer.tokenize(title));
+                    insert.setLong(1, id);
+                    insert.setString(2, title);
+                    insert.addBatch();
+                    if (id % 10_000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+            }
+            connection.commit();
+            assertEquals(TODOS, index.getDocumentCount());
+
+            long indexNanos = 0;
+            long scanNanos = 0;
+            try (PreparedStatement like = connection.prepareStatement("SELECT id FROM todos WHERE title LIKE ?")) {
+                for (int q = 0; q < QUERIES; q++) {
+                    // words have a fixed width, so a substring match is a word or prefix match
+                    String word = word(random.nextInt(VOCABULARY));
+                    boolean prefix = q % 2 == 1;
+                    String term = prefix ? word.substring(0, word.length() - 1) : word;
+
+                    long start = System.nanoTime();
+                    Set<Long> found = index.search(prefix ? List.of() : List.of(term),
+                        prefix ? List.of(term) : List.of(), Integer.MAX_VALUE).keySet();
+                    indexNanos += System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    Set<Long> scanned = new HashSet<>();
+                    like.setString(1, "%" + term + "%");
+                    try (ResultSet resultSet = like.executeQuery()) {
+                        while (resultSet.next()) {
+                            scanned.add(resultSet.getLong(1));
+                        }
+                    }
+                    scanNanos += System.nanoTime() - start;
+
+                    assertFalse(scanned.isEmpty(), term);
+                    assertEquals(scanned, new HashSet<>(found), term);
+                }
+            }
+            assertTrue(indexNanos * MIN_SPEEDUP < scanNanos,
+                "Index took " + indexNanos / 1_000_000 + " ms, LIKE scan " + scanNanos / 1_000_000 + " ms");
+        }
+    }
+
+    private static String title(Random random) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < WORDS_PER_TITLE; i++) {
+            words.add(word(random.nextInt(VOCABULARY)));
+        }
+        return String.join(" ", words);
+    }
+
+    private static String word(int number) {
+        // five digits for every number below VOCABULARY
+        return "w" + (10_000 + number);
+    }
+}
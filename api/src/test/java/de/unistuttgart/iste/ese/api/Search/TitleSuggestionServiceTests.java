@@ -0,0 +1,102 @@
+package de.unistuttgart.iste.ese.api.Search;
+
+import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshot;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshotScanner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TitleSuggestionServiceTests {
+    private static final List<String> TITLES = List.of(
+        "Buy milk", "Buy milk", "Buy milk", "buy Milk", "Buy bread", "Buy bread", "Bus ticket", "Call mom");
+
+    private TitleSuggestionService service;
+
+    private long nextId = 1;
+
+    @BeforeEach
+    void setUp() {
+        ToDoSnapshotScanner scanner = mock(ToDoSnapshotScanner.class);
+        when(scanner.scan(any())).thenAnswer(invocation -> {
+            Consumer<ToDoSnapshot> consumer = invocation.getArgument(0);
+            for (String title : TITLES) {
+                consumer.accept(ToDoSnapshot.of(todo(title)));
+            }
+            return (long) TITLES.size();
+        });
+        service = new TitleSuggestionService(scanner, new SimpleMeterRegistry());
+        service.rebuild();
+    }
+
+    private ToDo todo(String title) {
+        ToDo todo = new ToDo(title, null, false, null, new ArrayList<>());
+        todo.setId(nextId++);
+        todo.setCategory("work");
+        return todo;
+    }
+
+    private List<String> suggest(String prefix, int limit) {
+        return service.suggest(prefix, limit).stream()
+            .map(suggestion -> suggestion.getTitle() + " " + suggestion.getCount())
+            .toList();
+    }
+
+    @Test
+    @DisplayName("Titles starting with the prefix are suggested case-insensitively, most frequent first")
+    void testPrefixSuggestions() {
+        // equal counts are ordered by title
+        assertEquals(List.of("Buy milk 3", "Buy bread 2", "Bus ticket 1", "buy Milk 1"), suggest("bu", 10));
+        assertEquals(List.of("Buy milk 3", "buy Milk 1"), suggest("BUY M", 10));
+        assertEquals(List.of("Call mom 1"), suggest("  call", 10));
+        assertEquals(List.of("Buy milk 3", "Buy bread 2"), suggest("b", 2));
+        assertEquals(8, service.suggest("", TitleSuggestionService.MAX_LIMIT).stream()
+            .mapToInt(TitleSuggestion::getCount).sum());
+        assertEquals(List.of(), suggest("buyer", 10));
+    }
+
+    @Test
+    @DisplayName("Created, renamed and deleted ToDos change the suggestions before and after compaction")
+    void testChangesBeforeAndAfterCompaction() {
+        for (int i = 0; i < 3; i++) {
+            service.onToDoChanged(ToDoChangedEvent.created(todo("Bus ticket")));
+        }
+        // a renamed ToDo moves its count to the new title
+        service.onToDoChanged(ToDoChangedEvent.updated(ToDoSnapshot.of(todo("Buy bread")), todo("Call dad")));
+        service.onToDoChanged(ToDoChangedEvent.deleted(ToDoSnapshot.of(todo("Call mom"))));
+        // an update keeping the title changes nothing
+        service.onToDoChanged(ToDoChangedEvent.updated(ToDoSnapshot.of(todo("Buy milk")), todo("Buy milk")));
+
+        List<String> expected = List.of("Bus ticket 4", "Buy milk 3", "Buy bread 1", "buy Milk 1");
+        assertEquals(expected, suggest("bu", 10));
+        assertEquals(List.of("Call dad 1"), suggest("call", 10));
+
+        service.compact();
+
+        assertEquals(expected, suggest("bu", 10));
+        assertEquals(List.of("Call dad 1"), suggest("call", 10));
+        // a rebuild from the database replaces the compacted index
+        service.rebuild();
+        assertEquals(List.of("Call mom 1"), suggest("call", 10));
+    }
+
+    @Test
+    @DisplayName("Limits out of range are rejected")
+    void testLimits() {
+        assertThrows(IllegalArgumentException.class, () -> service.suggest("bu", 0));
+        assertThrows(IllegalArgumentException.class, () -> service.suggest("bu", TitleSuggestionService.MAX_LIMIT + 1));
+        assertEquals(1, service.suggest("bu", 1).size());
+    }
+}
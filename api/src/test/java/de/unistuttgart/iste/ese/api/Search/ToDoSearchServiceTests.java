@@ -0,0 +1,161 @@
+package de.unistuttgart.iste.ese.api.Search;
+
+import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoRepository;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshot;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshotScanner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ToDoSearchServiceTests {
+
+    private final Map<Long, ToDo> stored = new HashMap<>();
+
+    private ToDoSnapshotScanner scanner;
+
+    private ToDoSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        ToDoRepository toDoRepository = mock(ToDoRepository.class);
+        when(toDoRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<ToDo> found = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                if (stored.containsKey(id)) {
+                    found.add(stored.get(id));
+                }
+            }
+            return found;
+        });
+        scanner = mock(ToDoSnapshotScanner.class);
+        service = new ToDoSearchService(toDoRepository, scanner, new SimpleMeterRegistry());
+    }
+
+    private ToDo todo(long id, String title, String description) {
+        ToDo todo = new ToDo(title, description, false, null, new ArrayList<>());
+        todo.setId(id);
+        todo.setCategory("work");
+        stored.put(id, todo);
+        return todo;
+    }
+
+    private void create(long id, String title, String description) {
+        service.onToDoChanged(ToDoChangedEvent.created(todo(id, title, description)));
+    }
+
+    private List<Long> search(String query) {
+        List<Long> ids = new ArrayList<>();
+        service.search(query, ToDoSearchService.MAX_LIMIT).forEach(hit -> ids.add(hit.getTodo().getId()));
+        return ids;
+    }
+
+    @Test
+    @DisplayName("ToDos matching more and rarer query words rank higher, shorter ToDos win ties")
+    void testRanking() {
+        create(1, "Write report", "send the report to the team");
+        create(2, "Write report", null);
+        create(3, "Write invoice", null);
+        create(4, "Plan the team meeting", null);
+        create(5, "Water the plants", null);
+
+        // "invoice" is rarer than "write", so ToDo 3 ranks above the other ToDos matching only "write"
+        List<Long> ids = search("write invoice");
+        assertEquals(3L, ids.get(0));
+        assertEquals(List.of(1L, 2L), ids.subList(1, 3).stream().sorted().toList());
+
+        // both ToDos contain every word, the shorter one ranks first
+        ids = search("report write");
+        assertEquals(List.of(2L, 1L), ids.subList(0, 2));
+        List<ToDoSearchHit> hits = service.search("report write", 10);
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+        assertTrue(hits.get(1).getScore() > hits.get(2).getScore());
+
+        // case and punctuation are ignored, ToDos not containing any word are not returned
+        assertEquals(List.of(4L, 1L), search("TEAM,"));
+        assertEquals(List.of(), search("garden"));
+    }
+
+    @Test
+    @DisplayName("A word ending with * matches every word starting with it")
+    void testPrefix() {
+        create(1, "Meeting with the team", null);
+        create(2, "Prepare the meetup", null);
+        create(3, "Meet the client", null);
+        create(4, "Metal recycling", null);
+
+        assertEquals(List.of(1L, 2L, 3L), search("meet*").stream().sorted().toList());
+        assertEquals(List.of(3L), search("meet"));
+        assertEquals(List.of(1L, 2L, 3L, 4L), search("Me*").stream().sorted().toList());
+        // an exact word and a prefix combine, the ToDo matching both ranks first
+        assertEquals(1L, search("team meet*").get(0));
+        assertEquals(List.of(), search("meeting*s"));
+    }
+
+    @Test
+    @DisplayName("Created, updated and deleted ToDos are searchable immediately, stale words are dropped")
+    void testIncrementalUpdates() {
+        create(1, "Buy milk", null);
+        create(2, "Buy bread", "whole grain");
+        assertEquals(List.of(1L), search("milk"));
+
+        ToDoSnapshot previous = ToDoSnapshot.of(stored.get(1L));
+        service.onToDoChanged(ToDoChangedEvent.updated(previous, todo(1, "Buy oat milk", "lactose free")));
+        assertEquals(List.of(1L), search("oat"));
+        assertEquals(List.of(1L), search("lactose"));
+
+        previous = ToDoSnapshot.of(stored.get(1L));
+        service.onToDoChanged(ToDoChangedEvent.updated(previous, todo(1, "Buy coffee", null)));
+        assertEquals(List.of(), search("milk"));
+        assertEquals(List.of(), search("lactose"));
+        assertEquals(List.of(1L), search("coffee"));
+
+        service.onToDoChanged(ToDoChangedEvent.deleted(ToDoSnapshot.of(stored.remove(2L))));
+        assertEquals(List.of(1L), search("buy"));
+        assertEquals(List.of(), search("grain"));
+    }
+
+    @Test
+    @DisplayName("Writes committed during a rebuild are applied to the rebuilt index")
+    void testWritesDuringRebuild() {
+        ToDo first = todo(1, "Old title", null);
+        ToDo second = todo(2, "Second", null);
+        when(scanner.scan(any())).thenAnswer(invocation -> {
+            Consumer<ToDoSnapshot> consumer = invocation.getArgument(0);
+            consumer.accept(ToDoSnapshot.of(first));
+            // ToDo 1 is renamed after the scan passed it
+            service.onToDoChanged(ToDoChangedEvent.updated(ToDoSnapshot.of(first), todo(1, "New title", null)));
+            consumer.accept(ToDoSnapshot.of(second));
+            return 2L;
+        });
+
+        service.rebuild();
+
+        assertEquals(List.of(1L), search("new"));
+        assertEquals(List.of(), search("old"));
+        assertEquals(List.of(2L), search("second"));
+    }
+
+    @Test
+    @DisplayName("Queries without words and limits out of range are rejected")
+    void testInvalidQueries() {
+        assertThrows(IllegalArgumentException.class, () -> service.search(" ... ", 10));
+        assertThrows(IllegalArgumentException.class, () -> service.search("milk", 0));
+        assertThrows(IllegalArgumentException.class, () -> service.search("milk", ToDoSearchService.MAX_LIMIT + 1));
+    }
+}
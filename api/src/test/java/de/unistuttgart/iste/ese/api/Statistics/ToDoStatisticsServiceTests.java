@@ -0,0 +1,112 @@
+package de.unistuttgart.iste.ese.api.Statistics;
+
+import de.unistuttgart.iste.ese.api.Assignee.Assignee;
+import de.unistuttgart.iste.ese.api.ToDo.ToDo;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoChangedEvent;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoRepository;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshot;
+import de.unistuttgart.iste.ese.api.ToDo.ToDoSnapshotScanner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ToDoStatisticsServiceTests {
+    private static final long PAST = 1_000L;
+
+    private ToDoRepository toDoRepository;
+
+    private ToDoSnapshotScanner scanner;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ToDoStatisticsService service;
+
+    @BeforeEach
+    void setUp() {
+        toDoRepository = mock(ToDoRepository.class);
+        scanner = mock(ToDoSnapshotScanner.class);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ToDoStatisticsService(toDoRepository, scanner, meterRegistry);
+    }
+
+    private static ToDo todo(long id, boolean finished, long assigneeId) {
+        Assignee assignee = new Assignee("Name", "Prename", "name@uni-stuttgart.de");
+        assignee.setId(assigneeId);
+        List<Assignee> assignees = new ArrayList<>();
+        assignees.add(assignee);
+        ToDo todo = new ToDo("ToDo " + id, null, finished, PAST, assignees);
+        todo.setId(id);
+        todo.setCategory("work");
+        return todo;
+    }
+
+    @Test
+    @DisplayName("Writes committed during a rebuild are neither lost nor counted twice")
+    void testWritesDuringRebuild() {
+        ToDoSnapshot first = ToDoSnapshot.of(todo(1, false, 7));
+        ToDoSnapshot second = ToDoSnapshot.of(todo(2, false, 7));
+        when(scanner.scan(any())).thenAnswer(invocation -> {
+            Consumer<ToDoSnapshot> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            // ToDo 1 is finished after the scan passed it, ToDo 2 before the scan reaches it
+            service.onToDoChanged(ToDoChangedEvent.updated(first, todo(1, true, 7)));
+            service.onToDoChanged(ToDoChangedEvent.updated(second, todo(2, true, 7)));
+            consumer.accept(ToDoSnapshot.of(todo(2, true, 7)));
+            return 2L;
+        });
+
+        service.rebuild();
+
+        ToDoStatistics statistics = service.getStatistics();
+        assertEquals(2, statistics.getTotal());
+        assertEquals(2, statistics.getFinished());
+        assertEquals(0, statistics.getOverdue());
+        assertEquals(2, statistics.getByAssignee().get(7L).getTotal());
+        assertEquals(0, statistics.getByAssignee().get(7L).getOpen());
+    }
+
+    @Test
+    @DisplayName("Drift in the overdue and Assignee counters is detected and repaired")
+    void testConsistencyCheckComparesAllCounters() {
+        when(scanner.scan(any())).thenAnswer(invocation -> {
+            invocation.<Consumer<ToDoSnapshot>>getArgument(0).accept(ToDoSnapshot.of(todo(1, false, 7)));
+            return 1L;
+        });
+        service.rebuild();
+        List<Object[]> categories = new ArrayList<>();
+        categories.add(new Object[]{"work", false, 1L});
+        when(toDoRepository.countByCategoryAndFinished()).thenReturn(categories);
+        List<Object[]> workloads = new ArrayList<>();
+        workloads.add(new Object[]{7L, false, 1L});
+        when(toDoRepository.countByAssigneeAndFinished()).thenReturn(workloads);
+        when(toDoRepository.countOverdue(anyLong())).thenReturn(1L);
+
+        service.checkConsistency();
+        assertEquals(0, meterRegistry.counter("api.todos.statistics.drift").count());
+
+        // same totals and categories, but the ToDo moved to another Assignee
+        workloads.set(0, new Object[]{8L, false, 1L});
+        service.checkConsistency();
+        assertEquals(1, meterRegistry.counter("api.todos.statistics.drift").count());
+
+        // same totals and categories, but the ToDo is no longer overdue
+        workloads.set(0, new Object[]{7L, false, 1L});
+        when(toDoRepository.countOverdue(anyLong())).thenReturn(0L);
+        service.checkConsistency();
+        assertEquals(2, meterRegistry.counter("api.todos.statistics.drift").count());
+        verify(scanner, times(3)).scan(any());
+    }
+}
@@ -0,0 +1,149 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of DELETE /todos: which ToDos the filters select, the chunking and the cleanup of the Assignee links.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:bulkDelete;DB_CLOSE_DELAY=-1",
+    "api.todos.bulk-delete.chunk-size=3"})
+@AutoConfigureMockMvc
+public class BulkDeleteTests {
+    private static final long OLD = 1_000L;
+
+    private static final long RECENT = 5_000L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ToDoRepository toDoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Only ToDos matching every filter are deleted, in chunks, together with their Assignee links")
+    void testFiltersAndLinkCleanup() throws Exception {
+        long first = createAssignee();
+        long second = createAssignee();
+        List<Long> oldWork = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            oldWork.add(createToDo("work", OLD, first, second));
+        }
+        long openWork = createToDo("work", null, first, second);
+        long oldPrivate = createToDo("private", OLD, first);
+        long recentWork = createToDo("work", RECENT, second);
+
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.delete("/api/v1/todos")
+            .param("category", "work").param("finished", "true").param("finishedBefore", "2000"));
+        assertEquals(200, response.getStatus(), response.getContentAsString());
+        JsonNode result = objectMapper.readTree(response.getContentAsString());
+        assertEquals(7, result.get("deleted").asLong());
+        // chunks of 3, 3 and 1 ToDos
+        assertEquals(3, result.get("chunks").asInt());
+        for (long id : oldWork) {
+            assertEquals(404, perform(MockMvcRequestBuilders.get("/api/v1/todos/" + id)).getStatus());
+            assertEquals(0, links(id));
+        }
+        assertEquals(2, links(openWork));
+        assertEquals(1, links(oldPrivate));
+        assertEquals(1, links(recentWork));
+
+        // ToDos without a finished date are not finished before anything
+        response = perform(MockMvcRequestBuilders.delete("/api/v1/todos").param("finishedBefore", "2000"));
+        assertEquals(1, objectMapper.readTree(response.getContentAsString()).get("deleted").asLong());
+        assertEquals(0, links(oldPrivate));
+
+        List<Long> remaining = new ArrayList<>();
+        get("/api/v1/todos").forEach(todo -> remaining.add(todo.get("id").asLong()));
+        assertTrue(remaining.containsAll(List.of(openWork, recentWork)), remaining.toString());
+        assertTrue(remaining.stream().noneMatch(id -> oldWork.contains(id) || id == oldPrivate), remaining.toString());
+        // the Assignees themselves are kept
+        assertEquals(200, perform(MockMvcRequestBuilders.get("/api/v1/assignees/" + first)).getStatus());
+        assertEquals(200, perform(MockMvcRequestBuilders.get("/api/v1/assignees/" + second)).getStatus());
+    }
+
+    @Test
+    @DisplayName("A bulk delete without filter is rejected and deletes nothing")
+    void testFilterRequired() throws Exception {
+        // an open ToDo of its own category, so the other test does not delete it
+        long id = createToDo("study", null, createAssignee());
+
+        assertEquals(400, perform(MockMvcRequestBuilders.delete("/api/v1/todos")).getStatus());
+
+        assertEquals(200, perform(MockMvcRequestBuilders.get("/api/v1/todos/" + id)).getStatus());
+        assertEquals(1, links(id));
+    }
+
+    private long links(long todoId) {
+        return jdbcTemplate.queryForObject("select count(*) from todos_assignee_list where todos_id = ?", Long.class,
+            todoId);
+    }
+
+    private long createAssignee() throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.post("/api/v1/assignees")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"Bulk\",\"prename\":\"Delete\",\"email\":\"bulk@uni-stuttgart.de\"}"));
+        assertEquals(201, response.getStatus(), response.getContentAsString());
+        return objectMapper.readTree(response.getContentAsString()).get("id").asLong();
+    }
+
+    private long createToDo(String category, Long finishedDate, long... assigneeIds) throws Exception {
+        StringBuilder assignees = new StringBuilder();
+        for (long assigneeId : assigneeIds) {
+            assignees.append(assignees.isEmpty() ? "" : ",").append(assigneeId);
+        }
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.post("/api/v1/todos")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"Bulk\",\"dueDate\":2000000000000,\"assigneeIdList\":[" + assignees + "]}"));
+        assertEquals(201, response.getStatus(), response.getContentAsString());
+        long id = objectMapper.readTree(response.getContentAsString()).get("id").asLong();
+        transactionTemplate.executeWithoutResult(tx -> {
+            ToDo todo = toDoRepository.findById(id).orElseThrow();
+            todo.setCategory(category);
+            if (finishedDate != null) {
+                todo.setFinished(true);
+                todo.setFinishedDate(finishedDate);
+            }
+            toDoRepository.save(todo);
+        });
+        return id;
+    }
+
+    private JsonNode get(String path) throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.get(path));
+        assertEquals(200, response.getStatus(), path);
+        return objectMapper.readTree(response.getContentAsString());
+    }
+
+    private MockHttpServletResponse perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
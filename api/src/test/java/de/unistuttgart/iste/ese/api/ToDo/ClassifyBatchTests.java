@@ -0,0 +1,100 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of POST /classify with batches from empty to the maximum size.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ClassifyBatchTests {
+    private static final List<String> TITLES = List.of("Buy milk", "Write the quarterly report", "Call mom",
+        "Book a flight to Berlin", "Fix the login bug");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TodoModel todoModel;
+
+    @Test
+    @DisplayName("Each text of a batch of 1 to N texts is classified like a single ToDo title, in request order")
+    void testBatchesInRequestOrder() throws Exception {
+        for (int size = 1; size <= TITLES.size(); size++) {
+            List<String> texts = TITLES.subList(TITLES.size() - size, TITLES.size());
+
+            JsonNode batch = classify(texts);
+
+            assertEquals(TodoModel.BUNDLED, batch.get("model").asText());
+            JsonNode classifications = batch.get("classifications");
+            assertEquals(size, classifications.size());
+            for (int i = 0; i < size; i++) {
+                JsonNode classification = classifications.get(i);
+                assertEquals(todoModel.predictClass(texts.get(i)), classification.get("category").asText());
+                // the category is the most probable one, and the probabilities add up to 1
+                double sum = 0;
+                double best = 0;
+                String mostProbable = null;
+                for (var probability : classification.get("probabilities").properties()) {
+                    sum += probability.getValue().asDouble();
+                    if (probability.getValue().asDouble() > best) {
+                        best = probability.getValue().asDouble();
+                        mostProbable = probability.getKey();
+                    }
+                }
+                assertEquals(1, sum, 1e-6);
+                assertEquals(mostProbable, classification.get("category").asText());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Empty and maximum batches are classified, larger batches and null texts are rejected")
+    void testLimits() throws Exception {
+        assertEquals(0, classify(List.of()).get("classifications").size());
+
+        // repeated texts are evaluated once but answered at every position
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < TodoModel.MAX_CLASSIFY_BATCH; i++) {
+            texts.add(TITLES.get(i % TITLES.size()));
+        }
+        JsonNode classifications = classify(texts).get("classifications");
+        assertEquals(TodoModel.MAX_CLASSIFY_BATCH, classifications.size());
+        assertEquals(classifications.get(0), classifications.get(TITLES.size()));
+        assertEquals(classifications.get(TITLES.size() - 1), classifications.get(texts.size() - 1));
+
+        texts.add("One too many");
+        assertEquals(400, post(objectMapper.writeValueAsString(texts)).getStatus());
+        assertEquals(400, post("[\"Buy milk\", null]").getStatus());
+        assertEquals(400, post("{\"text\":\"Buy milk\"}").getStatus());
+    }
+
+    private JsonNode classify(List<String> texts) throws Exception {
+        MockHttpServletResponse response = post(objectMapper.writeValueAsString(texts));
+        assertEquals(200, response.getStatus(), response.getContentAsString());
+        return objectMapper.readTree(response.getContentAsString());
+    }
+
+    private MockHttpServletResponse post(String body) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/classify")
+            .contentType(MediaType.APPLICATION_JSON).content(body)).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,106 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks with H2's EXPLAIN that the due date queries are served by indexes instead of full table scans.
+ * The SQL is the one Hibernate generates for the repository methods. Also checks the bounds of the upcoming window.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:queryPlans;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "de.unistuttgart.iste.ese.api.ToDo.DueDateQueryPlanTests$RecordingInspector"})
+public class DueDateQueryPlanTests {
+
+    @Autowired
+    private ToDoRepository toDoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ToDoService toDoService;
+
+    @Test
+    @DisplayName("An upcoming window that ends after the largest due date is rejected instead of overflowing")
+    void testUpcomingWindowOverflowIsRejected() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+            () -> toDoService.getUpcomingToDos(Long.MAX_VALUE, 10));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        long largestWindow = Long.MAX_VALUE - System.currentTimeMillis() - 60_000;
+        assertDoesNotThrow(() -> toDoService.getUpcomingToDos(largestWindow, 10));
+    }
+
+    @Test
+    @DisplayName("Overdue ToDos are read with the (finished, due_date) index")
+    void testOverdueUsesIndex() {
+        String plan = explain(() -> toDoRepository.findOverdue(System.currentTimeMillis(), Limit.of(10)));
+        assertTrue(plan.contains("IDX_TODOS_FINISHED_DUE_DATE"), plan);
+    }
+
+    @Test
+    @DisplayName("Upcoming ToDos are read with the (finished, due_date) index")
+    void testUpcomingUsesIndex() {
+        long now = System.currentTimeMillis();
+        String plan = explain(() -> toDoRepository.findDueBetween(now, now + 86_400_000L, Limit.of(10)));
+        assertTrue(plan.contains("IDX_TODOS_FINISHED_DUE_DATE"), plan);
+    }
+
+    @Test
+    @DisplayName("The next due ToDos of an Assignee are found with the join table index")
+    void testNextDueUsesJoinTableIndex() {
+        String plan = explain(() -> toDoRepository.findNextDueByAssignee(1L, Limit.of(10)));
+        assertTrue(plan.contains("IDX_TODOS_ASSIGNEE_LIST_ASSIGNEE"), plan);
+    }
+
+    /**
+     * Runs a repository query and returns H2's plan of the SQL it sent, asserting that no table is fully scanned.
+     */
+    private String explain(Runnable query) {
+        RecordingInspector.STATEMENTS.clear();
+        query.run();
+        String sql = RecordingInspector.STATEMENTS.stream()
+            .filter(statement -> statement.toLowerCase(Locale.ROOT).contains("due_date"))
+            .findFirst()
+            .orElseThrow();
+        Object[] parameters = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+        // every parameter of these queries is a number (IDs, points in time and the limit)
+        Arrays.fill(parameters, 1L);
+        List<String> plan = jdbcTemplate.queryForList("explain " + sql, String.class, parameters);
+        String text = String.join("\n", plan).toUpperCase(Locale.ROOT);
+        assertFalse(text.contains("TABLESCAN"), text);
+        return text;
+    }
+
+    /**
+     * Records the SQL Hibernate sends, so the test explains the generated queries.
+     */
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.iste.ese.api.Assignee.Assignee;
+import de.unistuttgart.iste.ese.api.Assignee.AssigneeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of paging through the ToDos of an Assignee with the cursor of GET /assignees/{id}/todos.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:keysetPagination;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class KeysetPaginationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ToDoRepository toDoRepository;
+
+    @Autowired
+    private AssigneeRepository assigneeRepository;
+
+    @Test
+    @DisplayName("Paging returns every ToDo once, dated by due date and ID first, then the undated ones by ID")
+    void testCursorAcrossDatedAndUndatedPages() throws Exception {
+        Assignee assignee = assignee();
+        Assignee other = assignee();
+        // created out of due date order, with ties on the due date across the page boundaries
+        long undatedFirst = todo(assignee, null, false);
+        long due300 = todo(assignee, 300L, false);
+        long due200First = todo(assignee, 200L, false);
+        long due100 = todo(assignee, 100L, false);
+        long undatedFinished = todo(assignee, null, true);
+        long due200Second = todo(assignee, 200L, true);
+        long due200Third = todo(assignee, 200L, false);
+        long undatedLast = todo(assignee, null, false);
+        todo(other, 150L, false);
+        todo(other, null, false);
+
+        List<String> cursors = new ArrayList<>();
+        List<Long> all = page(assignee, 2, null, null, cursors);
+        assertEquals(List.of(due100, due200First, due200Second, due200Third, due300,
+            undatedFirst, undatedFinished, undatedLast), all);
+        // one page ends inside the due date tie, one page holds dated and undated ToDos
+        assertTrue(cursors.contains("200:" + due200First), cursors.toString());
+        assertTrue(cursors.contains("null:" + undatedFirst), cursors.toString());
+
+        // page sizes not dividing the number of ToDos
+        assertEquals(all, page(assignee, 3, null, null, new ArrayList<>()));
+        assertEquals(all, page(assignee, 500, null, null, new ArrayList<>()));
+
+        assertEquals(List.of(due100, due200First, due200Third, due300, undatedFirst, undatedLast),
+            page(assignee, 2, "finished", "false", new ArrayList<>()));
+        // a due date range excludes the undated ToDos
+        assertEquals(List.of(due200First, due200Second, due200Third, due300),
+            page(assignee, 2, "dueFrom", "200", new ArrayList<>()));
+        assertEquals(List.of(due100, due200First, due200Second, due200Third),
+            page(assignee, 1, "dueTo", "300", new ArrayList<>()));
+    }
+
+    @Test
+    @DisplayName("Malformed cursors and limits out of range are rejected")
+    void testInvalidRequests() throws Exception {
+        long assigneeId = assignee().getId();
+        String path = "/api/v1/assignees/" + assigneeId + "/todos";
+
+        for (String cursor : List.of("abc", "12", "null:x", "x:1")) {
+            assertEquals(400, perform(MockMvcRequestBuilders.get(path).param("cursor", cursor)).getStatus(), cursor);
+        }
+        assertEquals(400, perform(MockMvcRequestBuilders.get(path).param("limit", "0")).getStatus());
+        assertEquals(400, perform(MockMvcRequestBuilders.get(path).param("limit", "501")).getStatus());
+        assertEquals(404, perform(MockMvcRequestBuilders.get("/api/v1/assignees/999999/todos")).getStatus());
+    }
+
+    private List<Long> page(Assignee assignee, int limit, String filter, String value, List<String> cursors)
+        throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get("/api/v1/assignees/" + assignee.getId() + "/todos")
+                .param("limit", Integer.toString(limit));
+            if (filter != null) {
+                request.param(filter, value);
+            }
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MockHttpServletResponse response = perform(request);
+            assertEquals(200, response.getStatus(), response.getContentAsString());
+            JsonNode page = objectMapper.readTree(response.getContentAsString());
+            assertTrue(page.get("items").size() <= limit);
+            page.get("items").forEach(todo -> ids.add(todo.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            if (cursor != null) {
+                cursors.add(cursor);
+                assertEquals(limit, page.get("items").size());
+            }
+        } while (cursor != null);
+        return ids;
+    }
+
+    private Assignee assignee() {
+        return assigneeRepository.save(new Assignee("Keyset", "Page", "keyset@uni-stuttgart.de"));
+    }
+
+    private long todo(Assignee assignee, Long dueDate, boolean finished) {
+        List<Assignee> assignees = new ArrayList<>();
+        assignees.add(assignee);
+        ToDo todo = new ToDo("Page", null, finished, dueDate, assignees);
+        todo.setCreatedDate(System.currentTimeMillis());
+        todo.setCategory("work");
+        return toDoRepository.save(todo).getId();
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,99 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that repeated reads of a ToDo are served from the Hibernate second-level cache.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:secondLevelCache;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class SecondLevelCacheTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("A repeated GET by id is answered from the second-level cache without a query")
+    void testRepeatedGetHitsCache() throws Exception {
+        long id = createToDo(createAssignee());
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        sessionFactory.getCache().evictAllRegions();
+        statistics.clear();
+
+        JsonNode cold = get("/api/v1/todos/" + id);
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+        assertTrue(statistics.getSecondLevelCacheMissCount() > 0);
+        assertEquals(0, statistics.getCacheRegionStatistics("todos").getHitCount());
+
+        statistics.clear();
+        JsonNode warm = get("/api/v1/todos/" + id);
+        assertEquals(cold, warm);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getCacheRegionStatistics("todos").getHitCount());
+        assertEquals(1, statistics.getCacheRegionStatistics("todos.assigneeList").getHitCount());
+        assertEquals(1, statistics.getCacheRegionStatistics("assignees").getHitCount());
+    }
+
+    @Test
+    @DisplayName("An update replaces the cached ToDo, the next GET returns the new state")
+    void testUpdateIsNotServedStale() throws Exception {
+        long id = createToDo(createAssignee());
+        get("/api/v1/todos/" + id);
+
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.patch("/api/v1/todos/" + id)
+            .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"Updated title\"}"));
+        assertEquals(200, response.getStatus(), response.getContentAsString());
+
+        assertEquals("Updated title", get("/api/v1/todos/" + id).get("title").asText());
+    }
+
+    private long createAssignee() throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.post("/api/v1/assignees")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"Cache\",\"prename\":\"Test\",\"email\":\"cache@uni-stuttgart.de\"}"));
+        assertEquals(201, response.getStatus(), response.getContentAsString());
+        return objectMapper.readTree(response.getContentAsString()).get("id").asLong();
+    }
+
+    private long createToDo(long assigneeId) throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.post("/api/v1/todos")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"Cached\",\"dueDate\":2000000000000,\"assigneeIdList\":[" + assigneeId + "]}"));
+        assertEquals(201, response.getStatus(), response.getContentAsString());
+        return objectMapper.readTree(response.getContentAsString()).get("id").asLong();
+    }
+
+    private JsonNode get(String path) throws Exception {
+        MockHttpServletResponse response = perform(MockMvcRequestBuilders.get(path));
+        assertEquals(200, response.getStatus(), path);
+        return objectMapper.readTree(response.getContentAsString());
+    }
+
+    private MockHttpServletResponse perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
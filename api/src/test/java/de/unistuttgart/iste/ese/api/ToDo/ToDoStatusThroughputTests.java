@@ -0,0 +1,86 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class ToDoStatusThroughputTests {
+    private static final int TODOS = 200;
+
+    private static final int THREADS = 8;
+
+    private static final int TOGGLES_PER_THREAD = 25_000;
+
+    private static final double MIN_ACCEPTED_PER_SECOND = 50_000;
+
+    private static final long MAX_WRITTEN_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    @Autowired
+    private ToDoRepository toDoRepository;
+
+    @Autowired
+    private ToDoStatusWriteBehind writeBehind;
+
+    @Test
+    @DisplayName("Concurrent toggles are coalesced and the last toggle of each ToDo is written")
+    void testTogglesUnderLoad() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < TODOS; i++) {
+            ToDo todo = new ToDo("Toggle " + i, null, false, null, new ArrayList<>());
+            todo.setCreatedDate(System.currentTimeMillis());
+            todo.setCategory("work");
+            ids.add(toDoRepository.save(todo).getId());
+        }
+
+        // each thread toggles its own ToDos, so the last toggle of a ToDo is well-defined
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Map<Long, Boolean>>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            List<Long> own = ids.subList(t * TODOS / THREADS, (t + 1) * TODOS / THREADS);
+            results.add(executor.submit(() -> {
+                Map<Long, Boolean> last = new HashMap<>();
+                for (int i = 0; i < TOGGLES_PER_THREAD; i++) {
+                    Long id = own.get(ThreadLocalRandom.current().nextInt(own.size()));
+                    boolean finished = ThreadLocalRandom.current().nextBoolean();
+                    writeBehind.enqueue(id, finished);
+                    last.put(id, finished);
+                }
+                return last;
+            }));
+        }
+        Map<Long, Boolean> expected = new HashMap<>();
+        for (Future<Map<Long, Boolean>> result : results) {
+            expected.putAll(result.get());
+        }
+        long accepted = System.nanoTime();
+        writeBehind.flush();
+        long flushed = System.nanoTime();
+        executor.shutdown();
+
+        // measured about 0.2 s to accept and 2.7 s until written on one CPU, the bounds leave room for slow CI
+        double acceptedPerSecond = THREADS * TOGGLES_PER_THREAD / ((accepted - start) / 1e9);
+        assertTrue(acceptedPerSecond >= MIN_ACCEPTED_PER_SECOND,
+            "accepted " + Math.round(acceptedPerSecond) + " toggles/s");
+        assertTrue(flushed - start <= MAX_WRITTEN_NANOS,
+            "written after " + (flushed - start) / 1_000_000 + " ms");
+        for (ToDo todo : toDoRepository.findAllById(ids)) {
+            assertEquals(expected.get(todo.getId()), todo.isFinished(), "status of ToDo " + todo.getId());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ToDoStatusWriteBehindTests {
+
+    private final Map<Long, ToDo> rows = new HashMap<>();
+
+    private final List<Long> saved = new ArrayList<>();
+
+    private ToDoRepository toDoRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ToDoStatusWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 3; id++) {
+            ToDo todo = new ToDo("ToDo " + id, null, false, null, new ArrayList<>());
+            todo.setId(id);
+            rows.put(id, todo);
+        }
+        toDoRepository = mock(ToDoRepository.class);
+        when(toDoRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<ToDo> found = new ArrayList<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                if (rows.containsKey(id)) {
+                    found.add(rows.get(id));
+                }
+            }
+            return found;
+        });
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        writeBehind = new ToDoStatusWriteBehind(toDoRepository, new TransactionTemplate(transactionManager),
+            mock(ApplicationEventPublisher.class), meterRegistry, 500);
+    }
+
+    private double toggles(String result) {
+        return meterRegistry.counter("api.todos.status.toggles", "result", result).count();
+    }
+
+    @Test
+    @DisplayName("A conflicting row is skipped without failing the other rows of its batch")
+    void testConflictingRowIsSkipped() {
+        when(toDoRepository.save(any())).thenAnswer(invocation -> {
+            ToDo todo = invocation.getArgument(0);
+            if (todo.getId() == 2) {
+                throw new ObjectOptimisticLockingFailureException(ToDo.class, 2L);
+            }
+            saved.add(todo.getId());
+            return todo;
+        });
+        for (long id = 1; id <= 3; id++) {
+            writeBehind.enqueue(id, true);
+        }
+
+        writeBehind.flush();
+
+        assertTrue(saved.contains(1L) && saved.contains(3L));
+        assertFalse(writeBehind.isPending(2L));
+        assertEquals(2, toggles("written"));
+        assertEquals(1, toggles("skipped"));
+    }
+
+    @Test
+    @DisplayName("A failed toggle is retried unless a newer write discarded it while it was written")
+    void testDiscardedToggleIsNotRetried() {
+        when(toDoRepository.save(any())).thenAnswer(invocation -> {
+            ToDo todo = invocation.getArgument(0);
+            if (todo.getId() == 1) {
+                // a PUT of ToDo 1 arrives while the batch is being written
+                writeBehind.discard(1L);
+            }
+            throw new DataAccessResourceFailureException("database down");
+        });
+        writeBehind.enqueue(1L, true);
+        writeBehind.enqueue(2L, true);
+
+        writeBehind.flush();
+
+        assertFalse(writeBehind.isPending(1L));
+        assertTrue(writeBehind.isPending(2L));
+        assertEquals(0, toggles("written"));
+    }
+
+    @Test
+    @DisplayName("A toggle discarded while its batch is written is not applied")
+    void testDiscardedToggleIsNotWritten() {
+        when(toDoRepository.save(any())).thenAnswer(invocation -> {
+            ToDo todo = invocation.getArgument(0);
+            if (todo.getId() == 1) {
+                writeBehind.discard(2L);
+                writeBehind.discard(3L);
+            }
+            saved.add(todo.getId());
+            return todo;
+        });
+        for (long id = 1; id <= 3; id++) {
+            writeBehind.enqueue(id, true);
+        }
+
+        writeBehind.flush();
+
+        // the batch is written in ID order by the mock, so ToDo 1 comes first
+        assertEquals(List.of(1L), saved);
+        assertEquals(2, toggles("skipped"));
+    }
+}
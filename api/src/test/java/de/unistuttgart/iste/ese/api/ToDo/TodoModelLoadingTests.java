@@ -0,0 +1,87 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TodoModelLoadingTests {
+
+    private TodoModel model;
+
+    @AfterEach
+    void tearDown() {
+        model.shutdown();
+    }
+
+    @Test
+    @DisplayName("Predictions requested while the model is loading wait for it, readiness is reported meanwhile")
+    void testPredictionsWaitForLoading() throws Exception {
+        model = new TodoModel(new SimpleMeterRegistry(), "", TodoModel.BUNDLED, "", 10);
+        TodoModelHealthIndicator health = new TodoModelHealthIndicator(model);
+        assertFalse(model.isLoaded());
+        assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus());
+
+        CompletableFuture<String> prediction = CompletableFuture.supplyAsync(() -> model.predictClass("Buy milk"));
+        Thread.sleep(200);
+        assertFalse(prediction.isDone());
+
+        model.loadModel();
+
+        assertNotEquals("unknown", prediction.get(10, TimeUnit.SECONDS));
+        assertTrue(model.isLoaded());
+        assertTrue(model.isAvailable());
+        Health loaded = health.health();
+        assertEquals(Status.UP, loaded.getStatus());
+        assertEquals("loaded", loaded.getDetails().get("model"));
+        assertEquals(TodoModel.BUNDLED, model.getStatus().getActive().getName());
+    }
+
+    @Test
+    @DisplayName("A model failing to load makes the instance ready, ToDos are classified as unknown")
+    void testFailedLoading() {
+        model = new TodoModel(new SimpleMeterRegistry(), "", "missing", "", 10);
+
+        model.loadModel();
+
+        assertTrue(model.isLoaded());
+        assertFalse(model.isAvailable());
+        Health health = new TodoModelHealthIndicator(model).health();
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals("unavailable", health.getDetails().get("model"));
+        assertEquals("unknown", model.predictClass("Buy milk"));
+        assertEquals(List.of("unknown", "unknown"), model.predictClasses(List.of("Buy milk", "Call mom")));
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+            () -> model.classify(List.of("Buy milk")));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Unloading the model makes predictions fall back to unknown until a model is activated")
+    void testUnloadAndActivate() {
+        model = new TodoModel(new SimpleMeterRegistry(), "", TodoModel.BUNDLED, "", 10);
+        model.loadModel();
+        String category = model.predictClass("Buy milk");
+
+        model.unloadModel();
+        assertFalse(model.isAvailable());
+        assertEquals("unknown", model.predictClass("Buy milk"));
+
+        model.activate(TodoModel.BUNDLED);
+        assertEquals(category, model.predictClass("Buy milk"));
+    }
+}
@@ -0,0 +1,116 @@
+package de.unistuttgart.iste.ese.api.ToDo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of activating, shadowing and promoting models of the model directory at runtime.
+ */
+public class TodoModelSwapTests {
+    private static final List<String> TITLES = List.of("Buy milk", "Call mom", "Write report", "Book flight");
+
+    @TempDir
+    private Path directory;
+
+    private TodoModel model;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("model.pmml")) {
+            Files.copy(in, directory.resolve("candidate.pmml"));
+        }
+        Files.writeString(directory.resolve("broken.pmml"), "<PMML>not a model");
+        Files.writeString(directory.resolve("notes.txt"), "not a model either");
+        model = new TodoModel(new SimpleMeterRegistry(), directory.toString(), TodoModel.BUNDLED, "", 1000);
+        model.loadModel();
+    }
+
+    @AfterEach
+    void tearDown() {
+        model.shutdown();
+    }
+
+    @Test
+    @DisplayName("Models of the directory can be activated, a failed activation keeps the active model")
+    void testActivate() {
+        assertEquals(List.of(TodoModel.BUNDLED, "broken", "candidate"), model.getAvailableModels());
+        List<String> bundledClasses = model.predictClasses(TITLES);
+
+        ModelInfo info = model.activate("candidate");
+
+        assertEquals("candidate", info.getName());
+        assertEquals(directory.resolve("candidate.pmml").toString(), info.getSource());
+        assertEquals("candidate", model.getStatus().getActive().getName());
+        assertEquals("candidate", model.classify(TITLES).getModel());
+        // the candidate is a copy of the bundled model
+        assertEquals(bundledClasses, model.predictClasses(TITLES));
+
+        for (String name : List.of("broken", "missing", "../candidate", "notes")) {
+            assertThrows(IllegalArgumentException.class, () -> model.activate(name), name);
+            assertEquals("candidate", model.getStatus().getActive().getName());
+        }
+    }
+
+    @Test
+    @DisplayName("A shadow model classifies the titles of predictions in the background and can be promoted")
+    void testShadowAndPromote() throws Exception {
+        assertFalse(model.stopShadow());
+        assertThrows(IllegalArgumentException.class, () -> model.promoteShadow());
+        assertThrows(IllegalArgumentException.class, () -> model.startShadow("broken"));
+        assertNull(model.getStatus().getShadow());
+
+        assertEquals("candidate", model.startShadow("candidate").getName());
+        model.predictClasses(TITLES);
+        for (String title : TITLES) {
+            model.predictClass(title);
+        }
+        // batch classifications are not passed to the shadow model
+        model.classify(TITLES);
+        ModelStatus status = awaitShadowCount(2L * TITLES.size());
+        assertEquals("candidate", status.getShadow().getName());
+        assertEquals(TodoModel.BUNDLED, status.getActive().getName());
+        // identical models always agree
+        assertEquals(2L * TITLES.size(), status.getShadowAgreements());
+        assertEquals(0, status.getShadowDisagreements());
+        assertEquals(0, status.getShadowDropped());
+
+        assertEquals("candidate", model.promoteShadow().getName());
+        status = model.getStatus();
+        assertEquals("candidate", status.getActive().getName());
+        assertNull(status.getShadow());
+        assertEquals(0, status.getShadowAgreements());
+
+        model.startShadow(TodoModel.BUNDLED);
+        assertTrue(model.stopShadow());
+        assertNull(model.getStatus().getShadow());
+    }
+
+    private ModelStatus awaitShadowCount(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            ModelStatus status = model.getStatus();
+            long count = status.getShadowAgreements() + status.getShadowDisagreements();
+            if (count >= expected || System.currentTimeMillis() > deadline) {
+                // give a wrongly submitted batch classification the chance to show up
+                Thread.sleep(100);
+                return model.getStatus();
+            }
+            Thread.sleep(10);
+        }
+    }
+}